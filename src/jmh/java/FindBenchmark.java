@@ -0,0 +1,109 @@
+import kappa.elements.Storage;
+import kappa.elements.TagQuery;
+import kappa.elements.Tags;
+import kappa.elements.TaskList;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for a substring search over a large synthetic list, through the trigram index and as a linear scan,
+ * and for a tag query through the tag bitmaps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FindBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final String[] WORDS = {"read", "write", "submit", "review", "report", "chapter", "meeting",
+        "lecture", "tutorial", "project", "budget", "slides", "email", "groceries", "laundry", "dentist"};
+
+    @Param({"eport 12", "ntist", "budget slides"})
+    private String term;
+
+    private static final String[] TAGS = {"work", "school", "urgent", "later", "home"};
+
+    private TaskList tasks;
+    private List<Task> list;
+    private TagQuery tagQuery;
+
+    /**
+     * Builds a list of tasks with descriptions made of random words and a number, and two random tags each.
+     *
+     * @throws IOException Throws if the temporary directory cannot be created.
+     * @throws KappaException Throws if the tag query cannot be parsed.
+     */
+    @Setup
+    public void buildTaskList() throws IOException, KappaException {
+        Random random = new Random(42);
+        ArrayList<Task> taskList = new ArrayList<>(TASKS);
+        for (int i = 1; i <= TASKS; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            Tags tags = new Tags(Arrays.asList(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)]));
+            taskList.add(new ToDo(description, i, tags));
+        }
+        Storage storage = new Storage(Files.createTempDirectory("kappa-benchmark").resolve("store.txt").toString());
+        this.tasks = new TaskList(taskList, storage);
+        this.list = this.tasks.getList();
+        this.tagQuery = TagQuery.parse("#work|#school #urgent -#later");
+    }
+
+    /**
+     * Finds the term through the trigram index.
+     *
+     * @return Number of matching tasks, so the search is not optimised away.
+     */
+    @Benchmark
+    public int findIndexed() {
+        return this.tasks.findSubstring(this.term).size();
+    }
+
+    /**
+     * Finds the tasks which match a tag query through the tag bitmaps.
+     *
+     * @return Number of matching tasks, so the search is not optimised away.
+     */
+    @Benchmark
+    public int findTags() {
+        return this.tasks.findTags(this.tagQuery).size();
+    }
+
+    /**
+     * Finds the term by checking every task, as find did before the index.
+     *
+     * @return Number of matching tasks, so the search is not optimised away.
+     */
+    @Benchmark
+    public int findScan() {
+        int found = 0;
+        for (Task task : this.list) {
+            if (task.getDescription().contains(this.term)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,91 @@
+import kappa.elements.Storage;
+import kappa.elements.Tags;
+import kappa.elements.TaskList;
+
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for a fuzzy search over a vocabulary of 100,000 distinct words made of random letters, which share
+ * prefixes far less than real words do and so are close to the worst case for the trie.
+ * Every search is for a random word of the vocabulary with two letters next to each other swapped, which is two edits
+ * away from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuzzyFindBenchmark {
+
+    private static final int WORDS = 100_000;
+    private static final int QUERIES = 1024;
+
+    @Param({"1", "2"})
+    private int maxDistance;
+
+    private TaskList tasks;
+    private String[] queries;
+    private int next;
+
+    /**
+     * Builds a list with a task for every word of the vocabulary, and the misspelt words to search for.
+     *
+     * @throws IOException Throws if the temporary directory cannot be created.
+     */
+    @Setup
+    public void buildTaskList() throws IOException {
+        Random random = new Random(42);
+        Set<String> vocabulary = new HashSet<>();
+        ArrayList<Task> taskList = new ArrayList<>(WORDS);
+        while (vocabulary.size() < WORDS) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 4 + random.nextInt(8); i > 0; i--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            if (vocabulary.add(word.toString())) {
+                taskList.add(new ToDo(word.toString(), vocabulary.size(), new Tags()));
+            }
+        }
+        Storage storage = new Storage(Files.createTempDirectory("kappa-benchmark").resolve("store.txt").toString());
+        this.tasks = new TaskList(taskList, storage);
+        this.queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            char[] letters = taskList.get(random.nextInt(WORDS)).getDescription().toCharArray();
+            int swap = random.nextInt(letters.length - 1);
+            char swapped = letters[swap];
+            letters[swap] = letters[swap + 1];
+            letters[swap + 1] = swapped;
+            this.queries[i] = new String(letters);
+        }
+        this.tasks.findFuzzy(this.queries[0], this.maxDistance);
+    }
+
+    /**
+     * Finds the tasks with a word close to the next misspelt word.
+     *
+     * @return Number of matching tasks, so the search is not optimised away.
+     */
+    @Benchmark
+    public int findFuzzy() {
+        this.next = (this.next + 1) % QUERIES;
+        return this.tasks.findFuzzy(this.queries[this.next], this.maxDistance).size();
+    }
+}
@@ -0,0 +1,117 @@
+import kappa.elements.Query;
+import kappa.elements.Storage;
+import kappa.elements.Tags;
+import kappa.elements.TaskList;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for scans which no index can help with over a list of 1,000,000 tasks, run on fork/join pools of
+ * different sizes to show how throughput scales with the number of cores.
+ * A term of two characters is too short for the trigram index, and a query of only a negation and such a term has
+ * nothing to look up, so both read every task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelScanBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final String[] WORDS = {"read", "write", "submit", "review", "report", "chapter", "meeting",
+        "lecture", "tutorial", "project", "budget", "slides", "email", "groceries", "laundry", "dentist"};
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private TaskList tasks;
+    private Query query;
+    private ForkJoinPool pool;
+
+    /**
+     * Builds a list of tasks with descriptions made of random words and a number, and a pool of the given size.
+     *
+     * @throws IOException Throws if the temporary directory cannot be created.
+     * @throws KappaException Throws if the query cannot be parsed.
+     */
+    @Setup
+    public void buildTaskList() throws IOException, KappaException {
+        Random random = new Random(42);
+        ArrayList<Task> taskList = new ArrayList<>(TASKS);
+        for (int i = 1; i <= TASKS; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            taskList.add(new ToDo(description, i, new Tags()));
+        }
+        Storage storage = new Storage(Files.createTempDirectory("kappa-benchmark").resolve("store.txt").toString());
+        this.tasks = new TaskList(taskList, storage);
+        this.query = Query.parse("NOT done AND \"ng\"");
+        this.pool = new ForkJoinPool(this.threads);
+    }
+
+    /**
+     * Stops the threads of the pool.
+     */
+    @TearDown
+    public void shutDownPool() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Finds a term too short for the trigram index by checking every task.
+     *
+     * @return Number of matching tasks, so the scan is not optimised away.
+     * @throws ExecutionException Throws if the scan fails.
+     * @throws InterruptedException Throws if the scan is interrupted.
+     */
+    @Benchmark
+    public int findShortTerm() throws ExecutionException, InterruptedException {
+        return this.pool.submit(() -> this.tasks.findSubstring("ng")).get().size();
+    }
+
+    /**
+     * Runs a query with no condition an index can answer, checking every task against every condition.
+     *
+     * @return Number of matching tasks, so the scan is not optimised away.
+     * @throws ExecutionException Throws if the scan fails.
+     * @throws InterruptedException Throws if the scan is interrupted.
+     */
+    @Benchmark
+    public int queryWithoutIndex() throws ExecutionException, InterruptedException {
+        return this.pool.submit(() -> this.tasks.runQuery(this.tasks.planQuery(this.query))).get().size();
+    }
+
+    /**
+     * Copies out every task in order.
+     *
+     * @return Number of tasks, so the copy is not optimised away.
+     * @throws ExecutionException Throws if the copy fails.
+     * @throws InterruptedException Throws if the copy is interrupted.
+     */
+    @Benchmark
+    public int getList() throws ExecutionException, InterruptedException {
+        return this.pool.submit(() -> this.tasks.getList()).get().size();
+    }
+}
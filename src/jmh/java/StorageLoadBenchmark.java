@@ -0,0 +1,126 @@
+import kappa.elements.Storage;
+import kappa.elements.StorageFormat;
+import kappa.elements.TaskList;
+
+import kappa.exception.KappaException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for loading a large storage file, as text and as binary, reported in lines per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StorageLoadBenchmark {
+
+    private static final int LINES = 1_000_000;
+
+    private String filePath;
+    private String binaryFilePath;
+
+    /**
+     * Writes a storage file with a mix of tasks, some done and some tagged, and a binary copy of it.
+     *
+     * @throws IOException Throws if the file cannot be written.
+     * @throws KappaException Throws if the binary copy cannot be made.
+     * @throws InterruptedException Throws if interrupted while waiting for the binary copy.
+     */
+    @Setup
+    public void writeStorageFiles() throws IOException, KappaException, InterruptedException {
+        Path file = Files.createTempDirectory("kappa-benchmark").resolve("store.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 1; i <= LINES; i++) {
+                String status = i % 3 == 0 ? "Done" : "X";
+                switch (i % 3) {
+                case 0:
+                    writer.write(i + " ~ ToDo ~ " + status + " ~ read chapter " + i + " ~ None");
+                    break;
+                case 1:
+                    writer.write(i + " ~ Deadline ~ " + status + " ~ submit report " + i
+                            + " ~ 2nd of January 2020, 12.54pm ~ #work #urgent");
+                    break;
+                default:
+                    writer.write(i + " ~ Event ~ " + status + " ~ team meeting " + i + " ~ Friday ~ #work");
+                }
+                writer.newLine();
+            }
+        }
+        this.filePath = file.toString();
+        this.binaryFilePath = writeBinaryStorageFile(file);
+    }
+
+    /**
+     * Converts a copy of the storage file to the binary format.
+     *
+     * @param textFile Storage file to copy.
+     * @return Path of the binary copy.
+     * @throws IOException Throws if the file cannot be copied.
+     * @throws KappaException Throws if the copy cannot be loaded.
+     * @throws InterruptedException Throws if interrupted while waiting for the conversion.
+     */
+    private String writeBinaryStorageFile(Path textFile) throws IOException, KappaException, InterruptedException {
+        Path file = Files.createTempDirectory("kappa-benchmark").resolve("store.txt");
+        Files.copy(textFile, file);
+        Storage storage = new Storage(file.toString());
+        new TaskList(storage.load(), storage).compact(StorageFormat.BINARY);
+        while (Files.readAllBytes(file)[0] != 'K') {
+            Thread.sleep(100);
+        }
+        return file.toString();
+    }
+
+    /**
+     * Loads the whole storage file one line at a time.
+     *
+     * @return Number of tasks loaded, so the load is not optimised away.
+     * @throws KappaException Throws if the file cannot be loaded.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    @Fork(jvmArgsAppend = "-Dkappa.load.parallelThresholdBytes=" + Long.MAX_VALUE)
+    public int loadSequential() throws KappaException {
+        return new Storage(this.filePath).load().size();
+    }
+
+    /**
+     * Loads the whole storage file in parallel ranges.
+     *
+     * @return Number of tasks loaded, so the load is not optimised away.
+     * @throws KappaException Throws if the file cannot be loaded.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    @Fork(jvmArgsAppend = "-Dkappa.load.parallelThresholdBytes=0")
+    public int loadParallel() throws KappaException {
+        return new Storage(this.filePath).load().size();
+    }
+
+    /**
+     * Loads the whole storage file after it has been converted to the binary format.
+     *
+     * @return Number of tasks loaded, so the load is not optimised away.
+     * @throws KappaException Throws if the file cannot be loaded.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int loadBinary() throws KappaException {
+        return new Storage(this.binaryFilePath).load().size();
+    }
+}
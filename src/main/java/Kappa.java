@@ -10,6 +10,7 @@ import kappa.command.Command;
 import kappa.command.CommandType;
 
 import kappa.elements.Parser;
+import kappa.elements.ReminderListener;
 import kappa.elements.Storage;
 import kappa.elements.TaskList;
 import kappa.elements.Ui;
@@ -17,6 +18,8 @@ import kappa.elements.Ui;
 import kappa.exception.InOutWentWrongException;
 import kappa.exception.KappaException;
 
+import kappa.task.Task;
+
 import java.io.IOException;
 
 import java.nio.file.Files;
@@ -102,6 +105,25 @@ public class Kappa {
         }
     }
 
+    /**
+     * Generates the reminder of a deadline or event.
+     *
+     * @param task Task whose reminder has come.
+     * @return String containing Kappa's formatted reminder.
+     */
+    String getReminderMessage(Task task) {
+        return this.ui.printReminder(task);
+    }
+
+    /**
+     * Starts reminding the user of deadlines and events as they come up.
+     *
+     * @param listener Listener which shows reminders to the user.
+     */
+    void startReminders(ReminderListener listener) {
+        this.taskList.getReminders().start(listener);
+    }
+
     /**
      * Runs the logic of the application. It takes in user input
      * and parses the command before determining what type of command and execute
@@ -109,6 +131,7 @@ public class Kappa {
      */
     private void run() throws KappaException {
         Ui.showWelcomeMessage();
+        startReminders(this.ui::printReminder);
         while (true) {
             String fullCommand = ui.readCommand();
             Command command = Parser.parse(fullCommand);
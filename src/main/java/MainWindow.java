@@ -51,6 +51,10 @@ public class MainWindow extends AnchorPane {
 
     void setDuke(Kappa d) {
         kappa = d;
+        kappa.startReminders((task) -> {
+            String reminder = kappa.getReminderMessage(task);
+            Platform.runLater(() -> dialogContainer.getChildren().add(DialogBox.getKappaDialog(reminder, kappaImage)));
+        });
     }
 
     /**
@@ -16,6 +16,7 @@ public class AddDeadlineCommand extends Command {
 
     private String task;
     private String date;
+    private long epochMinute;
     private Tags tags;
 
     /**
@@ -29,6 +30,7 @@ public class AddDeadlineCommand extends Command {
         this.commandType = CommandType.ADDDEADLINE;
         this.task = task;
         this.date = date;
+        this.epochMinute = DateTime.toEpochMinute(date);
         this.tags = tags;
     }
 
@@ -44,6 +46,7 @@ public class AddDeadlineCommand extends Command {
         this.commandType = CommandType.ADDDEADLINE;
         this.task = task;
         this.date = date.convertToString();
+        this.epochMinute = date.getEpochMinute();
         this.tags = tags;
     }
 
@@ -74,6 +77,15 @@ public class AddDeadlineCommand extends Command {
         return this.date;
     }
 
+    /**
+     * Gets date in minutes since the epoch.
+     *
+     * @return Epoch minute of the date, or {@link DateTime#NO_DATE} if it doesn't fit the DD/MM/YYYY HHMM format.
+     */
+    public long getEpochMinute() {
+        return this.epochMinute;
+    }
+
     /**
      * Executes the command by adding deadline task to list and print to user.
      *
@@ -84,7 +96,7 @@ public class AddDeadlineCommand extends Command {
      */
     @Override
     public String execute(TaskList tasks, Ui ui) throws KappaException {
-        Deadline deadlineTask = new Deadline(this.task, tasks.getSize() + 1, this.date, this.tags);
+        Deadline deadlineTask = new Deadline(this.task, tasks.getNextId(), this.date, this.epochMinute, this.tags);
         tasks.addToList(deadlineTask);
         return ui.printAddDeadlineCommand(deadlineTask, tasks);
     }
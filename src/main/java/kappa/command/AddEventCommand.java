@@ -8,14 +8,19 @@ import kappa.elements.TaskList;
 import kappa.exception.KappaException;
 
 import kappa.task.Event;
+import kappa.task.Task;
+
+import java.util.ArrayList;
 
 /**
- * Represents a command which adds an event into storage and task list.
+ * Represents a command which adds an event into storage and task list, and warns about events it clashes with.
  */
 public class AddEventCommand extends Command {
 
     private String task;
     private String date;
+    private long epochMinute;
+    private long endMinute;
     private Tags tags;
 
     /**
@@ -29,6 +34,8 @@ public class AddEventCommand extends Command {
         this.commandType = CommandType.ADDEVENT;
         this.task = task;
         this.date = date;
+        this.epochMinute = DateTime.toEpochMinute(date);
+        this.endMinute = this.epochMinute;
         this.tags = tags;
     }
 
@@ -41,9 +48,24 @@ public class AddEventCommand extends Command {
      * @throws KappaException Throws invalid date exception of DD/MM/YYYY HHMM format.
      */
     public AddEventCommand(String task, DateTime date, Tags tags) throws KappaException {
+        this(task, date, date.getEpochMinute(), tags);
+    }
+
+    /**
+     * Constructor (date fits into DD/MM/YYYY HHMM format, with an end).
+     *
+     * @param task Event description.
+     * @param date Date description.
+     * @param endMinute End in minutes since the epoch, which is the same as the date if the event has no end.
+     * @param tags Tags.
+     * @throws KappaException Throws invalid date exception of DD/MM/YYYY HHMM format.
+     */
+    public AddEventCommand(String task, DateTime date, long endMinute, Tags tags) throws KappaException {
         this.commandType = CommandType.ADDEVENT;
         this.task = task;
         this.date = date.convertToString();
+        this.epochMinute = date.getEpochMinute();
+        this.endMinute = endMinute;
         this.tags = tags;
     }
 
@@ -74,6 +96,24 @@ public class AddEventCommand extends Command {
         return this.date;
     }
 
+    /**
+     * Gets date in minutes since the epoch.
+     *
+     * @return Epoch minute of the date, or {@link DateTime#NO_DATE} if it doesn't fit the DD/MM/YYYY HHMM format.
+     */
+    public long getEpochMinute() {
+        return this.epochMinute;
+    }
+
+    /**
+     * Gets end in minutes since the epoch.
+     *
+     * @return Epoch minute of the end, which is the same as the date if the event has no end.
+     */
+    public long getEndMinute() {
+        return this.endMinute;
+    }
+
     /**
      * Executes the command by adding event task to list and print to user.
      *
@@ -84,8 +124,10 @@ public class AddEventCommand extends Command {
      */
     @Override
     public String execute(TaskList tasks, Ui ui) throws KappaException {
-        Event eventTask = new Event(this.task, tasks.getSize() + 1, this.date, this.tags);
+        Event eventTask = new Event(this.task, tasks.getNextId(), this.date, this.epochMinute, this.endMinute,
+                this.tags);
         tasks.addToList(eventTask);
-        return ui.printAddEventCommand(eventTask, tasks);
+        ArrayList<Task> clashes = tasks.findClashes(eventTask);
+        return ui.printAddEventCommand(eventTask, tasks, clashes);
     }
 }
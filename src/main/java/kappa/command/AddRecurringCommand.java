@@ -0,0 +1,102 @@
+package kappa.command;
+
+import kappa.elements.DateTime;
+import kappa.elements.Recurrence;
+import kappa.elements.Tags;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Recurring;
+
+/**
+ * Represents a command which adds a recurring task into storage and task list.
+ */
+public class AddRecurringCommand extends Command {
+
+    private String task;
+    private Recurrence recurrence;
+    private long start;
+    private long until;
+    private Tags tags;
+
+    /**
+     * Constructor for AddRecurringCommand.
+     *
+     * @param task Recurring task description.
+     * @param recurrence How often the task repeats.
+     * @param start Epoch minute of the first occurrence.
+     * @param until Epoch minute of the last day an occurrence may fall on, or {@link DateTime#NO_DATE}.
+     * @param tags Tags.
+     */
+    public AddRecurringCommand(String task, Recurrence recurrence, long start, long until, Tags tags) {
+        this.commandType = CommandType.ADDRECURRING;
+        this.task = task;
+        this.recurrence = recurrence;
+        this.start = start;
+        this.until = until;
+        this.tags = tags;
+    }
+
+    /**
+     * Gets task.
+     *
+     * @return Task.
+     */
+    public String getTask() {
+        return this.task;
+    }
+
+    /**
+     * Gets how often the task repeats.
+     *
+     * @return Recurrence rule.
+     */
+    public Recurrence getRecurrence() {
+        return this.recurrence;
+    }
+
+    /**
+     * Gets the epoch minute of the first occurrence.
+     *
+     * @return Epoch minute of the first occurrence.
+     */
+    public long getStart() {
+        return this.start;
+    }
+
+    /**
+     * Gets the last epoch minute an occurrence may fall on.
+     *
+     * @return Epoch minute of the end, or {@link DateTime#NO_DATE} if the task repeats forever.
+     */
+    public long getUntil() {
+        return this.until;
+    }
+
+    /**
+     * Gets tags.
+     *
+     * @return Tags.
+     */
+    public Tags getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Executes the command by adding recurring task to list and print to user.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException For error in adding to TaskList.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        Recurring recurringTask = new Recurring(this.task, tasks.getNextId(), this.recurrence, this.start,
+                this.until, this.tags);
+        tasks.addToList(recurringTask);
+        return ui.printAddRecurringCommand(recurringTask, tasks);
+    }
+}
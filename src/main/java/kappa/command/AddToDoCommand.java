@@ -57,7 +57,7 @@ public class AddToDoCommand extends Command {
      */
     @Override
     public String execute(TaskList tasks, Ui ui) throws KappaException {
-        ToDo toDoTask = new ToDo(this.task, tasks.getSize() + 1, this.tags);
+        ToDo toDoTask = new ToDo(this.task, tasks.getNextId(), this.tags);
         tasks.addToList(toDoTask);
         return ui.printAddToDoCommand(toDoTask, tasks);
     }
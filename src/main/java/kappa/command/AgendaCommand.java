@@ -0,0 +1,58 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+/**
+ * Command that lists everything on in a day or week, earliest first.
+ */
+public class AgendaCommand extends Command {
+
+    private long from;
+    private long to;
+
+    /**
+     * Constructor for AgendaCommand.
+     *
+     * @param from Earliest epoch minute, included.
+     * @param to Latest epoch minute, included.
+     */
+    public AgendaCommand(long from, long to) {
+        this.commandType = CommandType.AGENDA;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Gets the earliest epoch minute of the range.
+     *
+     * @return Earliest epoch minute.
+     */
+    public long getFrom() {
+        return this.from;
+    }
+
+    /**
+     * Gets the latest epoch minute of the range.
+     *
+     * @return Latest epoch minute.
+     */
+    public long getTo() {
+        return this.to;
+    }
+
+    /**
+     * Executes by looking the range up in the date index and interval tree and printing what is on to user interface.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Never, as an empty agenda is shown as a message.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        return ui.printAgendaCommand(tasks.findAgenda(this.from, this.to), tasks);
+    }
+}
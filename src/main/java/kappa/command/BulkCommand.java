@@ -0,0 +1,88 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+
+import kappa.exception.CannotBeFoundException;
+import kappa.exception.KappaException;
+import kappa.exception.TaskNotFoundException;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Abstract command which acts on many tasks at once, picked either by ranges of indexes or by a search term.
+ * Tasks are picked before any of them is changed, so removing tasks does not shift the indexes still to be read.
+ */
+public abstract class BulkCommand extends Command {
+
+    private List<int[]> ranges;
+    private String term;
+
+    /**
+     * Constructor for a command over ranges of indexes.
+     *
+     * @param ranges First and last index of every range, which may overlap.
+     */
+    BulkCommand(List<int[]> ranges) {
+        this.ranges = ranges;
+    }
+
+    /**
+     * Constructor for a command over every task with a term in its description.
+     *
+     * @param term Term to be searched.
+     */
+    BulkCommand(String term) {
+        this.term = term;
+    }
+
+    /**
+     * Gets the ranges of indexes.
+     *
+     * @return First and last index of every range, or null if tasks are picked by a search term.
+     */
+    public List<int[]> getRanges() {
+        return this.ranges;
+    }
+
+    /**
+     * Gets the search term.
+     *
+     * @return Term, or null if tasks are picked by ranges of indexes.
+     */
+    public String getTerm() {
+        return this.term;
+    }
+
+    /**
+     * Picks the tasks this command acts on, in list order and without repeats.
+     *
+     * @param tasks List containing current tasks.
+     * @return Tasks picked.
+     * @throws KappaException Throws if an index is not in the list or no task has the search term.
+     */
+    List<Task> selectTasks(TaskList tasks) throws KappaException {
+        List<Task> selected = new ArrayList<>();
+        if (this.term != null) {
+            selected.addAll(tasks.findSubstring(this.term));
+            if (selected.isEmpty()) {
+                throw new CannotBeFoundException(this.term);
+            }
+            return selected;
+        }
+        BitSet indexes = new BitSet();
+        for (int[] range : this.ranges) {
+            if (range[1] > tasks.getSize()) {
+                throw new TaskNotFoundException("Task " + range[1]);
+            }
+            indexes.set(range[0], range[1] + 1);
+        }
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            selected.add(tasks.getTaskByIndex(i));
+        }
+        return selected;
+    }
+}
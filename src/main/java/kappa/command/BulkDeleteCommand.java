@@ -0,0 +1,51 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+
+import java.util.List;
+
+/**
+ * Command which deletes many tasks in a single batch.
+ */
+public class BulkDeleteCommand extends BulkCommand {
+
+    /**
+     * Constructor for a bulk delete command over ranges of indexes.
+     *
+     * @param ranges First and last index of every range.
+     */
+    public BulkDeleteCommand(List<int[]> ranges) {
+        super(ranges);
+        this.commandType = CommandType.BULKDELETE;
+    }
+
+    /**
+     * Constructor for a bulk delete command over every task with a term in its description.
+     *
+     * @param term Term to be searched.
+     */
+    public BulkDeleteCommand(String term) {
+        super(term);
+        this.commandType = CommandType.BULKDELETE;
+    }
+
+    /**
+     * Executes by deleting every picked task and prints a summary to the user.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException For tasks that cannot be found.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        List<Task> selected = selectTasks(tasks);
+        tasks.removeAllFromList(selected);
+        return ui.printBulkDeleteCommand(selected.size(), tasks);
+    }
+}
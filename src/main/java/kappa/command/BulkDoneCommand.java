@@ -0,0 +1,58 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command which marks many tasks as done in a single batch.
+ */
+public class BulkDoneCommand extends BulkCommand {
+
+    /**
+     * Constructor for a bulk done command over ranges of indexes.
+     *
+     * @param ranges First and last index of every range.
+     */
+    public BulkDoneCommand(List<int[]> ranges) {
+        super(ranges);
+        this.commandType = CommandType.BULKDONE;
+    }
+
+    /**
+     * Constructor for a bulk done command over every task with a term in its description.
+     *
+     * @param term Term to be searched.
+     */
+    public BulkDoneCommand(String term) {
+        super(term);
+        this.commandType = CommandType.BULKDONE;
+    }
+
+    /**
+     * Executes by marking every picked task which is not done yet as done, and prints a summary to the user.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException For tasks that cannot be found.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        List<Task> selected = selectTasks(tasks);
+        List<Task> toMark = new ArrayList<>();
+        for (Task task : selected) {
+            if (!task.getIsDone()) {
+                toMark.add(task);
+            }
+        }
+        tasks.setAllDoneInList(toMark);
+        return ui.printBulkDoneCommand(toMark.size(), selected.size() - toMark.size());
+    }
+}
@@ -4,5 +4,7 @@ package kappa.command;
  * Represents the different command types.
  */
 public enum CommandType {
-    ADDTODO, ADDEVENT, ADDDEADLINE, EXIT, DELETE, LIST, DONE, NULL, HELP, CLEAR, FIND
+    ADDTODO, ADDEVENT, ADDDEADLINE, EXIT, DELETE, LIST, DONE, NULL, HELP, CLEAR, FIND, COMPACT, SYNC,
+    BULKDONE, BULKDELETE, STATS, FINDTAG, DUE, OVERDUE, REMIND, ADDRECURRING, AGENDA, CONFLICTS, FINDFUZZY, FINDRANKED,
+    QUERY, EXPLAIN, MORE
 }
@@ -0,0 +1,54 @@
+package kappa.command;
+
+import kappa.elements.StorageFormat;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+/**
+ * Command that folds the storage journal into a fresh snapshot in the background, optionally converting its format.
+ */
+public class CompactCommand extends Command {
+
+    private StorageFormat format;
+
+    /**
+     * Constructor for Compact Command which keeps the current storage format.
+     */
+    public CompactCommand() {
+        this.commandType = CommandType.COMPACT;
+    }
+
+    /**
+     * Constructor for Compact Command which converts storage to a format.
+     *
+     * @param format Format to convert storage to.
+     */
+    public CompactCommand(StorageFormat format) {
+        this.commandType = CommandType.COMPACT;
+        this.format = format;
+    }
+
+    /**
+     * Gets the format storage is converted to.
+     *
+     * @return Format, or null if the current format is kept.
+     */
+    public StorageFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Executes command by starting a compaction and printing whether it was started to the user.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        if (this.format == null) {
+            return ui.printCompactCommand(tasks.compact());
+        }
+        return ui.printCompactCommand(tasks.compact(this.format));
+    }
+}
@@ -0,0 +1,32 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+/**
+ * Command that lists every pair of events which are not done and overlap each other.
+ */
+public class ConflictsCommand extends Command {
+
+    /**
+     * Constructor for ConflictsCommand.
+     */
+    public ConflictsCommand() {
+        this.commandType = CommandType.CONFLICTS;
+    }
+
+    /**
+     * Executes by sweeping over the events in the interval tree and printing the pairs which overlap.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Never, as having no conflicts is shown as a message.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        return ui.printConflictsCommand(tasks.findConflicts(), tasks);
+    }
+}
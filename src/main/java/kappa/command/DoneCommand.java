@@ -1,5 +1,6 @@
 package kappa.command;
 
+import kappa.elements.DateTime;
 import kappa.elements.TaskList;
 import kappa.elements.Ui;
 
@@ -8,6 +9,7 @@ import kappa.exception.TaskAlreadyDoneException;
 import kappa.exception.TaskNotFoundException;
 
 import kappa.task.Task;
+import kappa.task.TaskType;
 
 /**
  * Command which represents a done action on a particular task.
@@ -28,6 +30,7 @@ public class DoneCommand extends Command {
 
     /**
      * Executes by marking a particular task as done and prints to the user.
+     * A recurring task has its next occurrence from today marked instead.
      *
      * @param tasks List containing current tasks.
      * @param ui User interface.
@@ -44,6 +47,9 @@ public class DoneCommand extends Command {
         if (tasks.getTaskByIndex(this.index).getIsDone()) {
             throw new TaskAlreadyDoneException("Task " + this.index);
         }
+        if (tasks.getTaskByIndex(this.index).getType() == TaskType.RECURRING) {
+            return ui.printDoneCommand(tasks.completeOccurrence(this.index, DateTime.now().getEpochMinute()));
+        }
         tasks.setDoneInList(this.index);
         Task task = tasks.getTaskByIndex(this.index);
         return ui.printDoneCommand(task);
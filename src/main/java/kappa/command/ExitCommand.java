@@ -3,6 +3,8 @@ package kappa.command;
 import kappa.elements.TaskList;
 import kappa.elements.Ui;
 
+import kappa.exception.KappaException;
+
 /**
  * A command which represents exiting the Slave program.
  */
@@ -16,14 +18,16 @@ public class ExitCommand extends Command {
     }
 
     /**
-     * Executes by showing the goodbye message.
+     * Executes by saving all changes to disk and showing the goodbye message.
      *
      * @param tasks List containing current tasks.
      * @param ui User interface.
+     * @throws KappaException If the changes cannot be saved.
      * @return String containing Kappa's formatted dialog.
      */
     @Override
-    public String execute(TaskList tasks, Ui ui) {
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        tasks.sync();
         return ui.showByeMessage();
     }
 
@@ -0,0 +1,50 @@
+package kappa.command;
+
+import kappa.elements.Query;
+import kappa.elements.QueryPlan;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+/**
+ * Command that shows how a query is run, and how many tasks each step of it gives.
+ */
+public class ExplainCommand extends Command {
+
+    private Query query;
+
+    /**
+     * Constructor for ExplainCommand.
+     *
+     * @param query Query to explain.
+     */
+    public ExplainCommand(Query query) {
+        this.commandType = CommandType.EXPLAIN;
+        this.query = query;
+    }
+
+    /**
+     * Gets the query.
+     *
+     * @return Query.
+     */
+    public Query getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Executes by planning and running the query, then printing the plan with the count of every step to user
+     * interface instead of the matching tasks.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Never, as a query which matches nothing is still explained.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        QueryPlan plan = tasks.planQuery(this.query);
+        return ui.printExplainCommand(plan, tasks.runQuery(plan).size());
+    }
+}
@@ -15,21 +15,64 @@ import java.util.ArrayList;
  */
 public class FindCommand extends Command {
 
+    /**
+     * Number of matches above which only the most relevant are shown.
+     */
+    public static final int RANKED_THRESHOLD = Integer.getInteger("kappa.find.rankedThreshold", 50);
+
+    /**
+     * Number of the most relevant matches shown at a time when there are too many.
+     */
+    public static final int TOP_MATCHES = Integer.getInteger("kappa.find.topMatches", 20);
+
     private String term;
+    private boolean isWordSearch;
 
     /**
-     * Constructor for FindCommand.
+     * Constructor for FindCommand which searches descriptions for the term as a substring.
      *
      * @param term Term to be searched.
      */
     public FindCommand(String term) {
+        this(term, false);
+    }
+
+    /**
+     * Constructor for FindCommand.
+     *
+     * @param term Term to be searched.
+     * @param isWordSearch Whether to look every word of the term up in the word index instead of scanning for it.
+     */
+    public FindCommand(String term, boolean isWordSearch) {
         this.commandType = CommandType.FIND;
         this.term = term;
+        this.isWordSearch = isWordSearch;
+    }
+
+    /**
+     * Gets the term to be searched.
+     *
+     * @return Term.
+     */
+    public String getTerm() {
+        return this.term;
+    }
+
+    /**
+     * Checks if the term is looked up word by word in the word index.
+     *
+     * @return True for a word search, false for a substring search.
+     */
+    public boolean getIsWordSearch() {
+        return this.isWordSearch;
     }
 
     /**
      * Executes by searching for task with the user input term,
      * storing into a temp ArrayList and then printing it to user interface.
+     * A word search finds tasks with every word of the term, and otherwise the term is matched as a substring.
+     * If more than {@code RANKED_THRESHOLD} tasks match, only the {@code TOP_MATCHES} most relevant are printed, and
+     * {@code more} ranks the matches again to print the next ones in the same order.
      *
      * @param tasks List containing current tasks.
      * @param ui User interface.
@@ -38,16 +81,19 @@ public class FindCommand extends Command {
      */
     @Override
     public String execute(TaskList tasks, Ui ui) throws KappaException {
-        ArrayList<Task> findList = new ArrayList<>();
-        for (Task task: tasks.getList()) {
-            if (task.getDescription().contains(this.term)) {
-                findList.add(task);
-            }
+        ArrayList<Task> findList;
+        if (this.isWordSearch) {
+            findList = tasks.findWords(this.term);
+        } else {
+            findList = tasks.findSubstring(this.term);
         }
         if (findList.size() == 0) {
             throw new CannotBeFoundException(this.term);
         }
-        return ui.printFindCommand(findList);
+        if (findList.size() > RANKED_THRESHOLD) {
+            return ui.printTopMatches(findList, this.term, TOP_MATCHES, tasks);
+        }
+        return ui.printFindCommand(findList, tasks);
     }
 
 }
@@ -0,0 +1,56 @@
+package kappa.command;
+
+import kappa.elements.TagQuery;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.CannotBeFoundException;
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+
+/**
+ * Command that finds tasks by their tags.
+ */
+public class FindTagCommand extends Command {
+
+    private TagQuery query;
+
+    /**
+     * Constructor for FindTagCommand.
+     *
+     * @param query Tag query to be searched.
+     */
+    public FindTagCommand(TagQuery query) {
+        this.commandType = CommandType.FINDTAG;
+        this.query = query;
+    }
+
+    /**
+     * Gets the tag query.
+     *
+     * @return Tag query.
+     */
+    public TagQuery getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Executes by looking the query up in the tag index and printing the matching tasks to user interface.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Throws if no task matches the query.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        ArrayList<Task> findList = tasks.findTags(this.query);
+        if (findList.isEmpty()) {
+            throw new CannotBeFoundException(this.query.toString());
+        }
+        return ui.printFindCommand(findList, tasks);
+    }
+}
@@ -0,0 +1,73 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.CannotBeFoundException;
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+
+/**
+ * Command that finds tasks with words close to the words searched for, so typos still find them.
+ */
+public class FuzzyFindCommand extends Command {
+
+    /**
+     * Distance which allows more typos the longer a word is.
+     */
+    public static final int AUTO_DISTANCE = -1;
+
+    private String term;
+    private int maxDistance;
+
+    /**
+     * Constructor for FuzzyFindCommand.
+     *
+     * @param term Words to be searched.
+     * @param maxDistance Largest number of typos in each word, or {@code AUTO_DISTANCE}.
+     */
+    public FuzzyFindCommand(String term, int maxDistance) {
+        this.commandType = CommandType.FINDFUZZY;
+        this.term = term;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Gets the words to be searched.
+     *
+     * @return Term.
+     */
+    public String getTerm() {
+        return this.term;
+    }
+
+    /**
+     * Gets the largest number of typos in each word.
+     *
+     * @return Edit distance, or {@code AUTO_DISTANCE}.
+     */
+    public int getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * Executes by looking the words up in the trie of the word index and printing the matching tasks, closest
+     * first, to user interface.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Throws if no task has words close to the term.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        ArrayList<Task> findList = tasks.findFuzzy(this.term, this.maxDistance);
+        if (findList.isEmpty()) {
+            throw new CannotBeFoundException(this.term);
+        }
+        return ui.printFindCommand(findList, tasks);
+    }
+}
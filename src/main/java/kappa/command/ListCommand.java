@@ -4,19 +4,52 @@ import kappa.elements.TaskList;
 import kappa.elements.Ui;
 
 /**
- * Command which lists all the current tasks.
+ * Command which lists a page of the current tasks.
  */
 public class ListCommand extends Command {
 
+    private int page;
+    private int size;
+
     /**
-     * Constructor for list command.
+     * Constructor for list command, which lists the first page of tasks.
      */
     public ListCommand() {
+        this(1, Ui.PAGE_SIZE);
+    }
+
+    /**
+     * Constructor for list command, which lists a given page of tasks.
+     *
+     * @param page Page to list, starting from 1.
+     * @param size Number of tasks on a page.
+     */
+    public ListCommand(int page, int size) {
         this.commandType = CommandType.LIST;
+        this.page = page;
+        this.size = size;
+    }
+
+    /**
+     * Gets the page to list.
+     *
+     * @return Page, starting from 1.
+     */
+    public int getPage() {
+        return this.page;
+    }
+
+    /**
+     * Gets the number of tasks on a page.
+     *
+     * @return Page size.
+     */
+    public int getSize() {
+        return this.size;
     }
 
     /**
-     * Executes by having the user interface print to the console all the tasks in the list.
+     * Executes by having the user interface print to the console the tasks on the page.
      *
      * @param tasks List containing current tasks.
      * @param ui User interface.
@@ -24,6 +57,6 @@ public class ListCommand extends Command {
      */
     @Override
     public String execute(TaskList tasks, Ui ui) {
-        return ui.printListCommand(tasks);
+        return ui.printListCommand(tasks, this.page, this.size);
     }
 }
@@ -0,0 +1,29 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+/**
+ * Command which continues the last list or search from where its last page ended.
+ */
+public class MoreCommand extends Command {
+
+    /**
+     * Constructor for more command.
+     */
+    public MoreCommand() {
+        this.commandType = CommandType.MORE;
+    }
+
+    /**
+     * Executes by having the user interface print to the console the next page of the last list or search.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        return ui.printMoreCommand(tasks);
+    }
+}
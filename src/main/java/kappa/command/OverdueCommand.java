@@ -0,0 +1,33 @@
+package kappa.command;
+
+import kappa.elements.DateTime;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+/**
+ * Command that lists the deadlines which are not done and were due before now, earliest first.
+ */
+public class OverdueCommand extends Command {
+
+    /**
+     * Constructor for OverdueCommand.
+     */
+    public OverdueCommand() {
+        this.commandType = CommandType.OVERDUE;
+    }
+
+    /**
+     * Executes by looking every date before now up in the date index and printing the overdue deadlines.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Never, as having nothing overdue is shown as a message.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        return ui.printOverdueCommand(tasks.findOverdue(DateTime.now().getEpochMinute()), tasks);
+    }
+}
@@ -0,0 +1,57 @@
+package kappa.command;
+
+import kappa.elements.Query;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.CannotBeFoundException;
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+
+/**
+ * Command that finds the tasks a query holds for.
+ */
+public class QueryCommand extends Command {
+
+    private Query query;
+
+    /**
+     * Constructor for QueryCommand.
+     *
+     * @param query Query to run.
+     */
+    public QueryCommand(Query query) {
+        this.commandType = CommandType.QUERY;
+        this.query = query;
+    }
+
+    /**
+     * Gets the query.
+     *
+     * @return Query.
+     */
+    public Query getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Executes by planning the query over the indexes, running the plan and printing the matching tasks to user
+     * interface.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Throws if no task matches the query.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        ArrayList<Task> found = tasks.runQuery(tasks.planQuery(this.query));
+        if (found.isEmpty()) {
+            throw new CannotBeFoundException(this.query.toString());
+        }
+        return ui.printFindCommand(found, tasks);
+    }
+}
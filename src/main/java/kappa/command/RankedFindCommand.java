@@ -0,0 +1,68 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.CannotBeFoundException;
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+
+/**
+ * Command that finds the tasks most relevant to some words, ranked by how well they match.
+ */
+public class RankedFindCommand extends Command {
+
+    private String term;
+    private int limit;
+
+    /**
+     * Constructor for RankedFindCommand.
+     *
+     * @param term Words to be searched.
+     * @param limit Largest number of tasks to find.
+     */
+    public RankedFindCommand(String term, int limit) {
+        this.commandType = CommandType.FINDRANKED;
+        this.term = term;
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the words to be searched.
+     *
+     * @return Term.
+     */
+    public String getTerm() {
+        return this.term;
+    }
+
+    /**
+     * Gets the largest number of tasks to find.
+     *
+     * @return Limit.
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Executes by scoring the tasks with the words through the word index and printing the best of them, most
+     * relevant first, to user interface.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Throws if no task has any of the words.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        ArrayList<Task> findList = tasks.findRanked(this.term, this.limit);
+        if (findList.isEmpty()) {
+            throw new CannotBeFoundException(this.term);
+        }
+        return ui.printRankedFindCommand(findList, tasks);
+    }
+}
@@ -0,0 +1,47 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+/**
+ * Command that sets how many minutes before its date every deadline and event is reminded of.
+ */
+public class RemindCommand extends Command {
+
+    private long leadMinutes;
+
+    /**
+     * Constructor for RemindCommand.
+     *
+     * @param leadMinutes Minutes before the date.
+     */
+    public RemindCommand(long leadMinutes) {
+        this.commandType = CommandType.REMIND;
+        this.leadMinutes = leadMinutes;
+    }
+
+    /**
+     * Gets the number of minutes before the date.
+     *
+     * @return Lead time in minutes.
+     */
+    public long getLeadMinutes() {
+        return this.leadMinutes;
+    }
+
+    /**
+     * Executes by scheduling every upcoming reminder again with the new lead time and printing to user interface.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException Never, as setting the lead time cannot fail.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        int pending = tasks.setReminderLead(this.leadMinutes);
+        return ui.printRemindCommand(this.leadMinutes, pending);
+    }
+}
@@ -0,0 +1,29 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+/**
+ * Command that shows the size of the task list and the memory held by its search indexes.
+ */
+public class StatsCommand extends Command {
+
+    /**
+     * Constructor for Stats Command.
+     */
+    public StatsCommand() {
+        this.commandType = CommandType.STATS;
+    }
+
+    /**
+     * Executes command by printing the statistics to the user.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        return ui.printStatsCommand(tasks);
+    }
+}
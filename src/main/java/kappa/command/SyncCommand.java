@@ -0,0 +1,33 @@
+package kappa.command;
+
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+/**
+ * Command that waits until every change to the task list has been saved to disk.
+ */
+public class SyncCommand extends Command {
+
+    /**
+     * Constructor for Sync Command.
+     */
+    public SyncCommand() {
+        this.commandType = CommandType.SYNC;
+    }
+
+    /**
+     * Executes command by waiting for storage to be written and printing a sync message to the user.
+     *
+     * @param tasks List containing current tasks.
+     * @param ui User interface.
+     * @throws KappaException If the changes cannot be saved.
+     * @return String containing Kappa's formatted dialog.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui) throws KappaException {
+        tasks.sync();
+        return ui.printSyncCommand();
+    }
+}
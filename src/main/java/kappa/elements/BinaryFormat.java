@@ -0,0 +1,420 @@
+package kappa.elements;
+
+import kappa.exception.InvalidRecurrenceException;
+import kappa.exception.KappaException;
+import kappa.exception.UnableToReadFileException;
+
+import kappa.task.Deadline;
+import kappa.task.Event;
+import kappa.task.Recurring;
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes the versioned binary snapshot format, which is read through a memory-mapped buffer.
+ *
+ * <p>The file starts with a header of magic, version, record count and next id. Every record then holds
+ * a fixed-width id (int), type (byte), done flag (byte, at {@code DONE_OFFSET}) and date in epoch minutes (long),
+ * followed by the description and date text as length-prefixed UTF-8 and the tags as a count followed by
+ * length-prefixed UTF-8. The done flag is at a fixed offset so that it can be flipped in place.
+ * The date text is kept next to the epoch minute, so dates which are not in the DD/MM/YYYY HHMM format survive and
+ * loading never has to format a date again.</p>
+ *
+ * <p>Since version 2, a recurring task keeps its first occurrence in the epoch minute and its rule in the date text,
+ * and its record ends with the last epoch minute (long) and the completed occurrences as a count (int) followed by
+ * their epoch minutes (long). Version 1 snapshots have no recurring tasks and are read the same way.</p>
+ *
+ * <p>Since version 3, an event's record ends with the epoch minute of its end (long), after its tags. Events in
+ * older snapshots end where they start.</p>
+ *
+ * <p>Since version 4, the last int of the header holds the id to give the next task, so that the ids of deleted
+ * tasks are never given out again. It was reserved and zero in older snapshots.</p>
+ */
+class BinaryFormat {
+
+    static final int MAGIC = 0x4B415042;
+    static final int VERSION = 4;
+    static final int DONE_OFFSET = 5;
+
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final byte RECURRING = 3;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+    /**
+     * Checks if a file starts with the binary format's magic number.
+     *
+     * @param file Storage file.
+     * @return True if the file is in the binary format.
+     * @throws IOException Throws if the file cannot be read.
+     */
+    static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                continue;
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Reads the id to give the next task from the header of a file in the binary format.
+     *
+     * @param file File to read.
+     * @return Next id, or 1 if the snapshot is older than version 4.
+     * @throws IOException Throws if the file cannot be read.
+     */
+    static int readNextId(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            return !header.hasRemaining() && header.getInt(4) >= 4 ? Math.max(header.getInt(12), 1) : 1;
+        }
+    }
+
+    /**
+     * Writes every task to a file in the binary format and forces it to disk.
+     *
+     * @param taskList Tasks to write.
+     * @param nextId Id to give the next task.
+     * @param file File to write.
+     * @throws IOException Throws if the file cannot be written.
+     */
+    static void write(List<Task> taskList, int nextId, File file) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE))) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(taskList.size());
+            data.writeInt(nextId);
+            for (Task task : taskList) {
+                writeTask(task, data);
+            }
+            data.flush();
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Reads every task from a file in the binary format through a memory-mapped buffer.
+     *
+     * @param file File to read.
+     * @param recordIndex Index to put the offset of every record in, or null.
+     * @return Tasks in file order.
+     * @throws IOException Throws if the file cannot be read.
+     * @throws KappaException Throws if the file is not a binary snapshot this version can read, or is cut short.
+     */
+    static ArrayList<Task> read(File file, RecordIndex recordIndex) throws IOException, KappaException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedReader reader = new MappedReader(channel);
+            if (reader.readInt() != MAGIC) {
+                throw new UnableToReadFileException(0);
+            }
+            int version = reader.readInt();
+            if (version > VERSION) {
+                throw new UnableToReadFileException(0);
+            }
+            int count = reader.readInt();
+            reader.readInt();
+            ArrayList<Task> taskList = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                try {
+                    long offset = reader.position();
+                    Task task = readTask(reader, i, version);
+                    if (recordIndex != null) {
+                        recordIndex.put(task.getId(), offset);
+                    }
+                    taskList.add(task);
+                } catch (EOFException error) {
+                    throw new UnableToReadFileException(i);
+                }
+            }
+            return taskList;
+        } catch (EOFException error) {
+            throw new UnableToReadFileException(0);
+        }
+    }
+
+    /**
+     * Writes a single record.
+     *
+     * @param task Task to write.
+     * @param data Stream to write to.
+     * @throws IOException Throws if the record cannot be written.
+     */
+    private static void writeTask(Task task, DataOutputStream data) throws IOException {
+        byte type;
+        switch (task.getType()) {
+        case DEADLINE:
+            type = DEADLINE;
+            break;
+        case EVENT:
+            type = EVENT;
+            break;
+        case RECURRING:
+            type = RECURRING;
+            break;
+        default:
+            type = TODO;
+        }
+        boolean isRecurring = type == RECURRING;
+        String date = isRecurring ? ((Recurring) task).getRecurrence().toString() : task.getDate();
+        long epochMinute = isRecurring ? ((Recurring) task).getStart() : task.getEpochMinute();
+        data.writeInt(task.getId());
+        data.writeByte(type);
+        data.writeByte(task.getIsDone() ? 1 : 0);
+        data.writeLong(epochMinute);
+        writeString(task.getDescription(), data);
+        writeString(date, data);
+        List<String> tags = task.getTags().getNames();
+        data.writeShort(tags.size());
+        for (String tag : tags) {
+            writeString(tag, data);
+        }
+        if (type == EVENT) {
+            data.writeLong(((Event) task).getEndMinute());
+        }
+        if (isRecurring) {
+            data.writeLong(((Recurring) task).getUntil());
+            data.writeInt(((Recurring) task).getExceptions().size());
+            for (long exception : ((Recurring) task).getExceptions()) {
+                data.writeLong(exception);
+            }
+        }
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param text String to write.
+     * @param data Stream to write to.
+     * @throws IOException Throws if the string cannot be written.
+     */
+    private static void writeString(String text, DataOutputStream data) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Reads a single record.
+     *
+     * @param reader Reader positioned at the start of the record.
+     * @param index Record number, used to report a record which cannot be read.
+     * @param version Version of the snapshot.
+     * @return Task in the record.
+     * @throws IOException Throws if the record cannot be read.
+     * @throws KappaException Throws if the record has an unknown type.
+     */
+    private static Task readTask(MappedReader reader, int index, int version) throws IOException, KappaException {
+        int id = reader.readInt();
+        byte type = reader.readByte();
+        boolean isDone = reader.readByte() != 0;
+        long epochMinute = reader.readLong();
+        String description = reader.readString();
+        String date = reader.readString();
+        int tagCount = reader.readShort() & 0xFFFF;
+        Tags tags = Tags.NONE;
+        if (tagCount > 0) {
+            List<String> tagsList = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                tagsList.add(reader.readString());
+            }
+            tags = new Tags(tagsList);
+        }
+
+        Task task;
+        switch (type) {
+        case TODO:
+            task = new ToDo(description, id, tags);
+            break;
+        case DEADLINE:
+            task = new Deadline(description, id, date, epochMinute, tags);
+            break;
+        case EVENT:
+            task = new Event(description, id, date, epochMinute, version >= 3 ? reader.readLong() : epochMinute, tags);
+            break;
+        case RECURRING:
+            task = readRecurring(reader, description, id, date, epochMinute, tags, index);
+            break;
+        default:
+            throw new UnableToReadFileException(index);
+        }
+        if (isDone) {
+            task.setDone();
+        }
+        return task;
+    }
+
+    /**
+     * Reads the end of a recurring task's record, after its tags.
+     *
+     * @param reader Reader positioned after the tags of the record.
+     * @param description Description of the task.
+     * @param id Id of the task.
+     * @param rule Rule of the task, kept as the date text.
+     * @param start Epoch minute of the first occurrence.
+     * @param tags Tags of the task.
+     * @param index Record number, used to report a record which cannot be read.
+     * @return Recurring task, not yet marked as done.
+     * @throws IOException Throws if the record cannot be read.
+     * @throws KappaException Throws if the rule cannot be read.
+     */
+    private static Recurring readRecurring(MappedReader reader, String description, int id, String rule,
+            long start, Tags tags, int index) throws IOException, KappaException {
+        Recurring task;
+        try {
+            task = new Recurring(description, id, Recurrence.parse(rule), start, reader.readLong(), tags);
+        } catch (InvalidRecurrenceException error) {
+            throw new UnableToReadFileException(index);
+        }
+        int exceptionCount = reader.readInt();
+        for (int i = 0; i < exceptionCount; i++) {
+            task.addException(reader.readLong());
+        }
+        return task;
+    }
+
+    /**
+     * Reads values from a file through memory-mapped windows of at most {@code MAX_WINDOW_BYTES}.
+     */
+    private static class MappedReader {
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer buffer;
+
+        /**
+         * Constructor which maps the first window of the file.
+         *
+         * @param channel Channel to the file.
+         * @throws IOException Throws if the file cannot be mapped.
+         */
+        MappedReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        /**
+         * Returns the position of the next byte to be read.
+         *
+         * @return Position in the file.
+         */
+        long position() {
+            return this.windowStart + this.buffer.position();
+        }
+
+        /**
+         * Reads a big-endian int.
+         *
+         * @return Value read.
+         * @throws IOException Throws if the file ends first.
+         */
+        int readInt() throws IOException {
+            ensure(Integer.BYTES);
+            return this.buffer.getInt();
+        }
+
+        /**
+         * Reads a big-endian short.
+         *
+         * @return Value read.
+         * @throws IOException Throws if the file ends first.
+         */
+        short readShort() throws IOException {
+            ensure(Short.BYTES);
+            return this.buffer.getShort();
+        }
+
+        /**
+         * Reads a single byte.
+         *
+         * @return Value read.
+         * @throws IOException Throws if the file ends first.
+         */
+        byte readByte() throws IOException {
+            ensure(Byte.BYTES);
+            return this.buffer.get();
+        }
+
+        /**
+         * Reads a big-endian long.
+         *
+         * @return Value read.
+         * @throws IOException Throws if the file ends first.
+         */
+        long readLong() throws IOException {
+            ensure(Long.BYTES);
+            return this.buffer.getLong();
+        }
+
+        /**
+         * Reads a string written as its UTF-8 length followed by its UTF-8 bytes.
+         *
+         * @return String read.
+         * @throws IOException Throws if the file ends first.
+         */
+        String readString() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                throw new EOFException();
+            }
+            ensure(length);
+            byte[] bytes = new byte[length];
+            this.buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Makes sure the next bytes are inside the mapped window, mapping the next window if they are not.
+         *
+         * @param bytes Number of bytes about to be read.
+         * @throws IOException Throws if the file ends before those bytes.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (this.buffer.remaining() >= bytes) {
+                return;
+            }
+            long position = this.windowStart + this.buffer.position();
+            if (position + bytes > this.size) {
+                throw new EOFException();
+            }
+            map(position);
+        }
+
+        /**
+         * Maps a window of the file starting at a position.
+         *
+         * @param position Position in the file.
+         * @throws IOException Throws if the file cannot be mapped.
+         */
+        private void map(long position) throws IOException {
+            this.windowStart = position;
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(this.size - position, MAX_WINDOW_BYTES));
+        }
+    }
+}
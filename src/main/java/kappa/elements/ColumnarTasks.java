@@ -0,0 +1,340 @@
+package kappa.elements;
+
+import kappa.task.Deadline;
+import kappa.task.Event;
+import kappa.task.Recurring;
+import kappa.task.Task;
+import kappa.task.TaskType;
+import kappa.task.ToDo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Task store which keeps every field of every task in parallel primitive arrays indexed by task id, instead of
+ * one object graph per task. Descriptions are UTF-8 slices of one shared byte arena, and tasks with the same tags
+ * share one {@link Tags}. Task objects are only made, as views, when a task is handed out to be shown, and scans
+ * such as substring search run over the arrays and the arena. The live ids are walked through the rank tree and
+ * the number of done tasks is kept as tasks change, so neither costs more after many tasks have been removed.
+ *
+ * <p>Dates are kept as epoch minutes and formatted again when a view is made. A date which does not format back to
+ * the same text is kept in the arena right after the description. Removed tasks leave their bytes in the arena
+ * until they make up most of it, when the arena is packed again. Recurring tasks, which are few and hold their
+ * completed occurrences, are also kept whole as objects and handed out as they are.</p>
+ */
+class ColumnarTasks implements TaskStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_PACK_BYTES = 1 << 20;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final int FORMATTED_DATE = -1;
+
+    private RankTree ranks;
+    private byte[] types = new byte[INITIAL_CAPACITY + 1];
+    private boolean[] isDone = new boolean[INITIAL_CAPACITY + 1];
+    private long[] epochMinutes = new long[INITIAL_CAPACITY + 1];
+    private long[] endMinutes = new long[INITIAL_CAPACITY + 1];
+    private int[] offsets = new int[INITIAL_CAPACITY + 1];
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY + 1];
+    private int[] dateLengths = new int[INITIAL_CAPACITY + 1];
+    private Tags[] tags = new Tags[INITIAL_CAPACITY + 1];
+    private Map<Tags, Tags> sharedTags = new HashMap<>();
+    private Map<Integer, Recurring> recurring = new HashMap<>();
+    private byte[] arena = new byte[1 << 12];
+    private int arenaSize;
+    private int deadBytes;
+    private int nextId;
+    private int doneCount;
+
+    /**
+     * Constructor for a store holding the given tasks, which must be in increasing id order.
+     *
+     * @param list Tasks to hold.
+     * @param nextId Smallest id which may be given to a new task.
+     */
+    ColumnarTasks(List<Task> list, int nextId) {
+        this.ranks = new RankTree(INITIAL_CAPACITY);
+        this.nextId = Math.max(nextId, 1);
+        for (Task task : list) {
+            add(task);
+        }
+        this.arena = Arrays.copyOf(this.arena, Math.max(this.arenaSize, 1 << 12));
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        this.ranks.add(id);
+        if (this.ranks.getCapacity() >= this.types.length) {
+            grow(this.ranks.getCapacity() + 1);
+        }
+        this.types[id] = (byte) task.getType().ordinal();
+        this.isDone[id] = task.getIsDone();
+        this.doneCount += task.getIsDone() ? 1 : 0;
+        this.epochMinutes[id] = task.getEpochMinute();
+        this.endMinutes[id] = task instanceof Event ? ((Event) task).getEndMinute() : task.getEpochMinute();
+        this.offsets[id] = this.arenaSize;
+        this.descriptionLengths[id] = append(task.getDescription());
+        this.dateLengths[id] = task.getDate().equals(DateTime.formatEpochMinute(this.epochMinutes[id]))
+                ? FORMATTED_DATE
+                : append(task.getDate());
+        this.tags[id] = this.sharedTags.computeIfAbsent(task.getTags(), (tags) -> tags);
+        if (task.getType() == TaskType.RECURRING) {
+            this.recurring.put(id, (Recurring) task);
+        }
+        this.nextId = Math.max(this.nextId, id + 1);
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 1 || index > this.ranks.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.ranks.size());
+        }
+        return materialize(this.ranks.select(index));
+    }
+
+    @Override
+    public Task getById(int id) {
+        return isLive(id) ? materialize(id) : null;
+    }
+
+    @Override
+    public int indexOf(int id) {
+        return this.ranks.rank(id);
+    }
+
+    @Override
+    public void remove(int id) {
+        if (!isLive(id)) {
+            return;
+        }
+        this.deadBytes += getTextLength(id);
+        this.doneCount -= this.isDone[id] ? 1 : 0;
+        this.tags[id] = null;
+        this.recurring.remove(id);
+        this.ranks.remove(id);
+        if (this.deadBytes >= MIN_PACK_BYTES && this.deadBytes > this.arenaSize - this.deadBytes) {
+            pack();
+        }
+    }
+
+    @Override
+    public void setDone(int id) {
+        this.doneCount += this.isDone[id] ? 0 : 1;
+        this.isDone[id] = true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.tags, null);
+        this.sharedTags.clear();
+        this.recurring.clear();
+        this.ranks.clear();
+        this.arenaSize = 0;
+        this.deadBytes = 0;
+        this.doneCount = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.ranks.size();
+    }
+
+    @Override
+    public int countDone() {
+        return this.doneCount;
+    }
+
+    @Override
+    public int getNextId() {
+        return this.nextId;
+    }
+
+    @Override
+    public int[] getIds() {
+        return this.ranks.toArray();
+    }
+
+    /**
+     * Keeps the ids of the tasks whose descriptions contain a term, comparing UTF-8 bytes in the arena.
+     * UTF-8 is self-synchronising, so a byte match is always a match of whole characters.
+     *
+     * @param ids Ids to check in increasing order, which may include ids of removed tasks.
+     * @param term Term to search for.
+     * @return Ids of live tasks whose descriptions contain the term, in increasing order.
+     */
+    @Override
+    public int[] filterContaining(int[] ids, String term) {
+        byte[] pattern = term.getBytes(StandardCharsets.UTF_8);
+        int[] found = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            if (isLive(id) && containsBytes(this.offsets[id], this.descriptionLengths[id], pattern)) {
+                found[count] = id;
+                count++;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    @Override
+    public long getOffHeapBytes() {
+        return 0;
+    }
+
+    @Override
+    public ArrayList<Task> toList() {
+        ArrayList<Task> list = new ArrayList<>(size());
+        for (int id : getIds()) {
+            list.add(materialize(id));
+        }
+        return list;
+    }
+
+    /**
+     * Checks if an id belongs to a task in the store.
+     *
+     * @param id Id to check.
+     * @return True if the task is in the store.
+     */
+    private boolean isLive(int id) {
+        return id >= 1 && id < this.tags.length && this.tags[id] != null;
+    }
+
+    /**
+     * Makes a task object holding the fields of a task.
+     *
+     * @param id Id of the task.
+     * @return View of the task.
+     */
+    private Task materialize(int id) {
+        String description = new String(this.arena, this.offsets[id], this.descriptionLengths[id],
+                StandardCharsets.UTF_8);
+        Task task;
+        switch (TYPES[this.types[id]]) {
+        case DEADLINE:
+            task = new Deadline(description, id, readDate(id), this.epochMinutes[id], this.tags[id]);
+            break;
+        case EVENT:
+            task = new Event(description, id, readDate(id), this.epochMinutes[id], this.endMinutes[id],
+                    this.tags[id]);
+            break;
+        case RECURRING:
+            return this.recurring.get(id);
+        default:
+            task = new ToDo(description, id, this.tags[id]);
+        }
+        if (this.isDone[id]) {
+            task.setDone();
+        }
+        return task;
+    }
+
+    /**
+     * Gets the date text of a task, formatting its epoch minute or reading the text kept in the arena.
+     *
+     * @param id Id of the task.
+     * @return Date text.
+     */
+    private String readDate(int id) {
+        if (this.dateLengths[id] == FORMATTED_DATE) {
+            return DateTime.formatEpochMinute(this.epochMinutes[id]);
+        }
+        return new String(this.arena, this.offsets[id] + this.descriptionLengths[id], this.dateLengths[id],
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of arena bytes a task's description and date text take up.
+     *
+     * @param id Id of the task.
+     * @return Number of bytes.
+     */
+    private int getTextLength(int id) {
+        return this.descriptionLengths[id] + Math.max(this.dateLengths[id], 0);
+    }
+
+    /**
+     * Appends text to the arena as UTF-8.
+     *
+     * @param text Text to append.
+     * @return Number of bytes appended.
+     */
+    private int append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (this.arenaSize + bytes.length > this.arena.length) {
+            this.arena = Arrays.copyOf(this.arena, Math.max(this.arena.length * 2, this.arenaSize + bytes.length));
+        }
+        System.arraycopy(bytes, 0, this.arena, this.arenaSize, bytes.length);
+        this.arenaSize += bytes.length;
+        return bytes.length;
+    }
+
+    /**
+     * Checks if a slice of the arena contains a byte pattern.
+     *
+     * @param offset Start of the slice.
+     * @param length Length of the slice.
+     * @param pattern Bytes to look for.
+     * @return True if the pattern is in the slice.
+     */
+    private boolean containsBytes(int offset, int length, byte[] pattern) {
+        if (pattern.length == 0) {
+            return true;
+        }
+        int last = offset + length - pattern.length;
+        for (int i = offset; i <= last; i++) {
+            if (this.arena[i] != pattern[0]) {
+                continue;
+            }
+            int matched = 1;
+            while (matched < pattern.length && this.arena[i + matched] == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the text of every live task into a fresh arena, dropping the bytes of removed tasks, and forgets the
+     * tags no task has any more.
+     */
+    private void pack() {
+        byte[] packed = new byte[Math.max(this.arenaSize - this.deadBytes, 1 << 12)];
+        int size = 0;
+        this.sharedTags.clear();
+        for (int id : getIds()) {
+            this.sharedTags.putIfAbsent(this.tags[id], this.tags[id]);
+            int length = getTextLength(id);
+            System.arraycopy(this.arena, this.offsets[id], packed, size, length);
+            this.offsets[id] = size;
+            size += length;
+        }
+        this.arena = packed;
+        this.arenaSize = size;
+        this.deadBytes = 0;
+    }
+
+    /**
+     * Grows every column to a new length.
+     *
+     * @param length New length of the columns.
+     */
+    private void grow(int length) {
+        this.types = Arrays.copyOf(this.types, length);
+        this.isDone = Arrays.copyOf(this.isDone, length);
+        this.epochMinutes = Arrays.copyOf(this.epochMinutes, length);
+        this.endMinutes = Arrays.copyOf(this.endMinutes, length);
+        this.offsets = Arrays.copyOf(this.offsets, length);
+        this.descriptionLengths = Arrays.copyOf(this.descriptionLengths, length);
+        this.dateLengths = Arrays.copyOf(this.dateLengths, length);
+        this.tags = Arrays.copyOf(this.tags, length);
+    }
+}
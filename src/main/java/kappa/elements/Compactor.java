@@ -0,0 +1,97 @@
+package kappa.elements;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs journal compactions on a single background thread and decides when one is due.
+ * Only one compaction runs at a time, and callers never wait for it to finish unless they ask to, as on exit.
+ */
+class Compactor {
+
+    private static final long MAX_JOURNAL_BYTES = Long.getLong("kappa.compaction.maxJournalBytes", 4L << 20);
+    private static final int MIN_RECORDS = Integer.getInteger("kappa.compaction.minRecords", 1000);
+    private static final int DEAD_RECORD_PERCENTAGE = Integer.getInteger("kappa.compaction.deadPercentage", 50);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kappa-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+
+    /**
+     * Checks if the journal is large enough or stale enough to be folded into the snapshot.
+     *
+     * @param journalBytes Size of the journal in bytes.
+     * @param records Number of records in the journal.
+     * @param deadRecords Number of records which no longer contribute to a task on their own.
+     * @return True if a compaction should be started.
+     */
+    boolean shouldCompact(long journalBytes, int records, int deadRecords) {
+        if (journalBytes >= MAX_JOURNAL_BYTES) {
+            return true;
+        }
+        return records >= MIN_RECORDS && deadRecords * 100L >= records * (long) DEAD_RECORD_PERCENTAGE;
+    }
+
+    /**
+     * Claims the compactor for a new compaction.
+     *
+     * @return False if a compaction is already running.
+     */
+    boolean tryStart() {
+        return this.isRunning.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the compactor without running a compaction, used when preparing one fails.
+     */
+    void cancel() {
+        finish();
+    }
+
+    /**
+     * Checks if a compaction is currently running.
+     *
+     * @return True if a compaction has been started and has not finished.
+     */
+    boolean isRunning() {
+        return this.isRunning.get();
+    }
+
+    /**
+     * Runs a claimed compaction on the background thread and releases the compactor once it is done.
+     *
+     * @param compaction Compaction to run.
+     */
+    void run(Runnable compaction) {
+        this.executor.execute(() -> {
+            try {
+                compaction.run();
+            } finally {
+                finish();
+            }
+        });
+    }
+
+    /**
+     * Waits until no compaction is running, so that a compaction which was started is not cut short by exiting.
+     *
+     * @throws InterruptedException Throws if the waiting thread is interrupted.
+     */
+    synchronized void awaitIdle() throws InterruptedException {
+        while (this.isRunning.get()) {
+            wait();
+        }
+    }
+
+    /**
+     * Releases the compactor and wakes every thread waiting for it.
+     */
+    private synchronized void finish() {
+        this.isRunning.set(false);
+        notifyAll();
+    }
+}
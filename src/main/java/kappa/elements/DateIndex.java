@@ -0,0 +1,114 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted index from the epoch minutes of deadlines and events to the ids of the tasks at each minute.
+ * A range of dates is found in O(log n + k) by walking the part of the tree map inside the range, instead of
+ * scanning every task. Tasks without a date in the DD/MM/YYYY HHMM format are not in the index.
+ */
+class DateIndex {
+
+    private final TreeMap<Long, List<Integer>> ids = new TreeMap<>();
+    private int size;
+
+    /**
+     * Adds a task if it has a date.
+     *
+     * @param task Task to add.
+     */
+    void add(Task task) {
+        if (task.getEpochMinute() == DateTime.NO_DATE) {
+            return;
+        }
+        this.ids.computeIfAbsent(task.getEpochMinute(), (ignored) -> new ArrayList<>(1)).add(task.getId());
+        this.size++;
+    }
+
+    /**
+     * Removes a task if it has a date.
+     *
+     * @param task Task to remove.
+     */
+    void remove(Task task) {
+        List<Integer> atMinute = this.ids.get(task.getEpochMinute());
+        if (atMinute == null || !atMinute.remove(Integer.valueOf(task.getId()))) {
+            return;
+        }
+        if (atMinute.isEmpty()) {
+            this.ids.remove(task.getEpochMinute());
+        }
+        this.size--;
+    }
+
+    /**
+     * Removes every task.
+     */
+    void clear() {
+        this.ids.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of tasks with a date.
+     *
+     * @return Number of tasks in the index.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Estimates the number of tasks dated inside a range in O(log n), as the share of the index's dates the range
+     * covers, taking the dates to be spread evenly between the first and the last.
+     *
+     * @param from Earliest epoch minute.
+     * @param to Latest epoch minute.
+     * @return Estimated number of tasks in the range.
+     */
+    int estimate(long from, long to) {
+        if (this.ids.isEmpty()) {
+            return 0;
+        }
+        long first = this.ids.firstKey();
+        long last = this.ids.lastKey();
+        long low = Math.max(from, first);
+        long high = Math.min(to, last);
+        if (low > high) {
+            return 0;
+        }
+        double share = ((double) high - low + 1) / ((double) last - first + 1);
+        return (int) Math.ceil(this.size * share);
+    }
+
+    /**
+     * Finds the ids of the tasks dated inside a range, both ends included.
+     *
+     * @param from Earliest epoch minute.
+     * @param to Latest epoch minute.
+     * @return Ids ordered by date, and by id for tasks at the same minute.
+     */
+    int[] search(long from, long to) {
+        if (from > to) {
+            return new int[0];
+        }
+        int[] found = new int[16];
+        int count = 0;
+        for (Map.Entry<Long, List<Integer>> entry : this.ids.subMap(from, true, to, true).entrySet()) {
+            for (int id : entry.getValue()) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count] = id;
+                count++;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
@@ -3,13 +3,26 @@ package kappa.elements;
 import kappa.exception.KappaException;
 import kappa.exception.InvalidDateException;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * DateTime class that uses Java LocalDateTime to represent date and time of events and tasks.
  */
 public class DateTime {
 
+    /**
+     * Epoch minute used for dates that are not in the DD/MM/YYYY HHMM format.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final Pattern DISPLAY_PATTERN =
+            Pattern.compile("(\\d{1,2})(st|nd|rd|th) of ([A-Za-z]+) (-?\\d+), (\\d{1,2})\\.(\\d{2})(am|pm)");
+
     private LocalDateTime localDateTime;
 
     private int day;
@@ -57,6 +70,97 @@ public class DateTime {
         this.localDateTime = LocalDateTime.of(this.year, this.month, this.day, this.hour, this.minute);
     }
 
+    /**
+     * Constructor that wraps an existing LocalDateTime.
+     *
+     * @param localDateTime Date and time.
+     */
+    private DateTime(LocalDateTime localDateTime) {
+        this.localDateTime = localDateTime;
+    }
+
+    /**
+     * Creates a DateTime of the current minute on the local clock.
+     *
+     * @return DateTime of now.
+     */
+    public static DateTime now() {
+        return new DateTime(LocalDateTime.now().withSecond(0).withNano(0));
+    }
+
+    /**
+     * Finds the first minute of the day a minute is in.
+     *
+     * @param epochMinute Minutes since 1/1/1970 0000.
+     * @return Epoch minute of 0000 on the same day.
+     */
+    public static long startOfDay(long epochMinute) {
+        return epochMinute - Math.floorMod(epochMinute, Recurrence.MINUTES_PER_DAY);
+    }
+
+    /**
+     * Creates a DateTime from the number of minutes since the epoch, counted in UTC.
+     *
+     * @param epochMinute Minutes since 1/1/1970 0000.
+     * @return DateTime of that minute.
+     */
+    public static DateTime ofEpochMinute(long epochMinute) {
+        return new DateTime(LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Formats a number of minutes since the epoch the way {@link #convertToString()} does.
+     *
+     * @param epochMinute Minutes since 1/1/1970 0000, or {@link #NO_DATE}.
+     * @return Formatted date, or null if there is no date or it cannot be formatted.
+     */
+    public static String formatEpochMinute(long epochMinute) {
+        if (epochMinute == NO_DATE) {
+            return null;
+        }
+        try {
+            return ofEpochMinute(epochMinute).convertToString();
+        } catch (KappaException | DateTimeException error) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a date that was formatted by {@link #convertToString()} back into minutes since the epoch.
+     *
+     * @param display Formatted date, e.g. 2nd of January 2020, 12.54pm.
+     * @return Minutes since the epoch, or {@link #NO_DATE} if the text is not a formatted date.
+     */
+    public static long toEpochMinute(String display) {
+        Matcher matcher = DISPLAY_PATTERN.matcher(display);
+        if (!matcher.matches()) {
+            return NO_DATE;
+        }
+        int month = 0;
+        for (int i = 1; i < monthStrings.length; i++) {
+            if (monthStrings[i].equals(matcher.group(3))) {
+                month = i;
+            }
+        }
+        int hour = Integer.parseInt(matcher.group(5)) % 12 + (matcher.group(7).equals("pm") ? 12 : 0);
+        try {
+            LocalDateTime parsed = LocalDateTime.of(Integer.parseInt(matcher.group(4)), month,
+                    Integer.parseInt(matcher.group(1)), hour, Integer.parseInt(matcher.group(6)));
+            return parsed.toEpochSecond(ZoneOffset.UTC) / 60;
+        } catch (DateTimeException | NumberFormatException error) {
+            return NO_DATE;
+        }
+    }
+
+    /**
+     * Returns the number of minutes since the epoch, counted in UTC.
+     *
+     * @return Minutes since 1/1/1970 0000.
+     */
+    public long getEpochMinute() {
+        return this.localDateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
     /**
      * Formats the String containing Hour and Minute and parses them to int.
      *
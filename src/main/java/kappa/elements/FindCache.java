@@ -0,0 +1,220 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Least recently used cache of find results, from a normalised query to the ids of the tasks it found.
+ * The cache is bounded both by its number of entries and by the total number of ids it holds, and a result with
+ * more ids than the whole bound is never kept.
+ *
+ * <p>Every entry records the version of the task list it is up to date with, and is only handed out at that version.
+ * The list tells the cache about every change, so an added task is appended to the entries it matches, a removed
+ * task drops only the entries which found it, and every other entry is moved up to the new version.</p>
+ */
+class FindCache {
+
+    private final int maxEntries;
+    private final long maxIds;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long idCount;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor for FindCache.
+     *
+     * @param maxEntries Largest number of results to keep.
+     * @param maxIds Largest total number of ids to keep across every result.
+     */
+    FindCache(int maxEntries, long maxIds) {
+        this.maxEntries = maxEntries;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Gets the result of a query, if it is kept and up to date.
+     *
+     * @param key Normalised query.
+     * @param version Current version of the task list.
+     * @return Ids found by the query, which must not be changed, or null if the result is not kept.
+     */
+    int[] get(String key, long version) {
+        Entry entry = this.entries.get(key);
+        if (entry == null || entry.version != version) {
+            if (entry != null) {
+                remove(key);
+            }
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        return entry.ids;
+    }
+
+    /**
+     * Keeps the result of a query, evicting the least recently used results until it fits.
+     *
+     * @param key Normalised query.
+     * @param matcher Condition which holds for the tasks the query finds, used to keep the result up to date.
+     * @param ids Ids found by the query, in increasing order.
+     * @param version Version of the task list the query ran against.
+     */
+    void put(String key, Predicate<Task> matcher, int[] ids, long version) {
+        remove(key);
+        if (this.maxEntries < 1 || ids.length > this.maxIds) {
+            return;
+        }
+        this.entries.put(key, new Entry(matcher, ids, version));
+        this.idCount += ids.length;
+        evictIfNeeded();
+    }
+
+    /**
+     * Brings every result up to date with a task which was just added, appending it to the results it matches.
+     * The task's id is larger than every id before it, so results stay in increasing order.
+     *
+     * @param task Task which was added.
+     * @param version Version of the task list after the task was added.
+     */
+    void added(Task task, long version) {
+        for (Entry entry : this.entries.values()) {
+            if (entry.version == version - 1 && entry.matcher.test(task)) {
+                entry.ids = Arrays.copyOf(entry.ids, entry.ids.length + 1);
+                entry.ids[entry.ids.length - 1] = task.getId();
+                this.idCount++;
+            }
+            entry.version = entry.version == version - 1 ? version : entry.version;
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * Drops every result which found a task which was just removed, and keeps the rest up to date.
+     *
+     * @param task Task which was removed.
+     * @param version Version of the task list after the task was removed.
+     */
+    void removed(Task task, long version) {
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (Arrays.binarySearch(entry.ids, task.getId()) >= 0) {
+                this.idCount -= entry.ids.length;
+                iterator.remove();
+            } else if (entry.version == version - 1) {
+                entry.version = version;
+            }
+        }
+    }
+
+    /**
+     * Keeps every result up to date with a change which no query finds tasks by, such as a task being done.
+     *
+     * @param version Version of the task list after the change.
+     */
+    void unaffected(long version) {
+        for (Entry entry : this.entries.values()) {
+            if (entry.version == version - 1) {
+                entry.version = version;
+            }
+        }
+    }
+
+    /**
+     * Drops every result.
+     */
+    void clear() {
+        this.entries.clear();
+        this.idCount = 0;
+    }
+
+    /**
+     * Returns the number of results kept.
+     *
+     * @return Number of entries.
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the number of lookups which found an up to date result.
+     *
+     * @return Number of hits.
+     */
+    long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of lookups which found no up to date result.
+     *
+     * @return Number of misses.
+     */
+    long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of results dropped to make room for others.
+     *
+     * @return Number of evictions.
+     */
+    long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Drops a result, if it is kept.
+     *
+     * @param key Normalised query.
+     */
+    private void remove(String key) {
+        Entry entry = this.entries.remove(key);
+        if (entry != null) {
+            this.idCount -= entry.ids.length;
+        }
+    }
+
+    /**
+     * Drops the least recently used results until the cache is within its bounds.
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while (iterator.hasNext() && (this.entries.size() > this.maxEntries || this.idCount > this.maxIds)) {
+            this.idCount -= iterator.next().getValue().ids.length;
+            iterator.remove();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Result of a query, with the version of the task list it is up to date with.
+     */
+    private static class Entry {
+
+        private final Predicate<Task> matcher;
+        private int[] ids;
+        private long version;
+
+        /**
+         * Constructor for Entry.
+         *
+         * @param matcher Condition which holds for the tasks the query finds.
+         * @param ids Ids found by the query, in increasing order.
+         * @param version Version of the task list the query ran against.
+         */
+        Entry(Predicate<Task> matcher, int[] ids, long version) {
+            this.matcher = matcher;
+            this.ids = ids;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package kappa.elements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Augmented interval tree of the events in the list, from the ids of events to the minutes they take up.
+ * Every interval is half-open, so an event which ends at a minute does not overlap one which starts at it.
+ *
+ * <p>The tree is a treap ordered by start and then id, kept balanced by random priorities, and every node also
+ * holds the largest end in its subtree. Finding the intervals which overlap a range skips every subtree whose
+ * largest end is before the range, and stops going right once starts are after it, so it costs O(log n + k).</p>
+ */
+class IntervalTree {
+
+    private final Random random = new Random(0x4B415050);
+    private Node root;
+    private int size;
+
+    /**
+     * Adds an interval.
+     *
+     * @param id Id of the event.
+     * @param start First minute of the interval.
+     * @param end Minute after the last minute of the interval, which is larger than the start.
+     */
+    void add(int id, long start, long end) {
+        this.root = insert(this.root, new Node(id, start, end, this.random.nextInt()));
+        this.size++;
+    }
+
+    /**
+     * Removes an interval, if it is in the tree.
+     *
+     * @param id Id of the event.
+     * @param start First minute of the interval.
+     */
+    void remove(int id, long start) {
+        this.root = delete(this.root, id, start);
+    }
+
+    /**
+     * Removes every interval.
+     */
+    void clear() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of intervals.
+     *
+     * @return Number of intervals in the tree.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the intervals which overlap a range.
+     *
+     * @param from First minute of the range.
+     * @param to Minute after the last minute of the range.
+     * @return Ids of the events, ordered by start and then by id.
+     */
+    int[] search(long from, long to) {
+        IdBuffer found = new IdBuffer();
+        collect(this.root, from, to, found);
+        return found.toArray();
+    }
+
+    /**
+     * Finds every pair of intervals which overlap, with a sweep over the intervals in order of start.
+     * Intervals which have started but not ended are kept in a heap by end, and every interval overlaps exactly the
+     * intervals still in the heap when it starts, so the sweep costs O(n log n + k).
+     *
+     * @param limit Largest number of pairs to find.
+     * @return Ids of the events in every pair, the one which starts first before the other, ordered by the start
+     *     of the one which starts later.
+     */
+    List<int[]> findOverlappingPairs(int limit) {
+        int[] ids = new int[this.size];
+        long[] starts = new long[this.size];
+        long[] ends = new long[this.size];
+        fill(this.root, ids, starts, ends, 0);
+        List<int[]> pairs = new ArrayList<>();
+        PriorityQueue<Integer> active =
+                new PriorityQueue<>((first, second) -> Long.compare(ends[first], ends[second]));
+        for (int i = 0; i < ids.length && pairs.size() < limit; i++) {
+            while (!active.isEmpty() && ends[active.peek()] <= starts[i]) {
+                active.poll();
+            }
+            for (int earlier : active) {
+                if (pairs.size() == limit) {
+                    break;
+                }
+                pairs.add(new int[] {ids[earlier], ids[i]});
+            }
+            active.add(i);
+        }
+        return pairs;
+    }
+
+    /**
+     * Inserts a node into a subtree, rotating it up while its priority is higher than its parent's.
+     *
+     * @param node Root of the subtree.
+     * @param added Node to insert.
+     * @return New root of the subtree.
+     */
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Deletes the node of an interval from a subtree, merging its children in its place.
+     *
+     * @param node Root of the subtree.
+     * @param id Id of the event.
+     * @param start First minute of the interval.
+     * @return New root of the subtree.
+     */
+    private Node delete(Node node, int id, long start) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, id, node);
+        if (comparison == 0) {
+            this.size--;
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = delete(node.left, id, start);
+        } else {
+            node.right = delete(node.right, id, start);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Merges two subtrees, where every interval in the first is before every interval in the second.
+     *
+     * @param left First subtree.
+     * @param right Second subtree.
+     * @return Root of the merged subtree.
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Adds the ids of the intervals in a subtree which overlap a range, in order.
+     *
+     * @param node Root of the subtree.
+     * @param from First minute of the range.
+     * @param to Minute after the last minute of the range.
+     * @param found Ids found so far.
+     */
+    private void collect(Node node, long from, long to, IdBuffer found) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, found);
+        if (node.start >= to) {
+            return;
+        }
+        if (node.end > from) {
+            found.add(node.id);
+        }
+        collect(node.right, from, to, found);
+    }
+
+    /**
+     * Copies the intervals of a subtree into arrays, in order.
+     *
+     * @param node Root of the subtree.
+     * @param ids Ids of the events.
+     * @param starts Starts of the intervals.
+     * @param ends Ends of the intervals.
+     * @param position Position to copy the first interval of the subtree to.
+     * @return Position after the last interval of the subtree.
+     */
+    private static int fill(Node node, int[] ids, long[] starts, long[] ends, int position) {
+        if (node == null) {
+            return position;
+        }
+        position = fill(node.left, ids, starts, ends, position);
+        ids[position] = node.id;
+        starts[position] = node.start;
+        ends[position] = node.end;
+        return fill(node.right, ids, starts, ends, position + 1);
+    }
+
+    /**
+     * Compares the key of an interval with the key of a node.
+     *
+     * @param start First minute of the interval.
+     * @param id Id of the event.
+     * @param node Node to compare with.
+     * @return Negative, zero or positive as the interval is before, at or after the node.
+     */
+    private static int compare(long start, int id, Node node) {
+        int comparison = Long.compare(start, node.start);
+        return comparison != 0 ? comparison : Integer.compare(id, node.id);
+    }
+
+    /**
+     * Rotates a node down to the right of its left child.
+     *
+     * @param node Node to rotate.
+     * @return Left child, which takes the place of the node.
+     */
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    /**
+     * Rotates a node down to the left of its right child.
+     *
+     * @param node Node to rotate.
+     * @return Right child, which takes the place of the node.
+     */
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Works out the largest end in the subtree of a node from its children.
+     *
+     * @param node Node whose children are up to date.
+     */
+    private static void update(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    /**
+     * Interval of an event in the tree.
+     */
+    private static class Node {
+
+        private final int id;
+        private final long start;
+        private final long end;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        /**
+         * Constructor for a node without children.
+         *
+         * @param id Id of the event.
+         * @param start First minute of the interval.
+         * @param end Minute after the last minute of the interval.
+         * @param priority Random priority which keeps the tree balanced.
+         */
+        Node(int id, long start, long end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * Growable array of ids.
+     */
+    private static class IdBuffer {
+
+        private int[] ids = new int[16];
+        private int count;
+
+        /**
+         * Adds an id.
+         *
+         * @param id Id to add.
+         */
+        void add(int id) {
+            if (this.count == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.count * 2);
+            }
+            this.ids[this.count] = id;
+            this.count++;
+        }
+
+        /**
+         * Copies the ids out.
+         *
+         * @return Ids in the order they were added.
+         */
+        int[] toArray() {
+            return Arrays.copyOf(this.ids, this.count);
+        }
+    }
+}
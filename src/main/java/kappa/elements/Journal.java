@@ -0,0 +1,399 @@
+package kappa.elements;
+
+import kappa.exception.InOutWentWrongException;
+import kappa.exception.KappaException;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only log of task mutations which is kept next to the storage snapshot.
+ * Each mutation is written as a single line so that recording it costs one append, regardless of list size.
+ * Appends are queued and written behind the caller by a single writer thread, which drains the queue in batches
+ * over one long-lived channel. Single fields of a binary snapshot can be patched in place through the same queue.
+ */
+class Journal {
+
+    static final String ADD = "ADD";
+    static final String DONE = "DONE";
+    static final String EXCEPT = "EXCEPT";
+    static final String DELETE = "DELETE";
+    static final String CLEAR = "CLEAR";
+
+    /**
+     * Decides how often written records are forced to disk.
+     */
+    enum FsyncPolicy {
+        ALWAYS,
+        INTERVAL,
+        NEVER
+    }
+
+    private static final long FLUSH_INTERVAL_MILLIS = Long.getLong("kappa.journal.flushIntervalMillis", 200);
+    private static final FsyncPolicy FSYNC_POLICY =
+            FsyncPolicy.valueOf(System.getProperty("kappa.journal.fsync", FsyncPolicy.INTERVAL.name()));
+
+    private final File file;
+    private final RecordPatcher patcher;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private Thread writer;
+    private FileChannel channel;
+    private boolean isDirty;
+    private long lastForced;
+    private volatile IOException failure;
+
+    /**
+     * Constructor that initialises the journal file.
+     *
+     * @param file File which the records are appended to.
+     * @param snapshot Snapshot file which fields can be patched in.
+     */
+    Journal(File file, File snapshot) {
+        this.file = file;
+        this.patcher = new RecordPatcher(snapshot);
+    }
+
+    /**
+     * Works out the number of bytes a record takes up in the journal, as UTF-8 with its line separator, without
+     * encoding it. An unpaired surrogate is written as a single replacement byte.
+     *
+     * @param record Encoded record without a line separator.
+     * @return Number of bytes appended for the record.
+     */
+    static int getEncodedLength(String record) {
+        int length = System.lineSeparator().length();
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < record.length()
+                    && Character.isLowSurrogate(record.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Queues many records at once, so the writer thread appends them with a single write.
+     *
+     * @param records Encoded records without line separators.
+     * @throws KappaException Throws if an earlier record could not be written.
+     */
+    void appendAll(List<String> records) throws KappaException {
+        checkFailure();
+        startWriter();
+        List<Entry> entries = new ArrayList<>(records.size());
+        for (String record : records) {
+            entries.add(new Entry(record, null));
+        }
+        this.queue.addAll(entries);
+    }
+
+    /**
+     * Queues a positioned write of a single field in a binary snapshot, instead of appending a record.
+     * The write is ordered with the records around it and returns without waiting for it.
+     *
+     * @param offset Offset of the field in the snapshot.
+     * @param bytes New value of the field.
+     * @throws KappaException Throws if an earlier record could not be written.
+     */
+    void patch(long offset, byte[] bytes) throws KappaException {
+        checkFailure();
+        startWriter();
+        this.queue.add(new Entry(offset, bytes));
+    }
+
+    /**
+     * Waits until every queued record has been written and forced to disk.
+     *
+     * @throws KappaException Throws if the records cannot be written.
+     */
+    void sync() throws KappaException {
+        if (this.writer == null) {
+            checkFailure();
+            return;
+        }
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        this.queue.add(new Entry(null, () -> synced.complete(null)));
+        try {
+            synced.get();
+        } catch (InterruptedException | ExecutionException error) {
+            throw new InOutWentWrongException();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Moves every record to another journal file once the records queued so far have been written.
+     * Records are appended after any already in the target, so a frozen journal left behind is never lost.
+     *
+     * @param target Journal file to move the records to.
+     * @return Future which completes on the writer thread once the records have been moved.
+     */
+    CompletableFuture<Void> rotateTo(File target) {
+        CompletableFuture<Void> rotated = new CompletableFuture<>();
+        startWriter();
+        this.queue.add(new Entry(null, () -> {
+            try {
+                closeChannel();
+                this.patcher.close();
+                moveRecords(target);
+                rotated.complete(null);
+            } catch (IOException error) {
+                rotated.completeExceptionally(error);
+            }
+        }));
+        return rotated;
+    }
+
+    /**
+     * Returns the journal file, which is read back one record at a time when storage is loaded.
+     *
+     * @return Journal file.
+     */
+    File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Starts the writer thread on the first append, along with a shutdown hook which flushes the queue.
+     */
+    private synchronized void startWriter() {
+        if (this.writer != null) {
+            return;
+        }
+        this.writer = new Thread(this::drainQueue, "kappa-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                sync();
+            } catch (KappaException error) {
+                // Nothing more can be done while the program is shutting down.
+            }
+        }));
+    }
+
+    /**
+     * Drains the queue in batches for as long as the program runs. Runs on the writer thread.
+     */
+    private void drainQueue() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Entry first = this.queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    forceIfDue();
+                    continue;
+                }
+                batch.add(first);
+                this.queue.drainTo(batch);
+                writeBatch(batch);
+            } catch (InterruptedException error) {
+                return;
+            } catch (IOException error) {
+                this.failure = error;
+                runBarriers(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of records with a single write, running any barrier once the records before it are on disk.
+     *
+     * @param batch Entries taken from the queue, in order.
+     * @throws IOException Throws if the records cannot be written.
+     */
+    private void writeBatch(List<Entry> batch) throws IOException {
+        StringBuilder records = new StringBuilder();
+        for (Entry entry : batch) {
+            if (entry.record != null) {
+                records.append(entry.record).append(System.lineSeparator());
+                continue;
+            }
+            if (entry.patch != null) {
+                this.patcher.mark(entry.offset, entry.patch);
+                continue;
+            }
+            write(records);
+            force();
+            entry.barrier.run();
+        }
+        write(records);
+        if (FSYNC_POLICY == FsyncPolicy.ALWAYS) {
+            force();
+        } else {
+            forceIfDue();
+        }
+    }
+
+    /**
+     * Writes and empties the buffered records, along with any patched fields.
+     *
+     * @param records Buffered records.
+     * @throws IOException Throws if the records cannot be written.
+     */
+    private void write(StringBuilder records) throws IOException {
+        if (this.patcher.flush()) {
+            this.isDirty = true;
+        }
+        if (records.length() == 0) {
+            return;
+        }
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        records.setLength(0);
+        this.isDirty = true;
+    }
+
+    /**
+     * Forces written records to disk if the fsync policy says they are due.
+     *
+     * @throws IOException Throws if the records cannot be forced.
+     */
+    private void forceIfDue() throws IOException {
+        if (FSYNC_POLICY == FsyncPolicy.INTERVAL
+                && System.currentTimeMillis() - this.lastForced >= FLUSH_INTERVAL_MILLIS) {
+            force();
+        }
+    }
+
+    /**
+     * Forces written records to disk.
+     *
+     * @throws IOException Throws if the records cannot be forced.
+     */
+    private void force() throws IOException {
+        if (this.isDirty && this.channel != null) {
+            this.channel.force(false);
+        }
+        if (this.isDirty) {
+            this.patcher.force();
+        }
+        this.isDirty = false;
+        this.lastForced = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes the channel after forcing it, so the journal file can be moved.
+     *
+     * @throws IOException Throws if the channel cannot be forced or closed.
+     */
+    private void closeChannel() throws IOException {
+        force();
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Moves the journal file to the target, appending to the target if it already exists.
+     *
+     * @param target Journal file to move the records to.
+     * @throws IOException Throws if the records cannot be moved.
+     */
+    private void moveRecords(File target) throws IOException {
+        if (!this.file.exists()) {
+            return;
+        }
+        if (target.exists()) {
+            Files.write(target.toPath(), Files.readAllBytes(this.file.toPath()), StandardOpenOption.APPEND);
+            Files.delete(this.file.toPath());
+        } else {
+            Files.move(this.file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Runs the barriers of a failed batch so that nobody waits on them forever.
+     *
+     * @param batch Entries of the failed batch.
+     */
+    private void runBarriers(List<Entry> batch) {
+        for (Entry entry : batch) {
+            if (entry.barrier != null) {
+                entry.barrier.run();
+            }
+        }
+    }
+
+    /**
+     * Throws if the writer thread has failed to write a record.
+     *
+     * @throws KappaException Throws if a record could not be written.
+     */
+    private void checkFailure() throws KappaException {
+        if (this.failure != null) {
+            throw new InOutWentWrongException();
+        }
+    }
+
+    /**
+     * Queued item which is a record to append, a field to patch, or a barrier to run once the records before it
+     * are on disk.
+     */
+    private static class Entry {
+
+        private final String record;
+        private final Runnable barrier;
+        private final long offset;
+        private final byte[] patch;
+
+        /**
+         * Constructor for an entry.
+         *
+         * @param record Record to append, or null for a barrier.
+         * @param barrier Barrier to run, or null for a record.
+         */
+        Entry(String record, Runnable barrier) {
+            this.record = record;
+            this.barrier = barrier;
+            this.offset = 0;
+            this.patch = null;
+        }
+
+        /**
+         * Constructor for a patch entry.
+         *
+         * @param offset Offset of the field in the snapshot.
+         * @param patch New value of the field.
+         */
+        Entry(long offset, byte[] patch) {
+            this.record = null;
+            this.barrier = null;
+            this.offset = offset;
+            this.patch = patch;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package kappa.elements;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memory outside the Java heap which blocks of bytes are allocated from, either direct buffers or windows of a
+ * memory-mapped file. The garbage collector sees one small buffer object per chunk, however many blocks there are.
+ *
+ * <p>Chunks start small and double up to {@code MAX_CHUNK_BYTES}. Blocks are rounded up to a power of two, and a
+ * freed block is put on the free list of its size, which is threaded through the freed blocks themselves, so the
+ * next block of that size reuses it. An address holds the chunk number in its high half and the position in the
+ * chunk in its low half.</p>
+ */
+class OffHeapArena {
+
+    static final int MIN_BLOCK_BYTES = 32;
+
+    private static final int MIN_CHUNK_BYTES = 1 << 16;
+    private static final int MAX_CHUNK_BYTES = 1 << 26;
+    private static final long NONE = -1;
+
+    private final File file;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final long[] freeLists = new long[Integer.SIZE];
+    private FileChannel channel;
+    private long mappedBytes;
+    private int currentChunk;
+    private int position;
+    private long reservedBytes;
+    private long usedBytes;
+
+    /**
+     * Constructor for an arena of direct buffers, or of windows of a file which is only used as backing memory and
+     * is deleted when the program exits.
+     *
+     * @param file File to map, or null to use direct buffers.
+     */
+    OffHeapArena(File file) {
+        this.file = file;
+        Arrays.fill(this.freeLists, NONE);
+    }
+
+    /**
+     * Allocates a block, reusing a freed block of the same size if there is one.
+     *
+     * @param bytes Number of bytes needed.
+     * @return Address of the block.
+     * @throws UncheckedIOException Throws if the backing file cannot be grown.
+     */
+    long allocate(int bytes) {
+        int sizeClass = getSizeClass(bytes);
+        long address = this.freeLists[sizeClass];
+        if (address != NONE) {
+            this.freeLists[sizeClass] = getLong(address, 0);
+        } else {
+            address = bump(1 << sizeClass);
+        }
+        this.usedBytes += 1 << sizeClass;
+        return address;
+    }
+
+    /**
+     * Puts a block on the free list of its size.
+     *
+     * @param address Address of the block.
+     * @param bytes Number of bytes the block was allocated with.
+     */
+    void free(long address, int bytes) {
+        int sizeClass = getSizeClass(bytes);
+        release(address, sizeClass);
+        this.usedBytes -= 1 << sizeClass;
+    }
+
+    /**
+     * Forgets every block, keeping the chunks to be filled again from the start.
+     */
+    void clear() {
+        Arrays.fill(this.freeLists, NONE);
+        this.currentChunk = 0;
+        this.position = 0;
+        this.usedBytes = 0;
+    }
+
+    /**
+     * Returns the number of bytes in blocks which are allocated.
+     *
+     * @return Bytes in use.
+     */
+    long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    /**
+     * Returns the number of bytes in every chunk, allocated or not.
+     *
+     * @return Bytes held outside the heap.
+     */
+    long getReservedBytes() {
+        return this.reservedBytes;
+    }
+
+    /**
+     * Reads a byte from a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset in the block.
+     * @return Value read.
+     */
+    byte getByte(long address, int offset) {
+        return chunk(address).get(position(address) + offset);
+    }
+
+    /**
+     * Writes a byte to a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset in the block.
+     * @param value Value to write.
+     */
+    void putByte(long address, int offset, byte value) {
+        chunk(address).put(position(address) + offset, value);
+    }
+
+    /**
+     * Reads an int from a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset in the block.
+     * @return Value read.
+     */
+    int getInt(long address, int offset) {
+        return chunk(address).getInt(position(address) + offset);
+    }
+
+    /**
+     * Writes an int to a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset in the block.
+     * @param value Value to write.
+     */
+    void putInt(long address, int offset, int value) {
+        chunk(address).putInt(position(address) + offset, value);
+    }
+
+    /**
+     * Reads a long from a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset in the block.
+     * @return Value read.
+     */
+    long getLong(long address, int offset) {
+        return chunk(address).getLong(position(address) + offset);
+    }
+
+    /**
+     * Writes a long to a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset in the block.
+     * @param value Value to write.
+     */
+    void putLong(long address, int offset, long value) {
+        chunk(address).putLong(position(address) + offset, value);
+    }
+
+    /**
+     * Copies bytes out of a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset of the first byte in the block.
+     * @param length Number of bytes to copy.
+     * @return Bytes copied.
+     */
+    byte[] getBytes(long address, int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer chunk = chunk(address).duplicate();
+        chunk.position(position(address) + offset);
+        chunk.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Copies bytes into a block.
+     *
+     * @param address Address of the block.
+     * @param offset Offset of the first byte in the block.
+     * @param bytes Bytes to copy.
+     */
+    void putBytes(long address, int offset, byte[] bytes) {
+        ByteBuffer chunk = chunk(address).duplicate();
+        chunk.position(position(address) + offset);
+        chunk.put(bytes);
+    }
+
+    /**
+     * Checks if a range of a block contains a byte pattern, without copying the range out.
+     *
+     * @param address Address of the block.
+     * @param offset Offset of the range in the block.
+     * @param length Length of the range.
+     * @param pattern Bytes to look for.
+     * @return True if the pattern is in the range.
+     */
+    boolean contains(long address, int offset, int length, byte[] pattern) {
+        if (pattern.length == 0) {
+            return true;
+        }
+        ByteBuffer chunk = chunk(address);
+        int start = position(address) + offset;
+        int last = start + length - pattern.length;
+        for (int i = start; i <= last; i++) {
+            if (chunk.get(i) != pattern[0]) {
+                continue;
+            }
+            int matched = 1;
+            while (matched < pattern.length && chunk.get(i + matched) == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Works out the power of two a block is rounded up to.
+     *
+     * @param bytes Number of bytes needed.
+     * @return Exponent of the block size.
+     */
+    private static int getSizeClass(int bytes) {
+        int size = Math.max(bytes, MIN_BLOCK_BYTES);
+        if (size > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Block of " + bytes + " bytes is larger than a chunk");
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    /**
+     * Puts a block of a size class on its free list.
+     *
+     * @param address Address of the block.
+     * @param sizeClass Exponent of the block size.
+     */
+    private void release(long address, int sizeClass) {
+        putLong(address, 0, this.freeLists[sizeClass]);
+        this.freeLists[sizeClass] = address;
+    }
+
+    /**
+     * Takes a new block from the end of the current chunk, moving on to the next chunk if it does not fit.
+     * The unused end of a chunk which is left behind is put on the free lists.
+     *
+     * @param size Size of the block, a power of two.
+     * @return Address of the block.
+     */
+    private long bump(int size) {
+        while (this.currentChunk < this.chunks.size()
+                && this.position + size > this.chunks.get(this.currentChunk).capacity()) {
+            int remaining = this.chunks.get(this.currentChunk).capacity() - this.position;
+            while (remaining >= MIN_BLOCK_BYTES) {
+                int sizeClass = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(remaining);
+                release(toAddress(this.currentChunk, this.position), sizeClass);
+                this.position += 1 << sizeClass;
+                remaining -= 1 << sizeClass;
+            }
+            this.currentChunk++;
+            this.position = 0;
+        }
+        if (this.currentChunk == this.chunks.size()) {
+            addChunk(Math.max(size, (int) Math.min((long) MIN_CHUNK_BYTES << this.chunks.size(), MAX_CHUNK_BYTES)));
+        }
+        long address = toAddress(this.currentChunk, this.position);
+        this.position += size;
+        return address;
+    }
+
+    /**
+     * Adds a chunk, mapping the next window of the file if the arena is backed by one.
+     *
+     * @param capacity Size of the chunk.
+     * @throws UncheckedIOException Throws if the file cannot be opened or grown.
+     */
+    private void addChunk(int capacity) {
+        if (this.file == null) {
+            this.chunks.add(ByteBuffer.allocateDirect(capacity));
+        } else {
+            try {
+                if (this.channel == null) {
+                    this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                    this.file.deleteOnExit();
+                }
+                this.chunks.add(this.channel.map(FileChannel.MapMode.READ_WRITE, this.mappedBytes, capacity));
+                this.mappedBytes += capacity;
+            } catch (IOException error) {
+                throw new UncheckedIOException(error);
+            }
+        }
+        this.reservedBytes += capacity;
+    }
+
+    /**
+     * Gets the chunk an address is in.
+     *
+     * @param address Address in the arena.
+     * @return Chunk holding the address.
+     */
+    private ByteBuffer chunk(long address) {
+        return this.chunks.get((int) (address >>> Integer.SIZE));
+    }
+
+    /**
+     * Gets the position of an address in its chunk.
+     *
+     * @param address Address in the arena.
+     * @return Position in the chunk.
+     */
+    private static int position(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Makes the address of a position in a chunk.
+     *
+     * @param chunk Number of the chunk.
+     * @param position Position in the chunk.
+     * @return Address in the arena.
+     */
+    private static long toAddress(int chunk, int position) {
+        return ((long) chunk << Integer.SIZE) | position;
+    }
+}
@@ -0,0 +1,292 @@
+package kappa.elements;
+
+import kappa.task.Deadline;
+import kappa.task.Event;
+import kappa.task.Recurring;
+import kappa.task.Task;
+import kappa.task.TaskType;
+import kappa.task.ToDo;
+
+import java.io.File;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Task store which keeps every task as a record in an {@link OffHeapArena}, so that task data is not on the heap
+ * and adds nothing to the work of the garbage collector. The heap only holds the address of every id's record,
+ * the rank tree and one {@link Tags} for every distinct set of tags.
+ * Task objects are only made, as views, when a task is handed out to be shown. The live ids are walked through
+ * the rank tree and the number of done tasks is kept as tasks change.
+ *
+ * <p>A record holds the type (byte), done flag (byte), date and end in epoch minutes (long), tag set number (int),
+ * description length (int) and date text length (int), followed by the description and date text as UTF-8.
+ * As in {@link ColumnarTasks}, a date which formats back from its epoch minute is not kept as text.
+ * A removed task's record goes back on the arena's free list. Recurring tasks, which are few and hold their
+ * completed occurrences, are also kept whole as objects on the heap and handed out as they are.</p>
+ */
+class OffHeapTasks implements TaskStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final long NO_RECORD = -1;
+    private static final int FORMATTED_DATE = -1;
+
+    private static final int TYPE = 0;
+    private static final int DONE = 1;
+    private static final int EPOCH_MINUTE = 2;
+    private static final int END_MINUTE = 10;
+    private static final int TAG_SET = 18;
+    private static final int DESCRIPTION_LENGTH = 22;
+    private static final int DATE_LENGTH = 26;
+    private static final int TEXT = 30;
+
+    private final OffHeapArena arena;
+    private final List<Tags> tagSets = new ArrayList<>();
+    private final Map<Tags, Integer> tagSetNumbers = new HashMap<>();
+    private final Map<Integer, Recurring> recurring = new HashMap<>();
+    private RankTree ranks;
+    private long[] addresses;
+    private int nextId;
+    private int doneCount;
+
+    /**
+     * Constructor for a store holding the given tasks, which must be in increasing id order.
+     *
+     * @param list Tasks to hold.
+     * @param nextId Smallest id which may be given to a new task.
+     * @param file File to map as the arena, or null to keep the arena in direct memory.
+     */
+    OffHeapTasks(List<Task> list, int nextId, File file) {
+        this.arena = new OffHeapArena(file);
+        this.ranks = new RankTree(INITIAL_CAPACITY);
+        this.addresses = new long[INITIAL_CAPACITY + 1];
+        Arrays.fill(this.addresses, NO_RECORD);
+        this.nextId = Math.max(nextId, 1);
+        for (Task task : list) {
+            add(task);
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        this.ranks.add(id);
+        if (this.ranks.getCapacity() >= this.addresses.length) {
+            int length = this.addresses.length;
+            this.addresses = Arrays.copyOf(this.addresses, this.ranks.getCapacity() + 1);
+            Arrays.fill(this.addresses, length, this.addresses.length, NO_RECORD);
+        }
+        long epochMinute = task.getEpochMinute();
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        boolean isFormatted = task.getDate().equals(DateTime.formatEpochMinute(epochMinute));
+        byte[] date = isFormatted ? new byte[0] : task.getDate().getBytes(StandardCharsets.UTF_8);
+
+        long address = this.arena.allocate(TEXT + description.length + date.length);
+        this.arena.putByte(address, TYPE, (byte) task.getType().ordinal());
+        this.arena.putByte(address, DONE, (byte) (task.getIsDone() ? 1 : 0));
+        this.arena.putLong(address, EPOCH_MINUTE, epochMinute);
+        this.arena.putLong(address, END_MINUTE, task instanceof Event ? ((Event) task).getEndMinute() : epochMinute);
+        this.arena.putInt(address, TAG_SET, getTagSetNumber(task.getTags()));
+        this.arena.putInt(address, DESCRIPTION_LENGTH, description.length);
+        this.arena.putInt(address, DATE_LENGTH, isFormatted ? FORMATTED_DATE : date.length);
+        this.arena.putBytes(address, TEXT, description);
+        this.arena.putBytes(address, TEXT + description.length, date);
+        this.addresses[id] = address;
+        this.doneCount += task.getIsDone() ? 1 : 0;
+        if (task.getType() == TaskType.RECURRING) {
+            this.recurring.put(id, (Recurring) task);
+        }
+        this.nextId = Math.max(this.nextId, id + 1);
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 1 || index > this.ranks.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.ranks.size());
+        }
+        return materialize(this.ranks.select(index));
+    }
+
+    @Override
+    public Task getById(int id) {
+        return isLive(id) ? materialize(id) : null;
+    }
+
+    @Override
+    public int indexOf(int id) {
+        return this.ranks.rank(id);
+    }
+
+    @Override
+    public void remove(int id) {
+        if (!isLive(id)) {
+            return;
+        }
+        long address = this.addresses[id];
+        this.doneCount -= this.arena.getByte(address, DONE) != 0 ? 1 : 0;
+        this.arena.free(address, getRecordLength(address));
+        this.addresses[id] = NO_RECORD;
+        this.recurring.remove(id);
+        this.ranks.remove(id);
+    }
+
+    @Override
+    public void setDone(int id) {
+        long address = this.addresses[id];
+        this.doneCount += this.arena.getByte(address, DONE) != 0 ? 0 : 1;
+        this.arena.putByte(address, DONE, (byte) 1);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.addresses, NO_RECORD);
+        this.arena.clear();
+        this.tagSets.clear();
+        this.tagSetNumbers.clear();
+        this.recurring.clear();
+        this.ranks.clear();
+        this.doneCount = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.ranks.size();
+    }
+
+    @Override
+    public int countDone() {
+        return this.doneCount;
+    }
+
+    @Override
+    public int getNextId() {
+        return this.nextId;
+    }
+
+    @Override
+    public int[] getIds() {
+        return this.ranks.toArray();
+    }
+
+    @Override
+    public int[] filterContaining(int[] ids, String term) {
+        byte[] pattern = term.getBytes(StandardCharsets.UTF_8);
+        int[] found = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            if (!isLive(id)) {
+                continue;
+            }
+            long address = this.addresses[id];
+            if (this.arena.contains(address, TEXT, this.arena.getInt(address, DESCRIPTION_LENGTH), pattern)) {
+                found[count] = id;
+                count++;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    @Override
+    public ArrayList<Task> toList() {
+        ArrayList<Task> list = new ArrayList<>(size());
+        for (int id : getIds()) {
+            list.add(materialize(id));
+        }
+        return list;
+    }
+
+    @Override
+    public long getOffHeapBytes() {
+        return this.arena.getReservedBytes();
+    }
+
+    /**
+     * Checks if an id belongs to a task in the store.
+     *
+     * @param id Id to check.
+     * @return True if the task is in the store.
+     */
+    private boolean isLive(int id) {
+        return id >= 1 && id < this.addresses.length && this.addresses[id] != NO_RECORD;
+    }
+
+    /**
+     * Gets the number of a set of tags, giving it a new number if no task has had it before.
+     *
+     * @param tags Tags of a task.
+     * @return Number of the tag set.
+     */
+    private int getTagSetNumber(Tags tags) {
+        Integer number = this.tagSetNumbers.get(tags);
+        if (number == null) {
+            number = this.tagSets.size();
+            this.tagSets.add(tags);
+            this.tagSetNumbers.put(tags, number);
+        }
+        return number;
+    }
+
+    /**
+     * Returns the number of bytes a record was allocated with.
+     *
+     * @param address Address of the record.
+     * @return Length of the record.
+     */
+    private int getRecordLength(long address) {
+        return TEXT + this.arena.getInt(address, DESCRIPTION_LENGTH)
+                + Math.max(this.arena.getInt(address, DATE_LENGTH), 0);
+    }
+
+    /**
+     * Makes a task object holding the fields of a record.
+     *
+     * @param id Id of the task.
+     * @return View of the task.
+     */
+    private Task materialize(int id) {
+        long address = this.addresses[id];
+        int descriptionLength = this.arena.getInt(address, DESCRIPTION_LENGTH);
+        String description = new String(this.arena.getBytes(address, TEXT, descriptionLength),
+                StandardCharsets.UTF_8);
+        Tags tags = this.tagSets.get(this.arena.getInt(address, TAG_SET));
+        long epochMinute = this.arena.getLong(address, EPOCH_MINUTE);
+        Task task;
+        switch (TYPES[this.arena.getByte(address, TYPE)]) {
+        case DEADLINE:
+            task = new Deadline(description, id, readDate(address, descriptionLength), epochMinute, tags);
+            break;
+        case EVENT:
+            task = new Event(description, id, readDate(address, descriptionLength), epochMinute,
+                    this.arena.getLong(address, END_MINUTE), tags);
+            break;
+        case RECURRING:
+            return this.recurring.get(id);
+        default:
+            task = new ToDo(description, id, tags);
+        }
+        if (this.arena.getByte(address, DONE) != 0) {
+            task.setDone();
+        }
+        return task;
+    }
+
+    /**
+     * Gets the date text of a record, formatting its epoch minute or reading the text after the description.
+     *
+     * @param address Address of the record.
+     * @param descriptionLength Length of the description in bytes.
+     * @return Date text.
+     */
+    private String readDate(long address, int descriptionLength) {
+        int dateLength = this.arena.getInt(address, DATE_LENGTH);
+        if (dateLength == FORMATTED_DATE) {
+            return DateTime.formatEpochMinute(this.arena.getLong(address, EPOCH_MINUTE));
+        }
+        return new String(this.arena.getBytes(address, TEXT + descriptionLength, dateLength), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Task store which keeps task objects in slots by their stable id, which is never reused.
+ * A {@link RankTree} counts the live tasks in every range of ids, so the position a task is shown at and the task
+ * at a given position are both found in O(log n), and removing a task never moves or renumbers the others.
+ * Walking the tasks selects every position in turn, so it costs the number of live tasks rather than the number of
+ * ids ever given out.
+ */
+class OrderedTasks implements TaskStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Task[] slots;
+    private RankTree ranks;
+    private int nextId;
+    private int doneCount;
+
+    /**
+     * Constructor for an empty list.
+     */
+    OrderedTasks() {
+        this(new ArrayList<>(), 1);
+    }
+
+    /**
+     * Constructor for a list holding the given tasks, which must be in increasing id order.
+     *
+     * @param list Tasks to hold.
+     * @param nextId Smallest id which may be given to a new task.
+     */
+    OrderedTasks(List<Task> list, int nextId) {
+        this.ranks = new RankTree(INITIAL_CAPACITY);
+        this.slots = new Task[INITIAL_CAPACITY + 1];
+        this.nextId = Math.max(nextId, 1);
+        for (Task task : list) {
+            add(task);
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        this.ranks.add(id);
+        if (this.ranks.getCapacity() >= this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, this.ranks.getCapacity() + 1);
+        }
+        this.slots[id] = task;
+        this.doneCount += task.getIsDone() ? 1 : 0;
+        this.nextId = Math.max(this.nextId, id + 1);
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 1 || index > this.ranks.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.ranks.size());
+        }
+        return this.slots[this.ranks.select(index)];
+    }
+
+    @Override
+    public Task getById(int id) {
+        return id < 1 || id >= this.slots.length ? null : this.slots[id];
+    }
+
+    @Override
+    public int indexOf(int id) {
+        return this.ranks.rank(id);
+    }
+
+    @Override
+    public void remove(int id) {
+        Task task = getById(id);
+        if (task == null) {
+            return;
+        }
+        this.doneCount -= task.getIsDone() ? 1 : 0;
+        this.slots[id] = null;
+        this.ranks.remove(id);
+    }
+
+    @Override
+    public void setDone(int id) {
+        Task task = getById(id);
+        if (!task.getIsDone()) {
+            task.setDone();
+            this.doneCount++;
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.slots, null);
+        this.ranks.clear();
+        this.doneCount = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.ranks.size();
+    }
+
+    @Override
+    public int countDone() {
+        return this.doneCount;
+    }
+
+    @Override
+    public int getNextId() {
+        return this.nextId;
+    }
+
+    @Override
+    public int[] getIds() {
+        return this.ranks.toArray();
+    }
+
+    @Override
+    public int[] filterContaining(int[] ids, String term) {
+        int[] found = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            Task task = getById(id);
+            if (task != null && task.getDescription().contains(term)) {
+                found[count] = id;
+                count++;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    @Override
+    public long getOffHeapBytes() {
+        return 0;
+    }
+
+    @Override
+    public ArrayList<Task> toList() {
+        ArrayList<Task> list = new ArrayList<>(size());
+        for (int index = 1; index <= size(); index++) {
+            list.add(this.slots[this.ranks.select(index)]);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,164 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.List;
+
+/**
+ * Place the last page of a list or search ended at, from which {@code more} shows the next page.
+ * A page of the list ends at a task, and the next page starts at the first task after it in list order, so tasks
+ * added or removed since are taken into account. A page of search results ends at a position in the results, which
+ * only hold while the list has the version it had when the search ran. Ranked results keep only the ids of the
+ * matches and the query, and the next page is ranked again when it is shown.
+ */
+class PageCursor {
+
+    private final Task lastTask;
+    private final List<Task> matches;
+    private final int[] ids;
+    private final String query;
+    private final int shown;
+    private final long version;
+    private final int size;
+
+    /**
+     * Constructor for PageCursor.
+     *
+     * @param lastTask Last task shown of the list, or null for search results.
+     * @param matches Results of the search, or null for the list or ranked results.
+     * @param ids Ids of the matches of a ranked search, or null for the list or other results.
+     * @param query Query the matches are ranked by, or null if they are not ranked.
+     * @param shown Number of results shown so far.
+     * @param version Version of the list when the search ran.
+     * @param size Number of tasks on a page.
+     */
+    private PageCursor(Task lastTask, List<Task> matches, int[] ids, String query, int shown, long version,
+            int size) {
+        this.lastTask = lastTask;
+        this.matches = matches;
+        this.ids = ids;
+        this.query = query;
+        this.shown = shown;
+        this.version = version;
+        this.size = size;
+    }
+
+    /**
+     * Creates a cursor after a task of the list.
+     *
+     * @param lastTask Last task shown.
+     * @param size Number of tasks on a page.
+     * @return Cursor which continues the list after the task.
+     */
+    static PageCursor afterTask(Task lastTask, int size) {
+        return new PageCursor(lastTask, null, null, null, 0, 0, size);
+    }
+
+    /**
+     * Creates a cursor after some of the results of a search.
+     *
+     * @param matches Results of the search, which are kept until the cursor is dropped.
+     * @param shown Number of results shown so far.
+     * @param version Version of the list when the search ran.
+     * @param size Number of tasks on a page.
+     * @return Cursor which continues the results after those shown.
+     */
+    static PageCursor afterMatch(List<Task> matches, int shown, long version, int size) {
+        return new PageCursor(null, matches, null, null, shown, version, size);
+    }
+
+    /**
+     * Creates a cursor after the most relevant results of a ranked search.
+     *
+     * @param ids Ids of every match, which are kept until the cursor is dropped.
+     * @param query Query the matches are ranked by.
+     * @param shown Number of results shown so far.
+     * @param version Version of the list when the search ran.
+     * @param size Number of tasks on a page.
+     * @return Cursor which continues the results after those shown.
+     */
+    static PageCursor afterRank(int[] ids, String query, int shown, long version, int size) {
+        return new PageCursor(null, null, ids, query, shown, version, size);
+    }
+
+    /**
+     * Checks if the cursor continues the list rather than search results.
+     *
+     * @return True if the cursor is after a task of the list.
+     */
+    boolean isInList() {
+        return this.matches == null && this.ids == null;
+    }
+
+    /**
+     * Checks if the cursor continues ranked search results.
+     *
+     * @return True if the cursor is after some of the most relevant matches.
+     */
+    boolean isRanked() {
+        return this.ids != null;
+    }
+
+    /**
+     * Gets the last task of the list shown.
+     *
+     * @return Last task shown, which may have been removed since.
+     */
+    Task getLastTask() {
+        return this.lastTask;
+    }
+
+    /**
+     * Gets the results of the search.
+     *
+     * @return Every result, including those shown.
+     */
+    List<Task> getMatches() {
+        return this.matches;
+    }
+
+    /**
+     * Gets the ids of the matches of a ranked search.
+     *
+     * @return Ids of every match, including those shown.
+     */
+    int[] getIds() {
+        return this.ids;
+    }
+
+    /**
+     * Gets the query the matches are ranked by.
+     *
+     * @return Query of the ranked search.
+     */
+    String getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Returns the number of results shown so far.
+     *
+     * @return Number of results shown.
+     */
+    int getShown() {
+        return this.shown;
+    }
+
+    /**
+     * Returns the version of the list the search ran against.
+     *
+     * @return Version of the list.
+     */
+    long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the number of tasks on a page.
+     *
+     * @return Page size.
+     */
+    int getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,197 @@
+package kappa.elements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Scan engine which splits a run of tasks into chunks, works on the chunks on a fork/join pool and joins the results
+ * of the chunks back together in order, so a scan gives the same result on any number of threads.
+ * Scans run on the pool of the calling thread if it is a fork/join worker, and on the common pool otherwise.
+ * Runs shorter than {@code THRESHOLD}, and every run when the pool has a single thread, are scanned on the calling
+ * thread, as splitting them costs more than it saves.
+ *
+ * <p>Work done on a chunk must only read the task list, which never changes while a command runs.</p>
+ */
+class ParallelScan {
+
+    static final int THRESHOLD = Integer.getInteger("kappa.scan.parallelThreshold", 1 << 15);
+
+    private static final int MIN_CHUNK_SIZE = 1 << 11;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Keeps some of a run of ids, filtering chunks of them at once.
+     *
+     * @param ids Ids to filter.
+     * @param filter Filter which keeps some ids of a chunk, in the order they are given.
+     * @return Kept ids, in the order they were given.
+     */
+    static int[] filter(int[] ids, UnaryOperator<int[]> filter) {
+        if (!isWorthSplitting(ids.length)) {
+            return filter.apply(ids);
+        }
+        List<int[]> chunks = scan(ids.length, (from, to) -> filter.apply(Arrays.copyOfRange(ids, from, to)));
+        int size = 0;
+        for (int[] chunk : chunks) {
+            size += chunk.length;
+        }
+        int[] kept = new int[size];
+        int position = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, kept, position, chunk.length);
+            position += chunk.length;
+        }
+        return kept;
+    }
+
+    /**
+     * Keeps the items of a list a condition holds for, checking chunks of them at once.
+     *
+     * @param items Items to check.
+     * @param condition Condition to check every item against.
+     * @param <T> Type of item.
+     * @return Items the condition holds for, in list order.
+     */
+    static <T> ArrayList<T> filter(List<T> items, Predicate<T> condition) {
+        List<ArrayList<T>> chunks = scan(items.size(), (from, to) -> {
+            ArrayList<T> kept = new ArrayList<>();
+            for (T item : items.subList(from, to)) {
+                if (condition.test(item)) {
+                    kept.add(item);
+                }
+            }
+            return kept;
+        });
+        return concatenate(chunks);
+    }
+
+    /**
+     * Works out an item for every position of a run, working out chunks of them at once.
+     *
+     * @param count Number of positions.
+     * @param function Function which works out the item at a position.
+     * @param <T> Type of item.
+     * @return Items in order of position.
+     */
+    static <T> ArrayList<T> map(int count, IntFunction<T> function) {
+        List<ArrayList<T>> chunks = scan(count, (from, to) -> {
+            ArrayList<T> items = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                items.add(function.apply(i));
+            }
+            return items;
+        });
+        return concatenate(chunks);
+    }
+
+    /**
+     * Works on a run split into chunks, on the calling thread if the run is short.
+     *
+     * @param count Length of the run.
+     * @param chunk Work on the chunk from a position (inclusive) to another (exclusive).
+     * @param <R> Result of a chunk.
+     * @return Results of the chunks, in order.
+     */
+    private static <R> List<R> scan(int count, BiFunction<Integer, Integer, R> chunk) {
+        if (!isWorthSplitting(count)) {
+            List<R> results = new ArrayList<>(1);
+            results.add(chunk.apply(0, count));
+            return results;
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, count / (getPool().getParallelism() * CHUNKS_PER_THREAD) + 1);
+        return new ScanTask<>(chunk, chunkSize, 0, count).invoke();
+    }
+
+    /**
+     * Checks if a run is long enough, and the pool large enough, for splitting the run to pay off.
+     *
+     * @param count Length of the run.
+     * @return True if the run should be split into chunks.
+     */
+    private static boolean isWorthSplitting(int count) {
+        return count >= THRESHOLD && getPool().getParallelism() > 1;
+    }
+
+    /**
+     * Gets the pool a scan from the calling thread runs on.
+     *
+     * @return Pool of the calling thread if it is a fork/join worker, and the common pool otherwise.
+     */
+    private static ForkJoinPool getPool() {
+        return ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Joins lists in order.
+     *
+     * @param chunks Lists to join.
+     * @param <T> Type of item.
+     * @return Items of every list, in order.
+     */
+    private static <T> ArrayList<T> concatenate(List<ArrayList<T>> chunks) {
+        if (chunks.size() == 1) {
+            return chunks.get(0);
+        }
+        int size = 0;
+        for (ArrayList<T> chunk : chunks) {
+            size += chunk.size();
+        }
+        ArrayList<T> joined = new ArrayList<>(size);
+        for (ArrayList<T> chunk : chunks) {
+            joined.addAll(chunk);
+        }
+        return joined;
+    }
+
+    /**
+     * Fork/join task which splits a run in half until it is no longer than a chunk.
+     *
+     * @param <R> Result of a chunk.
+     */
+    private static class ScanTask<R> extends RecursiveTask<List<R>> {
+
+        private final BiFunction<Integer, Integer, R> chunk;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructor for a task over the positions from {@code from} (inclusive) to {@code to} (exclusive).
+         *
+         * @param chunk Work on a chunk.
+         * @param chunkSize Largest length of a chunk.
+         * @param from First position.
+         * @param to Position after the last one.
+         */
+        ScanTask(BiFunction<Integer, Integer, R> chunk, int chunkSize, int from, int to) {
+            this.chunk = chunk;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (this.to - this.from > this.chunkSize) {
+                int middle = (this.from + this.to) >>> 1;
+                ScanTask<R> left = new ScanTask<>(this.chunk, this.chunkSize, this.from, middle);
+                left.fork();
+                List<R> right = new ScanTask<>(this.chunk, this.chunkSize, middle, this.to).compute();
+                List<R> results = left.join();
+                results.addAll(right);
+                return results;
+            }
+            List<R> results = new ArrayList<>();
+            results.add(this.chunk.apply(this.from, this.to));
+            return results;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package kappa.elements;
+
+import kappa.exception.InOutWentWrongException;
+import kappa.exception.KappaException;
+import kappa.exception.UnableToReadFileException;
+
+import kappa.task.Task;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads large storage files by parsing newline-aligned byte ranges of the file on a fork/join pool.
+ * Ranges are stitched back together in file order, so tasks keep the same order and ids as a sequential load.
+ */
+class ParallelTextLoader {
+
+    static final long THRESHOLD_BYTES = Long.getLong("kappa.load.parallelThresholdBytes", 8L << 20);
+
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final int BOUNDARY_SCAN_BYTES = 1 << 12;
+
+    private final File file;
+    private final int chunkBytes;
+
+    /**
+     * Constructor for a loader of a single storage file.
+     *
+     * @param file Storage file.
+     */
+    ParallelTextLoader(File file) {
+        this(file, CHUNK_BYTES);
+    }
+
+    /**
+     * Constructor for a loader which splits a storage file into ranges of a given size, so that even a small file
+     * can be split into many ranges.
+     *
+     * @param file Storage file.
+     * @param chunkBytes Length of a range in bytes, before it is moved to the start of a line.
+     */
+    ParallelTextLoader(File file, int chunkBytes) {
+        this.file = file;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Checks if a storage file is large enough for a parallel load to pay off.
+     *
+     * @param file Storage file.
+     * @return True if the file should be loaded in parallel.
+     */
+    static boolean shouldLoad(File file) {
+        return file.length() >= THRESHOLD_BYTES;
+    }
+
+    /**
+     * Parses every line of the storage file.
+     *
+     * @return Tasks in file order.
+     * @throws KappaException Throws if the file cannot be read or a line cannot be parsed.
+     */
+    ArrayList<Task> load() throws KappaException {
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            long[] boundaries = findBoundaries(channel);
+            List<Chunk> chunks = ForkJoinPool.commonPool().invoke(new ParseTask(channel, boundaries, 0,
+                    boundaries.length - 1));
+            return stitch(chunks);
+        } catch (IOException error) {
+            throw new InOutWentWrongException();
+        }
+    }
+
+    /**
+     * Splits the file into ranges of about {@code chunkBytes}, moving every boundary to just after a newline.
+     *
+     * @param channel Channel to the storage file.
+     * @return Start of every range, followed by the end of the file.
+     * @throws IOException Throws if the file cannot be read.
+     */
+    private long[] findBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int count = (int) Math.max(1, (size + this.chunkBytes - 1) / this.chunkBytes);
+        long[] boundaries = new long[count + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        for (int i = 1; i < count; i++) {
+            long position = Math.max(boundaries[i - 1], size * i / count);
+            boundaries[i] = findLineStart(channel, buffer, position, size);
+        }
+        boundaries[count] = size;
+        return boundaries;
+    }
+
+    /**
+     * Finds the start of the first line at or after a position.
+     *
+     * @param channel Channel to the storage file.
+     * @param buffer Buffer to scan with.
+     * @param position Position to start scanning from.
+     * @param size Size of the file.
+     * @return Position just after the next newline, or the end of the file.
+     * @throws IOException Throws if the file cannot be read.
+     */
+    private long findLineStart(FileChannel channel, ByteBuffer buffer, long position, long size) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    /**
+     * Joins parsed ranges in file order, reporting the first line which could not be parsed.
+     *
+     * @param chunks Parsed ranges in file order.
+     * @return Tasks in file order.
+     * @throws KappaException Throws if a line could not be parsed.
+     */
+    private ArrayList<Task> stitch(List<Chunk> chunks) throws KappaException {
+        int lines = 0;
+        int size = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.failedLine > 0) {
+                throw new UnableToReadFileException(lines + chunk.failedLine);
+            }
+            lines += chunk.lines;
+            size += chunk.tasks.size();
+        }
+        ArrayList<Task> taskList = new ArrayList<>(size);
+        for (Chunk chunk : chunks) {
+            taskList.addAll(chunk.tasks);
+        }
+        return taskList;
+    }
+
+    /**
+     * Tasks parsed from one range of the file.
+     */
+    private static class Chunk {
+
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private int lines;
+        private int failedLine;
+    }
+
+    /**
+     * Fork/join task which splits a run of ranges in half until a single range is left to parse.
+     */
+    private static class ParseTask extends RecursiveTask<List<Chunk>> {
+
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructor for a task over the ranges from {@code from} (inclusive) to {@code to} (exclusive).
+         *
+         * @param channel Channel to the storage file.
+         * @param boundaries Start of every range, followed by the end of the file.
+         * @param from First range.
+         * @param to Range after the last one.
+         */
+        ParseTask(FileChannel channel, long[] boundaries, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Chunk> compute() {
+            if (this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+                ParseTask left = new ParseTask(this.channel, this.boundaries, this.from, middle);
+                left.fork();
+                List<Chunk> right = new ParseTask(this.channel, this.boundaries, middle, this.to).compute();
+                List<Chunk> chunks = left.join();
+                chunks.addAll(right);
+                return chunks;
+            }
+            List<Chunk> chunks = new ArrayList<>();
+            chunks.add(parse(this.boundaries[this.from], this.boundaries[this.to]));
+            return chunks;
+        }
+
+        /**
+         * Reads and parses every line in a range of the file.
+         *
+         * @param start Start of the range, at the start of a line.
+         * @param end End of the range, just after a newline or at the end of the file.
+         * @return Parsed range.
+         */
+        private Chunk parse(long start, long end) {
+            Chunk chunk = new Chunk();
+            String text;
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (this.channel.read(buffer, start + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+            } catch (IOException error) {
+                chunk.failedLine = 1;
+                return chunk;
+            }
+            int lineStart = 0;
+            while (lineStart < text.length()) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                int next = lineEnd < 0 ? text.length() : lineEnd + 1;
+                if (lineEnd < 0) {
+                    lineEnd = text.length();
+                }
+                if (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                chunk.lines++;
+                String line = text.substring(lineStart, lineEnd);
+                if (start == 0 && chunk.lines == 1 && TextFormat.isNextId(line)) {
+                    lineStart = next;
+                    continue;
+                }
+                try {
+                    chunk.tasks.add(TextFormat.decode(line, chunk.lines));
+                } catch (KappaException error) {
+                    chunk.failedLine = chunk.lines;
+                    return chunk;
+                }
+                lineStart = next;
+            }
+            return chunk;
+        }
+    }
+}
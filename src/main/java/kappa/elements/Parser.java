@@ -1,18 +1,44 @@
 package kappa.elements;
 
 import kappa.command.AddToDoCommand;
+import kappa.command.AgendaCommand;
+import kappa.command.BulkDeleteCommand;
+import kappa.command.BulkDoneCommand;
 import kappa.command.NullCommand;
 import kappa.command.ListCommand;
+import kappa.command.MoreCommand;
 import kappa.command.HelpCommand;
 import kappa.command.ExitCommand;
 import kappa.command.DoneCommand;
 import kappa.command.DeleteCommand;
+import kappa.command.DueCommand;
+import kappa.command.OverdueCommand;
+import kappa.command.RemindCommand;
 import kappa.command.ClearCommand;
+import kappa.command.CompactCommand;
+import kappa.command.ConflictsCommand;
 import kappa.command.AddEventCommand;
+import kappa.command.AddRecurringCommand;
 import kappa.command.Command;
 import kappa.command.AddDeadlineCommand;
 import kappa.command.FindCommand;
+import kappa.command.FindTagCommand;
+import kappa.command.FuzzyFindCommand;
+import kappa.command.RankedFindCommand;
+import kappa.command.QueryCommand;
+import kappa.command.ExplainCommand;
+import kappa.command.StatsCommand;
+import kappa.command.SyncCommand;
 
+import kappa.exception.InvalidDateException;
+import kappa.exception.InvalidDistanceException;
+import kappa.exception.InvalidDueException;
+import kappa.exception.InvalidFormatException;
+import kappa.exception.InvalidLeadTimeException;
+import kappa.exception.InvalidLimitException;
+import kappa.exception.InvalidPageException;
+import kappa.exception.InvalidRangeException;
+import kappa.exception.InvalidRecurrenceException;
 import kappa.exception.InvalidTagException;
 import kappa.exception.KappaException;
 import kappa.exception.MissingDateException;
@@ -20,6 +46,9 @@ import kappa.exception.MissingTaskException;
 import kappa.exception.MissingDescriptionException;
 import kappa.exception.ZeroInputException;
 
+import java.time.DateTimeException;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,6 +59,11 @@ import java.util.stream.Stream;
  */
 public class Parser {
 
+    /**
+     * Largest number of typos in each word a fuzzy find can be asked to allow.
+     */
+    public static final int MAX_FUZZY_DISTANCE = 3;
+
     /**
      * Static method which parses input by user and returns the corresponding command object.
      *
@@ -49,18 +83,62 @@ public class Parser {
         case "bye":
             return new ExitCommand();
         case "list":
-            return new ListCommand();
+            return parseList(tokens);
+        case "more":
+            return new MoreCommand();
         case "help":
             return new HelpCommand();
         case "clear":
             return new ClearCommand();
+        case "compact":
+            return parseCompact(tokens);
+        case "sync":
+            return new SyncCommand();
+        case "stats":
+            return new StatsCommand();
         case "find":
+            if (tokens.length > 1 && TagQuery.isTagQuery(tokens[1])) {
+                return new FindTagCommand(TagQuery.parse(fullCommand.substring(5)));
+            }
+            if (tokens.length > 1 && tokens[1].equals("--top")) {
+                return parseRankedFind(tokens);
+            }
+            if (tokens.length > 1 && tokens[1].startsWith("~")) {
+                return parseFuzzyFind(fullCommand.substring(6));
+            }
+            if (tokens.length > 2 && tokens[1].equals("-w")) {
+                return new FindCommand(fullCommand.substring(8), true);
+            }
             return new FindCommand(fullCommand.substring(5));
+        case "query":
+            return new QueryCommand(Query.parse(fullCommand.substring(5)));
+        case "explain":
+            return new ExplainCommand(Query.parse(fullCommand.substring(7)));
+        case "due":
+            return parseDue(tokens);
+        case "overdue":
+            return new OverdueCommand();
+        case "remind":
+            return parseRemind(tokens);
+        case "agenda":
+            return parseAgenda(tokens);
+        case "conflicts":
+            return new ConflictsCommand();
         case "done":
             checkValidity("done", fullCommand, tokens);
+            if (isBulk(tokens)) {
+                return isBulkFind(tokens)
+                        ? new BulkDoneCommand(parseBulkTerm(fullCommand))
+                        : new BulkDoneCommand(parseRanges(tokens[1]));
+            }
             return new DoneCommand(Integer.parseInt(tokens[1]));
         case "delete":
             checkValidity("delete", fullCommand, tokens);
+            if (isBulk(tokens)) {
+                return isBulkFind(tokens)
+                        ? new BulkDeleteCommand(parseBulkTerm(fullCommand))
+                        : new BulkDeleteCommand(parseRanges(tokens[1]));
+            }
             return new DeleteCommand(Integer.parseInt(tokens[1]));
         case "todo":
             String[] splitByTagToDo = fullCommand.split("/t");
@@ -80,11 +158,310 @@ public class Parser {
             String eventDesc = eventSplitByTokens[0].substring(6).trim();
             String eventDate = eventSplitByTokens[eventSplitByTokens.length - 1].trim();
             return getValidEventCommand(eventDesc, eventDate, parseTags(splitByTagEvent));
+        case "recur":
+            String[] splitByTagRecur = fullCommand.split("/t");
+            return parseRecur(splitByTagRecur[0].trim(), parseTags(splitByTagRecur));
         default:
             return new NullCommand(firstWord);
         }
     }
 
+    /**
+     * Parses a compact command, which may name a storage format to convert to.
+     *
+     * @param tokens User input command split by spaces.
+     * @return Corresponding compact command.
+     * @throws InvalidFormatException Throws if the format does not exist.
+     */
+    private static Command parseCompact(String[] tokens) throws InvalidFormatException {
+        if (tokens.length < 2) {
+            return new CompactCommand();
+        }
+        try {
+            return new CompactCommand(StorageFormat.valueOf(tokens[1].toUpperCase()));
+        } catch (IllegalArgumentException error) {
+            throw new InvalidFormatException(tokens[1]);
+        }
+    }
+
+    /**
+     * Parses a list command in the form {@code list [--page <n>] [--size <n>]}, where the page starts from 1.
+     *
+     * @param tokens User input command split by spaces.
+     * @return List command for the page.
+     * @throws KappaException Throws if an option is unknown or missing its number, the page is not a positive
+     *     number, or the size is not a number from 1 to {@code Ui.MAX_PAGE_SIZE}.
+     */
+    private static Command parseList(String[] tokens) throws KappaException {
+        int page = 1;
+        int size = Ui.PAGE_SIZE;
+        for (int i = 1; i < tokens.length; i += 2) {
+            if (i + 1 == tokens.length) {
+                throw new InvalidPageException(tokens[i]);
+            }
+            try {
+                if (tokens[i].equals("--page")) {
+                    page = Integer.parseInt(tokens[i + 1]);
+                } else if (tokens[i].equals("--size")) {
+                    size = Integer.parseInt(tokens[i + 1]);
+                } else {
+                    throw new InvalidPageException(tokens[i]);
+                }
+            } catch (NumberFormatException error) {
+                throw tokens[i].equals("--page")
+                        ? new InvalidPageException(tokens[i + 1])
+                        : new InvalidLimitException(tokens[i + 1]);
+            }
+        }
+        if (page < 1) {
+            throw new InvalidPageException(Integer.toString(page));
+        }
+        if (size < 1 || size > Ui.MAX_PAGE_SIZE) {
+            throw new InvalidLimitException(Integer.toString(size));
+        }
+        return new ListCommand(page, size);
+    }
+
+    /**
+     * Parses a due command in the form {@code due before <date>} or {@code due between <date> and <date>},
+     * where every date is in the form DD/MM/YYYY HHMM.
+     *
+     * @param tokens User input command split by spaces.
+     * @return Due command over the range, where the end of a before range is not included.
+     * @throws KappaException Throws if the command is in neither form or a date is invalid.
+     */
+    private static Command parseDue(String[] tokens) throws KappaException {
+        if (tokens.length == 4 && tokens[1].equals("before")) {
+            return new DueCommand(Long.MIN_VALUE, parseEpochMinute(tokens[2], tokens[3]) - 1);
+        }
+        if (tokens.length == 7 && tokens[1].equals("between") && tokens[4].equals("and")) {
+            return new DueCommand(parseEpochMinute(tokens[2], tokens[3]), parseEpochMinute(tokens[5], tokens[6]));
+        }
+        if (tokens.length <= 2) {
+            throw new MissingDateException();
+        }
+        throw new InvalidDueException();
+    }
+
+    /**
+     * Parses an agenda command in the form {@code agenda [<date>] [week]}, where the date is in the form DD/MM/YYYY
+     * and is today if it is left out.
+     *
+     * @param tokens User input command split by spaces.
+     * @return Agenda command over the day, or the week starting on the day.
+     * @throws InvalidDateException Throws if the date is invalid or there is more than one.
+     */
+    private static Command parseAgenda(String[] tokens) throws InvalidDateException {
+        boolean isWeek = tokens.length > 1 && tokens[tokens.length - 1].equals("week");
+        int dateTokens = tokens.length - (isWeek ? 2 : 1);
+        if (dateTokens > 1) {
+            throw new InvalidDateException();
+        }
+        long from = dateTokens == 0
+                ? DateTime.startOfDay(DateTime.now().getEpochMinute())
+                : parseEpochMinute(tokens[1], "0000");
+        return new AgendaCommand(from, from + (isWeek ? 7 : 1) * Recurrence.MINUTES_PER_DAY - 1);
+    }
+
+    /**
+     * Parses a ranked find command in the form {@code find --top <n> <words>}.
+     *
+     * @param tokens User input command split by spaces.
+     * @return Command which finds the most relevant tasks.
+     * @throws KappaException Throws if the number of tasks is missing or is not a positive number.
+     */
+    private static Command parseRankedFind(String[] tokens) throws KappaException {
+        if (tokens.length < 3) {
+            throw new InvalidLimitException("Nothing");
+        }
+        try {
+            int limit = Integer.parseInt(tokens[2]);
+            if (limit < 1) {
+                throw new InvalidLimitException(tokens[2]);
+            }
+            return new RankedFindCommand(String.join(" ", Arrays.copyOfRange(tokens, 3, tokens.length)), limit);
+        } catch (NumberFormatException error) {
+            throw new InvalidLimitException(tokens[2]);
+        }
+    }
+
+    /**
+     * Parses a fuzzy find command in the form {@code find ~<words> [/d <distance>]}, where the distance is the number
+     * of typos allowed in each word and is worked out from the length of each word if left out.
+     *
+     * @param input User input command after the {@code ~}.
+     * @return Command which finds the words.
+     * @throws KappaException Throws if the distance is not a number from 0 to {@code MAX_FUZZY_DISTANCE}.
+     */
+    private static Command parseFuzzyFind(String input) throws KappaException {
+        int distanceStart = input.lastIndexOf(" /d ");
+        if (distanceStart < 0) {
+            return new FuzzyFindCommand(input.trim(), FuzzyFindCommand.AUTO_DISTANCE);
+        }
+        String distance = input.substring(distanceStart + 4).trim();
+        try {
+            int maxDistance = Integer.parseInt(distance);
+            if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+                throw new InvalidDistanceException(distance, MAX_FUZZY_DISTANCE);
+            }
+            return new FuzzyFindCommand(input.substring(0, distanceStart).trim(), maxDistance);
+        } catch (NumberFormatException error) {
+            throw new InvalidDistanceException(distance, MAX_FUZZY_DISTANCE);
+        }
+    }
+
+    /**
+     * Parses a remind command in the form {@code remind <minutes>}.
+     *
+     * @param tokens User input command split by spaces.
+     * @return Remind command with the lead time.
+     * @throws KappaException Throws if the lead time is missing or is not a number of minutes.
+     */
+    private static Command parseRemind(String[] tokens) throws KappaException {
+        if (tokens.length < 2) {
+            throw new InvalidLeadTimeException("Nothing");
+        }
+        try {
+            long leadMinutes = Long.parseLong(tokens[1]);
+            if (leadMinutes < 0) {
+                throw new InvalidLeadTimeException(tokens[1]);
+            }
+            return new RemindCommand(leadMinutes);
+        } catch (NumberFormatException error) {
+            throw new InvalidLeadTimeException(tokens[1]);
+        }
+    }
+
+    /**
+     * Parses a recur command in the form {@code recur <description> /every <rule> /from <date> [/until <date>]},
+     * where every date is in the form DD/MM/YYYY HHMM.
+     *
+     * @param input User input command without its tags.
+     * @param tags Tags.
+     * @return Command which adds the recurring task.
+     * @throws KappaException Throws if the description, rule or first date is missing, or anything is invalid.
+     */
+    private static Command parseRecur(String input, Tags tags) throws KappaException {
+        int every = input.indexOf(" /every ");
+        int from = input.indexOf(" /from ");
+        int until = input.indexOf(" /until ");
+        if (input.split(" ").length <= 1 || every == 5) {
+            throw new MissingDescriptionException();
+        }
+        if (from < 0) {
+            throw new MissingDateException();
+        }
+        if (every < 0 || every > from) {
+            throw new InvalidRecurrenceException("Nothing");
+        }
+        if (until >= 0 && until < from) {
+            throw new InvalidDateException();
+        }
+        Recurrence recurrence = Recurrence.parse(input.substring(every + 8, from));
+        long start = parseEpochMinute(input.substring(from + 7, until < 0 ? input.length() : until));
+        long end = until < 0 ? DateTime.NO_DATE : parseEpochMinute(input.substring(until + 8));
+        if (end != DateTime.NO_DATE && end < start) {
+            throw new InvalidDateException();
+        }
+        return new AddRecurringCommand(input.substring(6, every).trim(), recurrence, start, end, tags);
+    }
+
+    /**
+     * Parses a date in the form DD/MM/YYYY HHMM into minutes since the epoch.
+     *
+     * @param dateTime Date and time, separated by a space.
+     * @return Epoch minute of the date.
+     * @throws InvalidDateException Throws if the date is not a valid date in that form.
+     */
+    private static long parseEpochMinute(String dateTime) throws InvalidDateException {
+        String[] tokens = dateTime.trim().split(" ");
+        if (tokens.length != 2) {
+            throw new InvalidDateException();
+        }
+        return parseEpochMinute(tokens[0], tokens[1]);
+    }
+
+    /**
+     * Parses a date in the form DD/MM/YYYY HHMM into minutes since the epoch.
+     *
+     * @param date Date in the form DD/MM/YYYY.
+     * @param time Time in the form HHMM.
+     * @return Epoch minute of the date.
+     * @throws InvalidDateException Throws if the date is not a valid date in that form.
+     */
+    private static long parseEpochMinute(String date, String time) throws InvalidDateException {
+        if (time.length() != 4 || date.chars().filter((ch) -> ch == '/').count() != 2) {
+            throw new InvalidDateException();
+        }
+        try {
+            return new DateTime(date, time).getEpochMinute();
+        } catch (DateTimeException | NumberFormatException error) {
+            throw new InvalidDateException();
+        }
+    }
+
+    /**
+     * Checks if a done or delete command acts on many tasks, through ranges of indexes or a search term.
+     *
+     * @param tokens User input command split by spaces.
+     * @return True if the command is a bulk command.
+     */
+    private static boolean isBulk(String[] tokens) {
+        return isBulkFind(tokens) || tokens[1].contains("-") || tokens[1].contains(",");
+    }
+
+    /**
+     * Checks if a done or delete command acts on every task with a search term.
+     *
+     * @param tokens User input command split by spaces.
+     * @return True if the command is followed by find.
+     */
+    private static boolean isBulkFind(String[] tokens) {
+        return tokens[1].equals("find");
+    }
+
+    /**
+     * Gets the search term of a bulk command in the form {@code <command> find <term>}.
+     *
+     * @param fullCommand Input by user.
+     * @return Search term.
+     * @throws MissingDescriptionException Throws if the search term is missing.
+     */
+    private static String parseBulkTerm(String fullCommand) throws MissingDescriptionException {
+        int termStart = fullCommand.indexOf(" find ");
+        if (termStart < 0 || fullCommand.substring(termStart + 6).isEmpty()) {
+            throw new MissingDescriptionException();
+        }
+        return fullCommand.substring(termStart + 6);
+    }
+
+    /**
+     * Parses comma-separated indexes and ranges of indexes, such as {@code 1,4,9-20}.
+     *
+     * @param input Indexes and ranges.
+     * @return First and last index of every range, where a single index is a range of one.
+     * @throws InvalidRangeException Throws if an index is not a positive number or a range is backwards.
+     */
+    private static List<int[]> parseRanges(String input) throws InvalidRangeException {
+        List<int[]> ranges = new ArrayList<>();
+        for (String part : input.split(",")) {
+            int dash = part.indexOf('-');
+            int first;
+            int last;
+            try {
+                first = Integer.parseInt(dash < 0 ? part : part.substring(0, dash));
+                last = dash < 0 ? first : Integer.parseInt(part.substring(dash + 1));
+            } catch (NumberFormatException error) {
+                throw new InvalidRangeException(part);
+            }
+            if (first < 1 || last < first) {
+                throw new InvalidRangeException(part);
+            }
+            ranges.add(new int[] {first, last});
+        }
+        return ranges;
+    }
+
     /**
      * Parses tags to the correct format and returns a Tags object.
      *
@@ -93,7 +470,7 @@ public class Parser {
      */
     private static Tags parseTags(String[] command) throws InvalidTagException {
         if (command.length < 2) {
-            return new Tags();
+            return Tags.NONE;
         } else {
             String[] splitByHash = command[1].trim().split("#");
             String[] tagsArray;
@@ -124,6 +501,10 @@ public class Parser {
      * @throws KappaException Throws if Event Command is not valid.
      */
     private static Command getValidEventCommand(String eventDesc, String eventDate, Tags tags) throws KappaException {
+        String[] dateAndEnd = eventDate.split(" /end ");
+        if (dateAndEnd.length > 1) {
+            return getValidEventCommand(eventDesc, dateAndEnd[0].trim(), dateAndEnd[1].trim(), tags);
+        }
         if (isDate(eventDate)) {
             String[] eventSplitTokens = eventDate.split(" ");
             DateTime validEventDate = new DateTime(eventSplitTokens[0], eventSplitTokens[1]);
@@ -132,6 +513,33 @@ public class Parser {
         return new AddEventCommand(eventDesc, eventDate, tags);
     }
 
+    /**
+     * Retrieves a valid event command with an end from the raw user input.
+     * The end may be a date in the form DD/MM/YYYY HHMM or only a time in the form HHMM, on the day of the date.
+     *
+     * @param eventDesc Event Description.
+     * @param eventDate Date Description, in the form DD/MM/YYYY HHMM.
+     * @param eventEnd End Description.
+     * @param tags Tags.
+     * @return Valid AddEventCommand.
+     * @throws KappaException Throws if a date is not valid or the end is not after the date.
+     */
+    private static Command getValidEventCommand(String eventDesc, String eventDate, String eventEnd, Tags tags)
+            throws KappaException {
+        if (!isDate(eventDate)) {
+            throw new InvalidDateException();
+        }
+        String[] eventSplitTokens = eventDate.split(" ");
+        DateTime validEventDate = new DateTime(eventSplitTokens[0], eventSplitTokens[1]);
+        long endMinute = eventEnd.indexOf(' ') < 0
+                ? parseEpochMinute(eventSplitTokens[0], eventEnd)
+                : parseEpochMinute(eventEnd);
+        if (endMinute <= validEventDate.getEpochMinute()) {
+            throw new InvalidDateException();
+        }
+        return new AddEventCommand(eventDesc, validEventDate, endMinute, tags);
+    }
+
     /**
      * Retrieves a valid deadline command from the raw user input.
      *
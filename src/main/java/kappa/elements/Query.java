@@ -0,0 +1,784 @@
+package kappa.elements;
+
+import kappa.exception.InvalidQueryException;
+
+import kappa.task.Task;
+import kappa.task.TaskType;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query over every field of a task, such as {@code type:deadline AND NOT done AND #work AND due<01/01/2025}.
+ * A query is parsed into a tree of conditions joined by AND, OR and NOT, with brackets to group them, where
+ * conditions next to each other without an operator are joined by AND.
+ *
+ * <p>The conditions are {@code done}, {@code type:<todo|deadline|event|recurring>}, {@code #<tag>},
+ * {@code due<op><date>} with an op of {@code <}, {@code <=}, {@code =}, {@code >=} or {@code >} and a date in the
+ * form DD/MM/YYYY or YYYY-MM-DD, a bare word, which must be a whole word of the description in any case, and text in
+ * double quotes, which must be in the description exactly as typed. Conditions which an index can answer also say how
+ * many tasks the index expects to match them, so that a {@link QueryPlanner} can start from the fewest tasks.</p>
+ */
+public class Query {
+
+    /**
+     * Estimate of a condition which no index can answer.
+     */
+    static final int NOT_INDEXED = -1;
+
+    private static final Pattern DUE_PATTERN = Pattern.compile("due(<=|>=|<|>|=)(.+)");
+    private static final DateTimeFormatter DAY_MONTH_YEAR =
+            DateTimeFormatter.ofPattern("d/M/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    private final String text;
+    private final Node root;
+
+    /**
+     * Constructor for a parsed query.
+     *
+     * @param text Query as it was typed.
+     * @param root Condition at the root of the tree.
+     */
+    private Query(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param text Query to parse.
+     * @return Parsed query.
+     * @throws InvalidQueryException Throws if the query is empty, its brackets or quotes are not closed, an operator
+     *     is missing a condition, or a condition cannot be read.
+     */
+    public static Query parse(String text) throws InvalidQueryException {
+        QueryReader reader = new QueryReader(tokenize(text));
+        if (!reader.hasNext()) {
+            throw new InvalidQueryException("there is nothing to look for");
+        }
+        Node root = reader.readOr();
+        if (reader.hasNext()) {
+            throw new InvalidQueryException("there is an extra " + reader.peek());
+        }
+        return new Query(text.trim(), root);
+    }
+
+    /**
+     * Gets the condition at the root of the tree.
+     *
+     * @return Root condition.
+     */
+    Node getRoot() {
+        return this.root;
+    }
+
+    @Override
+    public String toString() {
+        return this.text;
+    }
+
+    /**
+     * Splits a query into brackets, quoted text with its quotes and runs of other characters up to a space or
+     * bracket.
+     *
+     * @param text Query to split.
+     * @return Tokens in order.
+     * @throws InvalidQueryException Throws if a quote is not closed.
+     */
+    private static List<String> tokenize(String text) throws InvalidQueryException {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char current = text.charAt(i);
+            int end;
+            if (Character.isWhitespace(current)) {
+                i++;
+                continue;
+            } else if (current == '(' || current == ')') {
+                end = i + 1;
+            } else if (current == '"') {
+                end = text.indexOf('"', i + 1) + 1;
+                if (end == 0) {
+                    throw new InvalidQueryException("a quote is not closed");
+                }
+            } else {
+                end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end))
+                        && text.charAt(end) != '(' && text.charAt(end) != ')') {
+                    end++;
+                }
+            }
+            tokens.add(text.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    /**
+     * Reads a single condition which is not joined by an operator.
+     *
+     * @param token Token of the condition.
+     * @return Condition of the token.
+     * @throws InvalidQueryException Throws if the token is an empty tag or quote, names no type, or has no date.
+     */
+    private static Node readCondition(String token) throws InvalidQueryException {
+        if (token.equals("done")) {
+            return new IsDone();
+        }
+        if (token.startsWith("type:")) {
+            try {
+                return new HasType(TaskType.valueOf(token.substring(5).toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException error) {
+                throw new InvalidQueryException(token.substring(5) + " is not a type of task");
+            }
+        }
+        if (token.startsWith("#")) {
+            if (token.length() == 1) {
+                throw new InvalidQueryException("a tag has no name");
+            }
+            return new HasTag(token.substring(1));
+        }
+        if (token.startsWith("\"")) {
+            if (token.length() == 2) {
+                throw new InvalidQueryException("there is nothing in the quotes");
+            }
+            return new Contains(token.substring(1, token.length() - 1));
+        }
+        Matcher due = DUE_PATTERN.matcher(token);
+        if (due.matches()) {
+            return readDue(token, due.group(1), due.group(2));
+        }
+        if (WordIndex.tokenize(token).isEmpty()) {
+            throw new InvalidQueryException(token + " is not a word to look for");
+        }
+        return new HasWords(token);
+    }
+
+    /**
+     * Reads a condition on the date of a task, comparing it with whole days.
+     *
+     * @param token Token of the condition.
+     * @param operator Comparison, one of {@code <}, {@code <=}, {@code =}, {@code >=} and {@code >}.
+     * @param date Date in the form DD/MM/YYYY or YYYY-MM-DD.
+     * @return Condition which holds for tasks dated inside the range the comparison covers.
+     * @throws InvalidQueryException Throws if the date is in neither form.
+     */
+    private static Node readDue(String token, String operator, String date) throws InvalidQueryException {
+        LocalDate day;
+        try {
+            day = date.contains("/") ? LocalDate.parse(date, DAY_MONTH_YEAR) : LocalDate.parse(date);
+        } catch (DateTimeException error) {
+            throw new InvalidQueryException(date + " is not a date in the form DD/MM/YYYY");
+        }
+        long start = day.atStartOfDay().toEpochSecond(ZoneOffset.UTC) / 60;
+        long end = start + Recurrence.MINUTES_PER_DAY - 1;
+        switch (operator) {
+        case "<":
+            return new IsDue(token, Long.MIN_VALUE, start - 1);
+        case "<=":
+            return new IsDue(token, Long.MIN_VALUE, end);
+        case ">":
+            return new IsDue(token, end + 1, Long.MAX_VALUE);
+        case ">=":
+            return new IsDue(token, start, Long.MAX_VALUE);
+        default:
+            return new IsDue(token, start, end);
+        }
+    }
+
+    /**
+     * Reads tokens into a tree, with NOT binding tightest and OR loosest.
+     */
+    private static class QueryReader {
+
+        private final List<String> tokens;
+        private int position;
+
+        /**
+         * Constructor for a reader at the first token.
+         *
+         * @param tokens Tokens of the query.
+         */
+        QueryReader(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        /**
+         * Checks if any token is left.
+         *
+         * @return True if there is a token to read.
+         */
+        boolean hasNext() {
+            return this.position < this.tokens.size();
+        }
+
+        /**
+         * Gets the next token without reading it.
+         *
+         * @return Next token.
+         */
+        String peek() {
+            return this.tokens.get(this.position);
+        }
+
+        /**
+         * Reads conditions joined by OR.
+         *
+         * @return Condition, which is only an OR if there are two or more.
+         * @throws InvalidQueryException Throws if a condition cannot be read.
+         */
+        Node readOr() throws InvalidQueryException {
+            List<Node> children = new ArrayList<>();
+            children.add(readAnd());
+            while (hasNext() && peek().equals("OR")) {
+                this.position++;
+                children.add(readAnd());
+            }
+            return children.size() == 1 ? children.get(0) : new Or(children);
+        }
+
+        /**
+         * Reads conditions joined by AND, or by nothing.
+         *
+         * @return Condition, which is only an AND if there are two or more.
+         * @throws InvalidQueryException Throws if a condition cannot be read.
+         */
+        Node readAnd() throws InvalidQueryException {
+            List<Node> children = new ArrayList<>();
+            children.add(readNot());
+            while (hasNext() && !peek().equals("OR") && !peek().equals(")")) {
+                if (peek().equals("AND")) {
+                    this.position++;
+                }
+                children.add(readNot());
+            }
+            return children.size() == 1 ? children.get(0) : new And(children);
+        }
+
+        /**
+         * Reads a condition which may be negated or in brackets.
+         *
+         * @return Condition.
+         * @throws InvalidQueryException Throws if there is no condition where one is needed, a bracket is not closed,
+         *     or the condition cannot be read.
+         */
+        Node readNot() throws InvalidQueryException {
+            if (!hasNext()) {
+                throw new InvalidQueryException("it ends before a condition");
+            }
+            String token = peek();
+            this.position++;
+            switch (token) {
+            case "NOT":
+                return new Not(readNot());
+            case "(":
+                Node inside = readOr();
+                if (!hasNext() || !peek().equals(")")) {
+                    throw new InvalidQueryException("a bracket is not closed");
+                }
+                this.position++;
+                return inside;
+            case ")":
+            case "AND":
+            case "OR":
+                throw new InvalidQueryException("there is no condition before " + token);
+            default:
+                return readCondition(token);
+            }
+        }
+    }
+
+    /**
+     * Condition in the tree of a query.
+     * A condition can always be checked against a task, and may also be looked up in an index.
+     */
+    abstract static class Node {
+
+        /**
+         * Checks a task against the condition.
+         *
+         * @param task Task to check.
+         * @return True if the condition holds for the task.
+         */
+        abstract boolean matches(Task task);
+
+        /**
+         * Estimates how many tasks an index gives for the condition, without looking them up.
+         *
+         * @param planner Planner which holds the indexes.
+         * @return Estimated number of tasks, or {@code NOT_INDEXED} if no index can answer the condition.
+         */
+        int estimate(QueryPlanner planner) {
+            return NOT_INDEXED;
+        }
+
+        /**
+         * Looks up the ids of the tasks an index gives for the condition.
+         *
+         * @param planner Planner which holds the indexes.
+         * @return Ids from the index, or null if no index can answer the condition.
+         */
+        BitSet lookup(QueryPlanner planner) {
+            return null;
+        }
+
+        /**
+         * Checks if the ids an index gives are exactly the tasks the condition holds for, rather than candidates
+         * which still have to be checked.
+         *
+         * @param planner Planner which holds the indexes.
+         * @return True if the ids need no checking.
+         */
+        boolean isExact(QueryPlanner planner) {
+            return true;
+        }
+
+        /**
+         * Names the indexes the condition is looked up in.
+         *
+         * @param planner Planner which holds the indexes.
+         * @return Names of the indexes.
+         */
+        String getIndexName(QueryPlanner planner) {
+            return "no index";
+        }
+    }
+
+    /**
+     * Condition which holds if every one of its conditions holds.
+     * It is looked up through the condition the fewest tasks are expected to match.
+     */
+    static class And extends Node {
+
+        private final List<Node> children;
+
+        /**
+         * Constructor for And.
+         *
+         * @param children Conditions which must all hold.
+         */
+        And(List<Node> children) {
+            this.children = children;
+        }
+
+        /**
+         * Gets the conditions which must all hold.
+         *
+         * @return Conditions, in the order they were typed.
+         */
+        List<Node> getChildren() {
+            return this.children;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            for (Node child : this.children) {
+                if (!child.matches(task)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int estimate(QueryPlanner planner) {
+            Node driver = planner.chooseDriver(this.children);
+            return driver == null ? NOT_INDEXED : driver.estimate(planner);
+        }
+
+        @Override
+        BitSet lookup(QueryPlanner planner) {
+            Node driver = planner.chooseDriver(this.children);
+            return driver == null ? null : driver.lookup(planner);
+        }
+
+        @Override
+        boolean isExact(QueryPlanner planner) {
+            return false;
+        }
+
+        @Override
+        String getIndexName(QueryPlanner planner) {
+            Node driver = planner.chooseDriver(this.children);
+            return driver == null ? "no index" : driver.getIndexName(planner);
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (Node child : this.children) {
+                parts.add(child instanceof Or ? "(" + child + ")" : child.toString());
+            }
+            return String.join(" AND ", parts);
+        }
+    }
+
+    /**
+     * Condition which holds if any of its conditions holds.
+     * It can only be looked up if every one of its conditions can, as the union of their ids.
+     */
+    static class Or extends Node {
+
+        private final List<Node> children;
+
+        /**
+         * Constructor for Or.
+         *
+         * @param children Conditions of which at least one must hold.
+         */
+        Or(List<Node> children) {
+            this.children = children;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            for (Node child : this.children) {
+                if (child.matches(task)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int estimate(QueryPlanner planner) {
+            long total = 0;
+            for (Node child : this.children) {
+                int estimate = child.estimate(planner);
+                if (estimate == NOT_INDEXED) {
+                    return NOT_INDEXED;
+                }
+                total += estimate;
+            }
+            return (int) Math.min(total, planner.getSize());
+        }
+
+        @Override
+        BitSet lookup(QueryPlanner planner) {
+            BitSet union = new BitSet();
+            for (Node child : this.children) {
+                BitSet ids = child.lookup(planner);
+                if (ids == null) {
+                    return null;
+                }
+                union.or(ids);
+            }
+            return union;
+        }
+
+        @Override
+        boolean isExact(QueryPlanner planner) {
+            for (Node child : this.children) {
+                if (!child.isExact(planner)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        String getIndexName(QueryPlanner planner) {
+            List<String> names = new ArrayList<>();
+            for (Node child : this.children) {
+                String name = child.getIndexName(planner);
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+            return String.join(" and ", names);
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (Node child : this.children) {
+                parts.add(child instanceof And ? "(" + child + ")" : child.toString());
+            }
+            return String.join(" OR ", parts);
+        }
+    }
+
+    /**
+     * Condition which holds if its condition does not. It is never looked up, as that would give most tasks.
+     */
+    static class Not extends Node {
+
+        private final Node child;
+
+        /**
+         * Constructor for Not.
+         *
+         * @param child Condition which must not hold.
+         */
+        Not(Node child) {
+            this.child = child;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            return !this.child.matches(task);
+        }
+
+        @Override
+        public String toString() {
+            return this.child instanceof And || this.child instanceof Or
+                    ? "NOT (" + this.child + ")"
+                    : "NOT " + this.child;
+        }
+    }
+
+    /**
+     * Condition which holds if a task is done.
+     */
+    static class IsDone extends Node {
+
+        @Override
+        boolean matches(Task task) {
+            return task.getIsDone();
+        }
+
+        @Override
+        public String toString() {
+            return "done";
+        }
+    }
+
+    /**
+     * Condition which holds if a task is of a type.
+     */
+    static class HasType extends Node {
+
+        private final TaskType type;
+
+        /**
+         * Constructor for HasType.
+         *
+         * @param type Type the task must be.
+         */
+        HasType(TaskType type) {
+            this.type = type;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            return task.getType() == this.type;
+        }
+
+        @Override
+        public String toString() {
+            return "type:" + this.type.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Condition which holds if a task carries a tag, looked up in the tag bitmaps.
+     */
+    static class HasTag extends Node {
+
+        private final String name;
+
+        /**
+         * Constructor for HasTag.
+         *
+         * @param name Tag without the # prefix.
+         */
+        HasTag(String name) {
+            this.name = name;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            return task.getTags().getNames().contains(this.name);
+        }
+
+        @Override
+        int estimate(QueryPlanner planner) {
+            return planner.getTagIndex().count(this.name);
+        }
+
+        @Override
+        BitSet lookup(QueryPlanner planner) {
+            return planner.getTagIndex().search(this.name);
+        }
+
+        @Override
+        String getIndexName(QueryPlanner planner) {
+            return "tag index";
+        }
+
+        @Override
+        public String toString() {
+            return "#" + this.name;
+        }
+    }
+
+    /**
+     * Condition which holds if a task is dated inside a range, looked up in the date index.
+     */
+    static class IsDue extends Node {
+
+        private final String text;
+        private final long from;
+        private final long to;
+
+        /**
+         * Constructor for IsDue.
+         *
+         * @param text Condition as it was typed.
+         * @param from Earliest epoch minute, included.
+         * @param to Latest epoch minute, included.
+         */
+        IsDue(String text, long from, long to) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            long minute = task.getEpochMinute();
+            return minute != DateTime.NO_DATE && minute >= this.from && minute <= this.to;
+        }
+
+        @Override
+        int estimate(QueryPlanner planner) {
+            return planner.getDateIndex().estimate(this.from, this.to);
+        }
+
+        @Override
+        BitSet lookup(QueryPlanner planner) {
+            BitSet ids = new BitSet();
+            for (int id : planner.getDateIndex().search(this.from, this.to)) {
+                ids.set(id);
+            }
+            return ids;
+        }
+
+        @Override
+        String getIndexName(QueryPlanner planner) {
+            return "date index";
+        }
+
+        @Override
+        public String toString() {
+            return this.text;
+        }
+    }
+
+    /**
+     * Condition which holds if a task's description has every word of a bare word, looked up in the word index.
+     */
+    static class HasWords extends Node {
+
+        private final String text;
+        private final Set<String> words;
+
+        /**
+         * Constructor for HasWords.
+         *
+         * @param text Word as it was typed, which may be split into several words by punctuation.
+         */
+        HasWords(String text) {
+            this.text = text;
+            this.words = WordIndex.tokenize(text);
+        }
+
+        @Override
+        boolean matches(Task task) {
+            return WordIndex.tokenize(task.getDescription()).containsAll(this.words);
+        }
+
+        @Override
+        int estimate(QueryPlanner planner) {
+            return planner.getWordIndex().estimate(this.text);
+        }
+
+        @Override
+        BitSet lookup(QueryPlanner planner) {
+            BitSet ids = new BitSet();
+            for (int id : planner.getWordIndex().search(this.text)) {
+                ids.set(id);
+            }
+            return ids;
+        }
+
+        @Override
+        String getIndexName(QueryPlanner planner) {
+            return "word index";
+        }
+
+        @Override
+        public String toString() {
+            return this.text;
+        }
+    }
+
+    /**
+     * Condition which holds if a task's description contains some text, matched with case.
+     * Text of at least three characters is looked up in the trigram index, which only gives candidates.
+     */
+    static class Contains extends Node {
+
+        private final String text;
+
+        /**
+         * Constructor for Contains.
+         *
+         * @param text Text without its quotes.
+         */
+        Contains(String text) {
+            this.text = text;
+        }
+
+        @Override
+        boolean matches(Task task) {
+            return task.getDescription().contains(this.text);
+        }
+
+        @Override
+        int estimate(QueryPlanner planner) {
+            return this.text.length() < TrigramIndex.GRAM_LENGTH
+                    ? NOT_INDEXED
+                    : planner.getTrigramIndex().estimate(this.text);
+        }
+
+        @Override
+        BitSet lookup(QueryPlanner planner) {
+            if (this.text.length() < TrigramIndex.GRAM_LENGTH) {
+                return null;
+            }
+            BitSet ids = new BitSet();
+            for (int id : planner.getTrigramIndex().candidates(this.text)) {
+                ids.set(id);
+            }
+            return ids;
+        }
+
+        @Override
+        boolean isExact(QueryPlanner planner) {
+            return false;
+        }
+
+        @Override
+        String getIndexName(QueryPlanner planner) {
+            return "trigram index";
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + this.text + "\"";
+        }
+    }
+}
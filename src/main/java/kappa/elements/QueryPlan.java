@@ -0,0 +1,117 @@
+package kappa.elements;
+
+import java.util.List;
+
+/**
+ * Plan for running a {@link Query}, made by a {@link QueryPlanner}.
+ * The first step gives the candidates, either from an index or from every task, and every later step keeps the
+ * candidates a condition holds for. Every step records how many tasks it gave once the plan has run.
+ */
+public class QueryPlan {
+
+    /**
+     * Count of a step which has not run yet.
+     */
+    public static final int NOT_RUN = -1;
+
+    private final Query query;
+    private final List<Step> steps;
+
+    /**
+     * Constructor for QueryPlan.
+     *
+     * @param query Query the plan runs.
+     * @param steps Steps in the order they run.
+     */
+    QueryPlan(Query query, List<Step> steps) {
+        this.query = query;
+        this.steps = steps;
+    }
+
+    /**
+     * Gets the query the plan runs.
+     *
+     * @return Query.
+     */
+    public Query getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Gets the steps of the plan.
+     *
+     * @return Steps in the order they run.
+     */
+    public List<Step> getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * Step of a plan, which either gives the candidates or keeps some of them.
+     */
+    public static class Step {
+
+        private final Query.Node condition;
+        private final String description;
+        private final int estimate;
+        private int count = NOT_RUN;
+
+        /**
+         * Constructor for Step.
+         *
+         * @param condition Condition looked up or checked, or null for reading every task.
+         * @param description What the step does.
+         * @param estimate Number of tasks the step is expected to give, or {@link Query#NOT_INDEXED} if unknown.
+         */
+        Step(Query.Node condition, String description, int estimate) {
+            this.condition = condition;
+            this.description = description;
+            this.estimate = estimate;
+        }
+
+        /**
+         * Gets the condition of the step.
+         *
+         * @return Condition looked up or checked, or null for reading every task.
+         */
+        Query.Node getCondition() {
+            return this.condition;
+        }
+
+        /**
+         * Gets what the step does.
+         *
+         * @return Description, such as Look up #work in the tag index.
+         */
+        public String getDescription() {
+            return this.description;
+        }
+
+        /**
+         * Gets the number of tasks the step was expected to give when the plan was made.
+         *
+         * @return Estimated number of tasks, or a negative number if unknown.
+         */
+        public int getEstimate() {
+            return this.estimate;
+        }
+
+        /**
+         * Gets the number of tasks the step gave.
+         *
+         * @return Number of tasks, or {@code NOT_RUN} if the plan has not run.
+         */
+        public int getCount() {
+            return this.count;
+        }
+
+        /**
+         * Records the number of tasks the step gave.
+         *
+         * @param count Number of tasks.
+         */
+        void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
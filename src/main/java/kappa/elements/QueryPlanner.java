@@ -0,0 +1,163 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Planner which turns a {@link Query} into a {@link QueryPlan} over the indexes of a task list, and runs it.
+ * Of the conditions which must all hold, the one an index expects the fewest tasks to match is looked up, and the
+ * rest are only checked against the tasks it gives, those expected to match fewest first. A query with no condition
+ * an index can answer reads every task. Tasks are read and checked in chunks at once by a {@link ParallelScan}.
+ */
+class QueryPlanner {
+
+    private final TaskStore tasks;
+    private final WordIndex wordIndex;
+    private final TrigramIndex trigramIndex;
+    private final TagIndex tagIndex;
+    private final DateIndex dateIndex;
+
+    /**
+     * Constructor for QueryPlanner.
+     *
+     * @param tasks Tasks of the list.
+     * @param wordIndex Word index of the list.
+     * @param trigramIndex Trigram index of the list.
+     * @param tagIndex Tag index of the list.
+     * @param dateIndex Date index of the list.
+     */
+    QueryPlanner(TaskStore tasks, WordIndex wordIndex, TrigramIndex trigramIndex, TagIndex tagIndex,
+            DateIndex dateIndex) {
+        this.tasks = tasks;
+        this.wordIndex = wordIndex;
+        this.trigramIndex = trigramIndex;
+        this.tagIndex = tagIndex;
+        this.dateIndex = dateIndex;
+    }
+
+    /**
+     * Plans a query, looking at the sizes of the indexes but at no task.
+     *
+     * @param query Query to plan.
+     * @return Plan which has not run.
+     */
+    QueryPlan plan(Query query) {
+        Query.Node root = query.getRoot();
+        List<Query.Node> conditions = root instanceof Query.And
+                ? new ArrayList<>(((Query.And) root).getChildren())
+                : new ArrayList<>(Collections.singletonList(root));
+        List<QueryPlan.Step> steps = new ArrayList<>();
+        Query.Node driver = chooseDriver(conditions);
+        if (driver == null) {
+            steps.add(new QueryPlan.Step(null, "Read all " + getSize() + " tasks", getSize()));
+        } else {
+            steps.add(new QueryPlan.Step(driver, "Look up " + driver + " in the " + driver.getIndexName(this),
+                    driver.estimate(this)));
+            if (driver.isExact(this)) {
+                conditions.remove(driver);
+            }
+        }
+        List<QueryPlan.Step> checks = new ArrayList<>();
+        for (Query.Node condition : conditions) {
+            checks.add(new QueryPlan.Step(condition, "Check " + condition, condition.estimate(this)));
+        }
+        checks.sort(Comparator.comparingInt((step) -> step.getEstimate() == Query.NOT_INDEXED
+                ? Integer.MAX_VALUE
+                : step.getEstimate()));
+        steps.addAll(checks);
+        return new QueryPlan(query, steps);
+    }
+
+    /**
+     * Runs a plan, recording how many tasks every step gives.
+     *
+     * @param plan Plan made by this planner.
+     * @return Tasks the query holds for, in list order.
+     */
+    ArrayList<Task> run(QueryPlan plan) {
+        List<QueryPlan.Step> steps = plan.getSteps();
+        QueryPlan.Step first = steps.get(0);
+        int[] ids = first.getCondition() == null
+                ? this.tasks.getIds()
+                : first.getCondition().lookup(this).stream().toArray();
+        ArrayList<Task> found = ParallelScan.map(ids.length, (i) -> this.tasks.getById(ids[i]));
+        if (first.getCondition() != null && !first.getCondition().isExact(this)) {
+            found = ParallelScan.filter(found, Objects::nonNull);
+        }
+        first.setCount(found.size());
+        for (QueryPlan.Step step : steps.subList(1, steps.size())) {
+            found = ParallelScan.filter(found, step.getCondition()::matches);
+            step.setCount(found.size());
+        }
+        return found;
+    }
+
+    /**
+     * Finds the condition which an index expects the fewest tasks to match.
+     *
+     * @param conditions Conditions which must all hold.
+     * @return Condition to look up, or null if no index can answer any of them.
+     */
+    Query.Node chooseDriver(List<Query.Node> conditions) {
+        Query.Node driver = null;
+        int smallest = Integer.MAX_VALUE;
+        for (Query.Node condition : conditions) {
+            int estimate = condition.estimate(this);
+            if (estimate != Query.NOT_INDEXED && estimate < smallest) {
+                driver = condition;
+                smallest = estimate;
+            }
+        }
+        return driver;
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return Number of tasks.
+     */
+    int getSize() {
+        return this.tasks.size();
+    }
+
+    /**
+     * Gets the word index of the list.
+     *
+     * @return Word index.
+     */
+    WordIndex getWordIndex() {
+        return this.wordIndex;
+    }
+
+    /**
+     * Gets the trigram index of the list.
+     *
+     * @return Trigram index.
+     */
+    TrigramIndex getTrigramIndex() {
+        return this.trigramIndex;
+    }
+
+    /**
+     * Gets the tag index of the list.
+     *
+     * @return Tag index.
+     */
+    TagIndex getTagIndex() {
+        return this.tagIndex;
+    }
+
+    /**
+     * Gets the date index of the list.
+     *
+     * @return Date index.
+     */
+    DateIndex getDateIndex() {
+        return this.dateIndex;
+    }
+}
@@ -0,0 +1,134 @@
+package kappa.elements;
+
+import java.util.Arrays;
+
+/**
+ * Fenwick tree which counts the live ids in every range of ids, so that the rank of an id among the live ids and
+ * the id at a given rank are both found in O(log n).
+ * The capacity is kept a power of two so that doubling it only needs one new node.
+ */
+class RankTree {
+
+    private int[] tree;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructor for a tree with no live ids.
+     *
+     * @param capacity Initial capacity, which must be a power of two.
+     */
+    RankTree(int capacity) {
+        this.capacity = capacity;
+        this.tree = new int[capacity + 1];
+    }
+
+    /**
+     * Returns the largest id the tree can hold before it has to grow.
+     *
+     * @return Capacity.
+     */
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of live ids.
+     *
+     * @return Number of live ids.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Marks an id as live, doubling the capacity until the id fits.
+     *
+     * @param id Id, starting from 1.
+     */
+    void add(int id) {
+        while (id > this.capacity) {
+            int total = this.tree[this.capacity];
+            this.capacity *= 2;
+            this.tree = Arrays.copyOf(this.tree, this.capacity + 1);
+            this.tree[this.capacity] = total;
+        }
+        update(id, 1);
+        this.size++;
+    }
+
+    /**
+     * Marks a live id as removed.
+     *
+     * @param id Id, starting from 1.
+     */
+    void remove(int id) {
+        update(id, -1);
+        this.size--;
+    }
+
+    /**
+     * Marks every id as removed.
+     */
+    void clear() {
+        Arrays.fill(this.tree, 0);
+        this.size = 0;
+    }
+
+    /**
+     * Counts the live ids up to and including an id.
+     *
+     * @param id Id.
+     * @return Rank of the id if it is live, starting from 1.
+     */
+    int rank(int id) {
+        int rank = 0;
+        for (int i = Math.min(id, this.capacity); i > 0; i -= i & -i) {
+            rank += this.tree[i];
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the live id at a rank by descending the tree.
+     *
+     * @param rank Rank, between 1 and the number of live ids.
+     * @return Id at the rank.
+     */
+    int select(int rank) {
+        int id = 0;
+        for (int step = this.capacity; step > 0; step >>= 1) {
+            if (id + step <= this.capacity && this.tree[id + step] < rank) {
+                id += step;
+                rank -= this.tree[id];
+            }
+        }
+        return id + 1;
+    }
+
+    /**
+     * Lists the live ids by selecting every rank in turn, which takes O(log n) for each live id however many ids
+     * have been removed.
+     *
+     * @return Live ids in increasing order.
+     */
+    int[] toArray() {
+        int[] ids = new int[this.size];
+        for (int rank = 1; rank <= this.size; rank++) {
+            ids[rank - 1] = select(rank);
+        }
+        return ids;
+    }
+
+    /**
+     * Adds to the count of live ids at an id.
+     *
+     * @param id Id to update.
+     * @param delta Change in count.
+     */
+    private void update(int id, int delta) {
+        for (int i = id; i <= this.capacity; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+}
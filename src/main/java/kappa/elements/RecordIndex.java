@@ -0,0 +1,49 @@
+package kappa.elements;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of the records in a binary snapshot, kept by task id.
+ * Lets a single field of a task which was loaded from the snapshot be patched in place.
+ */
+class RecordIndex {
+
+    static final long NOT_IN_SNAPSHOT = -1;
+
+    private long[] offsets = new long[16];
+
+    /**
+     * Constructor for an empty index.
+     */
+    RecordIndex() {
+        Arrays.fill(this.offsets, NOT_IN_SNAPSHOT);
+    }
+
+    /**
+     * Records the offset of a task's record.
+     *
+     * @param id Id of the task.
+     * @param offset Offset of the task's record.
+     */
+    void put(int id, long offset) {
+        if (id < 0) {
+            return;
+        }
+        if (id >= this.offsets.length) {
+            int length = this.offsets.length;
+            this.offsets = Arrays.copyOf(this.offsets, Math.max(length * 2, id + 1));
+            Arrays.fill(this.offsets, length, this.offsets.length, NOT_IN_SNAPSHOT);
+        }
+        this.offsets[id] = offset;
+    }
+
+    /**
+     * Gets the offset of a task's record.
+     *
+     * @param id Id of the task.
+     * @return Offset of the record, or {@code NOT_IN_SNAPSHOT} if the task is not in the snapshot.
+     */
+    long get(int id) {
+        return id < 0 || id >= this.offsets.length ? NOT_IN_SNAPSHOT : this.offsets[id];
+    }
+}
@@ -0,0 +1,89 @@
+package kappa.elements;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Patches single fields of records in a binary snapshot with positioned writes.
+ * Patches are collected as dirty byte ranges, so repeated updates to the same field are only written once.
+ */
+class RecordPatcher {
+
+    private final File snapshot;
+    private final TreeMap<Long, byte[]> dirty = new TreeMap<>();
+    private FileChannel channel;
+
+    /**
+     * Constructor for a patcher of a single snapshot file.
+     *
+     * @param snapshot Snapshot file.
+     */
+    RecordPatcher(File snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Marks the bytes at an offset as changed, replacing any earlier change to the same bytes.
+     *
+     * @param offset Offset of the field in the snapshot.
+     * @param bytes New value of the field.
+     */
+    void mark(long offset, byte[] bytes) {
+        this.dirty.put(offset, bytes);
+    }
+
+    /**
+     * Writes every changed field to the snapshot.
+     *
+     * @return True if anything was written.
+     * @throws IOException Throws if the snapshot cannot be written.
+     */
+    boolean flush() throws IOException {
+        if (this.dirty.isEmpty()) {
+            return false;
+        }
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.snapshot.toPath(), StandardOpenOption.WRITE);
+        }
+        for (Map.Entry<Long, byte[]> field : this.dirty.entrySet()) {
+            ByteBuffer buffer = ByteBuffer.wrap(field.getValue());
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer, field.getKey() + buffer.position());
+            }
+        }
+        this.dirty.clear();
+        return true;
+    }
+
+    /**
+     * Forces written fields to disk.
+     *
+     * @throws IOException Throws if the snapshot cannot be forced.
+     */
+    void force() throws IOException {
+        if (this.channel != null) {
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Writes every changed field and closes the snapshot, so that it can be replaced.
+     *
+     * @throws IOException Throws if the snapshot cannot be written or closed.
+     */
+    void close() throws IOException {
+        flush();
+        if (this.channel != null) {
+            this.channel.force(false);
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+}
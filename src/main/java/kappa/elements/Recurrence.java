@@ -0,0 +1,240 @@
+package kappa.elements;
+
+import kappa.exception.InvalidRecurrenceException;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Rule for how often a recurring task repeats, such as every day or every 2 months.
+ * Occurrences are never stored. They are worked out one at a time by an iterator over only the range of minutes
+ * that is asked for, jumping straight to the first occurrence in the range.
+ */
+public class Recurrence {
+
+    /**
+     * Number of minutes in a day.
+     */
+    public static final long MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Unit a recurrence counts in.
+     */
+    public enum Unit { DAY, WEEK, MONTH
+    }
+
+    private final Unit unit;
+    private final int every;
+
+    /**
+     * Constructor for Recurrence.
+     *
+     * @param unit Unit to count in.
+     * @param every Number of units between occurrences, at least 1.
+     */
+    public Recurrence(Unit unit, int every) {
+        assert every >= 1 : "Invalid interval";
+        this.unit = unit;
+        this.every = every;
+    }
+
+    /**
+     * Parses a rule in the form daily, weekly, monthly, {@code [every] <unit>} or {@code [every] <n> <units>}.
+     *
+     * @param text Rule to parse, such as every 2 weeks.
+     * @return Recurrence of the rule.
+     * @throws InvalidRecurrenceException Throws if the rule is in none of the forms.
+     */
+    public static Recurrence parse(String text) throws InvalidRecurrenceException {
+        String[] words = text.trim().toLowerCase(Locale.ROOT).replaceFirst("^every\\s+", "").split("\\s+");
+        if (words.length == 1) {
+            switch (words[0]) {
+            case "daily":
+                return new Recurrence(Unit.DAY, 1);
+            case "weekly":
+                return new Recurrence(Unit.WEEK, 1);
+            case "monthly":
+                return new Recurrence(Unit.MONTH, 1);
+            default:
+                return new Recurrence(parseUnit(words[0], text), 1);
+            }
+        }
+        if (words.length != 2) {
+            throw new InvalidRecurrenceException(text);
+        }
+        try {
+            int every = Integer.parseInt(words[0]);
+            if (every < 1) {
+                throw new InvalidRecurrenceException(text);
+            }
+            return new Recurrence(parseUnit(words[1], text), every);
+        } catch (NumberFormatException error) {
+            throw new InvalidRecurrenceException(text);
+        }
+    }
+
+    /**
+     * Gets the unit the rule counts in.
+     *
+     * @return Unit.
+     */
+    public Unit getUnit() {
+        return this.unit;
+    }
+
+    /**
+     * Gets the number of units between occurrences.
+     *
+     * @return Interval in units.
+     */
+    public int getEvery() {
+        return this.every;
+    }
+
+    /**
+     * Finds the occurrences of a series inside a range, one at a time.
+     *
+     * @param start Epoch minute of the first occurrence of the series.
+     * @param from Earliest epoch minute, included.
+     * @param to Latest epoch minute, included.
+     * @return Iterator over the epoch minutes of the occurrences, earliest first.
+     */
+    public PrimitiveIterator.OfLong occurrences(long start, long from, long to) {
+        return new PrimitiveIterator.OfLong() {
+            private long count = firstCountFrom(start, from);
+            private long next = getOccurrence(start, this.count);
+
+            @Override
+            public boolean hasNext() {
+                return this.next != DateTime.NO_DATE && this.next <= to;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long current = this.next;
+                this.count++;
+                this.next = getOccurrence(start, this.count);
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Converts the rule into the form it is parsed from.
+     *
+     * @return Rule, such as every 2 weeks.
+     */
+    @Override
+    public String toString() {
+        String unitName = this.unit.name().toLowerCase(Locale.ROOT);
+        return this.every == 1 ? "every " + unitName : "every " + this.every + " " + unitName + "s";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Recurrence)) {
+            return false;
+        }
+        return this.unit == ((Recurrence) other).unit && this.every == ((Recurrence) other).every;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.unit.hashCode() * 31 + this.every;
+    }
+
+    /**
+     * Works out the epoch minute of an occurrence of a series.
+     *
+     * @param start Epoch minute of the first occurrence.
+     * @param count Number of the occurrence, counting from 0.
+     * @return Epoch minute of the occurrence, or {@link DateTime#NO_DATE} if it is out of range.
+     */
+    private long getOccurrence(long start, long count) {
+        try {
+            switch (this.unit) {
+            case MONTH:
+                return toDateTime(start).plusMonths(Math.multiplyExact(count, this.every))
+                        .toEpochSecond(ZoneOffset.UTC) / 60;
+            default:
+                return Math.addExact(start, Math.multiplyExact(count, getStepMinutes()));
+            }
+        } catch (ArithmeticException | DateTimeException error) {
+            return DateTime.NO_DATE;
+        }
+    }
+
+    /**
+     * Works out the number of the first occurrence of a series at or after a minute, without stepping through the
+     * occurrences before it.
+     *
+     * @param start Epoch minute of the first occurrence.
+     * @param from Earliest epoch minute.
+     * @return Number of the occurrence, counting from 0.
+     */
+    private long firstCountFrom(long start, long from) {
+        if (from <= start) {
+            return 0;
+        }
+        if (this.unit != Unit.MONTH) {
+            return Math.floorDiv(from - start - 1, getStepMinutes()) + 1;
+        }
+        long count;
+        try {
+            count = Math.max(ChronoUnit.MONTHS.between(toDateTime(start), toDateTime(from)) / this.every - 1, 0);
+        } catch (DateTimeException error) {
+            count = 0;
+        }
+        long occurrence = getOccurrence(start, count);
+        while (occurrence != DateTime.NO_DATE && occurrence < from) {
+            count++;
+            occurrence = getOccurrence(start, count);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of minutes between occurrences of a rule which counts in days or weeks.
+     *
+     * @return Minutes between occurrences.
+     */
+    private long getStepMinutes() {
+        return (this.unit == Unit.WEEK ? 7 : 1) * MINUTES_PER_DAY * this.every;
+    }
+
+    /**
+     * Converts an epoch minute to a date and time in UTC.
+     *
+     * @param epochMinute Minutes since 1/1/1970 0000.
+     * @return Date and time of the minute.
+     */
+    private static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(Math.multiplyExact(epochMinute, 60L), 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Parses the name of a unit, in the singular or the plural.
+     *
+     * @param word Name of the unit.
+     * @param text Whole rule, used to report a rule which cannot be read.
+     * @return Unit of the name.
+     * @throws InvalidRecurrenceException Throws if the word names no unit.
+     */
+    private static Unit parseUnit(String word, String text) throws InvalidRecurrenceException {
+        String singular = word.endsWith("s") ? word.substring(0, word.length() - 1) : word;
+        try {
+            return Unit.valueOf(singular.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException error) {
+            throw new InvalidRecurrenceException(text);
+        }
+    }
+}
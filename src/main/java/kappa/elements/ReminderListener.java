@@ -0,0 +1,16 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+/**
+ * Receives the reminders of deadlines and events as they come due.
+ */
+public interface ReminderListener {
+
+    /**
+     * Reminds the user of a task. Called on the reminder thread.
+     *
+     * @param task Task whose reminder has come.
+     */
+    void remind(Task task);
+}
@@ -0,0 +1,149 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.List;
+
+/**
+ * Reminds the user of deadlines and events a set number of minutes before they are due.
+ * Every upcoming task which is not done waits in a {@link TimingWheel}, and the task list schedules and cancels
+ * reminders as tasks are added, marked done and removed, so the list is never scanned for due tasks.
+ * Once started, a single thread moves the wheel on at the start of every minute and hands out the reminders.
+ */
+public class Reminders {
+
+    private static final long MILLIS_PER_MINUTE = 60_000;
+    private static final long DEFAULT_LEAD_MINUTES = Long.getLong("kappa.remind.leadMinutes", 0);
+
+    private final TimingWheel wheel;
+    private long leadMinutes = DEFAULT_LEAD_MINUTES;
+    private Thread ticker;
+
+    /**
+     * Constructor for reminders with nothing scheduled.
+     *
+     * @param now Current epoch minute.
+     */
+    Reminders(long now) {
+        this.wheel = new TimingWheel(now);
+    }
+
+    /**
+     * Schedules the reminder of a task if it has a date which is still to come and is not done.
+     *
+     * @param task Task to remind the user of.
+     */
+    void schedule(Task task) {
+        long due = task.getEpochMinute();
+        if (due == DateTime.NO_DATE || task.getIsDone() || due <= this.wheel.getNow()) {
+            return;
+        }
+        this.wheel.schedule(task, due - this.leadMinutes);
+    }
+
+    /**
+     * Cancels the reminder of a task, if it has one.
+     *
+     * @param task Task which no longer needs a reminder.
+     */
+    void cancel(Task task) {
+        this.wheel.cancel(task.getId());
+    }
+
+    /**
+     * Cancels every reminder.
+     */
+    void clear() {
+        this.wheel.clear();
+    }
+
+    /**
+     * Returns the minute reminders have been handed out up to.
+     *
+     * @return Current epoch minute of the reminders.
+     */
+    public long getNow() {
+        return this.wheel.getNow();
+    }
+
+    /**
+     * Sets how many minutes before its date a task is reminded of. Reminders already scheduled are not moved.
+     *
+     * @param leadMinutes Minutes before the date.
+     */
+    void setLeadMinutes(long leadMinutes) {
+        this.leadMinutes = leadMinutes;
+    }
+
+    /**
+     * Returns how many minutes before its date a task is reminded of.
+     *
+     * @return Minutes before the date.
+     */
+    public long getLeadMinutes() {
+        return this.leadMinutes;
+    }
+
+    /**
+     * Returns the number of reminders still to come.
+     *
+     * @return Number of scheduled reminders.
+     */
+    public int getPendingCount() {
+        return this.wheel.size();
+    }
+
+    /**
+     * Moves the reminders on to a minute, handing out every reminder which has come by then.
+     *
+     * @param now Epoch minute to move to.
+     * @return Tasks whose reminders have come, earliest first.
+     */
+    public List<Task> advance(long now) {
+        return this.wheel.advance(now);
+    }
+
+    /**
+     * Starts the thread which hands reminders out to a listener at the start of every minute.
+     * Does nothing if it has already been started.
+     *
+     * @param listener Listener to remind.
+     */
+    public synchronized void start(ReminderListener listener) {
+        if (this.ticker != null) {
+            return;
+        }
+        this.ticker = new Thread(() -> tick(listener), "kappa-reminders");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Stops the thread which hands reminders out.
+     */
+    public synchronized void stop() {
+        if (this.ticker != null) {
+            this.ticker.interrupt();
+            this.ticker = null;
+        }
+    }
+
+    /**
+     * Hands out the reminders which have come, then sleeps until the next minute starts, until interrupted.
+     * Runs on the reminder thread.
+     *
+     * @param listener Listener to remind.
+     */
+    private void tick(ReminderListener listener) {
+        while (!Thread.currentThread().isInterrupted()) {
+            for (Task task : advance(DateTime.now().getEpochMinute())) {
+                listener.remind(task);
+            }
+            try {
+                Thread.sleep(MILLIS_PER_MINUTE - System.currentTimeMillis() % MILLIS_PER_MINUTE);
+            } catch (InterruptedException error) {
+                return;
+            }
+        }
+    }
+}
@@ -1,269 +1,578 @@
 package kappa.elements;
 
+import kappa.task.Recurring;
 import kappa.task.Task;
-import kappa.task.Deadline;
-import kappa.task.Event;
-import kappa.task.ToDo;
 
-import kappa.exception.KappaException;
 import kappa.exception.InOutWentWrongException;
-import kappa.exception.NoStorageFileDetectedException;
+import kappa.exception.KappaException;
 import kappa.exception.UnableToReadFileException;
 
-import java.io.FileNotFoundException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.File;
-import java.io.PrintWriter;
-import java.io.FileWriter;
+import java.io.OutputStreamWriter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Storage class that writes and loads data from local .txt file.
+ * The .txt file is a snapshot, and every mutation after it is appended to a journal which is replayed on load.
+ * The journal is folded back into the snapshot by a background compaction once it grows too large.
+ * The snapshot can also be kept in a binary format, which compaction converts to and from losslessly.
+ * Journal records refer to tasks by their stable id, so recording a mutation never depends on the list's order.
  */
 public class Storage {
 
+    private static final StorageFormat DEFAULT_FORMAT =
+            StorageFormat.valueOf(System.getProperty("kappa.storage.format", StorageFormat.TEXT.name()));
+
     private File file;
+    private Journal journal;
+    private Compactor compactor;
+    private StorageFormat format;
+    private RecordIndex recordIndex;
+    private int nextId = 1;
+
+    private long journalBytes;
+    private int journalRecords;
+    private int deadRecords;
 
     /**
-     * Constructor that initialises a File object.
+     * Constructor that initialises a File object and the journal next to it.
      *
      * @param filePath FilePath of .txt file to write/load.
      */
     public Storage(String filePath) {
         this.file = new File(filePath);
+        this.journal = new Journal(getJournalFile(this.file), this.file);
+        this.compactor = new Compactor();
+        this.format = DEFAULT_FORMAT;
     }
 
     /**
-     * Clears storage of data.
+     * Clears storage of data by recording a clear in the journal.
      *
-     * @throws NoStorageFileDetectedException When storage file not found.
+     * @throws KappaException When the clear cannot be recorded.
      */
-    void clearStorage() throws NoStorageFileDetectedException {
-        try {
-            PrintWriter writer = new PrintWriter(this.file);
-            writer.close();
-        } catch (FileNotFoundException e) {
-            throw new NoStorageFileDetectedException();
-        }
+    void clearStorage() throws KappaException {
+        appendRecord(Journal.CLEAR);
+        this.deadRecords = this.journalRecords;
+        this.recordIndex = null;
     }
 
     /**
-     * Loads tasks from .txt file.
+     * Loads tasks from .txt file and replays the journal on top of it.
+     * Starts a compaction in the background if the journal has grown too large.
      *
      * @return An ArrayList of tasks parsed from .txt file.
      * @throws KappaException Throws if file cannot be found or input went wrong.
      */
     public ArrayList<Task> load() throws KappaException {
-        ArrayList<Task> taskList = new ArrayList<>();
+        OrderedTasks taskList;
+        this.recordIndex = null;
         try {
-            List<String> list = Files.readAllLines(this.file.toPath());
-            int index = 1;
-            for (String line : list) {
-                taskList.add(formatFileToTask(line, index));
-                index++;
+            finishCompaction(this.file);
+            if (this.file.exists()) {
+                this.format = BinaryFormat.isBinary(this.file) ? StorageFormat.BINARY : StorageFormat.TEXT;
+            }
+            RecordIndex index = new RecordIndex();
+            taskList = new OrderedTasks(readSnapshot(this.file, index), readNextId(this.file));
+            if (this.format == StorageFormat.BINARY) {
+                this.recordIndex = index;
             }
         } catch (IOException e) {
             this.file = new File("./data/store.txt");
-            return taskList;
+            this.journal = new Journal(getJournalFile(this.file), this.file);
+            taskList = new OrderedTasks();
         }
-        return taskList;
+        ReplayCount count = new ReplayCount();
+        count.recordIndex = this.recordIndex;
+        replayJournal(getCompactingFile(this.file), taskList, count);
+        replayJournal(this.journal.getFile(), taskList, count);
+        this.recordIndex = count.recordIndex;
+        this.nextId = taskList.getNextId();
+        this.journalBytes = getCompactingFile(this.file).length() + this.journal.getFile().length();
+        this.journalRecords = count.records;
+        this.deadRecords = count.deadRecords;
+        compactIfNeeded();
+        return taskList.toList();
     }
 
     /**
-     * Refreshes storage and updates list of tasks to the stored local .txt file.
+     * Returns the id to give the next task, which is larger than the id of every task seen by the last load.
      *
-     * @param taskList Current task list.
-     * @throws KappaException Throws if file cannot be found.
+     * @return Next id.
      */
-    void refreshStorage(ArrayList<Task> taskList) throws KappaException {
-        try {
-            PrintWriter writer = new PrintWriter(this.file);
-            writer.close();
-            for (Task task : taskList) {
-                addTask(task);
+    int getNextId() {
+        return this.nextId;
+    }
+
+    /**
+     * Returns the file a mapped task arena is kept in, which only backs memory and is not read on load.
+     *
+     * @return Arena file next to the storage file.
+     */
+    File getArenaFile() {
+        return new File(this.file.getPath() + ".arena");
+    }
+
+    /**
+     * Records an added task in the journal.
+     *
+     * @param task Task to store.
+     * @throws KappaException Throws if input went wrong in writing file.
+     */
+    void addTask(Task task) throws KappaException {
+        appendRecord(Journal.ADD + TextFormat.DELIMITER + TextFormat.encode(task));
+    }
+
+    /**
+     * Records a task being marked as done.
+     * A task loaded from a binary snapshot has its done flag patched in place, and any other task gets a journal
+     * record, so marking a task done never depends on the size of the list.
+     *
+     * @param id Id of task that is done.
+     * @throws KappaException Throws if input went wrong in writing file.
+     */
+    void setDone(int id) throws KappaException {
+        setDone(Collections.singletonList(id));
+    }
+
+    /**
+     * Records many tasks being marked as done as a single batch.
+     *
+     * @param ids Ids of tasks that are done.
+     * @throws KappaException Throws if input went wrong in writing file.
+     */
+    void setDone(List<Integer> ids) throws KappaException {
+        setDone(ids, Collections.emptyMap());
+    }
+
+    /**
+     * Records many tasks being marked as done, and occurrences of recurring tasks being completed, as a single batch.
+     *
+     * @param ids Ids of tasks that are done.
+     * @param exceptions Epoch minute of the occurrence completed, by id of the recurring task.
+     * @throws KappaException Throws if input went wrong in writing file.
+     */
+    void setDone(List<Integer> ids, Map<Integer, Long> exceptions) throws KappaException {
+        List<String> records = new ArrayList<>();
+        for (Map.Entry<Integer, Long> exception : exceptions.entrySet()) {
+            records.add(Journal.EXCEPT + TextFormat.DELIMITER + exception.getKey() + TextFormat.DELIMITER
+                    + exception.getValue());
+        }
+        for (int id : ids) {
+            long offset = this.recordIndex == null ? RecordIndex.NOT_IN_SNAPSHOT : this.recordIndex.get(id);
+            if (offset != RecordIndex.NOT_IN_SNAPSHOT) {
+                this.journal.patch(offset + BinaryFormat.DONE_OFFSET, new byte[] {1});
+            } else {
+                records.add(Journal.DONE + TextFormat.DELIMITER + id);
             }
-        } catch (FileNotFoundException e) {
-            throw new NoStorageFileDetectedException();
         }
+        this.deadRecords += records.size();
+        appendRecords(records);
     }
 
     /**
-     * Encodes task and add it to .txt file.
+     * Records a task being removed in the journal.
      *
-     * @param task Task to store in .txt file.
+     * @param id Id of task that is removed.
      * @throws KappaException Throws if input went wrong in writing file.
      */
-    void addTask(Task task) throws KappaException {
-        try {
-            FileWriter fw = new FileWriter(this.file, true);
-            switch (task.getType()) {
-            case TODO:
-                writeToDo(task, fw);
-                break;
-            case DEADLINE:
-                writeDeadline(task, fw);
-                break;
-            case EVENT:
-                writeEvent(task, fw);
-                break;
-            default:
+    void removeTask(int id) throws KappaException {
+        removeTasks(Collections.singletonList(id));
+    }
+
+    /**
+     * Records many tasks being removed in the journal as a single batch.
+     *
+     * @param ids Ids of tasks that are removed.
+     * @throws KappaException Throws if input went wrong in writing file.
+     */
+    void removeTasks(List<Integer> ids) throws KappaException {
+        List<String> records = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            records.add(Journal.DELETE + TextFormat.DELIMITER + id);
+        }
+        this.deadRecords += 2 * records.size();
+        appendRecords(records);
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot on a background thread, in the current storage format.
+     *
+     * @return False if a compaction is already running.
+     */
+    boolean compact() {
+        return compact(this.format);
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot on a background thread, converting the snapshot to a given format.
+     * The journal is frozen first, so new mutations keep being appended while the snapshot is written.
+     *
+     * @param format Format to write the snapshot in, which is kept for later compactions.
+     * @return False if a compaction is already running.
+     */
+    boolean compact(StorageFormat format) {
+        if (!this.compactor.tryStart()) {
+            return false;
+        }
+        File snapshot = this.file;
+        this.format = format;
+        this.recordIndex = null;
+        this.journalBytes = 0;
+        this.journalRecords = 0;
+        this.deadRecords = 0;
+        this.journal.rotateTo(getCompactingFile(snapshot)).whenComplete((ignored, error) -> {
+            if (error == null) {
+                this.compactor.run(() -> foldJournal(snapshot, format));
+            } else {
+                this.compactor.cancel();
             }
-        } catch (IOException error) {
+        });
+        return true;
+    }
+
+    /**
+     * Waits until every recorded mutation has been written and forced to disk, and until a running compaction has
+     * swapped in its snapshot, so that a compaction started before exiting is never dropped.
+     *
+     * @throws KappaException Throws if the mutations cannot be written.
+     */
+    void sync() throws KappaException {
+        this.journal.sync();
+        try {
+            this.compactor.awaitIdle();
+        } catch (InterruptedException error) {
             throw new InOutWentWrongException();
         }
     }
 
     /**
-     * Writes event to file to store.
+     * Checks if a compaction is running in the background.
      *
-     * @param task Task.
-     * @param fw FileWriter object.
-     * @throws IOException Throws if unable to write or close.
+     * @return True if a compaction is running.
      */
-    private void writeEvent(Task task, FileWriter fw) throws IOException {
-        fw.write(task.getId() + " ~ "
-                + "Event" + " ~ "
-                + task.getStatusIcon() + " ~ "
-                + task.getDescription() + " ~ "
-                + task.getDate() + " ~ "
-                + task.getTags()
-                + System.lineSeparator());
-        fw.close();
+    boolean isCompacting() {
+        return this.compactor.isRunning();
     }
 
     /**
-     * Writes deadline to file to store.
+     * Appends a record to the journal and starts a compaction if the journal is due for one.
      *
-     * @param task Task.
-     * @param fw FileWriter object.
-     * @throws IOException Throws if unable to write or close.
+     * @param record Record to append.
+     * @throws KappaException Throws if input went wrong in writing file.
      */
-    private void writeDeadline(Task task, FileWriter fw) throws IOException {
-        fw.write(task.getId() + " ~ "
-                + "Deadline" + " ~ "
-                + task.getStatusIcon() + " ~ "
-                + task.getDescription() + " ~ "
-                + task.getDate() + " ~ "
-                + task.getTags()
-                + System.lineSeparator());
-        fw.close();
+    private void appendRecord(String record) throws KappaException {
+        appendRecords(Collections.singletonList(record));
     }
 
     /**
-     * Writes ToDo to file to store.
+     * Appends records to the journal as a single batch and starts a compaction if the journal is due for one.
      *
-     * @param task Task.
-     * @param fw FileWriter object.
-     * @throws IOException Throws if unable to write or close.
+     * @param records Records to append.
+     * @throws KappaException Throws if input went wrong in writing file.
      */
-    private void writeToDo(Task task, FileWriter fw) throws IOException {
-        fw.write(task.getId() + " ~ "
-                + "ToDo" + " ~ "
-                + task.getStatusIcon() + " ~ "
-                + task.getDescription() + " ~ "
-                + task.getTags()
-                + System.lineSeparator());
-        fw.close();
+    private void appendRecords(List<String> records) throws KappaException {
+        if (records.isEmpty()) {
+            return;
+        }
+        this.journal.appendAll(records);
+        for (String record : records) {
+            this.journalRecords++;
+            this.journalBytes += Journal.getEncodedLength(record);
+        }
+        compactIfNeeded();
     }
 
     /**
-     * Parses the line from local storage .txt file
-     * to a task to be added into current program's taskList.
+     * Starts a compaction if the journal is large enough or holds enough dead records.
+     */
+    private void compactIfNeeded() {
+        if (this.compactor.shouldCompact(this.journalBytes, this.journalRecords, this.deadRecords)) {
+            compact();
+        }
+    }
+
+    /**
+     * Replays the frozen journal on top of the snapshot and swaps the result in as the new snapshot.
+     * Runs on the compactor thread and only touches the snapshot and frozen journal files.
      *
-     * @param line Line to parse.
-     * @param index Current line of file.
-     * @return Task that has been parsed.
-     * @throws KappaException Throws error in reading file.
+     * @param snapshot Snapshot file to compact.
+     * @param format Format to write the new snapshot in.
      */
-    private Task formatFileToTask(String line, int index) throws KappaException {
-        String[] tokens = line.split(" ~ ");
-        switch (tokens[1]) {
-        case "ToDo":
-            return formatToDo(tokens);
-        case "Deadline":
-            return formatDeadline(tokens);
-        case "Event":
-            return formatEvent(tokens);
-        default:
-            throw new UnableToReadFileException(index);
+    private void foldJournal(File snapshot, StorageFormat format) {
+        File compacted = getCompactedFile(snapshot);
+        File temporary = new File(compacted.getPath() + ".tmp");
+        try {
+            OrderedTasks taskList = new OrderedTasks(readSnapshot(snapshot, null), readNextId(snapshot));
+            replayJournal(getCompactingFile(snapshot), taskList, new ReplayCount());
+            if (format == StorageFormat.BINARY) {
+                BinaryFormat.write(taskList.toList(), taskList.getNextId(), temporary);
+            } else {
+                writeSnapshot(taskList.toList(), taskList.getNextId(), temporary);
+            }
+            Files.move(temporary.toPath(), compacted.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            finishCompaction(snapshot);
+        } catch (IOException | KappaException error) {
+            // The frozen journal is left in place and is replayed again by the next load or compaction.
+        }
+    }
+
+    /**
+     * Swaps a completed compacted snapshot in, discarding the frozen journal it already contains.
+     * Safe to repeat, so an interrupted swap is finished on the next load.
+     *
+     * @param snapshot Snapshot file.
+     * @throws IOException Throws if the files cannot be moved or deleted.
+     */
+    private static void finishCompaction(File snapshot) throws IOException {
+        File compacted = getCompactedFile(snapshot);
+        if (!compacted.exists()) {
+            return;
+        }
+        Files.deleteIfExists(getCompactingFile(snapshot).toPath());
+        Files.move(compacted.toPath(), snapshot.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads every task in a snapshot file.
+     * Binary snapshots are mapped, and text snapshots are read one line at a time, or in parallel ranges if large.
+     *
+     * @param snapshot Snapshot file.
+     * @param recordIndex Index to put the offset of every binary record in, or null.
+     * @return Tasks in the snapshot, empty if there is no snapshot yet.
+     * @throws IOException Throws if the snapshot cannot be read.
+     * @throws KappaException Throws if a line cannot be parsed.
+     */
+    private ArrayList<Task> readSnapshot(File snapshot, RecordIndex recordIndex) throws IOException, KappaException {
+        ArrayList<Task> taskList = new ArrayList<>();
+        if (!snapshot.exists()) {
+            return taskList;
+        }
+        if (BinaryFormat.isBinary(snapshot)) {
+            return BinaryFormat.read(snapshot, recordIndex);
+        }
+        if (ParallelTextLoader.shouldLoad(snapshot)) {
+            return new ParallelTextLoader(snapshot).load();
+        }
+        try (BufferedReader reader = TextFormat.openReader(snapshot)) {
+            int index = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (index > 1 || !TextFormat.isNextId(line)) {
+                    taskList.add(TextFormat.decode(line, index));
+                }
+                index++;
+            }
+        }
+        return taskList;
+    }
+
+    /**
+     * Reads the id to give the next task from the header of a snapshot file, which is kept even once the tasks
+     * with the highest ids are deleted.
+     *
+     * @param snapshot Snapshot file.
+     * @return Next id, or 1 if there is no snapshot or it has no header.
+     * @throws IOException Throws if the snapshot cannot be read.
+     * @throws KappaException Throws if the header cannot be parsed.
+     */
+    private static int readNextId(File snapshot) throws IOException, KappaException {
+        if (!snapshot.exists()) {
+            return 1;
+        }
+        if (BinaryFormat.isBinary(snapshot)) {
+            return BinaryFormat.readNextId(snapshot);
+        }
+        try (BufferedReader reader = TextFormat.openReader(snapshot)) {
+            String line = reader.readLine();
+            return line != null && TextFormat.isNextId(line) ? TextFormat.decodeNextId(line, 1) : 1;
+        }
+    }
+
+    /**
+     * Writes every task to a text snapshot file after a header holding the next id, and forces it to disk.
+     *
+     * @param taskList Tasks to write.
+     * @param nextId Id to give the next task.
+     * @param snapshot Snapshot file.
+     * @throws IOException Throws if the snapshot cannot be written.
+     */
+    private void writeSnapshot(List<Task> taskList, int nextId, File snapshot) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(snapshot);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(TextFormat.encodeNextId(nextId));
+            writer.write(System.lineSeparator());
+            for (Task task : taskList) {
+                writer.write(TextFormat.encode(task));
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+            out.getFD().sync();
         }
     }
 
     /**
-     * Formats Event properly from storage.
+     * Applies journal records, in order, to the tasks loaded so far, reading one record at a time.
      *
-     * @param tokens Storage data split by ~.
-     * @return Event from storage.
+     * @param journalFile Journal file, which may not exist.
+     * @param taskList Tasks loaded so far.
+     * @param count Count of replayed records to add to.
+     * @throws KappaException Throws if a record cannot be read.
      */
-    private Task formatEvent(String[] tokens) {
-        Tags tags;
-        if (tokens.length == 6) {
-            tags = formatTags(tokens[5]);
-        } else {
-            tags = new Tags();
+    private void replayJournal(File journalFile, OrderedTasks taskList, ReplayCount count) throws KappaException {
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = TextFormat.openReader(journalFile)) {
+            int index = 1;
+            String record;
+            while ((record = reader.readLine()) != null) {
+                replayRecord(record, index, taskList, count);
+                count.records++;
+                index++;
+            }
+        } catch (IOException error) {
+            throw new InOutWentWrongException();
         }
-        Event eventTask = new Event(tokens[3], Integer.parseInt(tokens[0]), tokens[4], tags);
-        if (tokens[2].equals("Done")) {
-            eventTask.setDone();
+    }
+
+    /**
+     * Applies a single journal record to the tasks loaded so far.
+     *
+     * @param record Journal record.
+     * @param index Line number of the record.
+     * @param taskList Tasks loaded so far.
+     * @param count Count of replayed records to add to.
+     * @throws KappaException Throws if the record cannot be read.
+     */
+    private void replayRecord(String record, int index, OrderedTasks taskList, ReplayCount count)
+            throws KappaException {
+        int operationEnd = record.indexOf(TextFormat.DELIMITER);
+        String operation = operationEnd < 0 ? record : record.substring(0, operationEnd);
+        String argument = operationEnd < 0 ? "" : record.substring(operationEnd + TextFormat.DELIMITER.length());
+        switch (operation) {
+        case Journal.ADD:
+            taskList.add(TextFormat.decode(argument, index));
+            break;
+        case Journal.DONE:
+            findTask(taskList, argument, index).setDone();
+            count.deadRecords++;
+            break;
+        case Journal.EXCEPT:
+            replayException(argument, index, taskList);
+            count.deadRecords++;
+            break;
+        case Journal.DELETE:
+            taskList.remove(findTask(taskList, argument, index).getId());
+            count.deadRecords += 2;
+            break;
+        case Journal.CLEAR:
+            taskList.clear();
+            count.deadRecords = count.records + 1;
+            count.recordIndex = null;
+            break;
+        default:
+            throw new UnableToReadFileException(index);
         }
-        return eventTask;
     }
 
     /**
-     * Formats Deadline properly from storage.
+     * Records a completed occurrence on the recurring task a journal record refers to.
      *
-     * @param tokens Storage data split by ~.
-     * @return Deadline from storage.
+     * @param argument Id and epoch minute in the record.
+     * @param index Line number of the record.
+     * @param taskList Tasks loaded so far.
+     * @throws KappaException Throws if the record cannot be read or does not refer to a recurring task.
      */
-    private Task formatDeadline(String[] tokens) {
-        Tags tags;
-        if (tokens.length == 6) {
-            tags = formatTags(tokens[5]);
-        } else {
-            tags = new Tags();
+    private void replayException(String argument, int index, OrderedTasks taskList) throws KappaException {
+        int idEnd = argument.indexOf(TextFormat.DELIMITER);
+        if (idEnd < 0) {
+            throw new UnableToReadFileException(index);
         }
-        Deadline deadlineTask = new Deadline(tokens[3], Integer.parseInt(tokens[0]), tokens[4], tags);
-        if (tokens[2].equals("Done")) {
-            deadlineTask.setDone();
+        Task task = findTask(taskList, argument.substring(0, idEnd), index);
+        if (!(task instanceof Recurring)) {
+            throw new UnableToReadFileException(index);
+        }
+        try {
+            ((Recurring) task).addException(
+                    Long.parseLong(argument.substring(idEnd + TextFormat.DELIMITER.length())));
+        } catch (NumberFormatException error) {
+            throw new UnableToReadFileException(index);
         }
-        return deadlineTask;
     }
 
     /**
-     * Formats ToDo properly from storage.
+     * Finds the task a journal record refers to by id.
      *
-     * @param tokens Storage data split by ~.
-     * @return ToDo from storage.
+     * @param taskList Tasks loaded so far.
+     * @param argument Id in the record.
+     * @param index Line number of the record.
+     * @return Task with the id.
+     * @throws KappaException Throws if the id is not a number or there is no task with the id.
      */
-    private Task formatToDo(String[] tokens) {
-        Tags tags;
-        if (tokens.length == 5) {
-            tags = formatTags(tokens[4]);
-        } else {
-            tags = new Tags();
+    private Task findTask(OrderedTasks taskList, String argument, int index) throws KappaException {
+        Task task;
+        try {
+            task = taskList.getById(Integer.parseInt(argument));
+        } catch (NumberFormatException error) {
+            throw new UnableToReadFileException(index);
         }
-        ToDo toDoTask = new ToDo(tokens[3], Integer.parseInt(tokens[0]), tags);
-        if (tokens[2].equals("Done")) {
-            toDoTask.setDone();
+        if (task == null) {
+            throw new UnableToReadFileException(index);
         }
-        return toDoTask;
+        return task;
+    }
+
+    /**
+     * Returns the journal file which belongs to a storage file.
+     *
+     * @param file Storage file.
+     * @return Journal file next to the storage file.
+     */
+    private static File getJournalFile(File file) {
+        return new File(file.getPath() + ".journal");
     }
 
     /**
-     * Formats Tags properly from storage for a specific task.
+     * Returns the frozen journal file which is being folded into the snapshot.
      *
-     * @param tagsString tags data from Storage.
-     * @return Tags from storage associated with a specific task.
+     * @param file Storage file.
+     * @return Frozen journal file next to the storage file.
+     */
+    private static File getCompactingFile(File file) {
+        return new File(file.getPath() + ".journal.compacting");
+    }
+
+    /**
+     * Returns the file a completed compaction is written to before it replaces the snapshot.
+     *
+     * @param file Storage file.
+     * @return Compacted snapshot file next to the storage file.
+     */
+    private static File getCompactedFile(File file) {
+        return new File(file.getPath() + ".compacted");
+    }
+
+    /**
+     * Running count of journal records replayed during a load, along with the record index to keep in step.
      */
-    private Tags formatTags(String tagsString) {
-        String[] splitByHash = tagsString.split("#");
-        List<String> tagsList = new ArrayList<>(Arrays.asList(splitByHash).subList(1, splitByHash.length));
-        return new Tags(tagsList);
+    private static class ReplayCount {
 
+        private int records;
+        private int deadRecords;
+        private RecordIndex recordIndex;
     }
-}
\ No newline at end of file
+}
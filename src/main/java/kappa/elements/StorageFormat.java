@@ -0,0 +1,7 @@
+package kappa.elements;
+
+/**
+ * Represents the on-disk formats the storage snapshot can be written in.
+ */
+public enum StorageFormat { TEXT, BINARY
+}
@@ -0,0 +1,66 @@
+package kappa.elements;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global dictionary which gives every distinct tag a small int, so each tag string is held once however many tasks
+ * carry it. Ints are handed out in the order tags are first seen and never change.
+ * Safe to use from the threads of a parallel load.
+ */
+class TagDictionary {
+
+    static final int NOT_FOUND = -1;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[16];
+    private static int size;
+
+    /**
+     * Gets the int of a tag, giving it a new one if it has not been seen before.
+     *
+     * @param name Tag without the # prefix.
+     * @return Int of the tag.
+     */
+    static int intern(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (TagDictionary.class) {
+            id = IDS.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = name;
+            IDS.put(name, size);
+            size++;
+            return size - 1;
+        }
+    }
+
+    /**
+     * Gets the int of a tag without giving it one.
+     *
+     * @param name Tag without the # prefix.
+     * @return Int of the tag, or {@code NOT_FOUND} if it has not been seen.
+     */
+    static int find(String name) {
+        Integer id = IDS.get(name);
+        return id == null ? NOT_FOUND : id;
+    }
+
+    /**
+     * Gets the tag an int was given to.
+     *
+     * @param id Int of the tag.
+     * @return Tag without the # prefix.
+     */
+    static String name(int id) {
+        return names[id];
+    }
+}
@@ -0,0 +1,140 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Index from every tag to a bitmap of the ids of the tasks which carry it, along with a bitmap of every live id.
+ * Bitmaps are kept in an array by the tag's int in the {@link TagDictionary}.
+ * Tag queries are answered with whole-word AND, OR and AND NOT operations on the bitmaps, and never look at a task.
+ * Ids are stable and handed out in order, so the bitmaps stay dense and are never shifted when a task is removed.
+ */
+class TagIndex {
+
+    private BitSet[] bitmaps = new BitSet[16];
+    private final BitSet live = new BitSet();
+
+    /**
+     * Adds a task's tags.
+     *
+     * @param task Task to add.
+     */
+    void add(Task task) {
+        for (int tag : task.getTags().getIds()) {
+            if (tag >= this.bitmaps.length) {
+                this.bitmaps = Arrays.copyOf(this.bitmaps, Math.max(this.bitmaps.length * 2, tag + 1));
+            }
+            if (this.bitmaps[tag] == null) {
+                this.bitmaps[tag] = new BitSet();
+            }
+            this.bitmaps[tag].set(task.getId());
+        }
+        this.live.set(task.getId());
+    }
+
+    /**
+     * Removes a task's tags, dropping the bitmap of any tag which no task carries any more.
+     *
+     * @param task Task to remove.
+     */
+    void remove(Task task) {
+        for (int tag : task.getTags().getIds()) {
+            BitSet bitmap = this.bitmaps[tag];
+            bitmap.clear(task.getId());
+            if (bitmap.isEmpty()) {
+                this.bitmaps[tag] = null;
+            }
+        }
+        this.live.clear(task.getId());
+    }
+
+    /**
+     * Removes every tag.
+     */
+    void clear() {
+        Arrays.fill(this.bitmaps, null);
+        this.live.clear();
+    }
+
+    /**
+     * Finds the ids of the tasks which match a query.
+     *
+     * @param query Tag query.
+     * @return Bitmap of matching ids.
+     */
+    BitSet search(TagQuery query) {
+        BitSet result = null;
+        for (TagQuery.Clause clause : query.getClauses()) {
+            if (clause.getIsNegated()) {
+                continue;
+            }
+            BitSet union = union(clause);
+            if (result == null) {
+                result = union;
+            } else {
+                result.and(union);
+            }
+        }
+        if (result == null) {
+            result = (BitSet) this.live.clone();
+        }
+        for (TagQuery.Clause clause : query.getClauses()) {
+            if (clause.getIsNegated()) {
+                result.andNot(union(clause));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the ids of the tasks which carry a tag.
+     *
+     * @param name Tag without the # prefix.
+     * @return New bitmap of ids.
+     */
+    BitSet search(String name) {
+        BitSet bitmap = getBitmap(name);
+        return bitmap == null ? new BitSet() : (BitSet) bitmap.clone();
+    }
+
+    /**
+     * Counts the tasks which carry a tag, without copying its bitmap.
+     *
+     * @param name Tag without the # prefix.
+     * @return Number of tasks with the tag.
+     */
+    int count(String name) {
+        BitSet bitmap = getBitmap(name);
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+
+    /**
+     * Finds the ids of the tasks which carry any tag of a clause.
+     *
+     * @param clause Clause of a query.
+     * @return New bitmap of ids.
+     */
+    private BitSet union(TagQuery.Clause clause) {
+        BitSet union = new BitSet();
+        for (String name : clause.getTags()) {
+            BitSet bitmap = getBitmap(name);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Gets the bitmap of a tag.
+     *
+     * @param name Tag without the # prefix.
+     * @return Bitmap of the tag, which must not be changed, or null if no task carries it.
+     */
+    private BitSet getBitmap(String name) {
+        int tag = TagDictionary.find(name);
+        return tag != TagDictionary.NOT_FOUND && tag < this.bitmaps.length ? this.bitmaps[tag] : null;
+    }
+}
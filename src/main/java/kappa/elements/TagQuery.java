@@ -0,0 +1,149 @@
+package kappa.elements;
+
+import kappa.exception.InvalidTagException;
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Query over tags, such as {@code #work #urgent -#later} or {@code #school|#work}.
+ * Every space-separated clause must hold, a clause holds if any of its |-separated tags is on the task, and a
+ * clause starting with - must not hold.
+ */
+public class TagQuery {
+
+    private final String text;
+    private final List<Clause> clauses;
+
+    /**
+     * Constructor for a parsed query.
+     *
+     * @param text Query as it was typed.
+     * @param clauses Clauses of the query.
+     */
+    private TagQuery(String text, List<Clause> clauses) {
+        this.text = text;
+        this.clauses = clauses;
+    }
+
+    /**
+     * Checks if a search term is a tag query rather than text to find in descriptions.
+     *
+     * @param term Search term.
+     * @return True if the term starts with a tag or a negated tag.
+     */
+    public static boolean isTagQuery(String term) {
+        String trimmed = term.trim();
+        return trimmed.startsWith("#") || trimmed.startsWith("-#");
+    }
+
+    /**
+     * Parses a tag query.
+     *
+     * @param text Query to parse.
+     * @return Parsed query.
+     * @throws InvalidTagException Throws if a clause is empty or holds something that is not a tag.
+     */
+    public static TagQuery parse(String text) throws InvalidTagException {
+        List<Clause> clauses = new ArrayList<>();
+        for (String token : text.trim().split("\\s+")) {
+            boolean isNegated = token.startsWith("-");
+            List<String> tags = new ArrayList<>();
+            for (String alternative : token.substring(isNegated ? 1 : 0).split("\\|", -1)) {
+                if (!alternative.startsWith("#") || alternative.length() == 1) {
+                    throw new InvalidTagException();
+                }
+                tags.add(alternative.substring(1));
+            }
+            clauses.add(new Clause(tags, isNegated));
+        }
+        return new TagQuery(text.trim(), clauses);
+    }
+
+    /**
+     * Gets the clauses of the query.
+     *
+     * @return Clauses, in the order they were typed.
+     */
+    List<Clause> getClauses() {
+        return this.clauses;
+    }
+
+    /**
+     * Checks if the query holds for a task, looking at the task's tags instead of the tag index.
+     *
+     * @param task Task to check.
+     * @return True if every clause holds.
+     */
+    boolean matches(Task task) {
+        List<String> names = task.getTags().getNames();
+        for (Clause clause : this.clauses) {
+            boolean hasAny = false;
+            for (String tag : clause.getTags()) {
+                hasAny |= names.contains(tag);
+            }
+            if (hasAny == clause.getIsNegated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the query in a normal form, the same for queries which only differ in the order of clauses or tags.
+     *
+     * @return Sorted clauses, each with its sorted tags.
+     */
+    String getKey() {
+        TreeSet<String> keys = new TreeSet<>();
+        for (Clause clause : this.clauses) {
+            keys.add((clause.getIsNegated() ? "-#" : "#") + String.join("|#", new TreeSet<>(clause.getTags())));
+        }
+        return String.join(" ", keys);
+    }
+
+    @Override
+    public String toString() {
+        return this.text;
+    }
+
+    /**
+     * Clause which holds if any of its tags is on a task, or, if negated, if none of them is.
+     */
+    static class Clause {
+
+        private final List<String> tags;
+        private final boolean isNegated;
+
+        /**
+         * Constructor for a clause.
+         *
+         * @param tags Tags without the # prefix.
+         * @param isNegated Whether the clause must not hold.
+         */
+        Clause(List<String> tags, boolean isNegated) {
+            this.tags = tags;
+            this.isNegated = isNegated;
+        }
+
+        /**
+         * Gets the tags of the clause.
+         *
+         * @return Tags without the # prefix.
+         */
+        List<String> getTags() {
+            return this.tags;
+        }
+
+        /**
+         * Checks if the clause must not hold.
+         *
+         * @return True if the clause is negated.
+         */
+        boolean getIsNegated() {
+            return this.isNegated;
+        }
+    }
+}
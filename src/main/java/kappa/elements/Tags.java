@@ -1,22 +1,62 @@
 package kappa.elements;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * An object that stores multiple tags.
+ * Tags are kept as a sorted array of their ints in the global {@link TagDictionary}, and tasks without tags can all
+ * share {@link #NONE}.
  */
 public class Tags {
 
-    private HashSet<String> tagSet;
+    private static final int[] NO_IDS = new int[0];
+
+    public static final Tags NONE = new Tags();
+
+    private final int[] ids;
 
     public Tags(List<String> tagList) {
-        this.tagSet = new HashSet<>();
-        this.tagSet.addAll(tagList);
+        int[] interned = new int[tagList.size()];
+        for (int i = 0; i < interned.length; i++) {
+            interned[i] = TagDictionary.intern(tagList.get(i));
+        }
+        Arrays.sort(interned);
+        int size = 0;
+        for (int i = 0; i < interned.length; i++) {
+            if (size == 0 || interned[size - 1] != interned[i]) {
+                interned[size] = interned[i];
+                size++;
+            }
+        }
+        this.ids = size == 0 ? NO_IDS : Arrays.copyOf(interned, size);
     }
 
     public Tags() {
-        this.tagSet = new HashSet<>();
+        this.ids = NO_IDS;
+    }
+
+    /**
+     * Returns the dictionary ints of every tag in increasing order. The array must not be changed.
+     *
+     * @return Ints of the tags.
+     */
+    int[] getIds() {
+        return this.ids;
+    }
+
+    /**
+     * Returns every tag without the # prefix.
+     *
+     * @return Tags, in the order of their ints.
+     */
+    List<String> getNames() {
+        List<String> names = new ArrayList<>(this.ids.length);
+        for (int id : this.ids) {
+            names.add(TagDictionary.name(id));
+        }
+        return names;
     }
 
     /**
@@ -25,12 +65,12 @@ public class Tags {
      * @return Tags in Formatted String.
      */
     public String toString() {
-        if (tagSet.size() == 0) {
+        if (this.ids.length == 0) {
             return "None";
         }
         StringBuilder formattedString = new StringBuilder();
-        for (String tag: tagSet) {
-            formattedString.append("#").append(tag).append(" ");
+        for (int id : this.ids) {
+            formattedString.append("#").append(TagDictionary.name(id)).append(" ");
         }
         return formattedString.toString().trim();
     }
@@ -44,8 +84,13 @@ public class Tags {
         if (t2 == this) {
             return true;
         }
-        return this.tagSet.containsAll(t2.tagSet) && t2.tagSet.containsAll(this.tagSet);
+        return Arrays.equals(this.ids, t2.ids);
+
 
+    }
 
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.ids);
     }
 }
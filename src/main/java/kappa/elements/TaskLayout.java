@@ -0,0 +1,9 @@
+package kappa.elements;
+
+/**
+ * Represents the ways a task list can keep its tasks in memory.
+ * OBJECT keeps one task object per task, while COLUMNAR keeps every field in parallel arrays and a shared text arena.
+ * OFF_HEAP keeps a record per task in direct memory outside the heap, and MAPPED keeps them in a memory-mapped file.
+ */
+public enum TaskLayout { OBJECT, COLUMNAR, OFF_HEAP, MAPPED
+}
@@ -2,16 +2,54 @@ package kappa.elements;
 
 import kappa.exception.KappaException;
 
+import kappa.task.Event;
+import kappa.task.Recurring;
 import kappa.task.Task;
+import kappa.task.TaskType;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Class which contains an list of tasks and methods to add/remove/set.
+ * Tasks keep a stable id, and the index a task is shown at is worked out from its rank among the remaining tasks.
+ * Tasks are kept in a {@link TaskStore} of the chosen layout, and tasks handed out by a columnar or off-heap store
+ * are views, so every change goes through the list.
+ * Recurring tasks are kept once, and their occurrences are only worked out for the range a date query asks for.
+ * Events which are not done are also kept in an interval tree, so that clashes between them are found quickly.
+ * The list has a version which every change moves on, and recent find results are kept in a {@link FindCache}
+ * which the list keeps up to date with every change.
  */
 public class TaskList {
 
-    private ArrayList<Task> taskList;
+    private static final TaskLayout DEFAULT_LAYOUT =
+            TaskLayout.valueOf(System.getProperty("kappa.tasks.layout", TaskLayout.OBJECT.name()));
+    private static final int MAX_OCCURRENCES = 1000;
+    private static final int MAX_CONFLICTS = 1000;
+    private static final int CACHE_ENTRIES = Integer.getInteger("kappa.find.cacheEntries", 256);
+    private static final int CACHE_IDS = Integer.getInteger("kappa.find.cacheIds", 1 << 20);
+
+    private TaskStore taskList;
+    private TaskLayout layout;
+    private WordIndex wordIndex = new WordIndex();
+    private TrigramIndex trigramIndex = new TrigramIndex();
+    private TagIndex tagIndex = new TagIndex();
+    private DateIndex dateIndex = new DateIndex();
+    private Map<Integer, Recurring> recurring = new HashMap<>();
+    private IntervalTree intervalTree = new IntervalTree();
+    private Reminders reminders = new Reminders(DateTime.now().getEpochMinute());
+    private QueryPlanner queryPlanner;
+    private FindCache findCache = new FindCache(CACHE_ENTRIES, CACHE_IDS);
+    private long version;
     private Storage storage;
 
     /**
@@ -20,8 +58,7 @@ public class TaskList {
      * @param storage Storage class where data is stored.
      */
     public TaskList(Storage storage) {
-        this.taskList = new ArrayList<>();
-        this.storage = storage;
+        this(new ArrayList<>(), storage);
     }
 
     /**
@@ -31,8 +68,43 @@ public class TaskList {
      * @param storage Storage class where data is stored.
      */
     public TaskList(ArrayList<Task> list, Storage storage) {
-        this.taskList = list;
+        this(list, storage, DEFAULT_LAYOUT);
+    }
+
+    /**
+     * Constructor to initialise TaskList with a given list, kept in a given layout.
+     *
+     * @param list List to initialise with.
+     * @param storage Storage class where data is stored.
+     * @param layout Layout to keep the tasks in.
+     */
+    public TaskList(ArrayList<Task> list, Storage storage, TaskLayout layout) {
+        switch (layout) {
+        case COLUMNAR:
+            this.taskList = new ColumnarTasks(list, storage.getNextId());
+            break;
+        case OFF_HEAP:
+            this.taskList = new OffHeapTasks(list, storage.getNextId(), null);
+            break;
+        case MAPPED:
+            this.taskList = new OffHeapTasks(list, storage.getNextId(), storage.getArenaFile());
+            break;
+        default:
+            this.taskList = new OrderedTasks(list, storage.getNextId());
+        }
+        this.layout = layout;
         this.storage = storage;
+        this.queryPlanner =
+                new QueryPlanner(this.taskList, this.wordIndex, this.trigramIndex, this.tagIndex, this.dateIndex);
+        for (Task task : list) {
+            this.wordIndex.add(task);
+            this.trigramIndex.add(task);
+            this.tagIndex.add(task);
+            this.dateIndex.add(task);
+            this.reminders.schedule(task);
+            addRecurring(task);
+            addInterval(task);
+        }
     }
 
     /**
@@ -43,16 +115,24 @@ public class TaskList {
      */
     public void addToList(Task task) throws KappaException {
         this.taskList.add(task);
+        this.wordIndex.add(task);
+        this.trigramIndex.add(task);
+        this.tagIndex.add(task);
+        this.dateIndex.add(task);
+        this.reminders.schedule(task);
+        addRecurring(task);
+        addInterval(task);
+        this.findCache.added(task, ++this.version);
         this.storage.addTask(task);
     }
 
     /**
-     * Gets current list of tasks.
+     * Gets current list of tasks, fetching chunks of a long list at once.
      *
-     * @return Current ArrayList of tasks.
+     * @return Copy of the current tasks, in order.
      */
     public ArrayList<Task> getList() {
-        return this.taskList;
+        return getByIds(this.taskList.getIds());
     }
 
     /**
@@ -60,9 +140,402 @@ public class TaskList {
      *
      * @param index Index of task to be retrieved.
      * @return Task of the corresponding index.
+     * @throws IndexOutOfBoundsException Throws if there is no task at the index.
      */
     public Task getTaskByIndex(int index) {
-        return this.taskList.get(index - 1);
+        return this.taskList.get(index);
+    }
+
+    /**
+     * Finds every task whose description contains a term, matching it anywhere and with case.
+     * Terms of at least three characters only check the tasks the trigram index gives as candidates, and many
+     * candidates are checked in chunks at once by a {@link ParallelScan}. Recent results are kept in the find cache.
+     *
+     * @param term Term to search for.
+     * @return Matching tasks, in list order.
+     */
+    public ArrayList<Task> findSubstring(String term) {
+        return findCached("substring:" + term, (task) -> task.getDescription().contains(term), () -> {
+            int[] candidates = term.length() < TrigramIndex.GRAM_LENGTH
+                    ? this.taskList.getIds()
+                    : this.trigramIndex.candidates(term);
+            return ParallelScan.filter(candidates, (chunk) -> this.taskList.filterContaining(chunk, term));
+        });
+    }
+
+    /**
+     * Finds every task which matches a tag query, through the tag bitmaps.
+     * Recent results are kept in the find cache.
+     *
+     * @param query Tag query.
+     * @return Matching tasks, in list order.
+     */
+    public ArrayList<Task> findTags(TagQuery query) {
+        return findCached("tags:" + query.getKey(), query::matches,
+                () -> this.tagIndex.search(query).stream().toArray());
+    }
+
+    /**
+     * Finds every deadline and event dated inside a range through the date index, along with the occurrences of
+     * recurring tasks inside the range. At most {@code MAX_OCCURRENCES} occurrences of each recurring task are
+     * worked out.
+     *
+     * @param from Earliest epoch minute, included.
+     * @param to Latest epoch minute, included.
+     * @return Matching tasks and occurrences, earliest first.
+     */
+    public ArrayList<Task> findDue(long from, long to) {
+        ArrayList<Task> due = getByIds(this.dateIndex.search(from, to));
+        if (this.recurring.isEmpty()) {
+            return due;
+        }
+        for (Recurring series : this.recurring.values()) {
+            PrimitiveIterator.OfLong occurrences = series.occurrences(from, to);
+            for (int i = 0; i < MAX_OCCURRENCES && occurrences.hasNext(); i++) {
+                due.add(series.getOccurrence(occurrences.nextLong()));
+            }
+        }
+        due.sort(Comparator.comparingLong(Task::getEpochMinute));
+        return due;
+    }
+
+    /**
+     * Finds everything on in a range of dates: the deadlines, events and occurrences of recurring tasks dated inside
+     * it, along with the events which are not done and started before the range but are still going on in it.
+     *
+     * @param from Earliest epoch minute, included.
+     * @param to Latest epoch minute, included.
+     * @return Matching tasks and occurrences, earliest first.
+     */
+    public ArrayList<Task> findAgenda(long from, long to) {
+        ArrayList<Task> agenda = new ArrayList<>();
+        for (Task task : getByIds(this.intervalTree.search(from, to + 1))) {
+            if (task.getEpochMinute() < from) {
+                agenda.add(task);
+            }
+        }
+        agenda.addAll(findDue(from, to));
+        return agenda;
+    }
+
+    /**
+     * Finds the events which are not done and overlap an event, through the interval tree.
+     *
+     * @param event Event in the list or about to be added.
+     * @return Other events which overlap the event, ordered by start.
+     */
+    public ArrayList<Task> findClashes(Event event) {
+        ArrayList<Task> clashes = new ArrayList<>();
+        if (event.getEpochMinute() == DateTime.NO_DATE) {
+            return clashes;
+        }
+        for (int id : this.intervalTree.search(event.getEpochMinute(), getIntervalEnd(event))) {
+            if (id != event.getId()) {
+                clashes.add(this.taskList.getById(id));
+            }
+        }
+        return clashes;
+    }
+
+    /**
+     * Finds every pair of events which are not done and overlap each other, with a sweep over the interval tree.
+     * At most {@code MAX_CONFLICTS} pairs are found.
+     *
+     * @return Pairs of events, the one which starts first before the other.
+     */
+    public List<Task[]> findConflicts() {
+        List<Task[]> conflicts = new ArrayList<>();
+        for (int[] pair : this.intervalTree.findOverlappingPairs(MAX_CONFLICTS)) {
+            conflicts.add(new Task[] {this.taskList.getById(pair[0]), this.taskList.getById(pair[1])});
+        }
+        return conflicts;
+    }
+
+    /**
+     * Finds every deadline which is not done and was due before a given minute.
+     *
+     * @param now Current epoch minute.
+     * @return Overdue deadlines, earliest first.
+     */
+    public ArrayList<Task> findOverdue(long now) {
+        ArrayList<Task> overdue = new ArrayList<>();
+        for (Task task : getByIds(this.dateIndex.search(Long.MIN_VALUE, now - 1))) {
+            if (task.getType() == TaskType.DEADLINE && !task.getIsDone()) {
+                overdue.add(task);
+            }
+        }
+        return overdue;
+    }
+
+    /**
+     * Gets the reminders of the deadlines and events in the list.
+     *
+     * @return Reminders, which hand out nothing until started.
+     */
+    public Reminders getReminders() {
+        return this.reminders;
+    }
+
+    /**
+     * Sets how many minutes before its date a task is reminded of, and schedules the reminder of every deadline and
+     * event still to come again, through the date index.
+     *
+     * @param leadMinutes Minutes before the date.
+     * @return Number of reminders still to come.
+     */
+    public int setReminderLead(long leadMinutes) {
+        this.reminders.clear();
+        this.reminders.setLeadMinutes(leadMinutes);
+        for (Task task : getByIds(this.dateIndex.search(this.reminders.getNow() + 1, Long.MAX_VALUE))) {
+            this.reminders.schedule(task);
+        }
+        return this.reminders.getPendingCount();
+    }
+
+    /**
+     * Returns the number of deadlines and events in the date index.
+     *
+     * @return Number of dated tasks.
+     */
+    public int getDatedCount() {
+        return this.dateIndex.size();
+    }
+
+    /**
+     * Returns the number of events in the interval tree, which are the dated events which are not done.
+     *
+     * @return Number of events checked for clashes.
+     */
+    public int getEventCount() {
+        return this.intervalTree.size();
+    }
+
+    /**
+     * Returns the number of recurring tasks in the list.
+     *
+     * @return Number of recurring tasks.
+     */
+    public int getRecurringCount() {
+        return this.recurring.size();
+    }
+
+    /**
+     * Returns the number of distinct trigrams in the substring search index.
+     *
+     * @return Number of trigrams.
+     */
+    public int getTrigramCount() {
+        return this.trigramIndex.getGramCount();
+    }
+
+    /**
+     * Estimates the memory held by the substring search index.
+     *
+     * @return Estimated size in bytes.
+     */
+    public long getTrigramIndexBytes() {
+        return this.trigramIndex.getMemoryBytes();
+    }
+
+    /**
+     * Finds every task whose description contains all the words in a query, through the word index.
+     * Words are matched whole and without regard to case. Recent results are kept in the find cache.
+     *
+     * @param query Words to search for.
+     * @return Matching tasks, in list order.
+     */
+    public ArrayList<Task> findWords(String query) {
+        Set<String> words = new TreeSet<>(WordIndex.tokenize(query));
+        return findCached("words:" + String.join(" ", words),
+                (task) -> !words.isEmpty() && WordIndex.tokenize(task.getDescription()).containsAll(words),
+                () -> this.wordIndex.search(query));
+    }
+
+    /**
+     * Finds every task whose description has a word close to each word in a query, even if the query is misspelt.
+     * Close words are found by running a Levenshtein automaton over a trie of the words of the word index, instead
+     * of by comparing the query with every description.
+     *
+     * @param query Words to search for.
+     * @param maxDistance Largest number of characters which may be inserted, deleted or changed in each word, or a
+     *     negative number to allow more for longer words.
+     * @return Matching tasks, closest first.
+     */
+    public ArrayList<Task> findFuzzy(String query, int maxDistance) {
+        return getByIds(this.wordIndex.searchFuzzy(query, maxDistance));
+    }
+
+    /**
+     * Finds the tasks which best match any word in a query, ranked by BM25 over their descriptions and tags.
+     * Only the tasks with a word of the query are scored, and only the best are kept, so however many tasks match,
+     * they are never all sorted.
+     *
+     * @param query Words to search for.
+     * @param limit Largest number of tasks to find.
+     * @return Best matching tasks, most relevant first.
+     */
+    public ArrayList<Task> findRanked(String query, int limit) {
+        return getByIds(this.wordIndex.searchRanked(query, limit));
+    }
+
+    /**
+     * Picks the tasks among some matches which are most relevant to a query, ranked by BM25 over their descriptions
+     * and tags, with matches that share no word with the query last in list order.
+     *
+     * @param matches Tasks in the list which match the query.
+     * @param query Words to rank the matches by.
+     * @param limit Largest number of tasks to pick.
+     * @return Most relevant matches, most relevant first.
+     */
+    public ArrayList<Task> rankMatches(List<Task> matches, String query, int limit) {
+        return rankIds(getIdsOf(matches), query, limit);
+    }
+
+    /**
+     * Picks the tasks among some matches which are most relevant to a query, given by their ids.
+     *
+     * @param ids Ids of the tasks in the list which match the query.
+     * @param query Words to rank the matches by.
+     * @param limit Largest number of tasks to pick.
+     * @return Most relevant matches, most relevant first.
+     */
+    ArrayList<Task> rankIds(int[] ids, String query, int limit) {
+        return getByIds(this.wordIndex.rank(ids, query, limit));
+    }
+
+    /**
+     * Gets the ids of some tasks.
+     *
+     * @param tasks Tasks to get the ids of.
+     * @return Id of every task, in the same order.
+     */
+    static int[] getIdsOf(List<Task> tasks) {
+        int[] ids = new int[tasks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tasks.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Plans a query over the indexes of the list, picking the condition an index expects the fewest tasks to match
+     * to look up and checking the rest against only the tasks it gives.
+     *
+     * @param query Query to plan.
+     * @return Plan which has not run.
+     */
+    public QueryPlan planQuery(Query query) {
+        return this.queryPlanner.plan(query);
+    }
+
+    /**
+     * Runs a plan made by {@link #planQuery(Query)}, recording how many tasks every step of it gives.
+     *
+     * @param plan Plan to run.
+     * @return Tasks the query holds for, in list order.
+     */
+    public ArrayList<Task> runQuery(QueryPlan plan) {
+        return this.queryPlanner.run(plan);
+    }
+
+    /**
+     * Returns the number of distinct words in the word index.
+     *
+     * @return Number of words.
+     */
+    public int getWordCount() {
+        return this.wordIndex.getWordCount();
+    }
+
+    /**
+     * Counts the tasks in the list which are done.
+     *
+     * @return Number of done tasks.
+     */
+    public int getDoneCount() {
+        return this.taskList.countDone();
+    }
+
+    /**
+     * Returns the version of the list, which every change to the list moves on.
+     *
+     * @return Version of the list.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the number of find results kept in the find cache.
+     *
+     * @return Number of cached results.
+     */
+    public int getCachedFindCount() {
+        return this.findCache.size();
+    }
+
+    /**
+     * Returns the number of finds answered from the find cache.
+     *
+     * @return Number of cache hits.
+     */
+    public long getFindCacheHits() {
+        return this.findCache.getHits();
+    }
+
+    /**
+     * Returns the number of finds which had to search, as the find cache held no up to date result.
+     *
+     * @return Number of cache misses.
+     */
+    public long getFindCacheMisses() {
+        return this.findCache.getMisses();
+    }
+
+    /**
+     * Returns the number of results dropped from the find cache to make room for others.
+     *
+     * @return Number of cache evictions.
+     */
+    public long getFindCacheEvictions() {
+        return this.findCache.getEvictions();
+    }
+
+    /**
+     * Returns the layout the tasks are kept in.
+     *
+     * @return Layout of the list.
+     */
+    public TaskLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Returns the number of bytes of task data held outside the heap.
+     *
+     * @return Bytes held outside the heap, which is 0 unless the list is kept off the heap.
+     */
+    public long getOffHeapBytes() {
+        return this.taskList.getOffHeapBytes();
+    }
+
+    /**
+     * Gets the index a task in the list is shown at.
+     *
+     * @param task Task in the list.
+     * @return Index of the task.
+     */
+    public int getIndexOf(Task task) {
+        return this.taskList.indexOf(task.getId());
+    }
+
+    /**
+     * Gets the id to give a task which is about to be added. Ids are never reused.
+     *
+     * @return Id for the next task.
+     */
+    public int getNextId() {
+        return this.taskList.getNextId();
     }
 
     /**
@@ -72,24 +545,102 @@ public class TaskList {
      * @throws KappaException Throws when there is error in removing task from storage.
      */
     public void removeFromList(int index) throws KappaException {
-        this.taskList.remove(index - 1);
-        if (this.getSize() == index - 1) {
-            this.storage.refreshStorage(taskList);
-            return;
-        }
-        reorderIndex(index);
-        this.storage.refreshStorage(taskList);
+        Task task = this.taskList.get(index);
+        this.taskList.remove(task.getId());
+        this.wordIndex.remove(task);
+        this.trigramIndex.remove();
+        this.tagIndex.remove(task);
+        this.dateIndex.remove(task);
+        this.reminders.cancel(task);
+        this.recurring.remove(task.getId());
+        this.intervalTree.remove(task.getId(), task.getEpochMinute());
+        this.findCache.removed(task, ++this.version);
+        rebuildIndexIfNeeded();
+        this.storage.removeTask(task.getId());
     }
 
     /**
      * Sets task of input index to done.
+     * A recurring task instead has its next occurrence from today completed.
      *
      * @param index Task to be set as done.
      * @throws KappaException Throws when there is error in setting task done in storage.
      */
     public void setDoneInList(int index) throws KappaException {
-        this.taskList.get(index - 1).setDone();
-        this.storage.refreshStorage(taskList);
+        Task task = this.taskList.get(index);
+        if (task.getType() == TaskType.RECURRING) {
+            completeNextOccurrence((Recurring) task, DateTime.now().getEpochMinute());
+            return;
+        }
+        this.taskList.setDone(task.getId());
+        task.setDone();
+        this.reminders.cancel(task);
+        this.intervalTree.remove(task.getId(), task.getEpochMinute());
+        this.findCache.unaffected(++this.version);
+        this.storage.setDone(task.getId());
+    }
+
+    /**
+     * Completes the first occurrence of a recurring task, from the start of the current day, which has not been
+     * completed. The occurrence is recorded as an exception of the task, and the task is set to done once no
+     * occurrence is left.
+     *
+     * @param index Index of a recurring task.
+     * @param now Current epoch minute.
+     * @return Occurrence which was completed, or the task itself if it had no occurrence left.
+     * @throws KappaException Throws when there is error in recording the occurrence in storage.
+     */
+    public Task completeOccurrence(int index, long now) throws KappaException {
+        return completeNextOccurrence((Recurring) this.taskList.get(index), now);
+    }
+
+    /**
+     * Removes many tasks from list and storage as a single batch.
+     *
+     * @param toRemove Tasks in the list to be removed.
+     * @throws KappaException Throws when there is error in removing the tasks from storage.
+     */
+    public void removeAllFromList(List<Task> toRemove) throws KappaException {
+        List<Integer> ids = new ArrayList<>(toRemove.size());
+        for (Task task : toRemove) {
+            this.taskList.remove(task.getId());
+            this.wordIndex.remove(task);
+            this.trigramIndex.remove();
+            this.tagIndex.remove(task);
+            this.dateIndex.remove(task);
+            this.reminders.cancel(task);
+            this.recurring.remove(task.getId());
+            this.intervalTree.remove(task.getId(), task.getEpochMinute());
+            this.findCache.removed(task, ++this.version);
+            ids.add(task.getId());
+        }
+        rebuildIndexIfNeeded();
+        this.storage.removeTasks(ids);
+    }
+
+    /**
+     * Sets many tasks to done in list and storage as a single batch.
+     * Recurring tasks have their next occurrence from today completed, recorded in the same batch.
+     *
+     * @param toMark Tasks in the list to be set as done.
+     * @throws KappaException Throws when there is error in setting the tasks done in storage.
+     */
+    public void setAllDoneInList(List<Task> toMark) throws KappaException {
+        List<Integer> ids = new ArrayList<>(toMark.size());
+        Map<Integer, Long> exceptions = new LinkedHashMap<>();
+        for (Task task : toMark) {
+            if (task.getType() == TaskType.RECURRING) {
+                completeNextOccurrence((Recurring) task, DateTime.now().getEpochMinute(), ids, exceptions);
+                continue;
+            }
+            this.taskList.setDone(task.getId());
+            task.setDone();
+            this.reminders.cancel(task);
+            this.intervalTree.remove(task.getId(), task.getEpochMinute());
+            this.findCache.unaffected(++this.version);
+            ids.add(task.getId());
+        }
+        this.storage.setDone(ids, exceptions);
     }
 
     /**
@@ -108,20 +659,155 @@ public class TaskList {
      */
     public void clearList() throws KappaException {
         this.taskList.clear();
+        this.wordIndex.clear();
+        this.trigramIndex.clear();
+        this.tagIndex.clear();
+        this.dateIndex.clear();
+        this.reminders.clear();
+        this.recurring.clear();
+        this.intervalTree.clear();
+        this.findCache.clear();
+        this.version++;
         this.storage.clearStorage();
     }
 
     /**
-     * Reorders index of tasks accordingly after deletion/removal, done by decrementing by 1.
+     * Starts folding the storage journal into a fresh snapshot in the background.
      *
-     * @param index Index to start reordering.
+     * @return False if a compaction is already running.
      */
-    private void reorderIndex(int index) {
-        if (this.taskList.size() == 0) {
-            return;
+    public boolean compact() {
+        return this.storage.compact();
+    }
+
+    /**
+     * Starts folding the storage journal into a fresh snapshot in the background, converting it to a format.
+     *
+     * @param format Format to keep the snapshot in.
+     * @return False if a compaction is already running.
+     */
+    public boolean compact(StorageFormat format) {
+        return this.storage.compact(format);
+    }
+
+    /**
+     * Waits until every change to the list has been saved to disk, and any running compaction has finished.
+     *
+     * @throws KappaException Throws if the changes cannot be saved.
+     */
+    public void sync() throws KappaException {
+        this.storage.sync();
+    }
+
+    /**
+     * Looks up the result of a find in the find cache, running the find and keeping its result on a miss.
+     *
+     * @param key Normalised query, starting with the kind of find.
+     * @param matcher Condition which holds for exactly the tasks the find gives.
+     * @param search Find which gives the ids of the matching tasks, in increasing order.
+     * @return Matching tasks, in list order.
+     */
+    private ArrayList<Task> findCached(String key, Predicate<Task> matcher, Supplier<int[]> search) {
+        int[] ids = this.findCache.get(key, this.version);
+        if (ids == null) {
+            ids = search.get();
+            this.findCache.put(key, matcher, ids, this.version);
         }
-        for (int i = index - 1; i < this.getSize(); i++) {
-            taskList.get(i).decrementId();
+        return getByIds(ids);
+    }
+
+    /**
+     * Gets the tasks with the given ids, fetching chunks of many ids at once.
+     *
+     * @param ids Ids of tasks in the list.
+     * @return Tasks in the order of the ids.
+     */
+    private ArrayList<Task> getByIds(int[] ids) {
+        return ParallelScan.map(ids.length, (i) -> this.taskList.getById(ids[i]));
+    }
+
+    /**
+     * Keeps a task among the recurring tasks if it is one.
+     *
+     * @param task Task in the list.
+     */
+    private void addRecurring(Task task) {
+        if (task.getType() == TaskType.RECURRING) {
+            this.recurring.put(task.getId(), (Recurring) task);
+        }
+    }
+
+    /**
+     * Keeps an event in the interval tree if it is dated and not done.
+     *
+     * @param task Task in the list.
+     */
+    private void addInterval(Task task) {
+        if (task.getType() == TaskType.EVENT && task.getEpochMinute() != DateTime.NO_DATE && !task.getIsDone()) {
+            this.intervalTree.add(task.getId(), task.getEpochMinute(), getIntervalEnd((Event) task));
+        }
+    }
+
+    /**
+     * Works out the minute after the last minute an event takes up, where an event without an end takes up the
+     * minute it starts at.
+     *
+     * @param event Dated event.
+     * @return End of the event's interval.
+     */
+    private static long getIntervalEnd(Event event) {
+        return Math.max(event.getEndMinute(), event.getEpochMinute() + 1);
+    }
+
+    /**
+     * Completes the first occurrence of a recurring task from the start of the current day which has not been
+     * completed, and sets the task to done once no occurrence is left.
+     *
+     * @param series Recurring task in the list.
+     * @param now Current epoch minute.
+     * @return Occurrence which was completed, or the task itself if it had no occurrence left.
+     * @throws KappaException Throws when there is error in recording the occurrence in storage.
+     */
+    private Task completeNextOccurrence(Recurring series, long now) throws KappaException {
+        List<Integer> ids = new ArrayList<>(1);
+        Map<Integer, Long> exceptions = new HashMap<>();
+        Task completed = completeNextOccurrence(series, now, ids, exceptions);
+        this.storage.setDone(ids, exceptions);
+        return completed;
+    }
+
+    /**
+     * Completes the first occurrence of a recurring task from the start of the current day which has not been
+     * completed, and sets the task to done once no occurrence is left, leaving the caller to record the change.
+     *
+     * @param series Recurring task in the list.
+     * @param now Current epoch minute.
+     * @param ids Ids of tasks set to done, which the task's id is added to if it has no occurrence left.
+     * @param exceptions Occurrences completed by id of the recurring task, which the occurrence is added to.
+     * @return Occurrence which was completed, or the task itself if it had no occurrence left.
+     */
+    private Task completeNextOccurrence(Recurring series, long now, List<Integer> ids,
+            Map<Integer, Long> exceptions) {
+        long occurrence = series.getNextPending(DateTime.startOfDay(now));
+        this.findCache.unaffected(++this.version);
+        if (occurrence != DateTime.NO_DATE) {
+            series.addException(occurrence);
+            exceptions.put(series.getId(), occurrence);
+        }
+        if (occurrence == DateTime.NO_DATE || series.getNextPending(occurrence + 1) == DateTime.NO_DATE) {
+            this.taskList.setDone(series.getId());
+            series.setDone();
+            ids.add(series.getId());
+        }
+        return occurrence == DateTime.NO_DATE ? series : series.getOccurrence(occurrence);
+    }
+
+    /**
+     * Builds the substring search index again once removed tasks make up most of it.
+     */
+    private void rebuildIndexIfNeeded() {
+        if (this.trigramIndex.shouldRebuild()) {
+            this.trigramIndex.rebuild(this.taskList.toList());
         }
     }
 }
@@ -0,0 +1,116 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+
+/**
+ * Backing store of a task list, which keeps tasks by their stable id in the order they were added.
+ * Tasks handed out may be views made on demand, so changes go through the store rather than through a task.
+ * Methods which do not change the store may be called from many threads at once, as a {@link ParallelScan} does,
+ * as long as nothing changes the store meanwhile.
+ */
+interface TaskStore {
+
+    /**
+     * Adds a task after every task in the store.
+     *
+     * @param task Task to add, with an id no smaller than the id of any task added before it.
+     */
+    void add(Task task);
+
+    /**
+     * Gets the task at a position in the list.
+     *
+     * @param index Position of the task, starting from 1.
+     * @return Task at the position.
+     * @throws IndexOutOfBoundsException Throws if there is no task at the position.
+     */
+    Task get(int index);
+
+    /**
+     * Gets a task by its id.
+     *
+     * @param id Id of the task.
+     * @return Task with the id, or null if there is none.
+     */
+    Task getById(int id);
+
+    /**
+     * Gets the position a task is shown at.
+     *
+     * @param id Id of the task.
+     * @return Position of the task, starting from 1.
+     */
+    int indexOf(int id);
+
+    /**
+     * Removes a task by its id. Its id is not given to any task added later.
+     *
+     * @param id Id of the task.
+     */
+    void remove(int id);
+
+    /**
+     * Marks a task as done.
+     *
+     * @param id Id of the task.
+     */
+    void setDone(int id);
+
+    /**
+     * Removes every task, without giving their ids to any task added later.
+     */
+    void clear();
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return Number of tasks.
+     */
+    int size();
+
+    /**
+     * Returns the number of tasks which are done, which is kept up to date as tasks are added, done and removed.
+     *
+     * @return Number of done tasks.
+     */
+    int countDone();
+
+    /**
+     * Returns the id to give the next task added.
+     *
+     * @return Next id, one more than the largest id ever added.
+     */
+    int getNextId();
+
+    /**
+     * Returns the id of every task, in order.
+     *
+     * @return Ids in increasing order.
+     */
+    int[] getIds();
+
+    /**
+     * Keeps the ids of the tasks whose descriptions contain a term, matched with case.
+     *
+     * @param ids Ids to check in increasing order, which may include ids of removed tasks.
+     * @param term Term to search for.
+     * @return Ids of live tasks whose descriptions contain the term, in increasing order.
+     */
+    int[] filterContaining(int[] ids, String term);
+
+    /**
+     * Returns the number of bytes of task data the store holds outside the heap.
+     *
+     * @return Bytes held outside the heap.
+     */
+    long getOffHeapBytes();
+
+    /**
+     * Copies every task into a new list, in order.
+     *
+     * @return Tasks in order.
+     */
+    ArrayList<Task> toList();
+}
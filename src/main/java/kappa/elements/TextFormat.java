@@ -0,0 +1,315 @@
+package kappa.elements;
+
+import kappa.exception.InvalidRecurrenceException;
+import kappa.exception.KappaException;
+import kappa.exception.UnableToReadFileException;
+
+import kappa.task.Deadline;
+import kappa.task.Event;
+import kappa.task.Recurring;
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes tasks in the ~-delimited text format of the storage file.
+ * Lines are tokenized by scanning for delimiters instead of splitting each line with a regex.
+ * An event with an end keeps it in its date field, after the date and " to ".
+ * A recurring task is a single line holding its rule, first and last epoch minutes and completed occurrences,
+ * however many times it repeats.
+ * A snapshot may start with a header line holding the id to give the next task, so that the ids of deleted tasks
+ * are not given out again once the journal is folded away.
+ */
+class TextFormat {
+
+    static final String DELIMITER = " ~ ";
+
+    private static final int DELIMITER_LENGTH = DELIMITER.length();
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String DONE = "Done";
+    private static final String NEXT_ID = "NEXT";
+    private static final String NO_TAGS = "None";
+    private static final String NO_VALUE = "None";
+    private static final String END = " to ";
+
+    /**
+     * Opens a buffered reader over a channel to a storage file, so lines can be read one at a time.
+     *
+     * @param file Storage or journal file.
+     * @return Reader positioned at the start of the file.
+     * @throws IOException Throws if the file cannot be opened.
+     */
+    static BufferedReader openReader(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        return new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE),
+                BUFFER_SIZE);
+    }
+
+    /**
+     * Encodes task into a single line of the storage format.
+     *
+     * @param task Task to encode.
+     * @return Encoded line without line separator.
+     */
+    static String encode(Task task) {
+        switch (task.getType()) {
+        case DEADLINE:
+            return encodeDatedTask(task, "Deadline");
+        case EVENT:
+            return encodeDatedTask(task, "Event");
+        case RECURRING:
+            return encodeRecurring((Recurring) task);
+        default:
+            return task.getId() + DELIMITER
+                    + "ToDo" + DELIMITER
+                    + task.getStatusIcon() + DELIMITER
+                    + task.getDescription() + DELIMITER
+                    + task.getTags();
+        }
+    }
+
+    /**
+     * Encodes the header line of a snapshot.
+     *
+     * @param nextId Id to give the next task.
+     * @return Encoded line without line separator.
+     */
+    static String encodeNextId(int nextId) {
+        return NEXT_ID + DELIMITER + nextId;
+    }
+
+    /**
+     * Checks if a line is the header line of a snapshot rather than a task.
+     *
+     * @param line Line of a snapshot.
+     * @return True if the line holds the id to give the next task.
+     */
+    static boolean isNextId(String line) {
+        return line.startsWith(NEXT_ID + DELIMITER);
+    }
+
+    /**
+     * Parses the header line of a snapshot.
+     *
+     * @param line Header line.
+     * @param index Line number, used to report a line which cannot be read.
+     * @return Id to give the next task.
+     * @throws KappaException Throws if the id is not a number.
+     */
+    static int decodeNextId(String line, int index) throws KappaException {
+        try {
+            return Integer.parseInt(line.substring(NEXT_ID.length() + DELIMITER_LENGTH));
+        } catch (NumberFormatException error) {
+            throw new UnableToReadFileException(index);
+        }
+    }
+
+    /**
+     * Parses a line of the storage format into a task.
+     *
+     * @param line Line to parse.
+     * @param index Line number, used to report a line which cannot be read.
+     * @return Task that has been parsed.
+     * @throws KappaException Throws if the line is not in the storage format.
+     */
+    static Task decode(String line, int index) throws KappaException {
+        int idEnd = line.indexOf(DELIMITER);
+        int typeStart = idEnd + DELIMITER_LENGTH;
+        int typeEnd = idEnd < 0 ? -1 : line.indexOf(DELIMITER, typeStart);
+        int statusStart = typeEnd + DELIMITER_LENGTH;
+        int statusEnd = typeEnd < 0 ? -1 : line.indexOf(DELIMITER, statusStart);
+        if (statusEnd < 0) {
+            throw new UnableToReadFileException(index);
+        }
+        int id;
+        try {
+            id = Integer.parseInt(line, 0, idEnd, 10);
+        } catch (NumberFormatException error) {
+            throw new UnableToReadFileException(index);
+        }
+        boolean isDone = isToken(line, statusStart, statusEnd, DONE);
+        int descriptionStart = statusEnd + DELIMITER_LENGTH;
+        int descriptionEnd = nextDelimiter(line, descriptionStart);
+        String description = line.substring(descriptionStart, descriptionEnd);
+
+        Task task;
+        if (isToken(line, typeStart, typeEnd, "ToDo")) {
+            task = new ToDo(description, id, decodeTags(line, descriptionEnd));
+        } else if (isToken(line, typeStart, typeEnd, "Deadline") || isToken(line, typeStart, typeEnd, "Event")) {
+            int dateStart = Math.min(descriptionEnd + DELIMITER_LENGTH, line.length());
+            int dateEnd = nextDelimiter(line, dateStart);
+            String date = line.substring(dateStart, dateEnd);
+            Tags tags = decodeTags(line, dateEnd);
+            task = isToken(line, typeStart, typeEnd, "Event")
+                    ? decodeEvent(description, id, date, tags)
+                    : new Deadline(description, id, date, tags);
+        } else if (isToken(line, typeStart, typeEnd, "Recurring")) {
+            task = decodeRecurring(line, descriptionEnd, description, id, index);
+        } else {
+            throw new UnableToReadFileException(index);
+        }
+        if (isDone) {
+            task.setDone();
+        }
+        return task;
+    }
+
+    /**
+     * Encodes deadline or event into a single line of the storage format.
+     *
+     * @param task Task.
+     * @param typeName Name of the task type stored in the file.
+     * @return Encoded line without line separator.
+     */
+    private static String encodeDatedTask(Task task, String typeName) {
+        String end = task instanceof Event && ((Event) task).hasEnd()
+                ? END + DateTime.formatEpochMinute(((Event) task).getEndMinute())
+                : "";
+        return task.getId() + DELIMITER
+                + typeName + DELIMITER
+                + task.getStatusIcon() + DELIMITER
+                + task.getDescription() + DELIMITER
+                + task.getDate() + end + DELIMITER
+                + task.getTags();
+    }
+
+    /**
+     * Makes an event from its date field, which may hold an end after the date.
+     *
+     * @param description Description of the event.
+     * @param id Id of the event.
+     * @param date Date field.
+     * @param tags Tags of the event.
+     * @return Event, not yet marked as done.
+     */
+    private static Event decodeEvent(String description, int id, String date, Tags tags) {
+        int endStart = date.lastIndexOf(END);
+        if (endStart >= 0) {
+            String start = date.substring(0, endStart);
+            long startMinute = DateTime.toEpochMinute(start);
+            long endMinute = DateTime.toEpochMinute(date.substring(endStart + END.length()));
+            if (startMinute != DateTime.NO_DATE && endMinute != DateTime.NO_DATE) {
+                return new Event(description, id, start, startMinute, endMinute, tags);
+            }
+        }
+        return new Event(description, id, date, tags);
+    }
+
+    /**
+     * Encodes recurring task into a single line of the storage format.
+     *
+     * @param task Recurring task.
+     * @return Encoded line without line separator.
+     */
+    private static String encodeRecurring(Recurring task) {
+        StringBuilder exceptions = new StringBuilder();
+        for (long exception : task.getExceptions()) {
+            exceptions.append(exceptions.length() == 0 ? "" : ",").append(exception);
+        }
+        return task.getId() + DELIMITER
+                + "Recurring" + DELIMITER
+                + task.getStatusIcon() + DELIMITER
+                + task.getDescription() + DELIMITER
+                + task.getRecurrence() + DELIMITER
+                + task.getStart() + DELIMITER
+                + (task.getUntil() == DateTime.NO_DATE ? NO_VALUE : task.getUntil()) + DELIMITER
+                + (exceptions.length() == 0 ? NO_VALUE : exceptions) + DELIMITER
+                + task.getTags();
+    }
+
+    /**
+     * Decodes the fields of a recurring task which follow its description.
+     *
+     * @param line Line to parse.
+     * @param descriptionEnd End of the description field.
+     * @param description Description of the task.
+     * @param id Id of the task.
+     * @param index Line number, used to report a line which cannot be read.
+     * @return Recurring task, not yet marked as done.
+     * @throws KappaException Throws if the fields are not in the storage format.
+     */
+    private static Recurring decodeRecurring(String line, int descriptionEnd, String description, int id, int index)
+            throws KappaException {
+        String[] fields = new String[4];
+        int fieldEnd = descriptionEnd;
+        for (int i = 0; i < fields.length; i++) {
+            int fieldStart = Math.min(fieldEnd + DELIMITER_LENGTH, line.length());
+            fieldEnd = nextDelimiter(line, fieldStart);
+            fields[i] = line.substring(fieldStart, fieldEnd);
+        }
+        try {
+            Recurring task = new Recurring(description, id, Recurrence.parse(fields[0]), Long.parseLong(fields[1]),
+                    fields[2].equals(NO_VALUE) ? DateTime.NO_DATE : Long.parseLong(fields[2]),
+                    decodeTags(line, fieldEnd));
+            if (!fields[3].equals(NO_VALUE)) {
+                for (String exception : fields[3].split(",")) {
+                    task.addException(Long.parseLong(exception));
+                }
+            }
+            return task;
+        } catch (InvalidRecurrenceException | NumberFormatException error) {
+            throw new UnableToReadFileException(index);
+        }
+    }
+
+    /**
+     * Decodes the tags field, which is the last field of a line if it is present.
+     *
+     * @param line Line to parse.
+     * @param fieldEnd End of the field before the tags field.
+     * @return Tags of the task.
+     */
+    private static Tags decodeTags(String line, int fieldEnd) {
+        int start = fieldEnd + DELIMITER_LENGTH;
+        if (start >= line.length() || line.startsWith(NO_TAGS, start)) {
+            return Tags.NONE;
+        }
+        List<String> tagsList = new ArrayList<>();
+        int hash = line.indexOf('#', start);
+        while (hash >= 0) {
+            int next = line.indexOf('#', hash + 1);
+            String tag = line.substring(hash + 1, next < 0 ? line.length() : next).trim();
+            if (!tag.isEmpty()) {
+                tagsList.add(tag);
+            }
+            hash = next;
+        }
+        return tagsList.isEmpty() ? Tags.NONE : new Tags(tagsList);
+    }
+
+    /**
+     * Finds the end of the field which starts at the given position.
+     *
+     * @param line Line to parse.
+     * @param start Start of the field.
+     * @return Position of the next delimiter, or the end of the line if there is none.
+     */
+    private static int nextDelimiter(String line, int start) {
+        int end = line.indexOf(DELIMITER, start);
+        return end < 0 ? line.length() : end;
+    }
+
+    /**
+     * Checks if a field is exactly the given token.
+     *
+     * @param line Line to parse.
+     * @param start Start of the field.
+     * @param end End of the field.
+     * @param token Token to compare with.
+     * @return True if the field matches the token.
+     */
+    private static boolean isToken(String line, int start, int end, String token) {
+        return end - start == token.length() && line.startsWith(token, start);
+    }
+}
@@ -0,0 +1,217 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel which holds tasks until the epoch minute they are scheduled for.
+ * Scheduling and cancelling are O(1), and moving the clock on costs one slot per minute instead of a look at every
+ * scheduled task.
+ *
+ * <p>Every level has {@code SLOTS} slots, each covering {@code SLOTS} times as many minutes as a slot of the level
+ * below, so four levels reach about 32 years ahead and anything further waits in an overflow list.
+ * A task goes into the lowest level whose span reaches its minute, and when the clock enters a slot of a higher
+ * level, the tasks in it are placed again in the levels below. Cancelled tasks are only marked, and are dropped
+ * when their slot comes round.</p>
+ */
+class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final List<List<Entry>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Entry> overflow = new ArrayList<>();
+    private final List<Entry> ready = new ArrayList<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private long now;
+
+    /**
+     * Constructor for an empty wheel.
+     *
+     * @param now Current epoch minute.
+     */
+    TimingWheel(long now) {
+        this.now = now;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            this.slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules a task, replacing any earlier schedule for the same task.
+     * A task scheduled for a minute which has already passed is given out by the next call to {@link #advance}.
+     *
+     * @param task Task to schedule.
+     * @param minute Epoch minute to give the task out at.
+     */
+    synchronized void schedule(Task task, long minute) {
+        cancel(task.getId());
+        Entry entry = new Entry(task, minute);
+        this.entries.put(task.getId(), entry);
+        place(entry);
+    }
+
+    /**
+     * Cancels the schedule of a task, if it has one.
+     *
+     * @param id Id of the task.
+     */
+    synchronized void cancel(int id) {
+        Entry entry = this.entries.remove(id);
+        if (entry != null) {
+            entry.isCancelled = true;
+        }
+    }
+
+    /**
+     * Cancels every schedule.
+     */
+    synchronized void clear() {
+        this.entries.clear();
+        this.ready.clear();
+        this.overflow.clear();
+        for (List<Entry> slot : this.slots) {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Returns the number of tasks which are scheduled.
+     *
+     * @return Number of scheduled tasks.
+     */
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the minute the wheel has been moved on to.
+     *
+     * @return Current epoch minute of the wheel.
+     */
+    synchronized long getNow() {
+        return this.now;
+    }
+
+    /**
+     * Moves the clock on, giving out every task scheduled up to and including the new minute.
+     *
+     * @param to Epoch minute to move to. The clock never moves back.
+     * @return Tasks whose minute has come, in the order they came.
+     */
+    synchronized List<Task> advance(long to) {
+        List<Task> fired = new ArrayList<>();
+        takeReady(fired);
+        while (this.now < to) {
+            if (this.entries.isEmpty()) {
+                clear();
+                this.now = to;
+                break;
+            }
+            this.now++;
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((this.now & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            List<Entry> slot = this.slots.get(getSlot(0, this.now));
+            this.ready.addAll(slot);
+            slot.clear();
+            takeReady(fired);
+        }
+        return fired;
+    }
+
+    /**
+     * Puts an entry into the lowest level whose span reaches its minute, or the ready list if its minute has come.
+     *
+     * @param entry Entry to place.
+     */
+    private void place(Entry entry) {
+        long delta = entry.minute - this.now;
+        if (delta <= 0) {
+            this.ready.add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                this.slots.get(getSlot(level, entry.minute)).add(entry);
+                return;
+            }
+        }
+        this.overflow.add(entry);
+    }
+
+    /**
+     * Places the entries of the slot of a level which the clock has just entered again in the levels below.
+     * When the top level turns, entries in the overflow list are placed again too.
+     *
+     * @param level Level whose slot has been entered.
+     */
+    private void cascade(int level) {
+        List<Entry> slot = this.slots.get(getSlot(level, this.now));
+        List<Entry> entries = new ArrayList<>(slot);
+        slot.clear();
+        if (level == LEVELS - 1) {
+            entries.addAll(this.overflow);
+            this.overflow.clear();
+        }
+        for (Entry entry : entries) {
+            if (!entry.isCancelled) {
+                place(entry);
+            }
+        }
+    }
+
+    /**
+     * Gives out every entry in the ready list which is not cancelled.
+     *
+     * @param fired List to add the tasks of the entries to.
+     */
+    private void takeReady(List<Task> fired) {
+        for (Entry entry : this.ready) {
+            if (!entry.isCancelled) {
+                this.entries.remove(entry.task.getId());
+                fired.add(entry.task);
+            }
+        }
+        this.ready.clear();
+    }
+
+    /**
+     * Works out the slot of a level which covers a minute.
+     *
+     * @param level Level of the slot.
+     * @param minute Epoch minute.
+     * @return Position of the slot in the list of every slot.
+     */
+    private static int getSlot(int level, long minute) {
+        return level * SLOTS + (int) ((minute >> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    /**
+     * Task scheduled for a minute.
+     */
+    private static class Entry {
+
+        private final Task task;
+        private final long minute;
+        private boolean isCancelled;
+
+        /**
+         * Constructor for Entry.
+         *
+         * @param task Task to give out.
+         * @param minute Epoch minute to give the task out at.
+         */
+        Entry(Task task, long minute) {
+            this.task = task;
+            this.minute = minute;
+        }
+    }
+}
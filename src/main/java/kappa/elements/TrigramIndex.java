@@ -0,0 +1,266 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from every run of three characters in task descriptions to the ids of the tasks which contain it.
+ * Any term of three or more characters is a substring of a description only if all of its trigrams are, so
+ * intersecting their posting lists gives a few candidates to check with {@code String.contains} instead of every task.
+ *
+ * <p>Posting lists hold increasing ids as variable-length deltas, which takes a byte or two per id. Removed tasks are
+ * left in the lists until they make up most of the index, since candidates are checked against the task list
+ * anyway, and the index is then built again from the remaining tasks.</p>
+ */
+class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private static final int MIN_REBUILD_DEAD = 1024;
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private int live;
+    private int dead;
+
+    /**
+     * Adds the trigrams of a task's description. The task's id must be larger than any id added before it.
+     *
+     * @param task Task to add.
+     */
+    void add(Task task) {
+        String description = task.getDescription();
+        for (int i = 0; i + GRAM_LENGTH <= description.length(); i++) {
+            this.postings.computeIfAbsent(gram(description, i), (ignored) -> new Posting()).add(task.getId());
+        }
+        this.live++;
+    }
+
+    /**
+     * Marks a task as removed. Its id stays in the posting lists until the index is built again.
+     */
+    void remove() {
+        this.live--;
+        this.dead++;
+    }
+
+    /**
+     * Removes every trigram.
+     */
+    void clear() {
+        this.postings.clear();
+        this.live = 0;
+        this.dead = 0;
+    }
+
+    /**
+     * Checks if removed tasks make up enough of the index for it to be worth building again.
+     *
+     * @return True if the index should be built again.
+     */
+    boolean shouldRebuild() {
+        return this.dead >= MIN_REBUILD_DEAD && this.dead > this.live;
+    }
+
+    /**
+     * Builds the index again from the remaining tasks, dropping every removed id.
+     *
+     * @param tasks Remaining tasks, in increasing id order.
+     */
+    void rebuild(List<Task> tasks) {
+        clear();
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Finds the ids of the tasks whose descriptions contain every trigram of a term.
+     * Every task containing the term is a candidate, along with removed tasks and some tasks which only contain the
+     * trigrams apart, so candidates still have to be checked.
+     *
+     * @param term Term of at least {@code GRAM_LENGTH} characters.
+     * @return Candidate ids in increasing order.
+     */
+    int[] candidates(String term) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            grams.add(gram(term, i));
+        }
+        List<Posting> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Posting posting = this.postings.get(gram);
+            if (posting == null) {
+                return new int[0];
+            }
+            lists.add(posting);
+        }
+        lists.sort((first, second) -> Integer.compare(first.count, second.count));
+        int[] result = lists.get(0).decode();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).intersect(result);
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the number of candidates for a term without decoding any posting list, as the length of the
+     * shortest list among its trigrams.
+     *
+     * @param term Term of at least {@code GRAM_LENGTH} characters.
+     * @return Largest number of candidates the term can have.
+     */
+    int estimate(String term) {
+        int smallest = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            Posting posting = this.postings.get(gram(term, i));
+            smallest = Math.min(smallest, posting == null ? 0 : posting.count);
+        }
+        return smallest;
+    }
+
+    /**
+     * Returns the number of distinct trigrams.
+     *
+     * @return Number of trigrams.
+     */
+    int getGramCount() {
+        return this.postings.size();
+    }
+
+    /**
+     * Estimates the memory held by the index, counting the encoded posting lists and a fixed overhead for every
+     * trigram's map entry, key and list object.
+     *
+     * @return Estimated size in bytes.
+     */
+    long getMemoryBytes() {
+        long bytes = 0;
+        for (Posting posting : this.postings.values()) {
+            bytes += posting.data.length + ENTRY_OVERHEAD_BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Packs the three characters at a position into a single key.
+     *
+     * @param text Text to read.
+     * @param start Position of the first character.
+     * @return Key of the trigram.
+     */
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Posting list of increasing ids, each stored as the variable-length difference from the id before it.
+     */
+    private static class Posting {
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int lastId;
+
+        /**
+         * Appends an id, skipping it if it is the last id, which happens when a trigram repeats in a description.
+         *
+         * @param id Id which is no smaller than every id already in the list.
+         */
+        void add(int id) {
+            if (this.count > 0 && id == this.lastId) {
+                return;
+            }
+            if (this.length + 5 > this.data.length) {
+                this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.length + 5));
+            }
+            int delta = id - this.lastId;
+            while ((delta & ~0x7F) != 0) {
+                this.data[this.length] = (byte) ((delta & 0x7F) | 0x80);
+                this.length++;
+                delta >>>= 7;
+            }
+            this.data[this.length] = (byte) delta;
+            this.length++;
+            this.count++;
+            this.lastId = id;
+        }
+
+        /**
+         * Decodes every id in the list.
+         *
+         * @return Ids in increasing order.
+         */
+        int[] decode() {
+            int[] ids = new int[this.count];
+            Cursor cursor = new Cursor();
+            for (int i = 0; i < this.count; i++) {
+                ids[i] = cursor.next();
+            }
+            return ids;
+        }
+
+        /**
+         * Keeps the ids of a sorted array which are also in this list, decoding the list once from the front.
+         *
+         * @param ids Ids in increasing order.
+         * @return Ids in both, in increasing order.
+         */
+        int[] intersect(int[] ids) {
+            int[] result = new int[ids.length];
+            int found = 0;
+            Cursor cursor = new Cursor();
+            int decoded = 0;
+            int current = Integer.MIN_VALUE;
+            for (int id : ids) {
+                while (current < id && decoded < this.count) {
+                    current = cursor.next();
+                    decoded++;
+                }
+                if (current == id) {
+                    result[found] = id;
+                    found++;
+                } else if (current < id) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(result, found);
+        }
+
+        /**
+         * Reads the list one id at a time.
+         */
+        private class Cursor {
+
+            private int position;
+            private int id;
+
+            /**
+             * Decodes the next id.
+             *
+             * @return Next id.
+             */
+            int next() {
+                int delta = 0;
+                int shift = 0;
+                byte value;
+                do {
+                    value = data[this.position];
+                    this.position++;
+                    delta |= (value & 0x7F) << shift;
+                    shift += 7;
+                } while ((value & 0x80) != 0);
+                this.id += delta;
+                return this.id;
+            }
+        }
+    }
+}
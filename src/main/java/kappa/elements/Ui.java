@@ -4,19 +4,39 @@ import kappa.exception.KappaException;
 
 import kappa.task.Deadline;
 import kappa.task.Event;
+import kappa.task.Recurring;
 import kappa.task.Task;
 import kappa.task.ToDo;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.text.Format;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 /**
  * User Interface that prints to user.
+ * Lists and search results are shown a page at a time, each line written through a buffered writer as its task is
+ * fetched, and the place the last page ended is kept so that {@code more} can show the next page.
  */
 public class Ui {
 
+    /**
+     * Number of tasks on a page of a list or search results, unless another size is asked for.
+     */
+    public static final int PAGE_SIZE = Integer.getInteger("kappa.list.pageSize", 50);
+
+    /**
+     * Largest number of tasks which can be asked for on a page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private Scanner scanner = new Scanner(System.in);
+    private PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+    private PageCursor cursor;
 
     /**
      * Prints welcome Message on application start-up.
@@ -45,14 +65,36 @@ public class Ui {
     public String showHelpMessage() {
         String message = "Commands:\n"
                 + "     todo <task description> /t <tags>: To add task to list\n"
-                + "     event <task description> /at <date> /t <tags> : To add event to list\n"
+                + "     event <task description> /at <date> [/end <date>] /t <tags> : To add event to list, "
+                + "warning you of clashes\n"
                 + "     deadline <task description> /by <date> /t <tags> : To add deadline to list\n"
-                + "     list : Retrieves all the tasks you have so far\n"
-                + "     done <task index> : Checks task as done\n"
+                + "     recur <task description> /every <rule> /from <date> [/until <date>] /t <tags> : "
+                + "To add a repeating task (E.g. /every day, /every 2 weeks, /every month)\n"
+                + "     list [--page <n>] [--size <n>] : Retrieves your tasks a page at a time\n"
+                + "     more : Shows the next page of the last list or search\n"
+                + "     done <task index> : Checks task as done, or the next occurrence of a repeating task\n"
                 + "     delete <task index> : Deletes task at a particular index\n"
+                + "     done/delete <indexes> : Acts on many tasks at once (E.g. done 3-10, delete 1,4,9-20)\n"
+                + "     done/delete find <term> : Acts on every task with the term in the description/name\n"
                 + "     clear : clear all tasks in the list and wipe all data\n"
+                + "     compact [text|binary] : Compacts saved data in the background, optionally converting it\n"
+                + "     sync : Waits until all changes are saved to disk\n"
+                + "     stats : Shows how many tasks there are and how much memory searching them takes\n"
                 + "     bye : Exit program\n"
                 + "     find <term> : Find tasks with the term in the description/name\n"
+                + "     find -w <words> : Find tasks with all of the whole words in the description/name, quickly\n"
+                + "     find #<tag>... : Find tasks with all of the tags (E.g. find #work|#school -#later)\n"
+                + "     find ~<words> [/d <typos>] : Find tasks with words close to the words, closest first\n"
+                + "     find --top <n> <words> : Find the n tasks most relevant to the words\n"
+                + "     query <query> : Find tasks by type, status, tags, dates and words "
+                + "(E.g. query type:deadline AND NOT done AND #work AND due<01/01/2025)\n"
+                + "     explain <query> : Shows how a query is run and how many tasks each step gives\n"
+                + "     due before <date> : Lists deadlines and events before the date, earliest first\n"
+                + "     due between <date> and <date> : Lists deadlines and events between the dates\n"
+                + "     overdue : Lists deadlines which have passed and are not done\n"
+                + "     agenda [DD/MM/YYYY] [week] : Shows everything on that day or week, or today\n"
+                + "     conflicts : Lists every pair of events which overlap\n"
+                + "     remind <minutes> : Reminds you of deadlines and events this many minutes before them\n"
                 + "     Note: Currently, Slave can only read date in the form 'DD/MM/YYYY HHMM'\n"
                 + "     (E.g. 2/1/2020 1254 will be read as 2nd of January 2020 12.54pm)";
         String formattedMessage = Formatter.formatMessage(message);
@@ -91,6 +133,59 @@ public class Ui {
         return formattedMessage;
     }
 
+    /**
+     * Prints compact command message.
+     *
+     * @param isStarted Whether a new compaction was started.
+     */
+    public String printCompactCommand(boolean isStarted) {
+        String message = isStarted
+                ? "Compacting saved data in the background..."
+                : "Saved data is already being compacted!";
+        String formattedMessage = Formatter.formatMessage(message);
+        System.out.println(formattedMessage);
+        return formattedMessage;
+    }
+
+    /**
+     * Prints sync command message.
+     */
+    public String printSyncCommand() {
+        String formattedMessage = Formatter.formatMessage("All changes have been saved!");
+        System.out.println(formattedMessage);
+        return formattedMessage;
+    }
+
+    /**
+     * Prints stats command message.
+     *
+     * @param tasks Current task list.
+     */
+    public String printStatsCommand(TaskList tasks) {
+        long finds = tasks.getFindCacheHits() + tasks.getFindCacheMisses();
+        String formattedMessage = Formatter.getLine()
+                + Formatter.indentLine("Tasks: " + tasks.getSize() + " (" + tasks.getDoneCount() + " done), kept "
+                        + tasks.getLayout().name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                + (tasks.getOffHeapBytes() > 0
+                        ? Formatter.indentLine("Off-heap task data: about " + (tasks.getOffHeapBytes() + 1023) / 1024
+                                + " KB")
+                        : "")
+                + Formatter.indentLine("Dated tasks: " + tasks.getDatedCount() + ", "
+                        + tasks.getRecurringCount() + " recurring, "
+                        + tasks.getEventCount() + " events checked for clashes, "
+                        + tasks.getReminders().getPendingCount() + " reminders coming up")
+                + Formatter.indentLine("Search index: " + tasks.getTrigramCount() + " trigrams, about "
+                        + (tasks.getTrigramIndexBytes() + 1023) / 1024 + " KB, "
+                        + tasks.getWordCount() + " distinct words")
+                + Formatter.indentLine("Find cache: " + tasks.getCachedFindCount() + " results, "
+                        + tasks.getFindCacheHits() + " of " + finds + " finds hit ("
+                        + (finds == 0 ? 0 : tasks.getFindCacheHits() * 100 / finds) + "%), "
+                        + tasks.getFindCacheEvictions() + " evicted")
+                + Formatter.getLine();
+        System.out.println(formattedMessage);
+        return formattedMessage;
+    }
+
     /**
      * Prints add deadline command.
      *
@@ -108,22 +203,44 @@ public class Ui {
     }
 
     /**
-     * Prints add event command.
+     * Prints add event command, along with the events it clashes with.
      *
      * @param eventTask Event task to be added.
      * @param tasks Current task list.
+     * @param clashes Events which overlap the added event.
      */
-    public String printAddEventCommand(Event eventTask, TaskList tasks) {
-        String formattedMessage = Formatter.getLine()
+    public String printAddEventCommand(Event eventTask, TaskList tasks, ArrayList<Task> clashes) {
+        StringBuilder formattedMessage = new StringBuilder(Formatter.getLine()
                 + Formatter.indentLine("Got it. I've added this task:")
                 + Formatter.indentLine("  " + eventTask)
+                + Formatter.indentLine("Now you have " + tasks.getSize() + " tasks in the list."));
+        if (!clashes.isEmpty()) {
+            formattedMessage.append(Formatter.indentLine("Heads up! It clashes with:"));
+            for (Task clash : clashes) {
+                formattedMessage.append(Formatter.indentLine("  " + tasks.getIndexOf(clash) + "." + clash));
+            }
+        }
+        formattedMessage.append(Formatter.getLine());
+        System.out.println(formattedMessage);
+        return formattedMessage.toString();
+    }
+
+    /**
+     * Prints add recurring command.
+     *
+     * @param recurringTask Recurring task to be added.
+     * @param tasks Current task list.
+     */
+    public String printAddRecurringCommand(Recurring recurringTask, TaskList tasks) {
+        String formattedMessage = Formatter.getLine()
+                + Formatter.indentLine("Got it. I've added this repeating task:")
+                + Formatter.indentLine("  " + recurringTask)
                 + Formatter.indentLine("Now you have " + tasks.getSize() + " tasks in the list.")
                 + Formatter.getLine();
         System.out.println(formattedMessage);
         return formattedMessage;
     }
 
-
     /**
      * Prints add to-do command.
      *
@@ -171,41 +288,357 @@ public class Ui {
     }
 
     /**
-     * Prints a list of current tasks.
+     * Prints a summary of a bulk done command.
+     *
+     * @param marked Number of tasks marked as done.
+     * @param skipped Number of picked tasks which were already done.
+     */
+    public String printBulkDoneCommand(int marked, int skipped) {
+        StringBuilder formattedMessage = new StringBuilder(Formatter.getLine()
+                + Formatter.indentLine("Nice! I've marked " + marked + " tasks as done."));
+        if (skipped > 0) {
+            formattedMessage.append(Formatter.indentLine(skipped + " of them were already done."));
+        }
+        formattedMessage.append(Formatter.getLine());
+        System.out.println(formattedMessage);
+        return formattedMessage.toString();
+    }
+
+    /**
+     * Prints a summary of a bulk delete command.
+     *
+     * @param removed Number of tasks removed.
+     * @param tasks Current task list.
+     */
+    public String printBulkDeleteCommand(int removed, TaskList tasks) {
+        String formattedMessage = Formatter.getLine()
+                + Formatter.indentLine("Noted. I've removed " + removed + " tasks.")
+                + Formatter.indentLine("Now you have " + tasks.getSize() + " tasks in the list.")
+                + Formatter.getLine();
+        System.out.println(formattedMessage);
+        return formattedMessage;
+    }
+
+    /**
+     * Prints a page of current tasks, fetching only the tasks on the page.
      *
      * @param tasks Current task list.
+     * @param page Page to print, starting from 1.
+     * @param size Number of tasks on a page.
      */
-    public String printListCommand(TaskList tasks) {
-        if (tasks.getList().isEmpty()) {
+    public String printListCommand(TaskList tasks, int page, int size) {
+        this.cursor = null;
+        if (tasks.getSize() == 0) {
             return Formatter.getLine()
                     + Formatter.indentLine("You have no tasks!")
                     + Formatter.getLine();
         }
-        StringBuilder formattedMessage = new StringBuilder(Formatter.getLine()
-                + Formatter.indentLine("Here are the tasks in your list:"));
-        for (Task task: tasks.getList()) {
-            formattedMessage.append(Formatter.indentLine(task.getId() + "." + task.toString()));
+        long first = (long) (page - 1) * size + 1;
+        if (first > tasks.getSize()) {
+            String formattedMessage = Formatter.formatMessage("Your list only goes up to page "
+                    + ((tasks.getSize() - 1) / size + 1) + " with " + size + " tasks a page!");
+            System.out.println(formattedMessage);
+            return formattedMessage;
         }
-        formattedMessage.append(Formatter.getLine());
+        return printListPage("Here are the tasks in your list:", (int) first, size, tasks);
+    }
+
+    /**
+     * Prints the next page of the last list or search results shown.
+     * The list goes on from the task after the last one shown, while search results are only gone on with if the
+     * list has not changed since the search.
+     *
+     * @param tasks Current task list.
+     */
+    public String printMoreCommand(TaskList tasks) {
+        PageCursor last = this.cursor;
+        this.cursor = null;
+        String message = "There is nothing more to show!";
+        if (last != null && last.isInList()) {
+            int first = tasks.getIndexOf(last.getLastTask()) + 1;
+            if (first <= tasks.getSize()) {
+                return printListPage("Here are more tasks in your list:", first, last.getSize(), tasks);
+            }
+        } else if (last != null && last.getVersion() == tasks.getVersion() && last.isRanked()) {
+            return printRankedPage("Here are more of the tasks:", last.getIds(), last.getQuery(), last.getShown(),
+                    last.getSize(), tasks);
+        } else if (last != null && last.getVersion() == tasks.getVersion()) {
+            return printMatchPage("Here are more of the tasks:", last.getMatches(), last.getShown(), last.getSize(),
+                    tasks);
+        } else if (last != null) {
+            message = "Your list has changed since then, so please search again!";
+        }
+        String formattedMessage = Formatter.formatMessage(message);
         System.out.println(formattedMessage);
-        return formattedMessage.toString();
+        return formattedMessage;
     }
 
     /**
      * Prints a list of matching results.
      *
      * @param findTasks List of searched entries.
+     * @param tasks Current task list, which gives the index of every entry.
+     */
+    public String printFindCommand(ArrayList<Task> findTasks, TaskList tasks) {
+        return printMatches("Here are the matching tasks in your list:", findTasks, tasks);
+    }
+
+    /**
+     * Prints the most relevant tasks for a query.
+     *
+     * @param rankedTasks Most relevant tasks, most relevant first.
+     * @param tasks Current task list, which gives the index of every entry.
      */
-    public String printFindCommand(ArrayList<Task> findTasks) {
+    public String printRankedFindCommand(ArrayList<Task> rankedTasks, TaskList tasks) {
+        return printMatches("Here are the " + rankedTasks.size() + " most relevant tasks in your list:", rankedTasks,
+                tasks);
+    }
+
+    /**
+     * Prints the most relevant of too many matching results, keeping only the ids of the matches so that the rest
+     * can be ranked again, a page of the same size at a time, when they are asked for.
+     *
+     * @param matches Every match, in list order.
+     * @param query Query to rank the matches by.
+     * @param topCount Number of matches on a page.
+     * @param tasks Current task list, which gives the index of every entry.
+     */
+    public String printTopMatches(List<Task> matches, String query, int topCount, TaskList tasks) {
+        this.cursor = null;
+        return printRankedPage(matches.size() + " tasks match, so here are the " + Math.min(topCount,
+                matches.size()) + " most relevant:", TaskList.getIdsOf(matches), query, 0, topCount, tasks);
+    }
+
+    /**
+     * Prints how a query was run, with the number of tasks every step of its plan gave.
+     *
+     * @param plan Plan which has run.
+     * @param matchCount Number of tasks the query holds for.
+     */
+    public String printExplainCommand(QueryPlan plan, int matchCount) {
+        StringBuilder formattedMessage = new StringBuilder(Formatter.getLine()
+                + Formatter.indentLine("Here is how I ran " + plan.getQuery() + ":"));
+        int index = 1;
+        for (QueryPlan.Step step : plan.getSteps()) {
+            formattedMessage.append(Formatter.indentLine(index + ") " + step.getDescription() + ": "
+                    + (index == 1 ? "expected " + step.getEstimate() + ", got " : "") + step.getCount() + " tasks"));
+            index++;
+        }
+        formattedMessage.append(Formatter.indentLine(matchCount + " tasks match."))
+                .append(Formatter.getLine());
+        System.out.println(formattedMessage);
+        return formattedMessage.toString();
+    }
+
+    /**
+     * Prints the deadlines and events in a range of dates.
+     *
+     * @param dueTasks Tasks in the range, earliest first.
+     * @param tasks Current task list, which gives the index of every entry.
+     */
+    public String printDueCommand(ArrayList<Task> dueTasks, TaskList tasks) {
+        if (dueTasks.isEmpty()) {
+            String formattedMessage = Formatter.formatMessage("Nothing is due then!");
+            System.out.println(formattedMessage);
+            return formattedMessage;
+        }
+        return printMatches("Here are the tasks due then, earliest first:", dueTasks, tasks);
+    }
+
+    /**
+     * Prints everything on in a day or week.
+     *
+     * @param agendaTasks Tasks and occurrences on then, earliest first.
+     * @param tasks Current task list, which gives the index of every entry.
+     */
+    public String printAgendaCommand(ArrayList<Task> agendaTasks, TaskList tasks) {
+        if (agendaTasks.isEmpty()) {
+            String formattedMessage = Formatter.formatMessage("Nothing is on then!");
+            System.out.println(formattedMessage);
+            return formattedMessage;
+        }
+        return printMatches("Here is your agenda, earliest first:", agendaTasks, tasks);
+    }
+
+    /**
+     * Prints every pair of events which overlap.
+     *
+     * @param conflicts Pairs of events, the one which starts first before the other.
+     * @param tasks Current task list, which gives the index of every event.
+     */
+    public String printConflictsCommand(List<Task[]> conflicts, TaskList tasks) {
+        if (conflicts.isEmpty()) {
+            String formattedMessage = Formatter.formatMessage("None of your events clash!");
+            System.out.println(formattedMessage);
+            return formattedMessage;
+        }
         StringBuilder formattedMessage = new StringBuilder(Formatter.getLine()
-                + Formatter.indentLine("Here are the matching tasks in your list:"));
+                + Formatter.indentLine("These events clash:"));
         int index = 1;
-        for (Task task: findTasks) {
-            formattedMessage.append(Formatter.indentLine(index + ") " + task.getId() + "." + task.toString()));
+        for (Task[] pair : conflicts) {
+            formattedMessage.append(Formatter.indentLine(index + ") " + tasks.getIndexOf(pair[0]) + "." + pair[0]))
+                    .append(Formatter.indentLine("   and " + tasks.getIndexOf(pair[1]) + "." + pair[1]));
             index++;
         }
         formattedMessage.append(Formatter.getLine());
         System.out.println(formattedMessage);
         return formattedMessage.toString();
     }
+
+    /**
+     * Prints remind command message.
+     *
+     * @param leadMinutes Minutes before its date a task is reminded of.
+     * @param pending Number of reminders still to come.
+     */
+    public String printRemindCommand(long leadMinutes, int pending) {
+        String formattedMessage = Formatter.getLine()
+                + Formatter.indentLine("Okay! I'll remind you " + leadMinutes
+                        + " minutes before each deadline and event.")
+                + Formatter.indentLine("You have " + pending + " reminders coming up.")
+                + Formatter.getLine();
+        System.out.println(formattedMessage);
+        return formattedMessage;
+    }
+
+    /**
+     * Prints the reminder of a deadline or event.
+     *
+     * @param task Task whose reminder has come.
+     */
+    public String printReminder(Task task) {
+        String formattedMessage = Formatter.getLine()
+                + Formatter.indentLine("Reminder! This is coming up:")
+                + Formatter.indentLine("  " + task)
+                + Formatter.getLine();
+        System.out.println(formattedMessage);
+        return formattedMessage;
+    }
+
+    /**
+     * Prints the deadlines which are overdue.
+     *
+     * @param overdueTasks Overdue deadlines, earliest first.
+     * @param tasks Current task list, which gives the index of every entry.
+     */
+    public String printOverdueCommand(ArrayList<Task> overdueTasks, TaskList tasks) {
+        if (overdueTasks.isEmpty()) {
+            String formattedMessage = Formatter.formatMessage("Nothing is overdue!");
+            System.out.println(formattedMessage);
+            return formattedMessage;
+        }
+        return printMatches("These deadlines have passed, earliest first:", overdueTasks, tasks);
+    }
+
+    /**
+     * Prints the first page of some tasks with their indexes in the list.
+     *
+     * @param heading Line shown before the tasks.
+     * @param matches Tasks to show.
+     * @param tasks Current task list, which gives the index of every entry.
+     * @return Formatted message.
+     */
+    private String printMatches(String heading, ArrayList<Task> matches, TaskList tasks) {
+        this.cursor = null;
+        return printMatchPage(heading, matches, 0, PAGE_SIZE, tasks);
+    }
+
+    /**
+     * Prints a page of current tasks, keeping a cursor after the page if tasks are left.
+     *
+     * @param heading Line shown before the tasks.
+     * @param first Index of the first task on the page, which must be in the list.
+     * @param size Number of tasks on a page.
+     * @param tasks Current task list.
+     * @return Formatted message.
+     */
+    private String printListPage(String heading, int first, int size, TaskList tasks) {
+        int last = (int) Math.min(tasks.getSize(), first + (long) size - 1);
+        StringBuilder formattedMessage = new StringBuilder();
+        write(formattedMessage, Formatter.getLine() + Formatter.indentLine(heading));
+        Task task = null;
+        for (int index = first; index <= last; index++) {
+            task = tasks.getTaskByIndex(index);
+            write(formattedMessage, Formatter.indentLine(index + "." + task));
+        }
+        this.cursor = last < tasks.getSize() ? PageCursor.afterTask(task, size) : null;
+        return endPage(formattedMessage, "tasks " + first + " to " + last + " of " + tasks.getSize());
+    }
+
+    /**
+     * Prints a page of search results with their indexes in the list, keeping a cursor after the page if results
+     * are left.
+     *
+     * @param heading Line shown before the tasks.
+     * @param matches Every result of the search.
+     * @param from Position of the first result on the page.
+     * @param size Number of tasks on a page.
+     * @param tasks Current task list, which gives the index of every entry.
+     * @return Formatted message.
+     */
+    private String printMatchPage(String heading, List<Task> matches, int from, int size, TaskList tasks) {
+        int to = (int) Math.min(matches.size(), from + (long) size);
+        StringBuilder formattedMessage = new StringBuilder();
+        write(formattedMessage, Formatter.getLine() + Formatter.indentLine(heading));
+        for (int i = from; i < to; i++) {
+            write(formattedMessage, Formatter.indentLine((i + 1) + ") " + tasks.getIndexOf(matches.get(i)) + "."
+                    + matches.get(i)));
+        }
+        this.cursor = to < matches.size() ? PageCursor.afterMatch(matches, to, tasks.getVersion(), size) : null;
+        return endPage(formattedMessage, "tasks " + (from + 1) + " to " + to + " of " + matches.size());
+    }
+
+    /**
+     * Prints a page of ranked search results with their indexes in the list, keeping a cursor after the page if
+     * results are left. Only as many matches as have been shown by the end of the page are ranked, so a page costs
+     * a pass over the matches with a heap no bigger than that.
+     *
+     * @param heading Line shown before the tasks.
+     * @param ids Ids of every match of the search.
+     * @param query Query to rank the matches by.
+     * @param from Position of the first result on the page.
+     * @param size Number of tasks on a page.
+     * @param tasks Current task list, which gives the index of every entry.
+     * @return Formatted message.
+     */
+    private String printRankedPage(String heading, int[] ids, String query, int from, int size, TaskList tasks) {
+        List<Task> ranked = tasks.rankIds(ids, query, (int) Math.min(ids.length, from + (long) size));
+        int to = ranked.size();
+        StringBuilder formattedMessage = new StringBuilder();
+        write(formattedMessage, Formatter.getLine() + Formatter.indentLine(heading));
+        for (int i = from; i < to; i++) {
+            write(formattedMessage, Formatter.indentLine((i + 1) + ") " + tasks.getIndexOf(ranked.get(i)) + "."
+                    + ranked.get(i)));
+        }
+        this.cursor = to < ids.length ? PageCursor.afterRank(ids, query, to, tasks.getVersion(), size) : null;
+        return endPage(formattedMessage, "tasks " + (from + 1) + " to " + to + " of " + ids.length);
+    }
+
+    /**
+     * Ends a page, telling the user how to see the next page if there is a cursor after it, and flushes the page.
+     *
+     * @param formattedMessage Page so far.
+     * @param shown Which tasks are on the page, such as tasks 1 to 50 of 120.
+     * @return Formatted message.
+     */
+    private String endPage(StringBuilder formattedMessage, String shown) {
+        if (this.cursor != null) {
+            write(formattedMessage, Formatter.indentLine("Showing " + shown + ", type 'more' to see the next ones."));
+        }
+        write(formattedMessage, Formatter.getLine());
+        this.out.println();
+        this.out.flush();
+        return formattedMessage.toString();
+    }
+
+    /**
+     * Writes text to the console as it is worked out, and adds it to a message.
+     *
+     * @param formattedMessage Message to add to.
+     * @param text Text to write.
+     */
+    private void write(StringBuilder formattedMessage, String text) {
+        this.out.print(text);
+        formattedMessage.append(text);
+    }
 }
@@ -0,0 +1,576 @@
+package kappa.elements;
+
+import kappa.task.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the words in task descriptions to the ids of the tasks which contain them.
+ * Every word keeps a sorted array of ids, so a search costs about as much as its shortest posting list instead of
+ * a scan over every task. Ids only ever grow, so adding a task appends to the end of each of its lists.
+ * The distinct words are also kept in a trie, so words close to a misspelt one are found without working out the
+ * edit distance to every word.
+ *
+ * <p>For ranked search, every posting also counts how often the word is in each description, and the words of tags
+ * are indexed the same way as a second field. The length of every description and tag list and their totals are
+ * kept up to date as tasks come and go, which is all BM25 needs to score a task against a query.</p>
+ */
+class WordIndex {
+
+    private static final int INITIAL_POSTING_SIZE = 4;
+    private static final int SHORT_WORD_LENGTH = 2;
+    private static final int MEDIUM_WORD_LENGTH = 5;
+    private static final double TERM_SATURATION = 1.2;
+    private static final double LENGTH_NORMALIZATION = 0.75;
+
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Map<String, Posting> tagPostings = new HashMap<>();
+    private final WordTrie vocabulary = new WordTrie();
+    private int[] lengths = new int[INITIAL_POSTING_SIZE];
+    private int[] tagLengths = new int[INITIAL_POSTING_SIZE];
+    private long totalLength;
+    private long totalTagLength;
+    private int taskCount;
+
+    /**
+     * Splits text into lower-case words, treating anything that is not a letter or digit as a separator.
+     *
+     * @param text Text to split.
+     * @return Distinct words in the order they appear.
+     */
+    static Set<String> tokenize(String text) {
+        return countWords(text).keySet();
+    }
+
+    /**
+     * Splits text into lower-case words like {@link #tokenize(String)}, counting how often each one appears.
+     *
+     * @param text Text to split.
+     * @return Number of times each distinct word appears, in the order they first appear.
+     */
+    static Map<String, Integer> countWords(String text) {
+        Map<String, Integer> words = new LinkedHashMap<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Adds the words of a task's description and tags.
+     *
+     * @param task Task to add.
+     */
+    void add(Task task) {
+        int length = 0;
+        for (Map.Entry<String, Integer> word : countWords(task.getDescription()).entrySet()) {
+            this.postings.computeIfAbsent(word.getKey(), (added) -> {
+                this.vocabulary.add(added);
+                return new Posting();
+            }).add(task.getId(), word.getValue());
+            length += word.getValue();
+        }
+        int tagLength = 0;
+        for (Map.Entry<String, Integer> word : countWords(getTagText(task)).entrySet()) {
+            this.tagPostings.computeIfAbsent(word.getKey(), (added) -> new Posting())
+                    .add(task.getId(), word.getValue());
+            tagLength += word.getValue();
+        }
+        if (task.getId() >= this.lengths.length) {
+            this.lengths = Arrays.copyOf(this.lengths, Math.max(task.getId() + 1, this.lengths.length * 2));
+            this.tagLengths = Arrays.copyOf(this.tagLengths, this.lengths.length);
+        }
+        this.lengths[task.getId()] = length;
+        this.tagLengths[task.getId()] = tagLength;
+        this.totalLength += length;
+        this.totalTagLength += tagLength;
+        this.taskCount++;
+    }
+
+    /**
+     * Removes the words of a task's description and tags.
+     *
+     * @param task Task to remove.
+     */
+    void remove(Task task) {
+        for (String word : tokenize(task.getDescription())) {
+            Posting posting = this.postings.get(word);
+            if (posting != null && posting.remove(task.getId()) && posting.size == 0) {
+                this.postings.remove(word);
+                this.vocabulary.remove(word);
+            }
+        }
+        for (String word : tokenize(getTagText(task))) {
+            Posting posting = this.tagPostings.get(word);
+            if (posting != null && posting.remove(task.getId()) && posting.size == 0) {
+                this.tagPostings.remove(word);
+            }
+        }
+        if (task.getId() < this.lengths.length) {
+            this.totalLength -= this.lengths[task.getId()];
+            this.totalTagLength -= this.tagLengths[task.getId()];
+            this.lengths[task.getId()] = 0;
+            this.tagLengths[task.getId()] = 0;
+            this.taskCount--;
+        }
+    }
+
+    /**
+     * Removes every word.
+     */
+    void clear() {
+        this.postings.clear();
+        this.tagPostings.clear();
+        this.vocabulary.clear();
+        this.lengths = new int[INITIAL_POSTING_SIZE];
+        this.tagLengths = new int[INITIAL_POSTING_SIZE];
+        this.totalLength = 0;
+        this.totalTagLength = 0;
+        this.taskCount = 0;
+    }
+
+    /**
+     * Returns the number of distinct words.
+     *
+     * @return Number of words in the index.
+     */
+    int getWordCount() {
+        return this.postings.size();
+    }
+
+    /**
+     * Finds the ids of the tasks whose descriptions contain every word of a query.
+     * Starts from the shortest posting list and looks each of its ids up in the others.
+     *
+     * @param query Words to search for.
+     * @return Ids in increasing order, which is list order.
+     */
+    int[] search(String query) {
+        Set<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+        List<Posting> lists = new ArrayList<>(words.size());
+        for (String word : words) {
+            Posting posting = this.postings.get(word);
+            if (posting == null) {
+                return new int[0];
+            }
+            lists.add(posting);
+        }
+        lists.sort((first, second) -> Integer.compare(first.size, second.size));
+        Posting shortest = lists.get(0);
+        int[] result = new int[shortest.size];
+        int count = 0;
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            boolean isInAll = true;
+            for (int j = 1; j < lists.size() && isInAll; j++) {
+                isInAll = lists.get(j).contains(id);
+            }
+            if (isInAll) {
+                result[count] = id;
+                count++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Finds the largest number of tasks whose descriptions can contain every word of a query, as the length of the
+     * shortest posting list among the words, without looking at any list.
+     *
+     * @param query Words to search for.
+     * @return Largest number of matching tasks.
+     */
+    int estimate(String query) {
+        Set<String> words = tokenize(query);
+        int smallest = words.isEmpty() ? 0 : Integer.MAX_VALUE;
+        for (String word : words) {
+            Posting posting = this.postings.get(word);
+            smallest = Math.min(smallest, posting == null ? 0 : posting.size);
+        }
+        return smallest;
+    }
+
+    /**
+     * Finds the ids of the tasks whose descriptions have a word close to every word of a query.
+     * The words near each query word come from the trie, and a task is only as close to a query word as the
+     * closest of its words.
+     *
+     * @param query Words to search for, which may be misspelt.
+     * @param maxDistance Largest edit distance allowed between a query word and a word of a description, or a
+     *     negative number to allow none for words of up to 2 characters, 1 for up to 5 and 2 for longer words.
+     * @return Ids ordered by the sum of the distances of the query words, closest first, and then by id.
+     */
+    int[] searchFuzzy(String query, int maxDistance) {
+        Set<String> words = tokenize(query);
+        Map<Integer, Integer> distances = null;
+        for (String word : words) {
+            Map<Integer, Integer> wordDistances = new HashMap<>();
+            int allowed = maxDistance >= 0 ? maxDistance
+                    : word.length() <= SHORT_WORD_LENGTH ? 0
+                    : word.length() <= MEDIUM_WORD_LENGTH ? 1 : 2;
+            for (Map.Entry<String, Integer> match : this.vocabulary.search(word, allowed).entrySet()) {
+                Posting posting = this.postings.get(match.getKey());
+                for (int i = 0; i < posting.size; i++) {
+                    wordDistances.merge(posting.ids[i], match.getValue(), Math::min);
+                }
+            }
+            if (distances == null) {
+                distances = wordDistances;
+            } else {
+                distances.keySet().retainAll(wordDistances.keySet());
+                distances.replaceAll((id, distance) -> distance + wordDistances.get(id));
+            }
+            if (distances.isEmpty()) {
+                return new int[0];
+            }
+        }
+        if (distances == null) {
+            return new int[0];
+        }
+        Map<Integer, Integer> totals = distances;
+        return totals.keySet().stream()
+                .sorted((first, second) -> totals.get(first).equals(totals.get(second))
+                        ? Integer.compare(first, second)
+                        : Integer.compare(totals.get(first), totals.get(second)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Finds the tasks which best match any word of a query, scored with BM25 over their descriptions and tags.
+     * The posting lists of the query words are merged in id order, so every task with a query word is scored once
+     * without a table of scores, and the best tasks are kept in a heap as large as the limit, so the tasks which
+     * match are never sorted as a whole.
+     *
+     * @param query Words to search for.
+     * @param limit Largest number of tasks to find.
+     * @return Ids of the best tasks, highest score first and then by id.
+     */
+    int[] searchRanked(String query, int limit) {
+        List<Posting> lists = new ArrayList<>();
+        List<int[]> fieldLengths = new ArrayList<>();
+        List<Double> averageLengths = new ArrayList<>();
+        for (String word : tokenize(query)) {
+            for (boolean isTag : new boolean[] {false, true}) {
+                Posting posting = (isTag ? this.tagPostings : this.postings).get(word);
+                if (posting != null) {
+                    lists.add(posting);
+                    fieldLengths.add(isTag ? this.tagLengths : this.lengths);
+                    averageLengths.add((double) (isTag ? this.totalTagLength : this.totalLength) / this.taskCount);
+                }
+            }
+        }
+        double[] idfs = new double[lists.size()];
+        for (int i = 0; i < idfs.length; i++) {
+            idfs[i] = getIdf(lists.get(i));
+        }
+        int[] cursors = new int[lists.size()];
+        TopScores top = new TopScores(limit);
+        while (true) {
+            int id = Integer.MAX_VALUE;
+            for (int i = 0; i < cursors.length; i++) {
+                if (cursors[i] < lists.get(i).size) {
+                    id = Math.min(id, lists.get(i).ids[cursors[i]]);
+                }
+            }
+            if (id == Integer.MAX_VALUE) {
+                return top.toArray();
+            }
+            double score = 0;
+            for (int i = 0; i < cursors.length; i++) {
+                Posting posting = lists.get(i);
+                if (cursors[i] < posting.size && posting.ids[cursors[i]] == id) {
+                    score += idfs[i] * getTermWeight(posting.counts[cursors[i]], fieldLengths.get(i)[id],
+                            averageLengths.get(i));
+                    cursors[i]++;
+                }
+            }
+            top.offer(id, score);
+        }
+    }
+
+    /**
+     * Picks the tasks among some matches which best match the words of a query, scored with BM25 over their
+     * descriptions and tags. Matches which share no word with the query score 0 and are kept in id order.
+     *
+     * @param ids Ids of the matching tasks.
+     * @param query Words to score the matches by.
+     * @param limit Largest number of tasks to pick.
+     * @return Ids of the best tasks, highest score first and then by id.
+     */
+    int[] rank(int[] ids, String query, int limit) {
+        Set<String> words = tokenize(query);
+        TopScores top = new TopScores(limit);
+        for (int id : ids) {
+            double score = 0;
+            for (String word : words) {
+                score += score(this.postings.get(word), id, this.lengths, this.totalLength);
+                score += score(this.tagPostings.get(word), id, this.tagLengths, this.totalTagLength);
+            }
+            top.offer(id, score);
+        }
+        return top.toArray();
+    }
+
+    /**
+     * Works out the BM25 score of a word in one field of a task.
+     *
+     * @param posting Posting of the word in the field, or null if no task has it.
+     * @param id Id of the task.
+     * @param fieldLengths Length of the field of every task, by id.
+     * @param totalFieldLength Total length of the field over every task.
+     * @return Score, which is 0 if the task does not have the word in the field.
+     */
+    private double score(Posting posting, int id, int[] fieldLengths, long totalFieldLength) {
+        int count = posting == null ? 0 : posting.countOf(id);
+        if (count == 0) {
+            return 0;
+        }
+        return getIdf(posting) * getTermWeight(count, fieldLengths[id], (double) totalFieldLength / this.taskCount);
+    }
+
+    /**
+     * Works out how rare a word is, which is higher the fewer tasks have it and never negative.
+     *
+     * @param posting Posting of the word.
+     * @return Inverse document frequency of the word.
+     */
+    private double getIdf(Posting posting) {
+        return Math.log(1 + (this.taskCount - posting.size + 0.5) / (posting.size + 0.5));
+    }
+
+    /**
+     * Works out the weight of a word in a field, which grows with how often the word appears but levels off, and
+     * is lower in fields longer than average.
+     *
+     * @param count Number of times the word appears in the field.
+     * @param length Length of the field in words.
+     * @param averageLength Average length of the field over every task.
+     * @return Weight of the word.
+     */
+    private static double getTermWeight(int count, int length, double averageLength) {
+        double normalization = 1 - LENGTH_NORMALIZATION + LENGTH_NORMALIZATION * length / averageLength;
+        return count * (TERM_SATURATION + 1) / (count + TERM_SATURATION * normalization);
+    }
+
+    /**
+     * Gets the words of the tags of a task as text to split.
+     *
+     * @param task Task.
+     * @return Tags without their # prefix, separated by spaces.
+     */
+    private static String getTagText(Task task) {
+        return String.join(" ", task.getTags().getNames());
+    }
+
+    /**
+     * Sorted, growable array of the ids of the tasks which contain a word, with how often each one contains it.
+     */
+    private static class Posting {
+
+        private int[] ids = new int[INITIAL_POSTING_SIZE];
+        private int[] counts = new int[INITIAL_POSTING_SIZE];
+        private int size;
+
+        /**
+         * Adds an id, which is normally larger than every id already in the list and so is appended.
+         *
+         * @param id Id to add.
+         * @param count Number of times the task contains the word.
+         */
+        void add(int id, int count) {
+            int position = this.size;
+            if (this.size > 0 && this.ids[this.size - 1] >= id) {
+                position = Arrays.binarySearch(this.ids, 0, this.size, id);
+                if (position >= 0) {
+                    return;
+                }
+                position = -position - 1;
+            }
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+                this.counts = Arrays.copyOf(this.counts, this.size * 2);
+            }
+            System.arraycopy(this.ids, position, this.ids, position + 1, this.size - position);
+            System.arraycopy(this.counts, position, this.counts, position + 1, this.size - position);
+            this.ids[position] = id;
+            this.counts[position] = count;
+            this.size++;
+        }
+
+        /**
+         * Removes an id if it is in the list.
+         *
+         * @param id Id to remove.
+         * @return True if the id was removed.
+         */
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+            System.arraycopy(this.counts, position + 1, this.counts, position, this.size - position - 1);
+            this.size--;
+            return true;
+        }
+
+        /**
+         * Checks if an id is in the list.
+         *
+         * @param id Id to look for.
+         * @return True if the id is in the list.
+         */
+        boolean contains(int id) {
+            return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+        }
+
+        /**
+         * Gets how often a task contains the word.
+         *
+         * @param id Id of the task.
+         * @return Number of times, or 0 if the id is not in the list.
+         */
+        int countOf(int id) {
+            int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+            return position < 0 ? 0 : this.counts[position];
+        }
+    }
+
+    /**
+     * Heap of the best scoring ids seen so far, no larger than a limit, with the worst of them at the top so it
+     * can be replaced in O(log k).
+     */
+    private static class TopScores {
+
+        private final int[] ids;
+        private final double[] scores;
+        private int size;
+
+        /**
+         * Constructor for an empty heap.
+         *
+         * @param limit Largest number of ids to keep.
+         */
+        TopScores(int limit) {
+            this.ids = new int[limit];
+            this.scores = new double[limit];
+        }
+
+        /**
+         * Keeps an id if the heap is not full or it beats the worst id kept.
+         *
+         * @param id Id to offer.
+         * @param score Score of the id.
+         */
+        void offer(int id, double score) {
+            if (this.size < this.ids.length) {
+                this.ids[this.size] = id;
+                this.scores[this.size] = score;
+                this.size++;
+                siftUp(this.size - 1);
+            } else if (this.size > 0 && isWorse(this.scores[0], this.ids[0], score, id)) {
+                this.ids[0] = id;
+                this.scores[0] = score;
+                siftDown(0, this.size);
+            }
+        }
+
+        /**
+         * Empties the heap into an array, best first.
+         *
+         * @return Ids kept, highest score first and then by id.
+         */
+        int[] toArray() {
+            int count = this.size;
+            for (int end = this.size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            this.size = 0;
+            return Arrays.copyOf(this.ids, count);
+        }
+
+        /**
+         * Moves an entry up while it is worse than its parent.
+         *
+         * @param position Position of the entry.
+         */
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (!isWorse(this.scores[position], this.ids[position], this.scores[parent], this.ids[parent])) {
+                    return;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        /**
+         * Moves an entry down while a child is worse than it.
+         *
+         * @param position Position of the entry.
+         * @param end Position after the last entry of the heap.
+         */
+        private void siftDown(int position, int end) {
+            while (2 * position + 1 < end) {
+                int child = 2 * position + 1;
+                if (child + 1 < end
+                        && isWorse(this.scores[child + 1], this.ids[child + 1], this.scores[child], this.ids[child])) {
+                    child++;
+                }
+                if (!isWorse(this.scores[child], this.ids[child], this.scores[position], this.ids[position])) {
+                    return;
+                }
+                swap(position, child);
+                position = child;
+            }
+        }
+
+        /**
+         * Swaps two entries.
+         *
+         * @param first Position of the first entry.
+         * @param second Position of the second entry.
+         */
+        private void swap(int first, int second) {
+            int id = this.ids[first];
+            double score = this.scores[first];
+            this.ids[first] = this.ids[second];
+            this.scores[first] = this.scores[second];
+            this.ids[second] = id;
+            this.scores[second] = score;
+        }
+
+        /**
+         * Checks if one entry ranks below another, having a lower score or the same score and a larger id.
+         *
+         * @param score Score of the first entry.
+         * @param id Id of the first entry.
+         * @param otherScore Score of the second entry.
+         * @param otherId Id of the second entry.
+         * @return True if the first entry is worse.
+         */
+        private static boolean isWorse(double score, int id, double otherScore, int otherId) {
+            return score < otherScore || score == otherScore && id > otherId;
+        }
+    }
+}
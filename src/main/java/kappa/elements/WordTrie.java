@@ -0,0 +1,384 @@
+package kappa.elements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trie of the distinct words of task descriptions, for finding every word within an edit distance of a word.
+ * A search runs the Levenshtein automaton of the word down the trie: each node takes the row of the edit distance
+ * table for its prefix from its parent's row, and a branch is dropped as soon as every cell of its row is over the
+ * distance. Once the smallest cell is exactly the distance, only the few letters which match the word next can keep
+ * a branch alive, so only their edges are followed. Most of the trie is never visited.
+ *
+ * <p>The trie is built from the sorted words into flat arrays, with the children of every node next to each other
+ * and a branch with a single word kept as one leaf, the tail, instead of a chain of nodes. The letters of the words
+ * are kept together in one array too, so a search reads a few arrays in order instead of chasing pointers to
+ * scattered strings. Words added since the trie was built are checked one by one and removed words are
+ * only skipped, and the trie is built again once enough of them pile up, when it is next searched.</p>
+ */
+class WordTrie {
+
+    private static final int MIN_REBUILD_CHANGES = 256;
+    private static final int REBUILD_FRACTION = 64;
+    private static final int NODE_FIELDS = 3;
+    private static final int FIRST_CHILD = 0;
+    private static final int CHILD_COUNT = 1;
+    private static final int WORD = 2;
+    private static final int NO_WORD = -1;
+
+    private String[] words = new String[0];
+    private char[] text = new char[0];
+    private int[] wordStarts = {0};
+    private char[] letters = new char[1];
+    private int[] nodes = {0, 0, NO_WORD};
+    private final Set<String> added = new LinkedHashSet<>();
+    private final Set<String> removed = new HashSet<>();
+
+    /**
+     * Adds a word which is not in the trie.
+     *
+     * @param word Word to add.
+     */
+    void add(String word) {
+        if (!this.removed.remove(word)) {
+            this.added.add(word);
+        }
+    }
+
+    /**
+     * Removes a word which is in the trie.
+     *
+     * @param word Word to remove.
+     */
+    void remove(String word) {
+        if (!this.added.remove(word)) {
+            this.removed.add(word);
+        }
+    }
+
+    /**
+     * Removes every word.
+     */
+    void clear() {
+        this.words = new String[0];
+        this.text = new char[0];
+        this.wordStarts = new int[] {0};
+        this.letters = new char[1];
+        this.nodes = new int[] {0, 0, NO_WORD};
+        this.added.clear();
+        this.removed.clear();
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return Number of words in the trie.
+     */
+    int size() {
+        return this.words.length - this.removed.size() + this.added.size();
+    }
+
+    /**
+     * Finds every word within an edit distance of a word.
+     *
+     * @param word Word to search for.
+     * @param maxDistance Largest number of single-character insertions, deletions and substitutions allowed.
+     * @return Distance of every word found from the word searched for.
+     */
+    Map<String, Integer> search(String word, int maxDistance) {
+        if (this.added.size() + this.removed.size() > Math.max(MIN_REBUILD_CHANGES,
+                this.words.length / REBUILD_FRACTION)) {
+            rebuild();
+        }
+        Map<String, Integer> found = new HashMap<>();
+        int[][] rows = new int[word.length() + maxDistance + 2][word.length() + 1];
+        for (int[] row : rows) {
+            Arrays.fill(row, maxDistance + 1);
+        }
+        for (int j = 0; j <= Math.min(word.length(), maxDistance); j++) {
+            rows[0][j] = j;
+        }
+        searchChildren(0, 0, 0, word, maxDistance, rows, found);
+        for (String addedWord : this.added) {
+            int distance = distance(word, addedWord, maxDistance);
+            if (distance <= maxDistance) {
+                found.put(addedWord, distance);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Works out the Levenshtein distance between two words, giving up once it is known to be over a limit.
+     *
+     * @param first First word.
+     * @param second Second word.
+     * @param limit Largest distance that has to be exact.
+     * @return Distance between the words, or {@code limit + 1} if it is larger than the limit.
+     */
+    static int distance(String first, String second, int limit) {
+        int[][] rows = new int[2][second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            rows[0][j] = Math.min(j, limit + 1);
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            int[] previous = rows[(i - 1) % 2];
+            int[] current = rows[i % 2];
+            current[0] = Math.min(i, limit + 1);
+            int rowMin = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1), limit + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+        }
+        return rows[first.length() % 2][second.length()];
+    }
+
+    /**
+     * Builds the trie again from its live words, in sorted order so the words under every node are next to each
+     * other, numbering the nodes level by level so the children of every node are next to each other too.
+     */
+    private void rebuild() {
+        List<String> live = new ArrayList<>(size());
+        for (String word : this.words) {
+            if (!this.removed.contains(word)) {
+                live.add(word);
+            }
+        }
+        live.addAll(this.added);
+        String[] sorted = live.toArray(new String[0]);
+        Arrays.sort(sorted);
+        NodeBuilder builder = new NodeBuilder(sorted.length);
+        builder.addNode('\0', 0, sorted.length, 0);
+        for (int node = 0; node < builder.nodeCount; node++) {
+            int start = builder.ranges[2 * node];
+            int end = builder.ranges[2 * node + 1];
+            int depth = builder.depths[node];
+            if (start < end && sorted[start].length() == depth) {
+                builder.nodes[NODE_FIELDS * node + WORD] = start;
+                start++;
+            }
+            if (node > 0 && end - start == 1 && builder.nodes[NODE_FIELDS * node + WORD] == NO_WORD) {
+                builder.nodes[NODE_FIELDS * node + WORD] = start;
+                continue;
+            }
+            builder.nodes[NODE_FIELDS * node + FIRST_CHILD] = builder.nodeCount;
+            while (start < end) {
+                char letter = sorted[start].charAt(depth);
+                int childEnd = start + 1;
+                while (childEnd < end && sorted[childEnd].charAt(depth) == letter) {
+                    childEnd++;
+                }
+                builder.addNode(letter, start, childEnd, depth + 1);
+                start = childEnd;
+            }
+            builder.nodes[NODE_FIELDS * node + CHILD_COUNT] =
+                    builder.nodeCount - builder.nodes[NODE_FIELDS * node + FIRST_CHILD];
+        }
+        this.words = sorted;
+        this.wordStarts = new int[sorted.length + 1];
+        for (int i = 0; i < sorted.length; i++) {
+            this.wordStarts[i + 1] = this.wordStarts[i] + sorted[i].length();
+        }
+        this.text = new char[this.wordStarts[sorted.length]];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i].getChars(0, sorted[i].length(), this.text, this.wordStarts[i]);
+        }
+        this.letters = Arrays.copyOf(builder.letters, builder.nodeCount);
+        this.nodes = Arrays.copyOf(builder.nodes, NODE_FIELDS * builder.nodeCount);
+        this.added.clear();
+        this.removed.clear();
+    }
+
+    /**
+     * Works out the row of a node from the row of its parent, and goes on to its children while some cell of the
+     * row is still within the distance. The rest of the word of a tail is followed letter by letter in the same way.
+     *
+     * @param node Node to visit.
+     * @param depth Length of the prefix of the node, which is the index of its row.
+     * @param word Word to search for.
+     * @param maxDistance Largest edit distance allowed.
+     * @param rows Rows of the edit distance table, one for each depth, with every cell outside the band over the
+     *     distance.
+     * @param found Words found so far, with their distances.
+     */
+    private void search(int node, int depth, String word, int maxDistance, int[][] rows,
+            Map<String, Integer> found) {
+        int rowMin = fillRow(rows, depth, this.letters[node], word, maxDistance);
+        int wordIndex = this.nodes[NODE_FIELDS * node + WORD];
+        int wordStart = wordIndex == NO_WORD ? 0 : this.wordStarts[wordIndex];
+        int wordLength = wordIndex == NO_WORD ? 0 : this.wordStarts[wordIndex + 1] - wordStart;
+        if (wordLength > depth) {
+            int tailDepth = depth;
+            while (rowMin <= maxDistance && tailDepth < wordLength) {
+                tailDepth++;
+                rowMin = fillRow(rows, tailDepth, this.text[wordStart + tailDepth - 1], word, maxDistance);
+            }
+            if (tailDepth == wordLength) {
+                addFound(wordIndex, rows[tailDepth][word.length()], maxDistance, found);
+            }
+            return;
+        }
+        if (wordIndex != NO_WORD) {
+            addFound(wordIndex, rows[depth][word.length()], maxDistance, found);
+        }
+        if (rowMin <= maxDistance) {
+            searchChildren(node, depth, rowMin, word, maxDistance, rows, found);
+        }
+    }
+
+    /**
+     * Goes on to the children of a node which can still lead to a word within the distance.
+     * While some cell of the row is under the distance, any letter can follow. Once the smallest cell is exactly the
+     * distance, only a letter which matches the word right after such a cell keeps the next row within it.
+     *
+     * @param node Node whose row has been worked out.
+     * @param depth Length of the prefix of the node.
+     * @param rowMin Smallest cell of the row of the node, which is at most the distance.
+     * @param word Word to search for.
+     * @param maxDistance Largest edit distance allowed.
+     * @param rows Rows of the edit distance table.
+     * @param found Words found so far, with their distances.
+     */
+    private void searchChildren(int node, int depth, int rowMin, String word, int maxDistance, int[][] rows,
+            Map<String, Integer> found) {
+        int firstChild = this.nodes[NODE_FIELDS * node + FIRST_CHILD];
+        int childEnd = firstChild + this.nodes[NODE_FIELDS * node + CHILD_COUNT];
+        if (rowMin < maxDistance) {
+            for (int child = firstChild; child < childEnd; child++) {
+                search(child, depth + 1, word, maxDistance, rows, found);
+            }
+            return;
+        }
+        int[] current = rows[depth];
+        int last = Math.min(word.length() - 1, depth + maxDistance);
+        for (int j = Math.max(0, depth - maxDistance); j <= last; j++) {
+            if (current[j] != maxDistance || isFollowedBefore(current, word, depth, maxDistance, j)) {
+                continue;
+            }
+            int child = Arrays.binarySearch(this.letters, firstChild, childEnd, word.charAt(j));
+            if (child >= 0) {
+                search(child, depth + 1, word, maxDistance, rows, found);
+            }
+        }
+    }
+
+    /**
+     * Records a word of the trie as found if it is within the distance and has not been removed.
+     *
+     * @param wordIndex Index of the word.
+     * @param distance Distance of the word, capped at one more than the largest distance.
+     * @param maxDistance Largest edit distance allowed.
+     * @param found Words found so far, with their distances.
+     */
+    private void addFound(int wordIndex, int distance, int maxDistance, Map<String, Integer> found) {
+        if (distance <= maxDistance && !this.removed.contains(this.words[wordIndex])) {
+            found.put(this.words[wordIndex], distance);
+        }
+    }
+
+    /**
+     * Works out the row of the edit distance table for a prefix from the row of the prefix one letter shorter.
+     * Only the cells at most the distance away from the diagonal can be within it, so only they are worked out,
+     * and every cell is capped at one more than the distance.
+     *
+     * @param rows Rows of the edit distance table, one for each depth.
+     * @param depth Length of the prefix, which is the index of its row.
+     * @param letter Last letter of the prefix.
+     * @param word Word to search for.
+     * @param maxDistance Largest edit distance allowed.
+     * @return Smallest cell of the row.
+     */
+    private static int fillRow(int[][] rows, int depth, char letter, String word, int maxDistance) {
+        int[] previous = rows[depth - 1];
+        int[] current = rows[depth];
+        int over = maxDistance + 1;
+        current[0] = Math.min(depth, over);
+        int rowMin = current[0];
+        int last = Math.min(word.length(), depth + maxDistance);
+        for (int j = Math.max(1, depth - maxDistance); j <= last; j++) {
+            int substitution = previous[j - 1] + (word.charAt(j - 1) == letter ? 0 : 1);
+            current[j] = Math.min(Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1), over);
+            rowMin = Math.min(rowMin, current[j]);
+        }
+        return rowMin;
+    }
+
+    /**
+     * Checks if the letter of the word after a cell has already been followed from an earlier cell of the row.
+     *
+     * @param current Row of the node.
+     * @param word Word to search for.
+     * @param depth Length of the prefix of the node.
+     * @param maxDistance Largest edit distance allowed.
+     * @param cell Index of the cell.
+     * @return True if an earlier cell at the distance is followed by the same letter.
+     */
+    private static boolean isFollowedBefore(int[] current, String word, int depth, int maxDistance, int cell) {
+        for (int j = Math.max(0, depth - maxDistance); j < cell; j++) {
+            if (current[j] == maxDistance && word.charAt(j) == word.charAt(cell)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Growable arrays of the nodes of a trie being built, with the range of sorted words under each node.
+     */
+    private static class NodeBuilder {
+
+        private char[] letters;
+        private int[] nodes;
+        private int[] ranges;
+        private int[] depths;
+        private int nodeCount;
+
+        /**
+         * Constructor for NodeBuilder.
+         *
+         * @param wordCount Number of words the trie is built from.
+         */
+        NodeBuilder(int wordCount) {
+            int capacity = Math.max(16, wordCount * 2);
+            this.letters = new char[capacity];
+            this.nodes = new int[NODE_FIELDS * capacity];
+            this.ranges = new int[2 * capacity];
+            this.depths = new int[capacity];
+        }
+
+        /**
+         * Adds a node without children or a word.
+         *
+         * @param letter Letter on the edge from the parent to the node.
+         * @param start Index of the first word under the node.
+         * @param end Index after the last word under the node.
+         * @param depth Length of the prefix of the node.
+         */
+        void addNode(char letter, int start, int end, int depth) {
+            if (this.nodeCount == this.letters.length) {
+                int capacity = this.nodeCount * 2;
+                this.letters = Arrays.copyOf(this.letters, capacity);
+                this.nodes = Arrays.copyOf(this.nodes, NODE_FIELDS * capacity);
+                this.ranges = Arrays.copyOf(this.ranges, 2 * capacity);
+                this.depths = Arrays.copyOf(this.depths, capacity);
+            }
+            this.letters[this.nodeCount] = letter;
+            this.nodes[NODE_FIELDS * this.nodeCount + WORD] = NO_WORD;
+            this.ranges[2 * this.nodeCount] = start;
+            this.ranges[2 * this.nodeCount + 1] = end;
+            this.depths[this.nodeCount] = depth;
+            this.nodeCount++;
+        }
+    }
+}
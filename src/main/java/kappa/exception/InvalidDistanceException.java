@@ -0,0 +1,17 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where the edit distance of a fuzzy search is not a small enough number.
+ */
+public class InvalidDistanceException extends KappaException {
+
+    /**
+     * Constructor for InvalidDistanceException.
+     *
+     * @param distance Distance that was given.
+     * @param maxDistance Largest distance allowed.
+     */
+    public InvalidDistanceException(String distance, int maxDistance) {
+        super(String.format("%s is not a number of typos from 0 to %d!", distance, maxDistance));
+    }
+}
@@ -0,0 +1,14 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where a due command is not in a form that can be read.
+ */
+public class InvalidDueException extends KappaException {
+
+    /**
+     * Constructor for InvalidDueException.
+     */
+    public InvalidDueException() {
+        super("Use due before <date> or due between <date> and <date>!");
+    }
+}
@@ -0,0 +1,16 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where a storage format that does not exist is requested.
+ */
+public class InvalidFormatException extends KappaException {
+
+    /**
+     * Constructor for InvalidFormatException.
+     *
+     * @param format Format that was requested.
+     */
+    public InvalidFormatException(String format) {
+        super(String.format("%s is not a storage format!", format));
+    }
+}
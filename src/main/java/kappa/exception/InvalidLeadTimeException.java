@@ -0,0 +1,16 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where the lead time of reminders is not a number of minutes.
+ */
+public class InvalidLeadTimeException extends KappaException {
+
+    /**
+     * Constructor for InvalidLeadTimeException.
+     *
+     * @param leadTime Lead time that was given.
+     */
+    public InvalidLeadTimeException(String leadTime) {
+        super(String.format("%s is not a number of minutes!", leadTime));
+    }
+}
@@ -0,0 +1,16 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where the number of results to show is not a positive number.
+ */
+public class InvalidLimitException extends KappaException {
+
+    /**
+     * Constructor for InvalidLimitException.
+     *
+     * @param limit Number of results that was given.
+     */
+    public InvalidLimitException(String limit) {
+        super(String.format("%s is not a number of results to show!", limit));
+    }
+}
@@ -0,0 +1,16 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where the page of the list to show cannot be read.
+ */
+public class InvalidPageException extends KappaException {
+
+    /**
+     * Constructor for InvalidPageException.
+     *
+     * @param page Page that was given.
+     */
+    public InvalidPageException(String page) {
+        super(String.format("%s is not a page of your list! Try list --page <number> --size <number>", page));
+    }
+}
@@ -0,0 +1,16 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where a query cannot be read.
+ */
+public class InvalidQueryException extends KappaException {
+
+    /**
+     * Constructor for InvalidQueryException.
+     *
+     * @param problem What is wrong with the query.
+     */
+    public InvalidQueryException(String problem) {
+        super(String.format("I cannot read that query, as %s!", problem));
+    }
+}
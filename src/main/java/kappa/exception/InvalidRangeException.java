@@ -0,0 +1,16 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where a range of task indexes cannot be read.
+ */
+public class InvalidRangeException extends KappaException {
+
+    /**
+     * Constructor for InvalidRangeException.
+     *
+     * @param range Range that was given.
+     */
+    public InvalidRangeException(String range) {
+        super(String.format("%s is not a valid range of tasks!", range));
+    }
+}
@@ -0,0 +1,17 @@
+package kappa.exception;
+
+/**
+ * Represents an exception where the rule for how often a task repeats cannot be read.
+ */
+public class InvalidRecurrenceException extends KappaException {
+
+    /**
+     * Constructor for InvalidRecurrenceException.
+     *
+     * @param rule Rule that was given.
+     */
+    public InvalidRecurrenceException(String rule) {
+        super(String.format("%s is not how often a task can repeat! Try daily, weekly, monthly or every 2 weeks.",
+                rule));
+    }
+}
@@ -1,5 +1,6 @@
 package kappa.task;
 
+import kappa.elements.DateTime;
 import kappa.elements.Tags;
 
 /**
@@ -9,9 +10,10 @@ public class Deadline extends Task {
 
 
     private String by;
+    private long epochMinute;
 
     /**
-     * Constructor for Deadline task.
+     * Constructor for Deadline task, which works out the epoch minute from the date if it is a formatted date.
      *
      * @param description Description of deadline.
      * @param id Id of deadline task.
@@ -19,8 +21,22 @@ public class Deadline extends Task {
      * @param tags Tags.
      */
     public Deadline(String description, int id, String by, Tags tags) {
+        this(description, id, by, DateTime.toEpochMinute(by), tags);
+    }
+
+    /**
+     * Constructor for Deadline task with a date whose epoch minute is already known.
+     *
+     * @param description Description of deadline.
+     * @param id Id of deadline task.
+     * @param by Deadline date.
+     * @param epochMinute Date in minutes since the epoch, or {@link DateTime#NO_DATE}.
+     * @param tags Tags.
+     */
+    public Deadline(String description, int id, String by, long epochMinute, Tags tags) {
         super(description, id, tags);
         this.by = by;
+        this.epochMinute = epochMinute;
         this.type = TaskType.DEADLINE;
     }
 
@@ -34,6 +50,16 @@ public class Deadline extends Task {
         return this.by;
     }
 
+    /**
+     * Gets date of deadline task in minutes since the epoch.
+     *
+     * @return Epoch minute of the date, or {@link DateTime#NO_DATE}.
+     */
+    @Override
+    public long getEpochMinute() {
+        return this.epochMinute;
+    }
+
     /**
      * Converts deadline task to an appropriate String representation.
      *
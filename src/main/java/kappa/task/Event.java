@@ -1,17 +1,21 @@
 package kappa.task;
 
+import kappa.elements.DateTime;
 import kappa.elements.Tags;
 
 /**
- * Class representing a Event task.
+ * Class representing a Event task, which takes up the minutes from its date until its end.
+ * An event without an end only takes up the minute it starts at.
  */
 public class Event extends Task {
 
 
     private String at;
+    private long epochMinute;
+    private long endMinute;
 
     /**
-     * Constructor for Event task.
+     * Constructor for Event task, which works out the epoch minute from the date if it is a formatted date.
      *
      * @param description Description of event.
      * @param id Id of event task.
@@ -19,8 +23,37 @@ public class Event extends Task {
      * @param tags Tags.
      */
     public Event(String description, int id, String at, Tags tags) {
+        this(description, id, at, DateTime.toEpochMinute(at), tags);
+    }
+
+    /**
+     * Constructor for Event task with a date whose epoch minute is already known.
+     *
+     * @param description Description of event.
+     * @param id Id of event task.
+     * @param at Event date.
+     * @param epochMinute Date in minutes since the epoch, or {@link DateTime#NO_DATE}.
+     * @param tags Tags.
+     */
+    public Event(String description, int id, String at, long epochMinute, Tags tags) {
+        this(description, id, at, epochMinute, epochMinute, tags);
+    }
+
+    /**
+     * Constructor for Event task with a date whose epoch minute is already known, and an end.
+     *
+     * @param description Description of event.
+     * @param id Id of event task.
+     * @param at Event date.
+     * @param epochMinute Date in minutes since the epoch, or {@link DateTime#NO_DATE}.
+     * @param endMinute End in minutes since the epoch, which is the same as the date if the event has no end.
+     * @param tags Tags.
+     */
+    public Event(String description, int id, String at, long epochMinute, long endMinute, Tags tags) {
         super(description, id, tags);
         this.at = at;
+        this.epochMinute = epochMinute;
+        this.endMinute = endMinute;
         this.type = TaskType.EVENT;
     }
 
@@ -34,6 +67,34 @@ public class Event extends Task {
         return this.at;
     }
 
+    /**
+     * Gets date of event task in minutes since the epoch.
+     *
+     * @return Epoch minute of the date, or {@link DateTime#NO_DATE}.
+     */
+    @Override
+    public long getEpochMinute() {
+        return this.epochMinute;
+    }
+
+    /**
+     * Gets end of event task in minutes since the epoch.
+     *
+     * @return Epoch minute of the end, which is the same as the date if the event has no end.
+     */
+    public long getEndMinute() {
+        return this.endMinute;
+    }
+
+    /**
+     * Checks if the event was given an end after its date.
+     *
+     * @return True if the event has an end.
+     */
+    public boolean hasEnd() {
+        return this.endMinute > this.epochMinute;
+    }
+
     /**
      * Converts event task to an appropriate String representation.
      *
@@ -41,7 +102,8 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        String formattedString = "[E]" + super.toString() + " (at: " + at + ") " + "(Tags: " + this.tags + ")";
+        String end = hasEnd() ? " to: " + DateTime.formatEpochMinute(this.endMinute) : "";
+        String formattedString = "[E]" + super.toString() + " (at: " + at + end + ") " + "(Tags: " + this.tags + ")";
         return formattedString;
     }
 }
\ No newline at end of file
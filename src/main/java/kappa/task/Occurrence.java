@@ -0,0 +1,70 @@
+package kappa.task;
+
+import kappa.elements.DateTime;
+
+/**
+ * Class representing one occurrence of a recurring task, which is only made when it is shown and is never stored.
+ * It shares the id of its series, so it is shown at the index of the series in the list.
+ */
+public class Occurrence extends Task {
+
+    private Recurring series;
+    private long epochMinute;
+
+    /**
+     * Constructor for Occurrence.
+     *
+     * @param series Recurring task the occurrence belongs to.
+     * @param epochMinute Epoch minute of the occurrence.
+     * @param isDone Whether the occurrence has been completed.
+     */
+    Occurrence(Recurring series, long epochMinute, boolean isDone) {
+        super(series.getDescription(), series.getId(), series.getTags());
+        this.series = series;
+        this.epochMinute = epochMinute;
+        this.type = TaskType.RECURRING;
+        if (isDone) {
+            setDone();
+        }
+    }
+
+    /**
+     * Gets the recurring task the occurrence belongs to.
+     *
+     * @return Recurring task.
+     */
+    public Recurring getSeries() {
+        return this.series;
+    }
+
+    /**
+     * Gets date of the occurrence.
+     *
+     * @return Date of the occurrence.
+     */
+    @Override
+    public String getDate() {
+        return DateTime.formatEpochMinute(this.epochMinute);
+    }
+
+    /**
+     * Gets date of the occurrence in minutes since the epoch.
+     *
+     * @return Epoch minute of the occurrence.
+     */
+    @Override
+    public long getEpochMinute() {
+        return this.epochMinute;
+    }
+
+    /**
+     * Converts occurrence to an appropriate String representation.
+     *
+     * @return Formatted string of occurrence to be printed.
+     */
+    @Override
+    public String toString() {
+        return "[R]" + super.toString() + " (on: " + getDate() + ", " + this.series.getRecurrence() + ") "
+                + "(Tags: " + this.tags + ")";
+    }
+}
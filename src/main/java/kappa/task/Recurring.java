@@ -0,0 +1,152 @@
+package kappa.task;
+
+import kappa.elements.DateTime;
+import kappa.elements.Recurrence;
+import kappa.elements.Tags;
+
+import java.util.Collections;
+import java.util.PrimitiveIterator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Class representing a task which repeats, stored once however many times it repeats.
+ * Occurrences are worked out lazily from the rule and the first date, and completing one occurrence records it as
+ * an exception of the series instead of adding a task.
+ */
+public class Recurring extends Task {
+
+    private Recurrence recurrence;
+    private long start;
+    private long until;
+    private TreeSet<Long> exceptions = new TreeSet<>();
+
+    /**
+     * Constructor for Recurring task.
+     *
+     * @param description Description of recurring task.
+     * @param id Id of recurring task.
+     * @param recurrence How often the task repeats.
+     * @param start Epoch minute of the first occurrence.
+     * @param until Epoch minute of the last day an occurrence may fall on, or {@link DateTime#NO_DATE} to repeat
+     *     forever.
+     * @param tags Tags.
+     */
+    public Recurring(String description, int id, Recurrence recurrence, long start, long until, Tags tags) {
+        super(description, id, tags);
+        this.recurrence = recurrence;
+        this.start = start;
+        this.until = until;
+        this.type = TaskType.RECURRING;
+    }
+
+    /**
+     * Gets how often the task repeats.
+     *
+     * @return Recurrence rule.
+     */
+    public Recurrence getRecurrence() {
+        return this.recurrence;
+    }
+
+    /**
+     * Gets the epoch minute of the first occurrence.
+     *
+     * @return Epoch minute of the first occurrence.
+     */
+    public long getStart() {
+        return this.start;
+    }
+
+    /**
+     * Gets the last epoch minute an occurrence may fall on.
+     *
+     * @return Epoch minute of the end, or {@link DateTime#NO_DATE} if the task repeats forever.
+     */
+    public long getUntil() {
+        return this.until;
+    }
+
+    /**
+     * Gets the occurrences which have been completed.
+     *
+     * @return Epoch minutes of the completed occurrences, earliest first.
+     */
+    public SortedSet<Long> getExceptions() {
+        return Collections.unmodifiableSortedSet(this.exceptions);
+    }
+
+    /**
+     * Records an occurrence as completed.
+     *
+     * @param occurrence Epoch minute of the occurrence.
+     */
+    public void addException(long occurrence) {
+        this.exceptions.add(occurrence);
+    }
+
+    /**
+     * Finds the occurrences inside a range, one at a time.
+     *
+     * @param from Earliest epoch minute, included.
+     * @param to Latest epoch minute, included.
+     * @return Iterator over the epoch minutes of the occurrences, earliest first.
+     */
+    public PrimitiveIterator.OfLong occurrences(long from, long to) {
+        long last = this.until == DateTime.NO_DATE ? to : Math.min(to, this.until);
+        return this.recurrence.occurrences(this.start, Math.max(from, this.start), last);
+    }
+
+    /**
+     * Finds the first occurrence at or after a minute which has not been completed.
+     *
+     * @param from Earliest epoch minute.
+     * @return Epoch minute of the occurrence, or {@link DateTime#NO_DATE} if there is none.
+     */
+    public long getNextPending(long from) {
+        PrimitiveIterator.OfLong occurrences = occurrences(from, Long.MAX_VALUE);
+        while (occurrences.hasNext()) {
+            long occurrence = occurrences.nextLong();
+            if (!this.exceptions.contains(occurrence)) {
+                return occurrence;
+            }
+        }
+        return DateTime.NO_DATE;
+    }
+
+    /**
+     * Makes a view of a single occurrence.
+     *
+     * @param occurrence Epoch minute of the occurrence.
+     * @return Occurrence, which is done if it has been completed or the whole task is done.
+     */
+    public Occurrence getOccurrence(long occurrence) {
+        return new Occurrence(this, occurrence, getIsDone() || this.exceptions.contains(occurrence));
+    }
+
+    /**
+     * Gets the rule and range of the recurring task.
+     *
+     * @return Rule followed by the first date, and the end if there is one.
+     */
+    @Override
+    public String getDate() {
+        return this.recurrence + " from " + DateTime.formatEpochMinute(this.start)
+                + (this.until == DateTime.NO_DATE ? "" : " until " + DateTime.formatEpochMinute(this.until));
+    }
+
+    /**
+     * Converts recurring task to an appropriate String representation, with its next occurrence from today.
+     *
+     * @return Formatted string of recurring task to be printed.
+     */
+    @Override
+    public String toString() {
+        long next = getIsDone()
+                ? DateTime.NO_DATE
+                : getNextPending(DateTime.startOfDay(DateTime.now().getEpochMinute()));
+        return "[R]" + super.toString() + " (" + getDate() + ", next: "
+                + (next == DateTime.NO_DATE ? "none" : DateTime.formatEpochMinute(next)) + ") "
+                + "(Tags: " + this.tags + ")";
+    }
+}
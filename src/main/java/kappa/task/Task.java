@@ -1,5 +1,6 @@
 package kappa.task;
 
+import kappa.elements.DateTime;
 import kappa.elements.Tags;
 
 /**
@@ -27,14 +28,7 @@ public abstract class Task {
     }
 
     /**
-     * Decrements id of task.
-     */
-    public void decrementId() {
-        this.id--;
-    }
-
-    /**
-     * Gets task id.
+     * Gets task id, which stays the same for as long as the task exists and is never reused.
      *
      * @return Task id.
      */
@@ -67,6 +61,16 @@ public abstract class Task {
         return "";
     }
 
+    /**
+     * Gets task date as minutes since the epoch, which can be compared and sorted.
+     *
+     * @return Epoch minute of the date, or {@link DateTime#NO_DATE} if the task has no date in the DD/MM/YYYY HHMM
+     *     format.
+     */
+    public long getEpochMinute() {
+        return DateTime.NO_DATE;
+    }
+
     /**
      * Gets appropriate status icon to represent whether a task has been done.
      * @return Corresponding status icon.
@@ -3,5 +3,5 @@ package kappa.task;
 /**
  * Represents different task types.
  */
-public enum TaskType { EVENT, TODO, DEADLINE
+public enum TaskType { EVENT, TODO, DEADLINE, RECURRING
 }
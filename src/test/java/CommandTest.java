@@ -2,18 +2,32 @@ import kappa.command.AddDeadlineCommand;
 import kappa.command.AddEventCommand;
 import kappa.command.AddToDoCommand;
 import kappa.command.Command;
+import kappa.command.DueCommand;
+import kappa.command.FindCommand;
 
+import kappa.elements.DateTime;
 import kappa.elements.Tags;
 import kappa.elements.Parser;
+import kappa.elements.Storage;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
 
 import kappa.exception.KappaException;
 
+import kappa.task.Task;
+import kappa.task.ToDo;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Test class for Commands.
@@ -69,4 +83,57 @@ class CommandTest {
         assertEquals("Friday", ((AddDeadlineCommand) command2).getDate());
     }
 
+    /**
+     * Tests DueCommand.
+     *
+     * @throws KappaException Throws if there is an error with the parsing.
+     */
+    @Test
+    void testDueCommand() throws KappaException {
+        long from = new DateTime("1/1/2025", "0000").getEpochMinute();
+        long to = new DateTime("31/1/2025", "2359").getEpochMinute();
+        DueCommand before = (DueCommand) Parser.parse("due before 1/1/2025 0000");
+        DueCommand between = (DueCommand) Parser.parse("due between 1/1/2025 0000 and 31/1/2025 2359");
+        assertEquals(from - 1, before.getTo());
+        assertEquals(from, between.getFrom());
+        assertEquals(to, between.getTo());
+        assertEquals(new DateTime("2/1/2020", "1254").getEpochMinute(),
+                ((AddDeadlineCommand) Parser.parse("deadline Test /by 2/1/2020 1254")).getEpochMinute());
+        assertThrows(KappaException.class, () -> Parser.parse("due after 1/1/2025 0000"));
+        assertThrows(KappaException.class, () -> Parser.parse("due before 31/2/2025 0000"));
+    }
+
+    /**
+     * Tests that more goes on with the matches of a find which matched too many tasks, in the order a full ranking
+     * of every match gives.
+     *
+     * @throws KappaException Throws if there is an error with the parsing.
+     * @throws IOException Throws if the temporary directory cannot be created.
+     */
+    @Test
+    void testMoreAfterRankedFind() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        for (int i = 1; i <= 120; i++) {
+            tasks.addToList(new ToDo("Task " + i + " for the report" + " report".repeat(i % 3), tasks.getNextId(),
+                    new Tags()));
+        }
+        List<Task> matches = tasks.findSubstring("report");
+        List<Task> ranked = tasks.rankMatches(matches, "report", matches.size());
+        int top = FindCommand.TOP_MATCHES;
+        Ui ui = new Ui();
+
+        String first = Parser.parse("find report").execute(tasks, ui);
+        assertTrue(first.contains("120 tasks match, so here are the " + top + " most relevant"));
+        assertTrue(first.contains("Showing tasks 1 to " + top + " of 120"));
+        String next = Parser.parse("more").execute(tasks, ui);
+        assertTrue(next.contains("Here are more of the tasks:"));
+        assertTrue(next.contains("Showing tasks " + (top + 1) + " to " + (2 * top) + " of 120"));
+        for (int i = 0; i < ranked.size(); i++) {
+            String line = (i + 1) + ") " + tasks.getIndexOf(ranked.get(i)) + "." + ranked.get(i);
+            assertEquals(i < top, first.contains(line));
+            assertEquals(i >= top && i < 2 * top, next.contains(line));
+        }
+        tasks.sync();
+    }
 }
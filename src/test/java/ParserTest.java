@@ -2,19 +2,31 @@ import kappa.command.ListCommand;
 import kappa.command.AddDeadlineCommand;
 import kappa.command.AddEventCommand;
 import kappa.command.AddToDoCommand;
+import kappa.command.BulkDeleteCommand;
+import kappa.command.BulkDoneCommand;
 import kappa.command.ClearCommand;
 import kappa.command.DeleteCommand;
 import kappa.command.DoneCommand;
 import kappa.command.ExitCommand;
 import kappa.command.HelpCommand;
 import kappa.command.FindCommand;
+import kappa.command.MoreCommand;
 
 import kappa.elements.Parser;
+import kappa.elements.Ui;
+import kappa.exception.InvalidLimitException;
+import kappa.exception.InvalidPageException;
+import kappa.exception.InvalidRangeException;
 import kappa.exception.KappaException;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 /**
  * Test class for Parser.
  */
@@ -56,4 +68,45 @@ class ParserTest {
         assertTrue(Parser.parse(command12) instanceof AddEventCommand);
         assertTrue(Parser.parse(command13) instanceof AddDeadlineCommand);
     }
+
+    /**
+     * Tests if done and delete commands over ranges or a search term are parsed into bulk commands.
+     *
+     * @throws KappaException Any exception that is thrown from doing any valid commands.
+     */
+    @Test
+    void testBulkCommands() throws KappaException {
+        List<int[]> ranges = ((BulkDeleteCommand) Parser.parse("delete 1,4,9-20")).getRanges();
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new int[] {1, 1}, ranges.get(0));
+        assertArrayEquals(new int[] {4, 4}, ranges.get(1));
+        assertArrayEquals(new int[] {9, 20}, ranges.get(2));
+        assertArrayEquals(new int[] {3, 500}, ((BulkDoneCommand) Parser.parse("done 3-500")).getRanges().get(0));
+        assertEquals("school work", ((BulkDoneCommand) Parser.parse("done find school work")).getTerm());
+        assertThrows(InvalidRangeException.class, () -> Parser.parse("done 5-3"));
+        assertThrows(InvalidRangeException.class, () -> Parser.parse("delete 1,x"));
+    }
+
+    /**
+     * Tests if list commands are parsed with their page and page size, and more commands are recognised.
+     *
+     * @throws KappaException Any exception that is thrown from doing any valid commands.
+     */
+    @Test
+    void testPageCommands() throws KappaException {
+        ListCommand first = (ListCommand) Parser.parse("list");
+        assertEquals(1, first.getPage());
+        assertEquals(Ui.PAGE_SIZE, first.getSize());
+        ListCommand third = (ListCommand) Parser.parse("list --size 20 --page 3");
+        assertEquals(3, third.getPage());
+        assertEquals(20, third.getSize());
+        assertEquals(Ui.PAGE_SIZE, ((ListCommand) Parser.parse("list --page 2")).getSize());
+        assertTrue(Parser.parse("more") instanceof MoreCommand);
+        assertThrows(InvalidPageException.class, () -> Parser.parse("list --page 0"));
+        assertThrows(InvalidPageException.class, () -> Parser.parse("list --page x"));
+        assertThrows(InvalidPageException.class, () -> Parser.parse("list --page"));
+        assertThrows(InvalidPageException.class, () -> Parser.parse("list 3"));
+        assertThrows(InvalidLimitException.class, () -> Parser.parse("list --size 0"));
+        assertThrows(InvalidLimitException.class, () -> Parser.parse("list --size 1001"));
+    }
 }
@@ -0,0 +1,270 @@
+import kappa.command.ExitCommand;
+
+import kappa.elements.DateTime;
+import kappa.elements.Recurrence;
+import kappa.elements.Storage;
+import kappa.elements.StorageFormat;
+import kappa.elements.Tags;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Deadline;
+import kappa.task.Event;
+import kappa.task.Recurring;
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for Storage.
+ */
+class StorageTest {
+
+    /**
+     * Tests if mutations recorded in the journal are replayed when storage is loaded again.
+     *
+     * @throws KappaException Throws if storage cannot be written or read.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testJournalReplay() throws KappaException, IOException {
+        Path directory = Files.createTempDirectory("kappa");
+        String filePath = directory.resolve("store.txt").toString();
+        Storage storage = new Storage(filePath);
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Test1", 1, new Tags()));
+        tasks.addToList(new ToDo("Test2", 2, new Tags()));
+        tasks.addToList(new ToDo("Test3", 3, new Tags()));
+        tasks.sync();
+        tasks.setDoneInList(2);
+        tasks.removeFromList(1);
+        tasks.sync();
+
+        ArrayList<Task> loaded = new Storage(filePath).load();
+        assertEquals(2, loaded.size());
+        assertEquals("Test2", loaded.get(0).getDescription());
+        assertEquals(2, loaded.get(0).getId());
+        assertTrue(loaded.get(0).getIsDone());
+        assertEquals("Test3", loaded.get(1).getDescription());
+        assertEquals(3, loaded.get(1).getId());
+        assertFalse(loaded.get(1).getIsDone());
+    }
+
+    /**
+     * Tests if a compaction folds the journal into the snapshot without losing any mutation.
+     *
+     * @throws KappaException Throws if storage cannot be written or read.
+     * @throws IOException Throws if temporary directory cannot be created.
+     * @throws InterruptedException Throws if interrupted while waiting for the compaction.
+     */
+    @Test
+    void testCompaction() throws KappaException, IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("kappa");
+        Path snapshot = directory.resolve("store.txt");
+        Storage storage = new Storage(snapshot.toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Test1", 1, new Tags()));
+        tasks.addToList(new ToDo("Test2", 2, new Tags()));
+        tasks.setDoneInList(1);
+        assertTrue(tasks.compact());
+        tasks.addToList(new ToDo("Test3", 3, new Tags()));
+        tasks.sync();
+
+        Path frozenJournal = directory.resolve("store.txt.journal.compacting");
+        for (int i = 0; i < 100 && (Files.exists(frozenJournal) || !Files.exists(snapshot)); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(Files.exists(frozenJournal));
+        List<String> lines = Files.readAllLines(snapshot);
+        assertEquals(3, lines.size());
+        assertEquals("NEXT ~ 3", lines.get(0));
+
+        ArrayList<Task> loaded = new Storage(snapshot.toString()).load();
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.get(0).getIsDone());
+        assertEquals("Test3", loaded.get(2).getDescription());
+    }
+
+    /**
+     * Tests if converting the snapshot to the binary format and back keeps every task exactly as it was.
+     *
+     * @throws KappaException Throws if storage cannot be written or read.
+     * @throws IOException Throws if temporary directory cannot be created.
+     * @throws InterruptedException Throws if interrupted while waiting for the compaction.
+     */
+    @Test
+    void testBinaryConversion() throws KappaException, IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("kappa");
+        Path snapshot = directory.resolve("store.txt");
+        Storage storage = new Storage(snapshot.toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Test1", 1, new Tags(Arrays.asList("Tag1", "Tag2"))));
+        tasks.addToList(new Deadline("Test2", 2, new DateTime("2/1/2020", "1254").convertToString(), new Tags()));
+        tasks.addToList(new Event("Test3", 3, "Friday", new Tags(Arrays.asList("Tag1"))));
+        long start = new DateTime("6/1/2020", "0930").getEpochMinute();
+        tasks.addToList(new Recurring("Test4", 4, Recurrence.parse("every 2 weeks"), start, DateTime.NO_DATE,
+                new Tags()));
+        tasks.setDoneInList(2);
+        tasks.completeOccurrence(4, start);
+        assertTrue(tasks.compact());
+        List<String> text = waitForSnapshot(snapshot, false);
+
+        startCompaction(tasks, StorageFormat.BINARY);
+        waitForSnapshot(snapshot, true);
+        ArrayList<Task> loaded = new Storage(snapshot.toString()).load();
+        assertEquals(4, loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(tasks.getList().get(i).toString(), loaded.get(i).toString());
+            assertEquals(tasks.getList().get(i).getTags(), loaded.get(i).getTags());
+            assertEquals(tasks.getList().get(i).getEpochMinute(), loaded.get(i).getEpochMinute());
+        }
+        assertEquals(new DateTime("2/1/2020", "1254").getEpochMinute(), loaded.get(1).getEpochMinute());
+        assertEquals("[" + start + "]", ((Recurring) loaded.get(3)).getExceptions().toString());
+
+        startCompaction(tasks, StorageFormat.TEXT);
+        assertEquals(text, waitForSnapshot(snapshot, false));
+    }
+
+    /**
+     * Tests if marking a task in a binary snapshot as done patches the snapshot instead of growing the journal.
+     *
+     * @throws KappaException Throws if storage cannot be written or read.
+     * @throws IOException Throws if temporary directory cannot be created.
+     * @throws InterruptedException Throws if interrupted while waiting for the compaction.
+     */
+    @Test
+    void testDonePatchedInPlace() throws KappaException, IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("kappa");
+        Path snapshot = directory.resolve("store.txt");
+        Storage storage = new Storage(snapshot.toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Test1", 1, new Tags()));
+        tasks.addToList(new ToDo("Test2", 2, new Tags()));
+        assertTrue(tasks.compact(StorageFormat.BINARY));
+        waitForSnapshot(snapshot, true);
+
+        Storage reopened = new Storage(snapshot.toString());
+        tasks = new TaskList(reopened.load(), reopened);
+        tasks.addToList(new ToDo("Test3", 3, new Tags()));
+        tasks.setDoneInList(2);
+        tasks.setDoneInList(3);
+        tasks.sync();
+        List<String> journal = Files.readAllLines(directory.resolve("store.txt.journal"));
+        assertEquals(2, journal.size());
+        assertEquals("DONE ~ 3", journal.get(1));
+
+        ArrayList<Task> loaded = new Storage(snapshot.toString()).load();
+        assertFalse(loaded.get(0).getIsDone());
+        assertTrue(loaded.get(1).getIsDone());
+        assertTrue(loaded.get(2).getIsDone());
+    }
+
+    /**
+     * Tests if the ids of the last tasks are not given out again after they are deleted and the journal which
+     * added them is folded away, whatever format the snapshot is converted to.
+     *
+     * @throws KappaException Throws if storage cannot be written or read.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testIdsNotReusedAfterCompaction() throws KappaException, IOException {
+        for (StorageFormat format : StorageFormat.values()) {
+            Path snapshot = Files.createTempDirectory("kappa").resolve("store.txt");
+            Storage storage = new Storage(snapshot.toString());
+            TaskList tasks = new TaskList(storage.load(), storage);
+            for (int i = 1; i <= 5; i++) {
+                tasks.addToList(new ToDo("Test" + i, tasks.getNextId(), new Tags()));
+            }
+            tasks.removeFromList(5);
+            tasks.removeFromList(4);
+            assertTrue(tasks.compact(format));
+            tasks.sync();
+
+            Storage reopened = new Storage(snapshot.toString());
+            tasks = new TaskList(reopened.load(), reopened);
+            assertEquals(6, tasks.getNextId());
+            tasks.addToList(new ToDo("Test6", tasks.getNextId(), new Tags()));
+            tasks.sync();
+
+            ArrayList<Task> loaded = new Storage(snapshot.toString()).load();
+            assertEquals(4, loaded.size());
+            assertEquals(6, loaded.get(3).getId());
+            assertEquals("Test6", loaded.get(3).getDescription());
+        }
+    }
+
+    /**
+     * Tests if exiting waits for a compaction which converts the snapshot, instead of leaving the journal frozen.
+     *
+     * @throws KappaException Throws if storage cannot be written or read.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testExitWaitsForCompaction() throws KappaException, IOException {
+        Path directory = Files.createTempDirectory("kappa");
+        Path snapshot = directory.resolve("store.txt");
+        Storage storage = new Storage(snapshot.toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        for (int i = 1; i <= 1000; i++) {
+            tasks.addToList(new ToDo("Test" + i, i, new Tags()));
+        }
+        assertTrue(tasks.compact(StorageFormat.BINARY));
+        new ExitCommand().execute(tasks, new Ui());
+
+        assertFalse(Files.exists(directory.resolve("store.txt.journal.compacting")));
+        assertEquals('K', Files.readAllBytes(snapshot)[0]);
+        assertEquals(1000, new Storage(snapshot.toString()).load().size());
+    }
+
+    /**
+     * Starts a compaction, waiting for the one before it to release the compactor first.
+     *
+     * @param tasks Task list to compact.
+     * @param format Format to convert to.
+     * @throws InterruptedException Throws if interrupted while waiting.
+     */
+    private void startCompaction(TaskList tasks, StorageFormat format) throws InterruptedException {
+        for (int i = 0; i < 100 && !tasks.compact(format); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Waits until a compaction has left a snapshot in the given format.
+     *
+     * @param snapshot Snapshot file.
+     * @param isBinary Whether to wait for a binary snapshot instead of a text one.
+     * @return Lines of a text snapshot, or null for a binary snapshot.
+     * @throws IOException Throws if the snapshot cannot be read.
+     * @throws InterruptedException Throws if interrupted while waiting.
+     */
+    private List<String> waitForSnapshot(Path snapshot, boolean isBinary) throws IOException, InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Path frozenJournal = snapshot.resolveSibling("store.txt.journal.compacting");
+            if (Files.exists(snapshot) && !Files.exists(frozenJournal)) {
+                byte[] bytes = Files.readAllBytes(snapshot);
+                if (isBinary == (bytes.length > 0 && bytes[0] == 'K')) {
+                    return isBinary ? null : Files.readAllLines(snapshot);
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Compaction did not finish");
+    }
+}
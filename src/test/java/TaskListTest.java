@@ -0,0 +1,760 @@
+import kappa.command.FindCommand;
+import kappa.command.FuzzyFindCommand;
+import kappa.command.RankedFindCommand;
+
+import kappa.elements.DateTime;
+import kappa.elements.Parser;
+import kappa.elements.Query;
+import kappa.elements.QueryPlan;
+import kappa.elements.Recurrence;
+import kappa.elements.Reminders;
+import kappa.elements.Storage;
+import kappa.elements.TagQuery;
+import kappa.elements.Tags;
+import kappa.elements.TaskLayout;
+import kappa.elements.TaskList;
+import kappa.elements.Ui;
+
+import kappa.exception.CannotBeFoundException;
+import kappa.exception.InvalidDateException;
+import kappa.exception.InvalidDistanceException;
+import kappa.exception.InvalidLimitException;
+import kappa.exception.InvalidQueryException;
+import kappa.exception.InvalidRecurrenceException;
+import kappa.exception.KappaException;
+import kappa.exception.MissingDateException;
+
+import kappa.task.Deadline;
+import kappa.task.Event;
+import kappa.task.Recurring;
+import kappa.task.Task;
+import kappa.task.TaskType;
+import kappa.task.ToDo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Test class for TaskList.
+ */
+class TaskListTest {
+
+    /**
+     * Tests if tasks keep their ids when earlier tasks are removed, while their indexes close up.
+     *
+     * @throws KappaException Throws if storage cannot be written.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testStableIds() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        for (int i = 1; i <= 100; i++) {
+            tasks.addToList(new ToDo("Test" + i, tasks.getNextId(), new Tags()));
+        }
+        tasks.removeFromList(1);
+        tasks.removeFromList(50);
+        tasks.removeFromList(98);
+
+        assertEquals(97, tasks.getSize());
+        assertEquals("Test2", tasks.getTaskByIndex(1).getDescription());
+        assertEquals(2, tasks.getTaskByIndex(1).getId());
+        assertEquals("Test52", tasks.getTaskByIndex(50).getDescription());
+        assertEquals(50, tasks.getIndexOf(tasks.getTaskByIndex(50)));
+        assertEquals("Test99", tasks.getTaskByIndex(97).getDescription());
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.getTaskByIndex(98));
+
+        tasks.addToList(new ToDo("Test101", tasks.getNextId(), new Tags()));
+        assertEquals(101, tasks.getTaskByIndex(98).getId());
+        tasks.sync();
+    }
+
+    /**
+     * Tests if bulk commands pick their tasks before changing any of them, and record every change, including the
+     * occurrences of recurring tasks, in one batch.
+     *
+     * @throws KappaException Throws if storage cannot be written.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testBulkCommands() throws KappaException, IOException {
+        String filePath = Files.createTempDirectory("kappa").resolve("store.txt").toString();
+        Storage storage = new Storage(filePath);
+        TaskList tasks = new TaskList(storage.load(), storage);
+        for (int i = 1; i <= 10; i++) {
+            tasks.addToList(new ToDo((i % 2 == 0 ? "Even" : "Odd") + i, tasks.getNextId(), new Tags()));
+        }
+        Ui ui = new Ui();
+        Parser.parse("delete 1,3-4,4").execute(tasks, ui);
+        assertEquals(7, tasks.getSize());
+        assertEquals("Even2", tasks.getTaskByIndex(1).getDescription());
+        assertEquals("Odd5", tasks.getTaskByIndex(2).getDescription());
+
+        Parser.parse("done find Even").execute(tasks, ui);
+        assertTrue(tasks.getTaskByIndex(1).getIsDone());
+        assertFalse(tasks.getTaskByIndex(2).getIsDone());
+        assertTrue(tasks.getTaskByIndex(7).getIsDone());
+        assertThrows(KappaException.class, () -> Parser.parse("done 1-8").execute(tasks, ui));
+
+        Parser.parse("recur Chore one /every day /from 1/1/2020 0800").execute(tasks, ui);
+        Parser.parse("recur Chore two /every week /from 1/1/2020 0800").execute(tasks, ui);
+        Parser.parse("todo Chore three").execute(tasks, ui);
+        Parser.parse("done find Chore").execute(tasks, ui);
+        tasks.sync();
+        List<String> journal = Files.readAllLines(Paths.get(filePath + ".journal"));
+        assertTrue(journal.get(journal.size() - 3).startsWith("EXCEPT ~ 11 ~ "));
+        assertTrue(journal.get(journal.size() - 2).startsWith("EXCEPT ~ 12 ~ "));
+        assertEquals("DONE ~ 13", journal.get(journal.size() - 1));
+        ArrayList<Task> loaded = new Storage(filePath).load();
+        assertEquals(1, ((Recurring) loaded.get(7)).getExceptions().size());
+        assertEquals(1, ((Recurring) loaded.get(8)).getExceptions().size());
+        assertTrue(loaded.get(9).getIsDone());
+    }
+
+    /**
+     * Tests if the word index finds tasks with every word of a query and forgets removed tasks.
+     *
+     * @throws KappaException Throws if storage cannot be written.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindWords() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Maths homework, chapter 2", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("Physics homework", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("Read maths notes", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("homeworks", tasks.getNextId(), new Tags()));
+
+        assertEquals(2, tasks.findWords("HOMEWORK").size());
+        assertEquals("Maths homework, chapter 2", tasks.findWords("maths homework").get(0).getDescription());
+        assertEquals(1, tasks.findWords("homework maths").size());
+        assertTrue(tasks.findWords("math").isEmpty());
+
+        tasks.removeFromList(1);
+        assertEquals("Read maths notes", tasks.findWords("maths").get(0).getDescription());
+        assertTrue(tasks.findWords("chapter").isEmpty());
+        tasks.clearList();
+        assertTrue(tasks.findWords("homework").isEmpty());
+        tasks.sync();
+    }
+
+    /**
+     * Tests if fuzzy search finds words with typos in them, closest first, and keeps up as words are added and removed.
+     *
+     * @throws KappaException Throws if storage cannot be written or a command is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindFuzzy() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Fix nodes", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("Team meeting on Monday", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("Meeting notes", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("Buy milk", tasks.getNextId(), new Tags()));
+
+        int auto = FuzzyFindCommand.AUTO_DISTANCE;
+        assertEquals("[Team meeting on Monday, Meeting notes]", descriptions(tasks.findFuzzy("meeitng", auto)));
+        assertEquals("[Meeting notes, Fix nodes]", descriptions(tasks.findFuzzy("NOTES", 1)));
+        assertEquals("[Meeting notes]", descriptions(tasks.findFuzzy("meating notse", 2)));
+        assertTrue(tasks.findFuzzy("meeitng", 1).isEmpty());
+        assertTrue(tasks.findFuzzy("mi", auto).isEmpty());
+        assertEquals("[Buy milk]", descriptions(tasks.findFuzzy("mik", auto)));
+        assertEquals(3, ((FuzzyFindCommand) Parser.parse("find ~meeitng /d 3")).getMaxDistance());
+        assertThrows(InvalidDistanceException.class, () -> Parser.parse("find ~meeitng /d 4"));
+        assertThrows(CannotBeFoundException.class, () -> Parser.parse("find ~zzzzzz").execute(tasks, new Ui()));
+
+        tasks.removeFromList(3);
+        assertEquals("[Fix nodes]", descriptions(tasks.findFuzzy("notes", 1)));
+        for (int i = 1; i <= 1000; i++) {
+            tasks.addToList(new ToDo("item" + i, tasks.getNextId(), new Tags()));
+        }
+        assertEquals("item500", tasks.findFuzzy("itme500", 2).get(0).getDescription());
+        tasks.removeAllFromList(tasks.findSubstring("item"));
+        assertTrue(tasks.findFuzzy("itme500", 2).isEmpty());
+        assertEquals(8, tasks.getWordCount());
+        tasks.sync();
+    }
+
+    /**
+     * Tests if ranked search scores descriptions and tags with BM25, keeps only the best tasks, and takes over a find
+     * with too many matches.
+     *
+     * @throws KappaException Throws if storage cannot be written or a command is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindRanked() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Write report", tasks.getNextId(), new Tags(Arrays.asList("work"))));
+        tasks.addToList(new ToDo("Report report report draft", tasks.getNextId(), new Tags()));
+        tasks.addToList(new ToDo("Read chapter 3", tasks.getNextId(), new Tags(Arrays.asList("report"))));
+        tasks.addToList(new ToDo("Buy milk", tasks.getNextId(), new Tags()));
+
+        assertEquals("[Report report report draft, Read chapter 3, Write report]",
+                descriptions(tasks.findRanked("REPORT", 10)));
+        assertEquals("[Report report report draft]", descriptions(tasks.findRanked("report", 1)));
+        assertEquals(2, tasks.findRanked("milk chapter", 10).size());
+        assertEquals(2, ((RankedFindCommand) Parser.parse("find --top 2 report")).getLimit());
+        assertTrue(Parser.parse("find --top 2 report").execute(tasks, new Ui()).contains("2 most relevant"));
+        assertThrows(InvalidLimitException.class, () -> Parser.parse("find --top 0 report"));
+        assertThrows(InvalidLimitException.class, () -> Parser.parse("find --top many report"));
+
+        tasks.removeFromList(2);
+        assertEquals("[Write report, Read chapter 3]", descriptions(tasks.findRanked("report", 10)));
+        for (int i = 1; i <= 60; i++) {
+            tasks.addToList(new ToDo("Task " + i + " for the report", tasks.getNextId(), new Tags()));
+        }
+        String found = Parser.parse("find report").execute(tasks, new Ui());
+        assertTrue(found.contains("61 tasks match, so here are the " + FindCommand.TOP_MATCHES + " most relevant"));
+        assertTrue(found.contains("Write report"));
+        List<Task> matches = tasks.findSubstring("report");
+        assertEquals(tasks.rankMatches(matches, "report", matches.size()).subList(0, FindCommand.TOP_MATCHES),
+                tasks.rankMatches(matches, "report", FindCommand.TOP_MATCHES));
+        tasks.sync();
+    }
+
+    /**
+     * Tests if queries give the same tasks as checking every task, and if the plan looks up the most selective index.
+     *
+     * @throws KappaException Throws if storage cannot be written or a query cannot be parsed.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testQuery() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        ArrayList<Task> list = new ArrayList<>();
+        long newYear = new DateTime("1/1/2020", "0000").getEpochMinute();
+        for (int i = 1; i <= 300; i++) {
+            String description = (i % 7 == 0 ? "Write report " : "Read chapter ") + i;
+            List<String> tags = new ArrayList<>();
+            if (i % 10 == 0) {
+                tags.add("work");
+            }
+            if (i % 2 == 0) {
+                tags.add("home");
+            }
+            long minute = newYear + i * Recurrence.MINUTES_PER_DAY;
+            list.add(i % 3 == 0 ? new Deadline(description, i, "", minute, new Tags(tags))
+                    : i % 3 == 1 ? new Event(description, i, "", minute, new Tags(tags))
+                    : new ToDo(description, i, new Tags(tags)));
+        }
+        TaskList tasks = new TaskList(list, storage);
+        tasks.setAllDoneInList(tasks.getList().stream().filter((task) -> task.getId() % 4 == 0)
+                .collect(Collectors.toList()));
+
+        String query = "type:deadline AND NOT done AND #work AND due<01/10/2020 AND \"report\"";
+        QueryPlan plan = tasks.planQuery(Query.parse(query));
+        assertEquals("Look up #work in the tag index", plan.getSteps().get(0).getDescription());
+        assertEquals(30, plan.getSteps().get(0).getEstimate());
+        ArrayList<Task> found = tasks.runQuery(plan);
+        assertEquals(scan(tasks, (task) -> task.getType() == TaskType.DEADLINE && !task.getIsDone()
+                && task.getTags().toString().contains("work") && task.getId() < 274
+                && task.getDescription().contains("report")), found);
+        assertEquals(5, plan.getSteps().size());
+        assertEquals(found.size(), plan.getSteps().get(4).getCount());
+
+        assertEquals(scan(tasks, (task) -> task.getId() % 2 == 0 || task.getId() % 10 == 0),
+                tasks.runQuery(tasks.planQuery(Query.parse("#work OR #home"))));
+        assertEquals(scan(tasks, (task) -> task.getId() % 2 == 1 && task.getId() % 3 != 2),
+                tasks.runQuery(tasks.planQuery(Query.parse("NOT (#home OR type:todo)"))));
+        assertEquals(scan(tasks, (task) -> task.getType() != TaskType.TODO && task.getId() >= 274
+                && (task.getId() % 7 == 0 || task.getIsDone())),
+                tasks.runQuery(tasks.planQuery(Query.parse("(REPORT OR done) due>=2020-10-01"))));
+        assertTrue(tasks.runQuery(tasks.planQuery(Query.parse("report chapter"))).isEmpty());
+        assertEquals("Read all 300 tasks", tasks.planQuery(Query.parse("NOT done")).getSteps().get(0)
+                .getDescription());
+
+        String explained = Parser.parse("explain " + query).execute(tasks, new Ui());
+        assertTrue(explained.contains("1) Look up #work in the tag index: expected 30, got 30 tasks"));
+        assertTrue(explained.contains(found.size() + " tasks match."));
+        assertThrows(CannotBeFoundException.class, () -> Parser.parse("query #nothing").execute(tasks, new Ui()));
+        for (String invalid : new String[] {"", "#work AND", "(#work", "type:chore", "due<31/02/2020", "\"open",
+            "OR done"}) {
+            assertThrows(InvalidQueryException.class, () -> Parser.parse("query " + invalid));
+        }
+        tasks.sync();
+    }
+
+    /**
+     * Finds the tasks a condition holds for by checking every task.
+     *
+     * @param tasks Task list.
+     * @param condition Condition to check.
+     * @return Tasks the condition holds for, in list order.
+     */
+    private static List<Task> scan(TaskList tasks, Predicate<Task> condition) {
+        return tasks.getList().stream().filter(condition).collect(Collectors.toList());
+    }
+
+    /**
+     * Tests if substring search through the trigram index matches a scan, before and after the index is rebuilt.
+     *
+     * @throws KappaException Throws if storage cannot be written.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindSubstring() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        ArrayList<Task> list = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            list.add(new ToDo((i % 3 == 0 ? "Write report " : "Read chapter ") + i, i, new Tags()));
+        }
+        TaskList tasks = new TaskList(list, storage);
+
+        assertEquals(1000, tasks.findSubstring("eport").size());
+        for (String term : new String[] {"ter 1", "rite report 29", "ad chap", "Read chapter 2999"}) {
+            long scanned = tasks.getList().stream().filter((task) -> task.getDescription().contains(term)).count();
+            assertEquals(scanned, tasks.findSubstring(term).size());
+        }
+        assertEquals("Read chapter 1", tasks.findSubstring("ter 1").get(0).getDescription());
+        assertTrue(tasks.findSubstring("report 0").isEmpty());
+        assertEquals(1, tasks.findSubstring("e report 3000").size());
+        assertEquals(3000, tasks.findSubstring("e").size());
+        long bytes = tasks.getTrigramIndexBytes();
+
+        Parser.parse("delete 1-2000").execute(tasks, new Ui());
+        assertEquals(334, tasks.findSubstring("eport").size());
+        assertEquals("Write report 2001", tasks.findSubstring("eport").get(0).getDescription());
+        assertTrue(tasks.getTrigramIndexBytes() < bytes);
+        tasks.sync();
+    }
+
+    /**
+     * Tests if tag queries combine tags with AND, OR and NOT, and forget removed tasks.
+     *
+     * @throws KappaException Throws if storage cannot be written or a query cannot be parsed.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindTags() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Test1", tasks.getNextId(), new Tags(Arrays.asList("work", "urgent"))));
+        tasks.addToList(new ToDo("Test2", tasks.getNextId(), new Tags(Arrays.asList("work"))));
+        tasks.addToList(new ToDo("Test3", tasks.getNextId(), new Tags(Arrays.asList("school", "urgent"))));
+        tasks.addToList(new ToDo("Test4", tasks.getNextId(), new Tags()));
+
+        assertEquals(1, tasks.findTags(TagQuery.parse("#work #urgent")).size());
+        assertEquals("Test2", tasks.findTags(TagQuery.parse("#work -#urgent")).get(0).getDescription());
+        assertEquals(3, tasks.findTags(TagQuery.parse("#work|#school")).size());
+        assertEquals("Test4", tasks.findTags(TagQuery.parse("-#work -#school")).get(0).getDescription());
+        assertTrue(tasks.findTags(TagQuery.parse("#missing")).isEmpty());
+        assertThrows(KappaException.class, () -> TagQuery.parse("#work urgent"));
+
+        tasks.removeFromList(1);
+        assertEquals("Test3", tasks.findTags(TagQuery.parse("#urgent")).get(0).getDescription());
+        assertEquals(1, tasks.findTags(TagQuery.parse("#urgent")).size());
+        tasks.sync();
+    }
+
+    /**
+     * Tests if repeated finds are answered from the find cache, and cached results stay right as the list changes.
+     *
+     * @throws KappaException Throws if storage cannot be written or a tag query is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindCache() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.addToList(new ToDo("Write report", tasks.getNextId(), new Tags(Arrays.asList("work"))));
+        tasks.addToList(new ToDo("Read report", tasks.getNextId(), new Tags(Arrays.asList("school", "work"))));
+        tasks.addToList(new ToDo("Buy milk", tasks.getNextId(), new Tags()));
+
+        assertEquals(2, tasks.findSubstring("report").size());
+        assertEquals(2, tasks.findWords("REPORT").size());
+        assertEquals(1, tasks.findTags(TagQuery.parse("#work -#school")).size());
+        assertEquals(0, tasks.getFindCacheHits());
+        assertEquals(2, tasks.findSubstring("report").size());
+        assertEquals(2, tasks.findWords("report").size());
+        assertEquals(1, tasks.findTags(TagQuery.parse("-#school #work")).size());
+        assertEquals(3, tasks.getFindCacheHits());
+        assertEquals(3, tasks.getCachedFindCount());
+
+        tasks.addToList(new ToDo("Check report", tasks.getNextId(), new Tags(Arrays.asList("work"))));
+        assertEquals("Check report", tasks.findSubstring("report").get(2).getDescription());
+        assertEquals(3, tasks.findWords("report").size());
+        assertEquals(2, tasks.findTags(TagQuery.parse("#work -#school")).size());
+        assertEquals(6, tasks.getFindCacheHits());
+
+        tasks.removeFromList(3);
+        assertEquals(3, tasks.findSubstring("report").size());
+        assertEquals(7, tasks.getFindCacheHits());
+        tasks.removeFromList(2);
+        assertEquals("Write report, Check report", tasks.findSubstring("report").stream()
+                .map(Task::getDescription).collect(Collectors.joining(", ")));
+        assertEquals(7, tasks.getFindCacheHits());
+
+        tasks.setDoneInList(1);
+        assertTrue(tasks.findSubstring("report").get(0).getIsDone());
+        assertEquals(8, tasks.getFindCacheHits());
+
+        tasks.clearList();
+        assertEquals(0, tasks.getCachedFindCount());
+        assertTrue(tasks.findSubstring("report").isEmpty());
+        for (int i = 0; i < 300; i++) {
+            tasks.findSubstring("term " + i);
+        }
+        assertEquals(256, tasks.getCachedFindCount());
+        assertEquals(45, tasks.getFindCacheEvictions());
+        assertTrue(new Ui().printStatsCommand(tasks).contains("Find cache: 256 results, 8 of 313 finds hit (2%), "
+                + "45 evicted"));
+        tasks.sync();
+    }
+
+    /**
+     * Tests if lists and search results are shown a page at a time, and more goes on from where the last page ended.
+     *
+     * @throws KappaException Throws if storage cannot be written.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testPages() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        for (int i = 1; i <= 120; i++) {
+            tasks.addToList(new ToDo((i % 2 == 0 ? "Even " : "Odd ") + i, tasks.getNextId(), new Tags()));
+        }
+        Ui ui = new Ui();
+
+        String page = Parser.parse("list").execute(tasks, ui);
+        assertTrue(page.contains("50.[T][X] Even 50 ("));
+        assertFalse(page.contains("51."));
+        assertTrue(page.contains("Showing tasks 1 to 50 of 120"));
+        tasks.removeFromList(50);
+        tasks.removeFromList(51);
+        page = Parser.parse("more").execute(tasks, ui);
+        assertTrue(page.contains("50.[T][X] Odd 51 ("));
+        assertTrue(page.contains("51.[T][X] Odd 53 ("));
+        assertTrue(page.contains("Showing tasks 50 to 99 of 118"));
+        page = Parser.parse("more").execute(tasks, ui);
+        assertTrue(page.contains("118.[T][X] Even 120 ("));
+        assertFalse(page.contains("Showing"));
+        assertTrue(Parser.parse("more").execute(tasks, ui).contains("nothing more"));
+
+        page = Parser.parse("list --page 3 --size 7").execute(tasks, ui);
+        assertTrue(page.contains("15.[T][X] Odd 15 ("));
+        assertTrue(page.contains("21.[T][X] Odd 21 ("));
+        assertFalse(page.contains("22."));
+        assertTrue(Parser.parse("list --page 20 --size 7").execute(tasks, ui).contains("up to page 17"));
+
+        page = Parser.parse("query Even").execute(tasks, ui);
+        assertTrue(page.contains("50) 102.[T][X] Even 104 ("));
+        assertTrue(page.contains("Showing tasks 1 to 50 of 58"));
+        page = Parser.parse("more").execute(tasks, ui);
+        assertTrue(page.contains("51) 104.[T][X] Even 106 ("));
+        Parser.parse("query Odd").execute(tasks, ui);
+        tasks.setDoneInList(1);
+        assertTrue(Parser.parse("more").execute(tasks, ui).contains("search again"));
+        tasks.sync();
+    }
+
+    /**
+     * Tests if date ranges find deadlines and events in date order, and overdue skips done tasks and events.
+     *
+     * @throws KappaException Throws if storage cannot be written or a date is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testFindDue() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        Parser.parse("deadline Report /by 3/1/2020 0900").execute(tasks, new Ui());
+        Parser.parse("event Party /at 1/1/2020 2000").execute(tasks, new Ui());
+        Parser.parse("deadline Essay /by 2/1/2020 1200").execute(tasks, new Ui());
+        Parser.parse("deadline Someday /by Friday").execute(tasks, new Ui());
+        Parser.parse("todo Read").execute(tasks, new Ui());
+        assertEquals(3, tasks.getDatedCount());
+
+        long noon = new DateTime("2/1/2020", "1200").getEpochMinute();
+        assertEquals("[Party, Essay, Report]", descriptions(tasks.findDue(Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals("[Party]", descriptions(tasks.findDue(Long.MIN_VALUE, noon - 1)));
+        assertEquals("[Essay]", descriptions(tasks.findDue(noon, noon)));
+        assertEquals("[Essay, Report]", descriptions(tasks.findOverdue(new DateTime("4/1/2020", "0000")
+                .getEpochMinute())));
+
+        tasks.setDoneInList(3);
+        tasks.removeFromList(1);
+        assertEquals("[Party, Essay]", descriptions(tasks.findDue(Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertTrue(tasks.findOverdue(new DateTime("4/1/2020", "0000").getEpochMinute()).isEmpty());
+        assertEquals(2, tasks.getDatedCount());
+        tasks.sync();
+    }
+
+    /**
+     * Tests if reminders come once, at their lead time, and not for tasks which were done or removed first.
+     *
+     * @throws KappaException Throws if storage cannot be written or a date is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testReminders() throws KappaException, IOException {
+        Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        Reminders reminders = tasks.getReminders();
+        long now = reminders.getNow();
+        tasks.addToList(new Deadline("Soon", tasks.getNextId(), "soon", now + 90, new Tags()));
+        tasks.addToList(new Event("Later", tasks.getNextId(), "later", now + 6000, new Tags()));
+        tasks.addToList(new Deadline("Done", tasks.getNextId(), "done", now + 100, new Tags()));
+        tasks.addToList(new Deadline("Removed", tasks.getNextId(), "removed", now + 300000, new Tags()));
+        tasks.addToList(new Deadline("Past", tasks.getNextId(), "past", now - 5, new Tags()));
+        tasks.setDoneInList(3);
+        tasks.removeFromList(4);
+        assertEquals(2, reminders.getPendingCount());
+
+        assertTrue(reminders.advance(now + 89).isEmpty());
+        assertEquals("[Soon]", descriptions(reminders.advance(now + 90)));
+        assertEquals(1, tasks.setReminderLead(30));
+        tasks.addToList(new Deadline("Next", tasks.getNextId(), "next", now + 100, new Tags()));
+        assertEquals("[Next]", descriptions(reminders.advance(now + 5000)));
+        assertEquals("[Later]", descriptions(reminders.advance(now + 5970)));
+        assertTrue(reminders.advance(now + 400000).isEmpty());
+        assertEquals(0, reminders.getPendingCount());
+        tasks.sync();
+    }
+
+    /**
+     * Tests if recurring tasks are stored once, expand into date ranges, and complete one occurrence at a time.
+     *
+     * @throws KappaException Throws if storage cannot be written or a date is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testRecurring() throws KappaException, IOException {
+        String filePath = Files.createTempDirectory("kappa").resolve("store.txt").toString();
+        Storage storage = new Storage(filePath);
+        TaskList tasks = new TaskList(storage.load(), storage);
+        Parser.parse("recur Water /every day /from 1/1/2020 0800 /until 10/1/2020 0800").execute(tasks, new Ui());
+        Parser.parse("recur Standup /every 2 weeks /from 6/1/2020 0930 /t #work").execute(tasks, new Ui());
+        Parser.parse("recur Rent /every month /from 31/1/2020 0900").execute(tasks, new Ui());
+        assertThrows(MissingDateException.class, () -> Parser.parse("recur Gym /every day"));
+        assertThrows(InvalidRecurrenceException.class, () -> Parser.parse("recur Gym /every fortnight /from "
+                + "1/1/2020 0800"));
+        assertEquals(3, tasks.getRecurringCount());
+        assertEquals(0, tasks.getDatedCount());
+
+        ArrayList<Task> january = tasks.findDue(new DateTime("1/1/2020", "0000").getEpochMinute(),
+                new DateTime("31/1/2020", "2359").getEpochMinute());
+        assertEquals(13, january.size());
+        assertEquals("[Water, Water, Water, Water, Water, Water, Standup, Water, Water, Water]",
+                descriptions(january.subList(0, 10)));
+        assertEquals("6th of January 2020, 9.30am", january.get(6).getDate());
+        assertEquals(2, tasks.getIndexOf(january.get(6)));
+        ArrayList<Task> rent = tasks.findDue(new DateTime("1/2/2020", "0000").getEpochMinute(),
+                new DateTime("31/3/2020", "2359").getEpochMinute());
+        rent.removeIf((task) -> !task.getDescription().equals("Rent"));
+        assertEquals("29th of February 2020, 9.00am", rent.get(0).getDate());
+        assertEquals("31st of March 2020, 9.00am", rent.get(1).getDate());
+
+        long fifth = new DateTime("5/1/2020", "1200").getEpochMinute();
+        Task completed = tasks.completeOccurrence(1, fifth);
+        assertEquals("5th of January 2020, 8.00am", completed.getDate());
+        assertTrue(completed.getIsDone());
+        assertFalse(tasks.getTaskByIndex(1).getIsDone());
+        for (int i = 0; i < 5; i++) {
+            tasks.completeOccurrence(1, fifth);
+        }
+        assertTrue(tasks.getTaskByIndex(1).getIsDone());
+        assertEquals(1, tasks.getDoneCount());
+        tasks.sync();
+
+        ArrayList<Task> loaded = new Storage(filePath).load();
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.get(0).getIsDone());
+        assertEquals(6, ((Recurring) loaded.get(0)).getExceptions().size());
+        assertEquals("every 2 weeks", ((Recurring) loaded.get(1)).getRecurrence().toString());
+        assertEquals(tasks.getList().toString(), loaded.toString());
+    }
+
+    /**
+     * Tests if events which overlap are found on add, in an agenda and as conflicting pairs, and stop clashing once
+     * they are done or removed.
+     *
+     * @throws KappaException Throws if storage cannot be written or a date is invalid.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testEventClashes() throws KappaException, IOException {
+        String filePath = Files.createTempDirectory("kappa").resolve("store.txt").toString();
+        Storage storage = new Storage(filePath);
+        TaskList tasks = new TaskList(storage.load(), storage);
+        Parser.parse("event Meeting /at 1/1/2020 1000 /end 1/1/2020 1200").execute(tasks, new Ui());
+        Parser.parse("event Lunch /at 1/1/2020 1130 /end 1300").execute(tasks, new Ui());
+        Parser.parse("event Call /at 1/1/2020 1200 /end 1230").execute(tasks, new Ui());
+        String added = Parser.parse("event Trip /at 31/12/2019 2000 /end 2/1/2020 0900").execute(tasks, new Ui());
+        Parser.parse("event Party /at Friday").execute(tasks, new Ui());
+        assertThrows(InvalidDateException.class, () -> Parser.parse("event Nap /at 1/1/2020 1000 /end 0900"));
+        assertTrue(added.contains("clashes with"));
+        assertEquals(4, tasks.getEventCount());
+
+        assertEquals("[Trip, Meeting, Call]", descriptions(tasks.findClashes((Event) tasks.getTaskByIndex(2))));
+        assertEquals("[Trip, Meeting, Lunch, Call]", descriptions(tasks.findAgenda(
+                new DateTime("1/1/2020", "0000").getEpochMinute(), new DateTime("1/1/2020", "2359").getEpochMinute())));
+        List<String> pairs = tasks.findConflicts().stream()
+                .map((pair) -> pair[0].getDescription() + "-" + pair[1].getDescription())
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals("[Lunch-Call, Meeting-Lunch, Trip-Call, Trip-Lunch, Trip-Meeting]", pairs.toString());
+
+        tasks.setDoneInList(4);
+        tasks.removeFromList(1);
+        assertEquals(1, tasks.findConflicts().size());
+        tasks.sync();
+        ArrayList<Task> loaded = new Storage(filePath).load();
+        assertEquals(tasks.getList().toString(), loaded.toString());
+        assertTrue(loaded.get(0).toString().contains("(at: 1st of January 2020, 11.30am to: 1st of January 2020, "
+                + "1.00pm)"));
+
+        Random random = new Random(19);
+        for (int i = 0; i < 300; i++) {
+            long start = random.nextInt(20000);
+            tasks.addToList(new Event("Random", tasks.getNextId(), "random", start, start + random.nextInt(300),
+                    new Tags()));
+        }
+        tasks.removeAllFromList(tasks.findSubstring("Random").subList(0, 100));
+        List<Task> events = tasks.findSubstring("Random");
+        int overlapping = 0;
+        for (int i = 0; i < events.size(); i++) {
+            for (int j = i + 1; j < events.size(); j++) {
+                overlapping += overlaps((Event) events.get(i), (Event) events.get(j)) ? 1 : 0;
+            }
+        }
+        assertEquals(overlapping + 1, tasks.findConflicts().size()); // Lunch still clashes with Call
+        for (Task event : events.subList(0, 20)) {
+            long expected = events.stream().filter((other) -> other != event && overlaps((Event) event,
+                    (Event) other)).count();
+            assertEquals(expected, tasks.findClashes((Event) event).size());
+        }
+        tasks.sync();
+    }
+
+    /**
+     * Checks if two events overlap, where an event without an end takes up the minute it starts at.
+     *
+     * @param first First event.
+     * @param second Second event.
+     * @return True if the events overlap.
+     */
+    private boolean overlaps(Event first, Event second) {
+        return first.getEpochMinute() < Math.max(second.getEndMinute(), second.getEpochMinute() + 1)
+                && second.getEpochMinute() < Math.max(first.getEndMinute(), first.getEpochMinute() + 1);
+    }
+
+    /**
+     * Gets the descriptions of some tasks.
+     *
+     * @param found Tasks.
+     * @return Descriptions in order.
+     */
+    private String descriptions(List<Task> found) {
+        return found.stream().map(Task::getDescription).collect(Collectors.toList()).toString();
+    }
+
+    /**
+     * Tests if scans of a list long enough to be split into chunks give the same tasks, in the same order, on one
+     * thread as on many, in every layout.
+     *
+     * @throws Exception Throws if storage cannot be written, a query cannot be parsed or a scan fails.
+     */
+    @Test
+    void testParallelScan() throws Exception {
+        ArrayList<Task> list = new ArrayList<>();
+        for (int i = 1; i <= 50_000; i++) {
+            list.add(new ToDo((i % 3 == 0 ? "Write report " : "Read chapter ") + i, i, new Tags()));
+        }
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        for (TaskLayout layout : new TaskLayout[] {TaskLayout.OBJECT, TaskLayout.COLUMNAR}) {
+            Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+            TaskList tasks = new TaskList(new ArrayList<>(list), storage, layout);
+            Query query = Query.parse("NOT done AND \"77\" AND report");
+            for (ForkJoinPool pool : new ForkJoinPool[] {single, many}) {
+                assertEquals(list.toString(), pool.submit(() -> tasks.getList()).get().toString());
+                assertEquals(scan(tasks, (task) -> task.getDescription().contains("7")).toString(),
+                        pool.submit(() -> tasks.findSubstring("7")).get().toString());
+                assertEquals(scan(tasks, (task) -> task.getId() % 3 == 0
+                        && task.getDescription().contains("77")).toString(),
+                        pool.submit(() -> tasks.runQuery(tasks.planQuery(query))).get().toString());
+            }
+            tasks.sync();
+        }
+        single.shutdown();
+        many.shutdown();
+    }
+
+    /**
+     * Tests if columnar and off-heap lists show, search and change tasks the same way as a list of task objects.
+     *
+     * @throws KappaException Throws if storage cannot be written.
+     * @throws IOException Throws if temporary directory cannot be created.
+     */
+    @Test
+    void testLayouts() throws KappaException, IOException {
+        List<TaskList> lists = new ArrayList<>();
+        for (TaskLayout layout : TaskLayout.values()) {
+            Storage storage = new Storage(Files.createTempDirectory("kappa").resolve("store.txt").toString());
+            lists.add(new TaskList(makeLayoutTasks(), storage, layout));
+        }
+        for (TaskList tasks : lists) {
+            Parser.parse("delete 1-100").execute(tasks, new Ui());
+            Parser.parse("done 1-10").execute(tasks, new Ui());
+            for (int i = 0; i < 50; i++) {
+                tasks.addToList(new ToDo("Read appendix " + i, tasks.getNextId(), new Tags()));
+            }
+        }
+
+        TaskList objects = lists.get(0);
+        for (TaskList tasks : lists) {
+            assertEquals(objects.getList().toString(), tasks.getList().toString());
+            assertEquals(10, tasks.getDoneCount());
+            for (String term : new String[] {"\u00e9 report 2", "r 1", "chapter 29", "appendix 4"}) {
+                assertEquals(objects.findSubstring(term).toString(), tasks.findSubstring(term).toString());
+            }
+            assertEquals(objects.findWords("chapter").size(), tasks.findWords("chapter").size());
+            assertEquals("2nd of December 2019, 6.00pm", tasks.findSubstring("report 102").get(0).getDate());
+            assertEquals("some day", tasks.findSubstring("report 105").get(0).getDate());
+            assertEquals(201, tasks.getIndexOf(tasks.getTaskByIndex(201)));
+            assertEquals(301, tasks.getTaskByIndex(201).getId());
+            tasks.sync();
+        }
+        assertEquals(TaskLayout.MAPPED, lists.get(lists.size() - 1).getLayout());
+        assertTrue(lists.get(lists.size() - 1).getOffHeapBytes() > 0);
+    }
+
+    /**
+     * Makes tasks of every type, with some tags and dates which are not in the usual format.
+     *
+     * @return New tasks.
+     */
+    private ArrayList<Task> makeLayoutTasks() {
+        ArrayList<Task> list = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            Tags tags = i % 2 == 0 ? new Tags(Arrays.asList("even")) : new Tags();
+            String date = i % 5 == 0 ? "some day" : "2nd of December 2019, 6.00pm";
+            list.add(i % 3 == 0
+                    ? new Deadline("Submit caf\u00e9 report " + i, i, date, tags)
+                    : new ToDo("Read chapter " + i, i, tags));
+        }
+        return list;
+    }
+}
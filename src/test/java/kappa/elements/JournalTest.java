@@ -0,0 +1,27 @@
+package kappa.elements;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for Journal.
+ * It lives next to it because the journal is package-private.
+ */
+class JournalTest {
+
+    /**
+     * Tests if the length of a record is the number of bytes written for it, whatever characters it holds.
+     */
+    @Test
+    void testEncodedLength() {
+        String[] records = {"DONE ~ 3", "ADD ~ T ~ X ~ Caf\u00e9", "ADD ~ T ~ X ~ \u4f1a\u8b70",
+                "ADD ~ T ~ X ~ \ud83d\udcdd", "ADD ~ T ~ X ~ \ud83d", ""};
+        for (String record : records) {
+            assertEquals((record + System.lineSeparator()).getBytes(StandardCharsets.UTF_8).length,
+                    Journal.getEncodedLength(record));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package kappa.elements;
+
+import kappa.exception.KappaException;
+import kappa.exception.UnableToReadFileException;
+
+import kappa.task.Deadline;
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for ParallelTextLoader, which splits small files into many ranges so the parallel path is taken.
+ * It lives next to the loader because the range size can only be chosen through a package-private constructor.
+ */
+class ParallelTextLoaderTest {
+
+    private static final int LINES = 5000;
+
+    /**
+     * Tests if a file split into many small ranges loads exactly like a sequential load, with ranges starting
+     * inside CRLF line endings and multibyte characters.
+     *
+     * @throws KappaException Throws if a file cannot be loaded.
+     * @throws IOException Throws if a temporary file cannot be written.
+     */
+    @Test
+    void testSameAsSequentialLoad() throws KappaException, IOException {
+        for (String separator : new String[] {"\n", "\r\n"}) {
+            File file = writeSnapshot(makeLines(), separator);
+            ArrayList<Task> sequential = new Storage(file.getPath()).load();
+            for (int chunkBytes : new int[] {1, 97, 4096}) {
+                ArrayList<Task> parallel = new ParallelTextLoader(file, chunkBytes).load();
+                assertEquals(sequential.size(), parallel.size());
+                for (int i = 0; i < sequential.size(); i++) {
+                    assertEquals(sequential.get(i).getId(), parallel.get(i).getId());
+                    assertEquals(sequential.get(i).toString(), parallel.get(i).toString());
+                    assertEquals(sequential.get(i).getTags(), parallel.get(i).getTags());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests if a line which cannot be parsed deep in a later range is reported with its line number in the file.
+     *
+     * @throws KappaException Throws if the lines cannot be made.
+     * @throws IOException Throws if a temporary file cannot be written.
+     */
+    @Test
+    void testCorruptLineNumber() throws KappaException, IOException {
+        List<String> lines = makeLines();
+        lines.set(4321, "this is not a task");
+        for (String separator : new String[] {"\n", "\r\n"}) {
+            File file = writeSnapshot(lines, separator);
+            KappaException sequential = assertThrows(UnableToReadFileException.class,
+                    () -> new Storage(file.getPath()).load());
+            for (int chunkBytes : new int[] {1, 97, 4096}) {
+                KappaException parallel = assertThrows(UnableToReadFileException.class,
+                        () -> new ParallelTextLoader(file, chunkBytes).load());
+                assertEquals(new UnableToReadFileException(4322).getMessage(), parallel.getMessage());
+                assertEquals(sequential.getMessage(), parallel.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Makes lines of the storage format whose descriptions and tags hold characters of several bytes.
+     *
+     * @return Header line followed by encoded tasks, one per line.
+     * @throws KappaException Throws if the date of the deadlines is invalid.
+     */
+    private List<String> makeLines() throws KappaException {
+        String date = new DateTime("2/1/2020", "1254").convertToString();
+        List<String> lines = new ArrayList<>();
+        lines.add(TextFormat.encodeNextId(LINES + 10));
+        for (int i = 1; i <= LINES; i++) {
+            Tags tags = new Tags(i % 3 == 0
+                    ? Arrays.asList("\u65E5\u672C", "\u0440\u0430\u0431\u043E\u0442\u0430")
+                    : Arrays.asList("work"));
+            Task task = i % 2 == 0
+                    ? new ToDo("Read \u7B2C" + i + "\u7AE0 \uD83D\uDE00 caf\u00E9", i, tags)
+                    : new Deadline("Pay bill \u2116" + i, i, date, tags);
+            if (i % 5 == 0) {
+                task.setDone();
+            }
+            lines.add(TextFormat.encode(task));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes lines as a text snapshot.
+     *
+     * @param lines Lines to write.
+     * @param separator Line separator to end every line with.
+     * @return Snapshot file.
+     * @throws IOException Throws if the file cannot be written.
+     */
+    private File writeSnapshot(List<String> lines, String separator) throws IOException {
+        Path snapshot = Files.createTempDirectory("kappa").resolve("store.txt");
+        Files.write(snapshot, (String.join(separator, lines) + separator).getBytes(StandardCharsets.UTF_8));
+        return snapshot.toFile();
+    }
+}
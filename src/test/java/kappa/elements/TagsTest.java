@@ -0,0 +1,86 @@
+package kappa.elements;
+
+import kappa.exception.KappaException;
+
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test class for Tags and the TagDictionary they intern their names in.
+ * It lives next to them because the dictionary and the ints of the tags are package-private.
+ */
+class TagsTest {
+
+    /**
+     * Tests if interning a name always gives the same int, and the int gives the name back.
+     */
+    @Test
+    void testIntern() {
+        int id = TagDictionary.intern("tags-test-intern");
+        assertEquals(id, TagDictionary.intern(new String("tags-test-intern")));
+        assertEquals(id, TagDictionary.find("tags-test-intern"));
+        assertEquals("tags-test-intern", TagDictionary.name(id));
+        assertNotEquals(id, TagDictionary.intern("tags-test-other"));
+        assertEquals(TagDictionary.NOT_FOUND, TagDictionary.find("tags-test-never-seen"));
+    }
+
+    /**
+     * Tests if tags are equal, with equal hash codes, whatever order they are given in and however often.
+     */
+    @Test
+    void testEqualityIgnoresOrder() {
+        Tags tags = new Tags(Arrays.asList("tags-test-a", "tags-test-b"));
+        Tags reversed = new Tags(Arrays.asList("tags-test-b", "tags-test-a", "tags-test-b"));
+        assertEquals(tags, reversed);
+        assertEquals(tags.hashCode(), reversed.hashCode());
+        assertEquals(2, reversed.getIds().length);
+        assertNotEquals(tags, new Tags(Arrays.asList("tags-test-a")));
+    }
+
+    /**
+     * Tests if tags are shown and saved as #-prefixed names separated by spaces, and read back the same.
+     *
+     * @throws KappaException Throws if the saved line cannot be read back.
+     */
+    @Test
+    void testSaveFormat() throws KappaException {
+        Tags first = new Tags(Arrays.asList("tags-test-first", "tags-test-second"));
+        Tags second = new Tags(Arrays.asList("tags-test-second", "tags-test-first"));
+        assertEquals("#tags-test-first #tags-test-second", first.toString());
+        assertEquals(first.toString(), second.toString());
+
+        String line = TextFormat.encode(new ToDo("Test", 1, second));
+        assertTrue(line.endsWith(TextFormat.DELIMITER + "#tags-test-first #tags-test-second"));
+        Task loaded = TextFormat.decode(line, 1);
+        assertEquals(second, loaded.getTags());
+        assertEquals(second.toString(), loaded.getTags().toString());
+    }
+
+    /**
+     * Tests if tasks without tags share {@code NONE}, which is shown and saved as None.
+     *
+     * @throws KappaException Throws if the saved line cannot be read back.
+     */
+    @Test
+    void testNone() throws KappaException {
+        assertEquals("None", Tags.NONE.toString());
+        assertEquals(0, Tags.NONE.getIds().length);
+        assertEquals(Tags.NONE, new Tags());
+        assertEquals(Tags.NONE, new Tags(Collections.emptyList()));
+        assertEquals(Tags.NONE.hashCode(), new Tags(Collections.emptyList()).hashCode());
+
+        String line = TextFormat.encode(new ToDo("Test", 1, new Tags()));
+        assertTrue(line.endsWith(TextFormat.DELIMITER + "None"));
+        assertSame(Tags.NONE, TextFormat.decode(line, 1).getTags());
+    }
+}
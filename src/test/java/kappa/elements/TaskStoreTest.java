@@ -0,0 +1,62 @@
+package kappa.elements;
+
+import kappa.task.Task;
+import kappa.task.ToDo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for the task stores.
+ * It lives next to them because the stores are package-private.
+ */
+class TaskStoreTest {
+
+    /**
+     * Tests if every store lists only its live tasks and keeps count of the done ones after most tasks are removed.
+     */
+    @Test
+    void testChurn() {
+        List<TaskStore> stores = Arrays.asList(new OrderedTasks(), new ColumnarTasks(new ArrayList<>(), 1),
+                new OffHeapTasks(new ArrayList<>(), 1, null));
+        for (TaskStore store : stores) {
+            for (int id = 1; id <= 1000; id++) {
+                ToDo task = new ToDo("Task" + id, id, new Tags());
+                if (id % 200 == 0) {
+                    task.setDone();
+                }
+                store.add(task);
+            }
+            assertEquals(5, store.countDone());
+            for (int id = 1; id <= 1000; id++) {
+                if (id % 100 != 0) {
+                    store.remove(id);
+                }
+            }
+            store.setDone(100);
+            store.setDone(100);
+            store.setDone(200);
+            store.remove(400);
+            assertEquals(9, store.size());
+            assertEquals(5, store.countDone());
+            assertArrayEquals(new int[] {100, 200, 300, 500, 600, 700, 800, 900, 1000}, store.getIds());
+            List<String> descriptions = new ArrayList<>();
+            for (Task task : store.toList()) {
+                descriptions.add(task.getDescription());
+            }
+            assertEquals(Arrays.asList("Task100", "Task200", "Task300", "Task500", "Task600", "Task700", "Task800",
+                    "Task900", "Task1000"), descriptions);
+            assertEquals(1001, store.getNextId());
+
+            store.clear();
+            assertEquals(0, store.countDone());
+            assertEquals(0, store.getIds().length);
+        }
+    }
+}